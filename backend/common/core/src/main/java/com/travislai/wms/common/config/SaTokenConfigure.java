@@ -1,23 +1,31 @@
 package com.travislai.wms.common.config;
 
 import cn.dev33.satoken.filter.SaServletFilter;
+import cn.dev33.satoken.interceptor.SaInterceptor;
 import cn.dev33.satoken.router.SaRouter;
 import cn.dev33.satoken.stp.StpUtil;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * Sa-Token 全局过滤器配置，排除开放接口，其余统一鉴权。
+ * Sa-Token 全局过滤器配置，排除开放接口，其余统一鉴权；
+ * 拦截器只负责处理 {@code @SaCheckPermission} 等注解。
  */
 @Configuration
-public class SaTokenConfigure {
+public class SaTokenConfigure implements WebMvcConfigurer {
 
     @Bean
     public SaServletFilter saServletFilter() {
         return new SaServletFilter()
                 .addInclude("/**")
-                .addExclude("/api/auth/login", "/actuator/**")
+                .addExclude("/api/auth/login", "/api/auth/token/verify", "/actuator/**")
                 .setAuth(obj -> SaRouter.match("/**", r -> StpUtil.checkLogin()));
     }
-}
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SaInterceptor()).addPathPatterns("/**");
+    }
+}
@@ -0,0 +1,42 @@
+package com.travislai.wms.common.config;
+
+import com.travislai.wms.common.satoken.SaTokenStoreProperties;
+import com.travislai.wms.common.satoken.ShardedFileSaTokenDao;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * 启用后以 {@link ShardedFileSaTokenDao} 替换 Sa-Token 默认的内存持久层，会话在重启后保留。
+ */
+@Configuration
+@EnableConfigurationProperties(SaTokenStoreProperties.class)
+@ConditionalOnProperty(prefix = "wms.sa-token.store", name = "enabled", havingValue = "true")
+public class SaTokenDaoConfigure {
+
+    @Bean(destroyMethod = "destroy")
+    public ShardedFileSaTokenDao saTokenDao(SaTokenStoreProperties properties) {
+        return new ShardedFileSaTokenDao(Path.of(properties.directory()), properties.shards(),
+                properties.maxEntries());
+    }
+
+    @Bean
+    public MeterBinder saTokenStoreMetrics(ShardedFileSaTokenDao dao) {
+        return registry -> {
+            Gauge.builder("satoken.store.entries", dao, ShardedFileSaTokenDao::entryCount)
+                    .register(registry);
+            Gauge.builder("satoken.store.memory", dao, ShardedFileSaTokenDao::estimatedMemoryBytes)
+                    .baseUnit("bytes").register(registry);
+            Gauge.builder("satoken.store.log", dao, ShardedFileSaTokenDao::logBytes)
+                    .baseUnit("bytes").register(registry);
+            FunctionCounter.builder("satoken.store.evictions", dao, ShardedFileSaTokenDao::evictionCount)
+                    .register(registry);
+        };
+    }
+}
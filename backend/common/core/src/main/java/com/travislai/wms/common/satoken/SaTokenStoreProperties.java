@@ -0,0 +1,21 @@
+package com.travislai.wms.common.satoken;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sa-Token 本地持久化存储配置。
+ *
+ * @param enabled    是否启用 {@link ShardedFileSaTokenDao}，关闭时使用 Sa-Token 默认的内存实现
+ * @param directory  日志文件目录，每个服务实例应使用独立目录
+ * @param shards     分段数，即锁与日志文件的数量
+ * @param maxEntries 最多保留的 key 数量，超过后按最近最少使用淘汰
+ */
+@ConfigurationProperties(prefix = "wms.sa-token.store")
+public record SaTokenStoreProperties(boolean enabled, String directory, Integer shards, Integer maxEntries) {
+
+    public SaTokenStoreProperties {
+        directory = directory == null || directory.isBlank() ? "data/sa-token" : directory;
+        shards = shards == null ? 16 : shards;
+        maxEntries = maxEntries == null ? 100_000 : maxEntries;
+    }
+}
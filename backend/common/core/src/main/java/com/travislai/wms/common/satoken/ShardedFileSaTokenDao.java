@@ -0,0 +1,669 @@
+package com.travislai.wms.common.satoken;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.util.SaFoxUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分段加锁、容量有界、以追加日志落盘的 Sa-Token 持久层，无需 Redis。
+ * <p>
+ * key 按哈希分到若干段，每段有独立的锁、按访问顺序淘汰的 LRU 表和一个追加写日志文件；
+ * 启动时回放日志恢复会话，后台线程定期清理过期数据，并在日志明显大于存活数据时重写压缩。
+ * 日志每次写入后 flush 到操作系统，但不逐条 fsync。
+ * <p>
+ * 日志记录带长度前缀：回放时单条无法反序列化的记录被跳过，只有结尾不完整的记录（写入中途宕机）
+ * 才会被截断；对象反序列化受 {@link #SESSION_FILTER} 约束。
+ */
+public class ShardedFileSaTokenDao implements SaTokenDao {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedFileSaTokenDao.class);
+
+    private static final byte OP_PUT_STRING = 1;
+    private static final byte OP_PUT_OBJECT = 2;
+    private static final byte OP_DELETE = 3;
+    private static final byte OP_EXPIRE = 4;
+
+    private static final long NEVER = Long.MAX_VALUE;
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final long COMPACT_MIN_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * 回放时只允许反序列化会话会用到的类型，日志文件被篡改时不会成为任意类的反序列化入口。
+     */
+    private static final ObjectInputFilter SESSION_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxrefs=100000;maxarray=100000;"
+                    + "java.lang.*;java.util.*;java.util.concurrent.*;java.util.concurrent.locks.*;"
+                    + "java.time.*;java.math.*;"
+                    + "cn.dev33.satoken.**;com.travislai.wms.**;!*");
+
+    private final Path directory;
+    private final Shard[] shards;
+    private final LongAdder evictions = new LongAdder();
+    private ScheduledExecutorService maintenance;
+
+    public ShardedFileSaTokenDao(Path directory, int shardCount, int maxEntries) {
+        if (shardCount <= 0 || maxEntries < shardCount) {
+            throw new IllegalArgumentException("shardCount 必须为正数且不大于 maxEntries");
+        }
+        this.directory = directory;
+        this.shards = new Shard[shardCount];
+        int perShard = Math.max(1, maxEntries / shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(directory.resolve("shard-" + i + ".log"), perShard);
+        }
+        for (Shard shard : shards) {
+            shard.replay();
+        }
+    }
+
+    // ------------------------------------------------------------------ String
+
+    @Override
+    public String get(String key) {
+        return (String) read(key);
+    }
+
+    @Override
+    public void set(String key, String value, long timeout) {
+        if (timeout == 0 || timeout <= NOT_VALUE_EXPIRE) {
+            return;
+        }
+        shardOf(key).put(key, value, expireAtOf(timeout));
+    }
+
+    @Override
+    public void update(String key, String value) {
+        shardOf(key).replace(key, value);
+    }
+
+    @Override
+    public void delete(String key) {
+        shardOf(key).remove(key);
+    }
+
+    @Override
+    public long getTimeout(String key) {
+        return shardOf(key).timeout(key);
+    }
+
+    @Override
+    public void updateTimeout(String key, long timeout) {
+        shardOf(key).expire(key, expireAtOf(timeout));
+    }
+
+    // ------------------------------------------------------------------ Object
+
+    @Override
+    public Object getObject(String key) {
+        return read(key);
+    }
+
+    @Override
+    public void setObject(String key, Object object, long timeout) {
+        if (timeout == 0 || timeout <= NOT_VALUE_EXPIRE) {
+            return;
+        }
+        shardOf(key).put(key, object, expireAtOf(timeout));
+    }
+
+    @Override
+    public void updateObject(String key, Object object) {
+        shardOf(key).replace(key, object);
+    }
+
+    @Override
+    public void deleteObject(String key) {
+        shardOf(key).remove(key);
+    }
+
+    @Override
+    public long getObjectTimeout(String key) {
+        return shardOf(key).timeout(key);
+    }
+
+    @Override
+    public void updateObjectTimeout(String key, long timeout) {
+        shardOf(key).expire(key, expireAtOf(timeout));
+    }
+
+    @Override
+    public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
+        List<String> keys = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.collectKeys(keys);
+        }
+        return SaFoxUtil.searchList(keys, prefix, keyword, start, size, sortType);
+    }
+
+    // ------------------------------------------------------------------ 生命周期
+
+    @Override
+    public void init() {
+        if (maintenance != null) {
+            return;
+        }
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sa-token-store-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, 60, 60, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+            maintenance = null;
+        }
+        for (Shard shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * 清理过期数据，并对日志体积超过存活数据两倍的分段执行压缩。
+     */
+    public void maintain() {
+        for (Shard shard : shards) {
+            try {
+                shard.sweepAndCompact();
+            } catch (RuntimeException ex) {
+                log.warn("Sa-Token 存储分段维护失败: {}", shard.file, ex);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ 指标
+
+    public long entryCount() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.size();
+        }
+        return total;
+    }
+
+    /**
+     * 存活数据的估算内存占用（key、序列化后的 value 与固定开销之和）。
+     */
+    public long estimatedMemoryBytes() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.liveBytes;
+        }
+        return total;
+    }
+
+    public long logBytes() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.logBytes;
+        }
+        return total;
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    // ------------------------------------------------------------------ 内部实现
+
+    private Object read(String key) {
+        return shardOf(key).get(key);
+    }
+
+    private Shard shardOf(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return shards[Math.floorMod(h, shards.length)];
+    }
+
+    private static long expireAtOf(long timeout) {
+        return timeout == NEVER_EXPIRE ? NEVER : System.currentTimeMillis() + timeout * 1000;
+    }
+
+    private static byte[] serialize(Object value) {
+        if (value instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Sa-Token 对象序列化失败", ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Object deserialize(byte op, byte[] bytes) throws IOException {
+        if (op == OP_PUT_STRING) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(SESSION_FILTER);
+            return in.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("无法反序列化会话对象", ex);
+        }
+    }
+
+    private record Entry(Object value, long expireAt, int sizeBytes) {
+
+        boolean expired(long now) {
+            return expireAt < now;
+        }
+
+        Entry withExpireAt(long newExpireAt) {
+            return new Entry(value, newExpireAt, sizeBytes);
+        }
+    }
+
+    private final class Shard {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Path file;
+        private final int capacity;
+        private final LinkedHashMap<String, Entry> entries;
+        private DataOutputStream out;
+        private long logBytesAtOpen;
+        private volatile long logBytes;
+        private volatile long liveBytes;
+
+        Shard(Path file, int capacity) {
+            this.file = file;
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true);
+        }
+
+        Object get(String key) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expired(System.currentTimeMillis())) {
+                    removeAndLog(key);
+                    return null;
+                }
+                return entry.value();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(String key, Object value, long expireAt) {
+            byte[] bytes = serialize(value);
+            lock.lock();
+            try {
+                Entry previous = entries.put(key, new Entry(value, expireAt, sizeOf(key, bytes)));
+                adjustLive(previous, entries.get(key));
+                append(value instanceof String ? OP_PUT_STRING : OP_PUT_OBJECT, key, expireAt, bytes);
+                evictOverflow();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void replace(String key, Object value) {
+            byte[] bytes = serialize(value);
+            lock.lock();
+            try {
+                Entry previous = entries.get(key);
+                if (previous == null || previous.expired(System.currentTimeMillis())) {
+                    return;
+                }
+                Entry current = new Entry(value, previous.expireAt(), sizeOf(key, bytes));
+                entries.put(key, current);
+                adjustLive(previous, current);
+                append(value instanceof String ? OP_PUT_STRING : OP_PUT_OBJECT, key, previous.expireAt(), bytes);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String key) {
+            lock.lock();
+            try {
+                if (entries.containsKey(key)) {
+                    removeAndLog(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long timeout(String key) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                long now = System.currentTimeMillis();
+                if (entry == null || entry.expired(now)) {
+                    return NOT_VALUE_EXPIRE;
+                }
+                return entry.expireAt() == NEVER ? NEVER_EXPIRE : (entry.expireAt() - now) / 1000;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void expire(String key, long expireAt) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry == null || entry.expired(System.currentTimeMillis())) {
+                    return;
+                }
+                entries.put(key, entry.withExpireAt(expireAt));
+                DataOutputStream stream = stream();
+                stream.writeByte(OP_EXPIRE);
+                stream.writeUTF(key);
+                stream.writeLong(expireAt);
+                flush(stream);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("写入 Sa-Token 存储日志失败: " + file, ex);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void collectKeys(List<String> keys) {
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                entries.forEach((key, entry) -> {
+                    if (!entry.expired(now)) {
+                        keys.add(key);
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void sweepAndCompact() {
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, Entry> next = iterator.next();
+                    if (next.getValue().expired(now)) {
+                        liveBytes -= next.getValue().sizeBytes();
+                        iterator.remove();
+                    }
+                }
+                if (logBytes > COMPACT_MIN_BYTES && logBytes > liveBytes * 2) {
+                    compact();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void replay() {
+            if (!Files.exists(file)) {
+                return;
+            }
+            long validBytes = 0;
+            try (CountingInputStream counting = new CountingInputStream(
+                    new BufferedInputStream(Files.newInputStream(file)));
+                 DataInputStream in = new DataInputStream(counting)) {
+                long fileBytes = Files.size(file);
+                while (true) {
+                    int op = in.read();
+                    if (op < 0) {
+                        break;
+                    }
+                    String key = in.readUTF();
+                    if (op == OP_PUT_STRING || op == OP_PUT_OBJECT) {
+                        long expireAt = in.readLong();
+                        int length = in.readInt();
+                        if (length < 0) {
+                            throw new IOException("非法的记录长度 " + length);
+                        }
+                        if (length > fileBytes - counting.count) {
+                            throw new EOFException();
+                        }
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        Object value;
+                        try {
+                            value = deserialize((byte) op, bytes);
+                        } catch (IOException | RuntimeException ex) {
+                            // 类被删除、serialVersionUID 变化或被过滤器拒绝：只丢弃这一条，
+                            // 同时丢弃该 key 的旧值，避免回放出比日志更旧的会话
+                            log.warn("跳过无法反序列化的 Sa-Token 存储记录（偏移 {} 字节）: {}: {}",
+                                    validBytes, file, ex.toString());
+                            adjustLive(entries.remove(key), null);
+                            validBytes = counting.count;
+                            continue;
+                        }
+                        Entry previous = entries.put(key, new Entry(value, expireAt, sizeOf(key, bytes)));
+                        adjustLive(previous, entries.get(key));
+                    } else if (op == OP_DELETE) {
+                        adjustLive(entries.remove(key), null);
+                    } else if (op == OP_EXPIRE) {
+                        long expireAt = in.readLong();
+                        entries.computeIfPresent(key, (k, entry) -> entry.withExpireAt(expireAt));
+                    } else {
+                        throw new IOException("未知的日志操作码 " + op);
+                    }
+                    validBytes = counting.count;
+                }
+            } catch (EOFException ex) {
+                log.warn("Sa-Token 存储日志尾部不完整，截断到 {} 字节: {}", validBytes, file);
+            } catch (IOException ex) {
+                // 操作码或长度损坏后无法再定位下一条记录的起点，只能从这里截断
+                log.warn("Sa-Token 存储日志记录边界损坏，截断到 {} 字节: {}", validBytes, file, ex);
+            }
+            truncate(validBytes);
+            logBytes = validBytes;
+            long now = System.currentTimeMillis();
+            entries.entrySet().removeIf(e -> {
+                boolean expired = e.getValue().expired(now);
+                if (expired) {
+                    liveBytes -= e.getValue().sizeBytes();
+                }
+                return expired;
+            });
+            while (entries.size() > capacity) {
+                evictEldest(false);
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+            } catch (IOException ex) {
+                log.warn("关闭 Sa-Token 存储日志失败: {}", file, ex);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeAndLog(String key) {
+            adjustLive(entries.remove(key), null);
+            try {
+                DataOutputStream stream = stream();
+                stream.writeByte(OP_DELETE);
+                stream.writeUTF(key);
+                flush(stream);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("写入 Sa-Token 存储日志失败: " + file, ex);
+            }
+        }
+
+        private void evictOverflow() {
+            while (entries.size() > capacity) {
+                evictEldest(true);
+            }
+        }
+
+        private void evictEldest(boolean writeLog) {
+            String eldest = entries.keySet().iterator().next();
+            if (writeLog) {
+                removeAndLog(eldest);
+            } else {
+                adjustLive(entries.remove(eldest), null);
+            }
+            evictions.increment();
+        }
+
+        private void append(byte op, String key, long expireAt, byte[] bytes) {
+            try {
+                DataOutputStream stream = stream();
+                stream.writeByte(op);
+                stream.writeUTF(key);
+                stream.writeLong(expireAt);
+                stream.writeInt(bytes.length);
+                stream.write(bytes);
+                flush(stream);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("写入 Sa-Token 存储日志失败: " + file, ex);
+            }
+        }
+
+        private void flush(DataOutputStream stream) throws IOException {
+            stream.flush();
+            logBytes = logBytesAtOpen + stream.size();
+        }
+
+        private DataOutputStream stream() throws IOException {
+            if (out == null) {
+                Files.createDirectories(directory);
+                logBytesAtOpen = Files.exists(file) ? Files.size(file) : 0;
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile(), true)));
+            }
+            return out;
+        }
+
+        private void compact() {
+            Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+            try {
+                try (DataOutputStream compacted = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                        Object value = e.getValue().value();
+                        byte[] bytes = serialize(value);
+                        compacted.writeByte(value instanceof String ? OP_PUT_STRING : OP_PUT_OBJECT);
+                        compacted.writeUTF(e.getKey());
+                        compacted.writeLong(e.getValue().expireAt());
+                        compacted.writeInt(bytes.length);
+                        compacted.write(bytes);
+                    }
+                }
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                long before = logBytes;
+                logBytes = Files.size(file);
+                log.debug("Sa-Token 存储日志压缩完成: {} {} -> {} 字节", file, before, logBytes);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("压缩 Sa-Token 存储日志失败: " + file, ex);
+            }
+        }
+
+        private void truncate(long length) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                if (channel.size() > length) {
+                    channel.truncate(length);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("截断 Sa-Token 存储日志失败: " + file, ex);
+            }
+        }
+
+        private void adjustLive(Entry previous, Entry current) {
+            long delta = (current == null ? 0 : current.sizeBytes()) - (previous == null ? 0 : previous.sizeBytes());
+            liveBytes += delta;
+        }
+
+        private int sizeOf(String key, byte[] bytes) {
+            return key.length() * 2 + bytes.length + ENTRY_OVERHEAD_BYTES;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.travislai.wms.common.satoken;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.session.SaSession;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 基于属性的测试：分段落盘 Sa-Token 存储的写入、重启回放与损坏日志处理
+ */
+class ShardedFileSaTokenDaoPropertyTest {
+
+    private static final long TIMEOUT = 3600;
+
+    /**
+     * 一次写入（字符串或对象）或删除
+     */
+    record Operation(boolean delete, String key, Object value) {}
+
+    /**
+     * 任意写入、覆盖、删除后重启，回放得到的数据与按相同操作维护的 HashMap 一致
+     */
+    @Property(tries = 100)
+    @Label("重启回放恢复与写入一致的数据")
+    void replayRestoresWrites(@ForAll("operations") List<Operation> operations,
+                              @ForAll @IntRange(min = 1, max = 4) int shardCount) {
+        Path directory = tempDirectory();
+        try {
+            Map<String, Object> model = new HashMap<>();
+            ShardedFileSaTokenDao dao = new ShardedFileSaTokenDao(directory, shardCount, 10_000);
+            for (Operation op : operations) {
+                if (op.delete()) {
+                    dao.deleteObject(op.key());
+                    model.remove(op.key());
+                } else if (op.value() instanceof String text) {
+                    dao.set(op.key(), text, TIMEOUT);
+                    model.put(op.key(), text);
+                } else {
+                    dao.setObject(op.key(), op.value(), TIMEOUT);
+                    model.put(op.key(), op.value());
+                }
+            }
+            dao.destroy();
+
+            ShardedFileSaTokenDao restarted = new ShardedFileSaTokenDao(directory, shardCount, 10_000);
+            assertThat(restarted.entryCount()).isEqualTo(model.size());
+            for (Operation op : operations) {
+                assertThat(restarted.getObject(op.key())).isEqualTo(model.get(op.key()));
+            }
+            restarted.destroy();
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * 最后一条记录只写了一部分时，只截掉这条残缺记录，之前的数据全部保留，之后的写入在再次重启后仍可读
+     */
+    @Property(tries = 100)
+    @Label("残缺尾部只截掉最后一条记录")
+    void tornTailIsTruncated(@ForAll @IntRange(min = 1, max = 20) int records,
+                             @ForAll @IntRange(min = 1, max = 1000) int cut) throws IOException {
+        Path directory = tempDirectory();
+        try {
+            Path file = directory.resolve("shard-0.log");
+            ShardedFileSaTokenDao dao = new ShardedFileSaTokenDao(directory, 1, 10_000);
+            for (int i = 0; i < records; i++) {
+                dao.set("key-" + i, "value-" + i, TIMEOUT);
+            }
+            long beforeLast = Files.size(file);
+            dao.set("last", "a value long enough to be cut anywhere inside its record", TIMEOUT);
+            long complete = Files.size(file);
+            dao.destroy();
+
+            long tornLength = complete - 1 - (cut % (complete - beforeLast - 1));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(tornLength);
+            }
+
+            ShardedFileSaTokenDao restarted = new ShardedFileSaTokenDao(directory, 1, 10_000);
+            assertThat(Files.size(file)).isEqualTo(beforeLast);
+            assertThat(restarted.get("last")).isNull();
+            for (int i = 0; i < records; i++) {
+                assertThat(restarted.get("key-" + i)).isEqualTo("value-" + i);
+            }
+            restarted.set("after", "restart", TIMEOUT);
+            restarted.destroy();
+
+            ShardedFileSaTokenDao again = new ShardedFileSaTokenDao(directory, 1, 10_000);
+            assertThat(again.get("after")).isEqualTo("restart");
+            assertThat(again.entryCount()).isEqualTo(records + 1);
+            again.destroy();
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * 中间一条记录无法反序列化（这里是过滤器不允许的类型）时只跳过这一条，其后的记录照常回放
+     */
+    @Example
+    @Label("跳过无法反序列化的记录而不截断其后的日志")
+    void undeserializableRecordIsSkipped() throws IOException {
+        Path directory = tempDirectory();
+        try {
+            Path file = directory.resolve("shard-0.log");
+            ShardedFileSaTokenDao dao = new ShardedFileSaTokenDao(directory, 1, 10_000);
+            dao.set("before", "kept", TIMEOUT);
+            dao.setObject("rejected", "stale", TIMEOUT);
+            dao.setObject("rejected", new File("not-allowed"), TIMEOUT);
+            dao.set("after", "kept too", TIMEOUT);
+            long length = Files.size(file);
+            dao.destroy();
+
+            ShardedFileSaTokenDao restarted = new ShardedFileSaTokenDao(directory, 1, 10_000);
+            assertThat(Files.size(file)).isEqualTo(length);
+            assertThat(restarted.get("before")).isEqualTo("kept");
+            assertThat(restarted.get("after")).isEqualTo("kept too");
+            assertThat(restarted.getObject("rejected")).isNull();
+            assertThat(restarted.entryCount()).isEqualTo(2);
+            restarted.destroy();
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Sa-Token 会话对象能通过反序列化过滤器回放，且保留过期时间
+     */
+    @Example
+    @Label("会话对象与过期时间在重启后保留")
+    void sessionSurvivesRestart() {
+        Path directory = tempDirectory();
+        try {
+            ShardedFileSaTokenDao dao = new ShardedFileSaTokenDao(directory, 2, 10_000);
+            SaSession session = new SaSession("satoken:login:session:1");
+            session.set("username", "admin");
+            dao.setSession(session, TIMEOUT);
+            dao.set("never", "expires", SaTokenDao.NEVER_EXPIRE);
+            dao.destroy();
+
+            ShardedFileSaTokenDao restarted = new ShardedFileSaTokenDao(directory, 2, 10_000);
+            SaSession replayed = restarted.getSession("satoken:login:session:1");
+            assertThat(replayed).isNotNull();
+            assertThat(replayed.getString("username")).isEqualTo("admin");
+            assertThat(restarted.getSessionTimeout("satoken:login:session:1")).isBetween(TIMEOUT - 60, TIMEOUT);
+            assertThat(restarted.getTimeout("never")).isEqualTo(SaTokenDao.NEVER_EXPIRE);
+            restarted.destroy();
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Provide
+    Arbitrary<List<Operation>> operations() {
+        Arbitrary<String> keys = Arbitraries.strings().alpha().ofMinLength(1).ofMaxLength(3);
+        Arbitrary<Object> values = Arbitraries.oneOf(
+                Arbitraries.strings().ofMaxLength(40).map(Object.class::cast),
+                Arbitraries.longs().list().ofMaxSize(5).map(ArrayList::new),
+                Arbitraries.maps(Arbitraries.strings().alpha().ofMaxLength(5), Arbitraries.integers())
+                        .ofMaxSize(5).map(HashMap::new));
+        Arbitrary<Operation> puts = Combinators.combine(keys, values).as((key, value) -> new Operation(false, key, value));
+        Arbitrary<Operation> deletes = keys.map(key -> new Operation(true, key, null));
+        return Arbitraries.frequencyOf(Tuple.of(3, puts), Tuple.of(1, deletes)).list().ofMaxSize(60);
+    }
+
+    private static Path tempDirectory() {
+        try {
+            return Files.createTempDirectory("sa-token-store");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.travislai.wms.auth.application.cache;
+
+import cn.dev33.satoken.util.SaFoxUtil;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个角色组合的权限集合：精确权限按驻留后的整数 ID 编入位图，{@link #contains(Object)}
+ * 只做一次哈希查找和一次位运算；含 {@code *} 的通配权限单独保存并按 Sa-Token 规则匹配。
+ * 同时作为不可变 {@link List} 返回给 Sa-Token，遍历时给出原始权限串。
+ */
+public final class CompiledPermissions extends AbstractList<String> {
+
+    static final CompiledPermissions EMPTY = new CompiledPermissions(Map.of(), new long[0], List.of(), List.of());
+
+    private final Map<String, Integer> ids;
+    private final long[] bits;
+    private final List<String> patterns;
+    private final List<String> granted;
+
+    CompiledPermissions(Map<String, Integer> ids, long[] bits, List<String> patterns, List<String> granted) {
+        this.ids = ids;
+        this.bits = bits;
+        this.patterns = patterns;
+        this.granted = granted;
+    }
+
+    public boolean has(String permission) {
+        if (permission == null) {
+            return false;
+        }
+        Integer id = ids.get(permission);
+        if (id != null && isSet(bits, id)) {
+            return true;
+        }
+        for (String pattern : patterns) {
+            if (SaFoxUtil.vagueMatch(pattern, permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String permission && has(permission);
+    }
+
+    @Override
+    public String get(int index) {
+        return granted.get(index);
+    }
+
+    @Override
+    public int size() {
+        return granted.size();
+    }
+
+    static boolean isSet(long[] bits, int id) {
+        int word = id >>> 6;
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    static long[] set(long[] bits, int id) {
+        int word = id >>> 6;
+        long[] target = word < bits.length ? bits : Arrays.copyOf(bits, word + 1);
+        target[word] |= 1L << id;
+        return target;
+    }
+}
@@ -0,0 +1,131 @@
+package com.travislai.wms.auth.application.cache;
+
+import com.travislai.wms.auth.domain.entity.SysRole;
+import com.travislai.wms.auth.domain.service.RbacSnapshotService;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 将权限串驻留为整数 ID，并把每个角色的权限编译为位图，按角色组合缓存合并后的结果。
+ * 驻留表与位图都以 RBAC 快照代数为界，代数变化后整体重建。
+ */
+@Component
+public class PermissionBitsetCache {
+
+    private static final int MAX_ROLE_SETS = 512;
+
+    private final RbacSnapshotService rbacSnapshotService;
+
+    private volatile Generation current = new Generation(0);
+
+    public PermissionBitsetCache(RbacSnapshotService rbacSnapshotService) {
+        this.rbacSnapshotService = rbacSnapshotService;
+    }
+
+    public CompiledPermissions permissionsOf(Long userId) {
+        if (userId == null) {
+            return CompiledPermissions.EMPTY;
+        }
+        long version = rbacSnapshotService.generation();
+        List<Long> roleIds = rbacSnapshotService.findRolesByUserId(userId).stream()
+                .map(SysRole::getId).distinct().sorted().toList();
+        if (roleIds.isEmpty()) {
+            return CompiledPermissions.EMPTY;
+        }
+        Generation generation = generation(version);
+        if (generation == null) {
+            return new Generation(version).compile(roleIds);
+        }
+        CompiledPermissions cached = generation.roleSets.get(roleIds);
+        if (cached != null) {
+            return cached;
+        }
+        CompiledPermissions compiled = generation.compile(roleIds);
+        if (generation.roleSets.size() < MAX_ROLE_SETS) {
+            generation.roleSets.putIfAbsent(roleIds, compiled);
+        }
+        return compiled;
+    }
+
+    public boolean hasPermission(Long userId, String permission) {
+        return permissionsOf(userId).has(permission);
+    }
+
+    /**
+     * 当前代数的缓存；快照未就绪或调用方持有的代数已过期时返回 null，由调用方临时编译。
+     */
+    private Generation generation(long version) {
+        if (version == 0) {
+            return null;
+        }
+        Generation generation = current;
+        if (generation.version == version) {
+            return generation;
+        }
+        if (generation.version > version) {
+            return null;
+        }
+        synchronized (this) {
+            if (current.version < version) {
+                current = new Generation(version);
+            }
+            return current.version == version ? current : null;
+        }
+    }
+
+    private final class Generation {
+
+        private final long version;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+        private final Map<Long, RoleBits> roles = new ConcurrentHashMap<>();
+        private final Map<List<Long>, CompiledPermissions> roleSets = new ConcurrentHashMap<>();
+
+        private Generation(long version) {
+            this.version = version;
+        }
+
+        private CompiledPermissions compile(List<Long> roleIds) {
+            long[] bits = new long[0];
+            Set<String> patterns = new LinkedHashSet<>();
+            Set<String> granted = new LinkedHashSet<>();
+            for (Long roleId : roleIds) {
+                RoleBits role = roles.computeIfAbsent(roleId, this::compileRole);
+                if (role.bits.length > bits.length) {
+                    bits = Arrays.copyOf(bits, role.bits.length);
+                }
+                for (int i = 0; i < role.bits.length; i++) {
+                    bits[i] |= role.bits[i];
+                }
+                patterns.addAll(role.patterns);
+                granted.addAll(role.granted);
+            }
+            return new CompiledPermissions(ids, bits, List.copyOf(patterns), List.copyOf(granted));
+        }
+
+        private RoleBits compileRole(Long roleId) {
+            long[] bits = new long[0];
+            List<String> patterns = new ArrayList<>();
+            List<String> granted = rbacSnapshotService.findPermissionsByRoleIds(List.of(roleId));
+            for (String permission : granted) {
+                if (permission.indexOf('*') >= 0) {
+                    patterns.add(permission);
+                } else {
+                    bits = CompiledPermissions.set(bits, ids.computeIfAbsent(permission, p -> nextId.getAndIncrement()));
+                }
+            }
+            return new RoleBits(bits, List.copyOf(patterns), granted);
+        }
+    }
+
+    private record RoleBits(long[] bits, List<String> patterns, List<String> granted) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.travislai.wms.auth.application.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travislai.wms.auth.application.assembler.MenuAssembler;
+import com.travislai.wms.auth.application.dto.MenuNode;
+import com.travislai.wms.auth.domain.entity.SysMenu;
+import com.travislai.wms.auth.domain.service.RbacSnapshotService;
+import com.travislai.wms.common.web.ApiResponse;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按角色组合缓存权限列表、菜单树以及序列化好的 /menus 响应体，并生成对应的 ETag。
+ * 缓存以 RBAC 快照代数为界，代数变化后整体失效。
+ */
+@Component
+public class PermissionViewCache {
+
+    private static final int MAX_ENTRIES = 512;
+
+    private final RbacSnapshotService rbacSnapshotService;
+    private final ObjectMapper objectMapper;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private volatile Entries entries = new Entries(0, new ConcurrentHashMap<>());
+
+    public PermissionViewCache(RbacSnapshotService rbacSnapshotService, ObjectMapper objectMapper) {
+        this.rbacSnapshotService = rbacSnapshotService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 当前权限模型版本，快照尚未加载时为 0，此时不生成 ETag。
+     */
+    public long version() {
+        return rbacSnapshotService.generation();
+    }
+
+    /**
+     * 角色 ID 需按升序传入，保证同一角色组合命中同一缓存项。
+     */
+    public RoleSetView view(long version, List<Long> roleIds) {
+        if (version == 0) {
+            return build(version, roleIds);
+        }
+        Entries current = entries;
+        if (current.version() != version) {
+            if (current.version() > version) {
+                return build(version, roleIds);
+            }
+            current = swap(version);
+        }
+        RoleSetView cached = current.views().get(roleIds);
+        if (cached != null) {
+            return cached;
+        }
+        RoleSetView view = build(version, roleIds);
+        if (current.views().size() < MAX_ENTRIES) {
+            current.views().putIfAbsent(roleIds, view);
+        }
+        return view;
+    }
+
+    public String etag(String kind, long version, List<Long> roleIds, Object... userKeys) {
+        if (version == 0) {
+            return null;
+        }
+        return "\"" + kind + "-" + epoch + "-" + version + "-" + digest(roleIds, userKeys) + "\"";
+    }
+
+    /**
+     * 角色 ID 与用户字段规范编码后的 SHA-256 前 128 位（十六进制）。
+     * 每项都带长度前缀，null 与空串、字段边界不同的组合不会得到相同的编码。
+     */
+    static String digest(List<Long> roleIds, Object... userKeys) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 不可用", ex);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        sha256.update(buffer.clear().putLong(roleIds.size()).array());
+        for (Long roleId : roleIds) {
+            sha256.update(buffer.clear().putLong(roleId).array());
+        }
+        sha256.update(buffer.clear().putLong(userKeys.length).array());
+        for (Object key : userKeys) {
+            if (key == null) {
+                sha256.update(buffer.clear().putLong(-1).array());
+                continue;
+            }
+            byte[] bytes = key.toString().getBytes(StandardCharsets.UTF_8);
+            sha256.update(buffer.clear().putLong(bytes.length).array());
+            sha256.update(bytes);
+        }
+        return HexFormat.of().formatHex(sha256.digest(), 0, 16);
+    }
+
+    /**
+     * 判断请求头 If-None-Match 是否命中当前 ETag，支持逗号分隔的多个值与弱校验前缀。
+     */
+    public boolean matches(String etag, String ifNoneMatch) {
+        if (etag == null || ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized Entries swap(long version) {
+        if (entries.version() < version) {
+            entries = new Entries(version, new ConcurrentHashMap<>());
+        }
+        return entries;
+    }
+
+    private RoleSetView build(long version, List<Long> roleIds) {
+        return viewOf(version, rbacSnapshotService.findMenusByRoleIds(roleIds));
+    }
+
+    /**
+     * 直接由已查出的菜单构建视图，不进入缓存，用于快照尚未就绪时的回源路径。
+     */
+    public RoleSetView viewOf(long version, List<SysMenu> menus) {
+        List<String> permissions = menus.stream().map(SysMenu::getPermission)
+                .filter(p -> p != null && !p.isBlank()).toList();
+        List<MenuNode> menuTree = MenuAssembler.buildTree(menus);
+        try {
+            return new RoleSetView(version, permissions, menuTree,
+                    objectMapper.writeValueAsBytes(ApiResponse.ok(menuTree)));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("菜单序列化失败", ex);
+        }
+    }
+
+    public record RoleSetView(long version, List<String> permissions, List<MenuNode> menuTree, byte[] menusBody) {
+    }
+
+    private record Entries(long version, Map<List<Long>, RoleSetView> views) {
+    }
+}
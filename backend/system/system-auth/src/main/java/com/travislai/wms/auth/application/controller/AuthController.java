@@ -1,56 +1,85 @@
 package com.travislai.wms.auth.application.controller;
 
-import cn.dev33.satoken.secure.SaSecureUtil;
+import cn.dev33.satoken.annotation.SaCheckPermission;
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.session.SaSession;
 import cn.dev33.satoken.stp.StpUtil;
-import com.travislai.wms.auth.application.assembler.MenuAssembler;
+import com.travislai.wms.auth.application.cache.CompiledPermissions;
+import com.travislai.wms.auth.application.cache.PermissionBitsetCache;
+import com.travislai.wms.auth.application.cache.PermissionViewCache;
+import com.travislai.wms.auth.application.dto.BootstrapResponse;
 import com.travislai.wms.auth.application.dto.LoginRequest;
 import com.travislai.wms.auth.application.dto.LoginResponse;
-import com.travislai.wms.auth.application.dto.MenuNode;
+import com.travislai.wms.auth.application.dto.PermissionCheckRequest;
+import com.travislai.wms.auth.application.dto.PermissionCheckResult;
+import com.travislai.wms.auth.application.dto.TokenVerifyResponse;
 import com.travislai.wms.auth.application.dto.UserProfileResponse;
-import com.travislai.wms.auth.domain.entity.SysMenu;
 import com.travislai.wms.auth.domain.entity.SysRole;
 import com.travislai.wms.auth.domain.entity.SysUser;
-import com.travislai.wms.auth.domain.service.MenuService;
-import com.travislai.wms.auth.domain.service.RoleService;
+import com.travislai.wms.auth.domain.service.CredentialService;
+import com.travislai.wms.auth.domain.service.RbacSnapshotService;
+import com.travislai.wms.auth.domain.service.UserPermissions;
 import com.travislai.wms.auth.domain.service.UserService;
 import com.travislai.wms.common.web.ApiResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final String SESSION_USERNAME = "username";
+    private static final String SESSION_NICKNAME = "nickname";
+    private static final String PERMISSION_CHECK = "auth:permission:check";
+
     private final UserService userService;
-    private final RoleService roleService;
-    private final MenuService menuService;
+    private final CredentialService credentialService;
+    private final RbacSnapshotService rbacSnapshotService;
+    private final PermissionViewCache permissionViewCache;
+    private final PermissionBitsetCache permissionBitsetCache;
+    private final Executor authLookupExecutor;
+
     public AuthController(UserService userService,
-                          RoleService roleService,
-                          MenuService menuService) {
+                          CredentialService credentialService,
+                          RbacSnapshotService rbacSnapshotService,
+                          PermissionViewCache permissionViewCache,
+                          PermissionBitsetCache permissionBitsetCache,
+                          @Qualifier("authLookupExecutor") Executor authLookupExecutor) {
         this.userService = userService;
-        this.roleService = roleService;
-        this.menuService = menuService;
+        this.credentialService = credentialService;
+        this.rbacSnapshotService = rbacSnapshotService;
+        this.permissionViewCache = permissionViewCache;
+        this.permissionBitsetCache = permissionBitsetCache;
+        this.authLookupExecutor = authLookupExecutor;
     }
 
     @PostMapping("/login")
     public ApiResponse<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        SysUser user = userService.findByUsername(request.username())
-                .orElseThrow(() -> new IllegalArgumentException("用户不存在"));
-        String encoded = SaSecureUtil.sha256(request.password());
-        if (!encoded.equals(user.getPassword())) {
-            throw new IllegalArgumentException("用户名或密码错误");
-        }
+        SysUser user = credentialService.authenticate(request.username(), request.password());
         if (!"ENABLED".equalsIgnoreCase(user.getStatus())) {
             throw new IllegalStateException("账号未启用");
         }
         StpUtil.login(user.getId());
-        List<SysRole> roles = roleService.findByUserId(user.getId());
+        cacheUserInSession(StpUtil.getSession(), user.getId(), user);
+        List<SysRole> roles = rbacSnapshotService.findRolesByUserId(user.getId());
         List<String> roleCodes = roles.stream().map(SysRole::getCode).toList();
         return ApiResponse.ok(new LoginResponse(StpUtil.getTokenValue(), roleCodes, user.getNickname()));
     }
@@ -61,24 +90,146 @@ public class AuthController {
         return ApiResponse.ok();
     }
 
+    /**
+     * 供网关校验 Token，无效时返回 success=false 而不是 401，便于网关缓存否定结果。
+     */
+    @GetMapping("/token/verify")
+    public ApiResponse<TokenVerifyResponse> verifyToken() {
+        String token = StpUtil.getTokenValue();
+        Object loginId = token == null ? null : StpUtil.getLoginIdByToken(token);
+        if (loginId == null) {
+            return ApiResponse.fail("Token 无效或已过期", null);
+        }
+        return ApiResponse.ok(new TokenVerifyResponse(loginId.toString(), StpUtil.getTokenTimeout(token)));
+    }
+
+    /**
+     * 批量校验 (用户, 权限) 对，供其他服务一次调用完成多项鉴权；同一用户只编译一次权限集合。
+     * 可查询任意用户的权限，因此调用方须持有 {@value #PERMISSION_CHECK} 权限或 ADMIN 角色。
+     */
+    @SaCheckPermission(value = PERMISSION_CHECK, orRole = "ADMIN")
+    @PostMapping("/permissions/check")
+    public ApiResponse<List<PermissionCheckResult>> checkPermissions(@Valid @RequestBody PermissionCheckRequest request) {
+        Map<Long, CompiledPermissions> byUser = new HashMap<>();
+        List<PermissionCheckResult> results = new ArrayList<>(request.checks().size());
+        for (PermissionCheckRequest.Item item : request.checks()) {
+            CompiledPermissions permissions = byUser.computeIfAbsent(item.userId(), permissionBitsetCache::permissionsOf);
+            results.add(new PermissionCheckResult(item.userId(), item.permission(), permissions.has(item.permission())));
+        }
+        return ApiResponse.ok(results);
+    }
+
     @GetMapping("/profile")
-    public ApiResponse<UserProfileResponse> profile() {
+    public ResponseEntity<ApiResponse<UserProfileResponse>> profile(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Long loginId = StpUtil.getLoginIdAsLong();
-        SysUser user = userService.getById(loginId);
-        List<SysRole> roles = roleService.findByUserId(loginId);
-        List<String> roleCodes = roles.stream().map(SysRole::getCode).toList();
-        List<String> permissions = menuService.findByRoleIds(roles.stream().map(SysRole::getId).toList())
-                .stream().map(SysMenu::getPermission).filter(p -> p != null && !p.isBlank()).toList();
-        return ApiResponse.ok(new UserProfileResponse(user.getId(), user.getUsername(),
-                user.getNickname(), roleCodes, permissions));
+        SaSession session = StpUtil.getSession();
+        if (session.get(SESSION_USERNAME) == null) {
+            cacheUserInSession(session, loginId, userService.getById(loginId));
+        }
+        Resolved resolved = resolve(loginId);
+        String etag = permissionViewCache.etag("profile", resolved.version(), resolved.roleIds(), loginId,
+                session.getString(SESSION_USERNAME), session.getString(SESSION_NICKNAME));
+        if (permissionViewCache.matches(etag, ifNoneMatch)) {
+            return notModified(etag);
+        }
+        return withEtag(etag).body(ApiResponse.ok(profileOf(loginId, session, resolved.roles(), resolved.view())));
     }
 
     @GetMapping("/menus")
-    public ApiResponse<List<MenuNode>> menus() {
+    public ResponseEntity<byte[]> menus(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Long loginId = StpUtil.getLoginIdAsLong();
-        List<Long> roleIds = roleService.findByUserId(loginId).stream().map(SysRole::getId).toList();
-        List<SysMenu> menus = menuService.findByRoleIds(roleIds);
-        return ApiResponse.ok(MenuAssembler.buildTree(menus));
+        Resolved resolved = resolve(loginId);
+        String etag = permissionViewCache.etag("menus", resolved.version(), resolved.roleIds());
+        if (permissionViewCache.matches(etag, ifNoneMatch)) {
+            return notModified(etag);
+        }
+        byte[] body = resolved.view().menusBody();
+        return withEtag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
     }
-}
 
+    /**
+     * 登录后首屏所需的 profile、权限与菜单树一次返回；角色只解析一次，
+     * 会话中缺少用户信息时，用户行查询与角色、菜单解析并行执行。
+     */
+    @GetMapping("/bootstrap")
+    public ResponseEntity<ApiResponse<BootstrapResponse>> bootstrap(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long loginId = StpUtil.getLoginIdAsLong();
+        SaSession session = StpUtil.getSession();
+        CompletableFuture<SysUser> userFuture = session.get(SESSION_USERNAME) == null
+                ? CompletableFuture.supplyAsync(() -> userService.getById(loginId), authLookupExecutor)
+                : null;
+
+        Resolved resolved = resolve(loginId);
+
+        if (userFuture != null) {
+            cacheUserInSession(session, loginId, userFuture.join());
+        }
+        String etag = permissionViewCache.etag("bootstrap", resolved.version(), resolved.roleIds(), loginId,
+                session.getString(SESSION_USERNAME), session.getString(SESSION_NICKNAME));
+        if (permissionViewCache.matches(etag, ifNoneMatch)) {
+            return notModified(etag);
+        }
+        UserProfileResponse profile = profileOf(loginId, session, resolved.roles(), resolved.view());
+        return withEtag(etag).body(ApiResponse.ok(new BootstrapResponse(profile, resolved.view().menuTree())));
+    }
+
+    private static UserProfileResponse profileOf(Long loginId, SaSession session, List<SysRole> roles,
+                                                 PermissionViewCache.RoleSetView view) {
+        List<String> roleCodes = roles.stream().map(SysRole::getCode).toList();
+        return new UserProfileResponse(loginId, session.getString(SESSION_USERNAME),
+                session.getString(SESSION_NICKNAME), roleCodes, view.permissions());
+    }
+
+    /**
+     * 快照就绪时从内存解析角色并复用按角色组合缓存的视图；
+     * 否则以单条联表查询同时取回角色与菜单。
+     */
+    private Resolved resolve(Long loginId) {
+        long version = permissionViewCache.version();
+        if (version == 0) {
+            UserPermissions permissions = rbacSnapshotService.findUserPermissions(loginId);
+            return new Resolved(version, permissions.roles(), roleIdsOf(permissions.roles()),
+                    permissionViewCache.viewOf(version, permissions.menus()));
+        }
+        List<SysRole> roles = rbacSnapshotService.findRolesByUserId(loginId);
+        List<Long> roleIds = roleIdsOf(roles);
+        return new Resolved(version, roles, roleIds, permissionViewCache.view(version, roleIds));
+    }
+
+    private static List<Long> roleIdsOf(List<SysRole> roles) {
+        return roles.stream().map(SysRole::getId).sorted().toList();
+    }
+
+    private static ResponseEntity.BodyBuilder withEtag(String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        return etag == null ? builder : builder.eTag(etag);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .build();
+    }
+
+    /**
+     * 将用户名与昵称缓存到会话；Token 仍有效但用户行已被删除时注销该用户的登录并返回 401。
+     */
+    private static void cacheUserInSession(SaSession session, Long loginId, SysUser user) {
+        if (user == null) {
+            StpUtil.logout(loginId);
+            throw new NotLoginException("用户不存在或已被删除", StpUtil.TYPE, NotLoginException.INVALID_TOKEN);
+        }
+        session.set(SESSION_USERNAME, user.getUsername());
+        if (user.getNickname() != null) {
+            session.set(SESSION_NICKNAME, user.getNickname());
+        }
+    }
+
+    private record Resolved(long version, List<SysRole> roles, List<Long> roleIds,
+                            PermissionViewCache.RoleSetView view) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.travislai.wms.auth.application.dto;
+
+import java.util.List;
+
+public record BootstrapResponse(UserProfileResponse profile, List<MenuNode> menus) {
+}
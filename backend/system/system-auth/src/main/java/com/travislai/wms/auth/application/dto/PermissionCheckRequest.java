@@ -0,0 +1,22 @@
+package com.travislai.wms.auth.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record PermissionCheckRequest(
+        @NotEmpty(message = "校验项不能为空")
+        @Size(max = 1000, message = "单次最多校验 1000 项")
+        List<@Valid Item> checks) {
+
+    public record Item(
+            @NotNull(message = "用户ID不能为空")
+            Long userId,
+            @NotBlank(message = "权限标识不能为空")
+            String permission) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.travislai.wms.auth.application.dto;
+
+public record PermissionCheckResult(Long userId, String permission, boolean granted) {
+}
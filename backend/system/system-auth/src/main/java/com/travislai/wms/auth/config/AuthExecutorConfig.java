@@ -0,0 +1,41 @@
+package com.travislai.wms.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 认证服务内部并行查询使用的线程池，避免占用 servlet 线程等待多个独立的数据库查询。
+ */
+@Configuration
+public class AuthExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor authLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("auth-lookup-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 登录密码校验专用线程池，队列有界且满时直接拒绝，压测或撞库时最多占用
+     * {@code pool-size + queue-capacity} 个 servlet 线程等待结果。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor authPasswordExecutor(
+            @Value("${wms.auth.login-guard.verify-pool-size:4}") int poolSize,
+            @Value("${wms.auth.login-guard.verify-queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("auth-password-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,77 @@
+package com.travislai.wms.auth.config;
+
+import cn.dev33.satoken.fun.strategy.SaHasElementFunction;
+import cn.dev33.satoken.stp.StpInterface;
+import cn.dev33.satoken.strategy.SaStrategy;
+import com.travislai.wms.auth.application.cache.CompiledPermissions;
+import com.travislai.wms.auth.application.cache.PermissionBitsetCache;
+import com.travislai.wms.auth.domain.entity.SysRole;
+import com.travislai.wms.auth.domain.service.RbacSnapshotService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sa-Token 权限数据来源，权限列表直接取自位图缓存。
+ * 同时替换 {@link SaStrategy#hasElement}，遇到 {@link CompiledPermissions} 时走位运算判断，
+ * {@code StpUtil.hasPermission} 与 {@code @SaCheckPermission} 因此不再逐个扫描权限串。
+ * <p>
+ * {@link SaStrategy#instance} 是进程级单例：替换在 Bean 初始化完成后进行，容器关闭时恢复原策略，
+ * 其余类型的列表仍交给原策略处理。
+ */
+@Component
+public class StpInterfaceImpl implements StpInterface {
+
+    private final PermissionBitsetCache permissionBitsetCache;
+    private final RbacSnapshotService rbacSnapshotService;
+    private SaHasElementFunction fallback;
+
+    public StpInterfaceImpl(PermissionBitsetCache permissionBitsetCache, RbacSnapshotService rbacSnapshotService) {
+        this.permissionBitsetCache = permissionBitsetCache;
+        this.rbacSnapshotService = rbacSnapshotService;
+    }
+
+    @PostConstruct
+    void installHasElement() {
+        SaHasElementFunction original = SaStrategy.instance.hasElement;
+        fallback = original;
+        SaStrategy.instance.setHasElement((list, element) -> list instanceof CompiledPermissions compiled
+                ? compiled.has(element)
+                : original.apply(list, element));
+    }
+
+    @PreDestroy
+    void restoreHasElement() {
+        if (fallback != null) {
+            SaStrategy.instance.setHasElement(fallback);
+            fallback = null;
+        }
+    }
+
+    @Override
+    public List<String> getPermissionList(Object loginId, String loginType) {
+        return permissionBitsetCache.permissionsOf(toUserId(loginId));
+    }
+
+    @Override
+    public List<String> getRoleList(Object loginId, String loginType) {
+        Long userId = toUserId(loginId);
+        if (userId == null) {
+            return List.of();
+        }
+        return rbacSnapshotService.findRolesByUserId(userId).stream().map(SysRole::getCode).toList();
+    }
+
+    private static Long toUserId(Object loginId) {
+        if (loginId instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return loginId == null ? null : Long.valueOf(loginId.toString());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.travislai.wms.auth.domain.entity;
+
+/**
+ * 用户-角色-菜单联表查询的一行结果，没有菜单的角色对应的 menu 字段为空。
+ */
+public class SysUserPermissionRow {
+
+    private Long roleId;
+    private String roleCode;
+    private String roleName;
+    private String roleStatus;
+    private Long menuId;
+    private Long menuParentId;
+    private String menuTitle;
+    private String menuPath;
+    private String menuComponent;
+    private String menuType;
+    private String menuPermission;
+    private Integer menuSort;
+    private String menuIcon;
+
+    public Long getRoleId() {
+        return roleId;
+    }
+
+    public void setRoleId(Long roleId) {
+        this.roleId = roleId;
+    }
+
+    public String getRoleCode() {
+        return roleCode;
+    }
+
+    public void setRoleCode(String roleCode) {
+        this.roleCode = roleCode;
+    }
+
+    public String getRoleName() {
+        return roleName;
+    }
+
+    public void setRoleName(String roleName) {
+        this.roleName = roleName;
+    }
+
+    public String getRoleStatus() {
+        return roleStatus;
+    }
+
+    public void setRoleStatus(String roleStatus) {
+        this.roleStatus = roleStatus;
+    }
+
+    public Long getMenuId() {
+        return menuId;
+    }
+
+    public void setMenuId(Long menuId) {
+        this.menuId = menuId;
+    }
+
+    public Long getMenuParentId() {
+        return menuParentId;
+    }
+
+    public void setMenuParentId(Long menuParentId) {
+        this.menuParentId = menuParentId;
+    }
+
+    public String getMenuTitle() {
+        return menuTitle;
+    }
+
+    public void setMenuTitle(String menuTitle) {
+        this.menuTitle = menuTitle;
+    }
+
+    public String getMenuPath() {
+        return menuPath;
+    }
+
+    public void setMenuPath(String menuPath) {
+        this.menuPath = menuPath;
+    }
+
+    public String getMenuComponent() {
+        return menuComponent;
+    }
+
+    public void setMenuComponent(String menuComponent) {
+        this.menuComponent = menuComponent;
+    }
+
+    public String getMenuType() {
+        return menuType;
+    }
+
+    public void setMenuType(String menuType) {
+        this.menuType = menuType;
+    }
+
+    public String getMenuPermission() {
+        return menuPermission;
+    }
+
+    public void setMenuPermission(String menuPermission) {
+        this.menuPermission = menuPermission;
+    }
+
+    public Integer getMenuSort() {
+        return menuSort;
+    }
+
+    public void setMenuSort(Integer menuSort) {
+        this.menuSort = menuSort;
+    }
+
+    public String getMenuIcon() {
+        return menuIcon;
+    }
+
+    public void setMenuIcon(String menuIcon) {
+        this.menuIcon = menuIcon;
+    }
+}
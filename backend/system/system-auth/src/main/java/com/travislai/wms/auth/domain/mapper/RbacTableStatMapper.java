@@ -0,0 +1,26 @@
+package com.travislai.wms.auth.domain.mapper;
+
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取认证相关表的写入计数，用于判断内存快照或过滤器是否需要刷新。
+ */
+public interface RbacTableStatMapper {
+
+    @Select("""
+            select relname as table_name, n_tup_ins + n_tup_upd + n_tup_del as modifications
+            from pg_stat_user_tables
+            where relname in ('sys_role', 'sys_menu', 'sys_user_role', 'sys_role_menu')
+            """)
+    List<Map<String, Object>> selectModificationCounters();
+
+    @Select("""
+            select coalesce(sum(n_tup_ins + n_tup_upd + n_tup_del), 0)
+            from pg_stat_user_tables
+            where relname = 'sys_user'
+            """)
+    Long selectUserModificationCounter();
+}
@@ -2,7 +2,22 @@ package com.travislai.wms.auth.domain.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.travislai.wms.auth.domain.entity.SysMenu;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 public interface SysMenuMapper extends BaseMapper<SysMenu> {
-}
 
+    /**
+     * 角色 ID 以数组参数绑定，无论角色数量多少 SQL 文本都相同。
+     */
+    @Select("""
+            select m.id, m.parent_id, m.title, m.path, m.component, m.type, m.permission, m.sort, m.icon
+            from sys_menu m
+            where m.id in (select rm.menu_id from sys_role_menu rm
+                           where rm.role_id = any(#{roleIds, typeHandler=org.apache.ibatis.type.ArrayTypeHandler}))
+            order by m.sort, m.id
+            """)
+    List<SysMenu> selectByRoleIds(@Param("roleIds") Long[] roleIds);
+}
@@ -2,7 +2,19 @@ package com.travislai.wms.auth.domain.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.travislai.wms.auth.domain.entity.SysRole;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 public interface SysRoleMapper extends BaseMapper<SysRole> {
-}
 
+    @Select("""
+            select r.id, r.code, r.name, r.status
+            from sys_role r
+            join sys_user_role ur on ur.role_id = r.id
+            where ur.user_id = #{userId}
+            order by r.id
+            """)
+    List<SysRole> selectByUserId(@Param("userId") Long userId);
+}
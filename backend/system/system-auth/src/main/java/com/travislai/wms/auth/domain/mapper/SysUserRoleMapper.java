@@ -1,8 +1,29 @@
 package com.travislai.wms.auth.domain.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.travislai.wms.auth.domain.entity.SysUserPermissionRow;
 import com.travislai.wms.auth.domain.entity.SysUserRole;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 public interface SysUserRoleMapper extends BaseMapper<SysUserRole> {
-}
 
+    /**
+     * 一条绑定参数的语句取出用户的全部角色及其菜单，SQL 文本与用户无关，可复用预编译语句。
+     */
+    @Select("""
+            select r.id as role_id, r.code as role_code, r.name as role_name, r.status as role_status,
+                   m.id as menu_id, m.parent_id as menu_parent_id, m.title as menu_title, m.path as menu_path,
+                   m.component as menu_component, m.type as menu_type, m.permission as menu_permission,
+                   m.sort as menu_sort, m.icon as menu_icon
+            from sys_user_role ur
+            join sys_role r on r.id = ur.role_id
+            left join sys_role_menu rm on rm.role_id = r.id
+            left join sys_menu m on m.id = rm.menu_id
+            where ur.user_id = #{userId}
+            order by r.id, m.sort, m.id
+            """)
+    List<SysUserPermissionRow> selectPermissionRowsByUserId(@Param("userId") Long userId);
+}
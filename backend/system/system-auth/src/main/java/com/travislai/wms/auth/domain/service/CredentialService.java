@@ -0,0 +1,20 @@
+package com.travislai.wms.auth.domain.service;
+
+import com.travislai.wms.auth.domain.entity.SysUser;
+
+/**
+ * 登录凭证校验，负责在查库之前拦截不存在的用户名，并限制同时进行的密码校验数量。
+ */
+public interface CredentialService {
+
+    /**
+     * 校验用户名与密码，成功时返回用户；用户名或密码错误时抛出 {@link IllegalArgumentException}，
+     * 校验线程池已满时抛出 {@link java.util.concurrent.RejectedExecutionException}。
+     */
+    SysUser authenticate(String username, String password);
+
+    /**
+     * 重新加载用户名过滤器并清空不存在用户名的缓存，供本进程内新增或修改用户之后调用。
+     */
+    void reloadUsernames();
+}
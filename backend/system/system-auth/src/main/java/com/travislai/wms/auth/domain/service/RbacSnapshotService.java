@@ -0,0 +1,39 @@
+package com.travislai.wms.auth.domain.service;
+
+import com.travislai.wms.auth.domain.entity.SysMenu;
+import com.travislai.wms.auth.domain.entity.SysRole;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 角色、菜单及其关联关系的进程内快照，profile / menus 等高频读取直接查内存。
+ */
+public interface RbacSnapshotService {
+
+    List<SysRole> findRolesByUserId(Long userId);
+
+    List<SysMenu> findMenusByRoleIds(Collection<Long> roleIds);
+
+    List<String> findPermissionsByRoleIds(Collection<Long> roleIds);
+
+    /**
+     * 同时返回用户的角色与菜单；快照未就绪时以单条联表查询回源。
+     */
+    UserPermissions findUserPermissions(Long userId);
+
+    /**
+     * 快照代数，角色、菜单或关联关系每变化一次递增一次。
+     */
+    long generation();
+
+    /**
+     * 检查四张 RBAC 表是否有变更，只重新加载发生变化的部分。
+     */
+    void refresh();
+
+    /**
+     * 丢弃全部缓存并从数据库完整重建，供本进程内的写操作之后调用。
+     */
+    void reload();
+}
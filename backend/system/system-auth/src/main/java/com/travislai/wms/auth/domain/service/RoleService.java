@@ -8,5 +8,6 @@ import java.util.List;
 public interface RoleService extends IService<SysRole> {
 
     List<SysRole> findByUserId(Long userId);
-}
 
+    UserPermissions findPermissionsByUserId(Long userId);
+}
@@ -0,0 +1,12 @@
+package com.travislai.wms.auth.domain.service;
+
+import com.travislai.wms.auth.domain.entity.SysMenu;
+import com.travislai.wms.auth.domain.entity.SysRole;
+
+import java.util.List;
+
+/**
+ * 用户的角色与去重后的菜单，菜单按 sort 升序排列。
+ */
+public record UserPermissions(List<SysRole> roles, List<SysMenu> menus) {
+}
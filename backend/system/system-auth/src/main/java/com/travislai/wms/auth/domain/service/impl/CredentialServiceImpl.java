@@ -0,0 +1,205 @@
+package com.travislai.wms.auth.domain.service.impl;
+
+import cn.dev33.satoken.secure.SaSecureUtil;
+import com.travislai.wms.auth.domain.entity.SysUser;
+import com.travislai.wms.auth.domain.mapper.RbacTableStatMapper;
+import com.travislai.wms.auth.domain.service.CredentialService;
+import com.travislai.wms.auth.domain.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 登录快速路径：先查不存在用户名缓存，再查用户名布隆过滤器，两者都无法排除时
+ * 才在有界线程池中查库并校验密码。用户表有写入时重建过滤器并清空缓存。
+ * <p>
+ * 每次重建递增代数；判定用户名不存在时记下判定开始时的代数，代数已变化则不写入缓存，
+ * 避免基于旧过滤器或旧查询的结论在缓存清空后写回，把重建期间新建的用户拒之门外。
+ */
+@Service
+public class CredentialServiceImpl implements CredentialService {
+
+    private static final Logger log = LoggerFactory.getLogger(CredentialServiceImpl.class);
+
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    private final UserService userService;
+    private final RbacTableStatMapper tableStatMapper;
+    private final ThreadPoolTaskExecutor passwordExecutor;
+    private final Duration verifyTimeout;
+    private final long negativeTtlMillis;
+    private final Map<String, Long> unknownUsernames;
+
+    private final Counter negativeCacheShed;
+    private final Counter filterShed;
+    private final Counter overloadShed;
+
+    private volatile UsernameBloomFilter usernameFilter;
+    /**
+     * 过滤器重建代数，在 {@code unknownUsernames} 的锁内递增
+     */
+    private volatile long generation;
+    private Long lastUserCounter;
+
+    public CredentialServiceImpl(UserService userService,
+                                 RbacTableStatMapper tableStatMapper,
+                                 @Qualifier("authPasswordExecutor") ThreadPoolTaskExecutor passwordExecutor,
+                                 @Value("${wms.auth.login-guard.verify-timeout:3s}") Duration verifyTimeout,
+                                 @Value("${wms.auth.login-guard.negative-cache-size:10000}") int negativeCacheSize,
+                                 @Value("${wms.auth.login-guard.negative-cache-ttl:10m}") Duration negativeCacheTtl,
+                                 MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.tableStatMapper = tableStatMapper;
+        this.passwordExecutor = passwordExecutor;
+        this.verifyTimeout = verifyTimeout;
+        this.negativeTtlMillis = negativeCacheTtl.toMillis();
+        this.unknownUsernames = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > negativeCacheSize;
+            }
+        };
+        this.negativeCacheShed = Counter.builder("auth.login.shed").tag("reason", "negative-cache")
+                .register(meterRegistry);
+        this.filterShed = Counter.builder("auth.login.shed").tag("reason", "username-filter")
+                .register(meterRegistry);
+        this.overloadShed = Counter.builder("auth.login.shed").tag("reason", "overload")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.negative-cache.size", this, CredentialServiceImpl::negativeCacheSize)
+                .register(meterRegistry);
+        Gauge.builder("auth.login.verify.queue", passwordExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SysUser authenticate(String username, String password) {
+        if (isKnownUnknown(username)) {
+            negativeCacheShed.increment();
+            throw new IllegalArgumentException("用户不存在");
+        }
+        // 先读代数再读过滤器：期间发生重建时代数必然不同
+        long checkedGeneration = generation;
+        UsernameBloomFilter filter = usernameFilter;
+        if (filter != null && !filter.mightContain(username)) {
+            filterShed.increment();
+            rememberUnknown(username, checkedGeneration);
+            throw new IllegalArgumentException("用户不存在");
+        }
+        Future<SysUser> future;
+        try {
+            future = passwordExecutor.submit(() -> verify(username, password, checkedGeneration));
+        } catch (RejectedExecutionException ex) {
+            overloadShed.increment();
+            throw ex;
+        }
+        try {
+            return future.get(verifyTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            overloadShed.increment();
+            throw new RejectedExecutionException("登录校验超时", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("登录校验被中断", ex);
+        }
+    }
+
+    private SysUser verify(String username, String password, long checkedGeneration) {
+        SysUser user = userService.findByUsername(username).orElse(null);
+        if (user == null) {
+            rememberUnknown(username, checkedGeneration);
+            throw new IllegalArgumentException("用户不存在");
+        }
+        if (!SaSecureUtil.sha256(password).equals(user.getPassword())) {
+            throw new IllegalArgumentException("用户名或密码错误");
+        }
+        return user;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshIfChanged();
+    }
+
+    @Scheduled(fixedDelayString = "${wms.auth.login-guard.filter-refresh-interval:5000}",
+            initialDelayString = "${wms.auth.login-guard.filter-refresh-interval:5000}")
+    public void refreshIfChanged() {
+        try {
+            Long counter = tableStatMapper.selectUserModificationCounter();
+            if (usernameFilter == null || !Objects.equals(counter, lastUserCounter)) {
+                reloadUsernames();
+                lastUserCounter = counter;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("用户名过滤器刷新失败，继续使用上一版本", ex);
+        }
+    }
+
+    @Override
+    public void reloadUsernames() {
+        List<String> usernames = userService.listUsernames();
+        usernameFilter = UsernameBloomFilter.of(usernames, FILTER_FALSE_POSITIVE_RATE);
+        synchronized (unknownUsernames) {
+            unknownUsernames.clear();
+            generation++;
+        }
+        log.debug("用户名过滤器已重建, users={}", usernames.size());
+    }
+
+    private boolean isKnownUnknown(String username) {
+        synchronized (unknownUsernames) {
+            Long expiresAt = unknownUsernames.get(username);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt < System.currentTimeMillis()) {
+                unknownUsernames.remove(username);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 缓存不存在的用户名；判定之后过滤器已重建（可能新建了该用户）时放弃
+     */
+    private void rememberUnknown(String username, long checkedGeneration) {
+        synchronized (unknownUsernames) {
+            if (generation == checkedGeneration) {
+                unknownUsernames.put(username, System.currentTimeMillis() + negativeTtlMillis);
+            }
+        }
+    }
+
+    private int negativeCacheSize() {
+        synchronized (unknownUsernames) {
+            return unknownUsernames.size();
+        }
+    }
+}
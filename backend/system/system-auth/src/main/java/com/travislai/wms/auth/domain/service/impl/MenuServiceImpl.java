@@ -8,7 +8,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class MenuServiceImpl extends ServiceImpl<SysMenuMapper, SysMenu> implements MenuService {
@@ -18,11 +17,7 @@ public class MenuServiceImpl extends ServiceImpl<SysMenuMapper, SysMenu> impleme
         if (roleIds == null || roleIds.isEmpty()) {
             return Collections.emptyList();
         }
-        String roleIdStr = roleIds.stream().map(String::valueOf).collect(Collectors.joining(","));
-        return lambdaQuery()
-                .inSql(SysMenu::getId, "select menu_id from sys_role_menu where role_id in (%s)".formatted(roleIdStr))
-                .orderByAsc(SysMenu::getSort)
-                .list();
+        return baseMapper.selectByRoleIds(roleIds.toArray(Long[]::new));
     }
 }
 
@@ -0,0 +1,309 @@
+package com.travislai.wms.auth.domain.service.impl;
+
+import com.travislai.wms.auth.domain.entity.SysMenu;
+import com.travislai.wms.auth.domain.entity.SysRole;
+import com.travislai.wms.auth.domain.entity.SysRoleMenu;
+import com.travislai.wms.auth.domain.entity.SysUserRole;
+import com.travislai.wms.auth.domain.mapper.RbacTableStatMapper;
+import com.travislai.wms.auth.domain.mapper.SysMenuMapper;
+import com.travislai.wms.auth.domain.mapper.SysRoleMapper;
+import com.travislai.wms.auth.domain.mapper.SysRoleMenuMapper;
+import com.travislai.wms.auth.domain.mapper.SysUserRoleMapper;
+import com.travislai.wms.auth.domain.service.MenuService;
+import com.travislai.wms.auth.domain.service.RbacSnapshotService;
+import com.travislai.wms.auth.domain.service.RoleService;
+import com.travislai.wms.auth.domain.service.UserPermissions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 基于 pg_stat_user_tables 写入计数的增量刷新快照：只有发生变化的表会被重新加载，
+ * 读取路径只访问不可变的 {@link Snapshot}，不加锁。
+ */
+@Service
+public class RbacSnapshotServiceImpl implements RbacSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(RbacSnapshotServiceImpl.class);
+
+    private static final String TABLE_ROLE = "sys_role";
+    private static final String TABLE_MENU = "sys_menu";
+    private static final String TABLE_USER_ROLE = "sys_user_role";
+    private static final String TABLE_ROLE_MENU = "sys_role_menu";
+
+    private static final Comparator<SysMenu> MENU_ORDER = Comparator
+            .comparing(SysMenu::getSort, Comparator.nullsLast(Integer::compareTo))
+            .thenComparing(SysMenu::getId);
+
+    private final SysRoleMapper roleMapper;
+    private final SysMenuMapper menuMapper;
+    private final SysUserRoleMapper userRoleMapper;
+    private final SysRoleMenuMapper roleMenuMapper;
+    private final RbacTableStatMapper tableStatMapper;
+    private final RoleService roleService;
+    private final MenuService menuService;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer fullReloadTimer;
+    private final Timer incrementalReloadTimer;
+
+    private final Object reloadLock = new Object();
+    private volatile Snapshot snapshot;
+    private Map<String, Long> lastCounters = Map.of();
+
+    public RbacSnapshotServiceImpl(SysRoleMapper roleMapper,
+                                   SysMenuMapper menuMapper,
+                                   SysUserRoleMapper userRoleMapper,
+                                   SysRoleMenuMapper roleMenuMapper,
+                                   RbacTableStatMapper tableStatMapper,
+                                   RoleService roleService,
+                                   MenuService menuService,
+                                   MeterRegistry meterRegistry) {
+        this.roleMapper = roleMapper;
+        this.menuMapper = menuMapper;
+        this.userRoleMapper = userRoleMapper;
+        this.roleMenuMapper = roleMenuMapper;
+        this.tableStatMapper = tableStatMapper;
+        this.roleService = roleService;
+        this.menuService = menuService;
+        this.hitCounter = Counter.builder("auth.rbac.snapshot.lookups").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("auth.rbac.snapshot.lookups").tag("result", "miss").register(meterRegistry);
+        this.fullReloadTimer = Timer.builder("auth.rbac.snapshot.reload").tag("mode", "full").register(meterRegistry);
+        this.incrementalReloadTimer = Timer.builder("auth.rbac.snapshot.reload").tag("mode", "incremental")
+                .register(meterRegistry);
+        Gauge.builder("auth.rbac.snapshot.generation", this, RbacSnapshotServiceImpl::generation)
+                .register(meterRegistry);
+        Gauge.builder("auth.rbac.snapshot.users", this, s -> s.snapshot == null ? 0 : s.snapshot.userRoles().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<SysRole> findRolesByUserId(Long userId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            missCounter.increment();
+            return roleService.findByUserId(userId);
+        }
+        hitCounter.increment();
+        List<Long> roleIds = current.userRoles().getOrDefault(userId, Collections.emptyList());
+        List<SysRole> roles = new ArrayList<>(roleIds.size());
+        for (Long roleId : roleIds) {
+            SysRole role = current.roles().get(roleId);
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    @Override
+    public List<SysMenu> findMenusByRoleIds(Collection<Long> roleIds) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            missCounter.increment();
+            return menuService.findByRoleIds(List.copyOf(roleIds));
+        }
+        hitCounter.increment();
+        return current.menusOf(roleIds);
+    }
+
+    @Override
+    public List<String> findPermissionsByRoleIds(Collection<Long> roleIds) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            missCounter.increment();
+            return permissionsOf(menuService.findByRoleIds(List.copyOf(roleIds)));
+        }
+        hitCounter.increment();
+        if (roleIds.size() == 1) {
+            return current.rolePermissions().getOrDefault(roleIds.iterator().next(), Collections.emptyList());
+        }
+        return permissionsOf(current.menusOf(roleIds));
+    }
+
+    @Override
+    public UserPermissions findUserPermissions(Long userId) {
+        if (snapshot == null) {
+            missCounter.increment();
+            return roleService.findPermissionsByUserId(userId);
+        }
+        List<SysRole> roles = findRolesByUserId(userId);
+        return new UserPermissions(roles, findMenusByRoleIds(roles.stream().map(SysRole::getId).toList()));
+    }
+
+    @Override
+    public long generation() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.generation();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            log.warn("RBAC 快照初始化失败，将回退到数据库查询并等待下次刷新", ex);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${wms.auth.rbac-snapshot.refresh-interval:5000}",
+            initialDelayString = "${wms.auth.rbac-snapshot.refresh-interval:5000}")
+    public void refresh() {
+        try {
+            synchronized (reloadLock) {
+                Map<String, Long> counters = readCounters();
+                if (snapshot == null || counters == null) {
+                    fullReload(counters);
+                    return;
+                }
+                Set<String> changed = counters.keySet().stream()
+                        .filter(table -> !Objects.equals(counters.get(table), lastCounters.get(table)))
+                        .collect(Collectors.toSet());
+                if (!changed.isEmpty()) {
+                    incrementalReloadTimer.record(() -> snapshot = rebuild(snapshot, changed));
+                    log.debug("RBAC 快照增量刷新完成, tables={}, generation={}", changed, snapshot.generation());
+                }
+                lastCounters = counters;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("RBAC 快照刷新失败，继续使用上一版本", ex);
+        }
+    }
+
+    @Override
+    public void reload() {
+        synchronized (reloadLock) {
+            fullReload(readCounters());
+        }
+    }
+
+    private void fullReload(Map<String, Long> counters) {
+        fullReloadTimer.record(() -> snapshot = rebuild(snapshot,
+                Set.of(TABLE_ROLE, TABLE_MENU, TABLE_USER_ROLE, TABLE_ROLE_MENU)));
+        lastCounters = counters == null ? Map.of() : counters;
+        log.debug("RBAC 快照全量加载完成, generation={}", snapshot.generation());
+    }
+
+    private Snapshot rebuild(Snapshot previous, Set<String> changed) {
+        Map<Long, SysRole> roles = previous != null && !changed.contains(TABLE_ROLE)
+                ? previous.roles() : loadRoles();
+        Map<Long, SysMenu> menus = previous != null && !changed.contains(TABLE_MENU)
+                ? previous.menus() : loadMenus();
+        Map<Long, List<Long>> userRoles = previous != null && !changed.contains(TABLE_USER_ROLE)
+                ? previous.userRoles() : loadUserRoles();
+        Map<Long, List<Long>> roleMenuIds = previous != null && !changed.contains(TABLE_ROLE_MENU)
+                ? previous.roleMenuIds() : loadRoleMenuIds();
+
+        Map<Long, List<SysMenu>> roleMenus;
+        Map<Long, List<String>> rolePermissions;
+        if (previous != null && !changed.contains(TABLE_MENU) && !changed.contains(TABLE_ROLE_MENU)) {
+            roleMenus = previous.roleMenus();
+            rolePermissions = previous.rolePermissions();
+        } else {
+            roleMenus = new HashMap<>();
+            rolePermissions = new HashMap<>();
+            roleMenuIds.forEach((roleId, menuIds) -> {
+                List<SysMenu> list = menuIds.stream().map(menus::get).filter(Objects::nonNull)
+                        .sorted(MENU_ORDER).toList();
+                roleMenus.put(roleId, list);
+                rolePermissions.put(roleId, permissionsOf(list));
+            });
+        }
+        long generation = previous == null ? 1 : previous.generation() + 1;
+        return new Snapshot(generation, roles, menus, userRoles, roleMenuIds,
+                Map.copyOf(roleMenus), Map.copyOf(rolePermissions));
+    }
+
+    private Map<Long, SysRole> loadRoles() {
+        return roleMapper.selectList(null).stream()
+                .collect(Collectors.toUnmodifiableMap(SysRole::getId, role -> role));
+    }
+
+    private Map<Long, SysMenu> loadMenus() {
+        return menuMapper.selectList(null).stream()
+                .collect(Collectors.toUnmodifiableMap(SysMenu::getId, menu -> menu));
+    }
+
+    private Map<Long, List<Long>> loadUserRoles() {
+        Map<Long, List<Long>> result = new HashMap<>();
+        for (SysUserRole relation : userRoleMapper.selectList(null)) {
+            result.computeIfAbsent(relation.getUserId(), k -> new ArrayList<>()).add(relation.getRoleId());
+        }
+        result.replaceAll((userId, roleIds) -> roleIds.stream().distinct().sorted().toList());
+        return Map.copyOf(result);
+    }
+
+    private Map<Long, List<Long>> loadRoleMenuIds() {
+        Map<Long, List<Long>> result = new HashMap<>();
+        for (SysRoleMenu relation : roleMenuMapper.selectList(null)) {
+            result.computeIfAbsent(relation.getRoleId(), k -> new ArrayList<>()).add(relation.getMenuId());
+        }
+        result.replaceAll((roleId, menuIds) -> menuIds.stream().distinct().toList());
+        return Map.copyOf(result);
+    }
+
+    private Map<String, Long> readCounters() {
+        try {
+            Map<String, Long> counters = new HashMap<>();
+            for (Map<String, Object> row : tableStatMapper.selectModificationCounters()) {
+                counters.put((String) row.get("table_name"), ((Number) row.get("modifications")).longValue());
+            }
+            return counters;
+        } catch (RuntimeException ex) {
+            log.debug("无法读取表写入计数，本次按全量刷新处理", ex);
+            return null;
+        }
+    }
+
+    private static List<String> permissionsOf(List<SysMenu> menus) {
+        return menus.stream().map(SysMenu::getPermission).filter(p -> p != null && !p.isBlank()).toList();
+    }
+
+    private record Snapshot(long generation,
+                            Map<Long, SysRole> roles,
+                            Map<Long, SysMenu> menus,
+                            Map<Long, List<Long>> userRoles,
+                            Map<Long, List<Long>> roleMenuIds,
+                            Map<Long, List<SysMenu>> roleMenus,
+                            Map<Long, List<String>> rolePermissions) {
+
+        List<SysMenu> menusOf(Collection<Long> roleIds) {
+            if (roleIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+            if (roleIds.size() == 1) {
+                return roleMenus.getOrDefault(roleIds.iterator().next(), Collections.emptyList());
+            }
+            Map<Long, SysMenu> merged = new LinkedHashMap<>();
+            for (Long roleId : roleIds) {
+                for (SysMenu menu : roleMenus.getOrDefault(roleId, Collections.emptyList())) {
+                    merged.putIfAbsent(menu.getId(), menu);
+                }
+            }
+            List<SysMenu> result = new ArrayList<>(merged.values());
+            result.sort(MENU_ORDER);
+            return result;
+        }
+    }
+}
@@ -1,21 +1,71 @@
 package com.travislai.wms.auth.domain.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.travislai.wms.auth.domain.entity.SysMenu;
 import com.travislai.wms.auth.domain.entity.SysRole;
+import com.travislai.wms.auth.domain.entity.SysUserPermissionRow;
 import com.travislai.wms.auth.domain.mapper.SysRoleMapper;
+import com.travislai.wms.auth.domain.mapper.SysUserRoleMapper;
 import com.travislai.wms.auth.domain.service.RoleService;
+import com.travislai.wms.auth.domain.service.UserPermissions;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class RoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> implements RoleService {
 
+    private final SysUserRoleMapper userRoleMapper;
+
+    public RoleServiceImpl(SysUserRoleMapper userRoleMapper) {
+        this.userRoleMapper = userRoleMapper;
+    }
+
     @Override
     public List<SysRole> findByUserId(Long userId) {
-        return lambdaQuery()
-                .inSql(SysRole::getId, "select role_id from sys_user_role where user_id = %d".formatted(userId))
-                .list();
+        return baseMapper.selectByUserId(userId);
     }
-}
 
+    @Override
+    public UserPermissions findPermissionsByUserId(Long userId) {
+        Map<Long, SysRole> roles = new LinkedHashMap<>();
+        Map<Long, SysMenu> menus = new LinkedHashMap<>();
+        for (SysUserPermissionRow row : userRoleMapper.selectPermissionRowsByUserId(userId)) {
+            roles.computeIfAbsent(row.getRoleId(), id -> toRole(row));
+            if (row.getMenuId() != null) {
+                menus.computeIfAbsent(row.getMenuId(), id -> toMenu(row));
+            }
+        }
+        List<SysMenu> sortedMenus = new ArrayList<>(menus.values());
+        sortedMenus.sort(Comparator.comparing(SysMenu::getSort, Comparator.nullsLast(Integer::compareTo))
+                .thenComparing(SysMenu::getId));
+        return new UserPermissions(List.copyOf(roles.values()), sortedMenus);
+    }
+
+    private static SysRole toRole(SysUserPermissionRow row) {
+        SysRole role = new SysRole();
+        role.setId(row.getRoleId());
+        role.setCode(row.getRoleCode());
+        role.setName(row.getRoleName());
+        role.setStatus(row.getRoleStatus());
+        return role;
+    }
+
+    private static SysMenu toMenu(SysUserPermissionRow row) {
+        SysMenu menu = new SysMenu();
+        menu.setId(row.getMenuId());
+        menu.setParentId(row.getMenuParentId());
+        menu.setTitle(row.getMenuTitle());
+        menu.setPath(row.getMenuPath());
+        menu.setComponent(row.getMenuComponent());
+        menu.setType(row.getMenuType());
+        menu.setPermission(row.getMenuPermission());
+        menu.setSort(row.getMenuSort());
+        menu.setIcon(row.getMenuIcon());
+        return menu;
+    }
+}
@@ -6,6 +6,7 @@ import com.travislai.wms.auth.domain.mapper.SysUserMapper;
 import com.travislai.wms.auth.domain.service.UserService;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -15,5 +16,11 @@ public class UserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impleme
     public Optional<SysUser> findByUsername(String username) {
         return lambdaQuery().eq(SysUser::getUsername, username).oneOpt();
     }
+
+    @Override
+    public List<String> listUsernames() {
+        return lambdaQuery().select(SysUser::getUsername).list()
+                .stream().map(SysUser::getUsername).toList();
+    }
 }
 
@@ -0,0 +1,117 @@
+package com.travislai.wms.auth.domain.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Collection;
+
+/**
+ * 用户名存在性布隆过滤器：返回 false 时用户名一定不存在，返回 true 时需要再查库确认。
+ * <p>
+ * 探测位置由用户名 UTF-8 字节的 128 位 MurmurHash3 (x64) 的两半推导，种子在每次构建时随机生成，
+ * 不能像 32 位 {@code String.hashCode()} 那样构造与真实用户名碰撞的字符串来稳定绕过过滤器。
+ */
+final class UsernameBloomFilter {
+
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final long seed;
+
+    private UsernameBloomFilter(int bitCount, int hashCount, long seed) {
+        this.bits = new long[(bitCount + 63) >>> 6];
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.seed = seed;
+    }
+
+    static UsernameBloomFilter of(Collection<String> usernames, double falsePositiveRate) {
+        int expected = Math.max(usernames.size(), 64);
+        double ln2 = Math.log(2);
+        int bitCount = (int) Math.ceil(-expected * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * ln2));
+        UsernameBloomFilter filter = new UsernameBloomFilter(bitCount, hashCount, SEEDS.nextLong());
+        usernames.forEach(filter::put);
+        return filter;
+    }
+
+    boolean mightContain(String username) {
+        long[] hash = murmur3(username.getBytes(StandardCharsets.UTF_8), seed);
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(hash, i);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(String username) {
+        long[] hash = murmur3(username.getBytes(StandardCharsets.UTF_8), seed);
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(hash, i);
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * 第 i 个探测位置：h1 + i * h2（Kirsch-Mitzenmacher 双重哈希），在 64 位上计算后取模
+     */
+    private int index(long[] hash, int i) {
+        return (int) (((hash[0] + i * hash[1]) & Long.MAX_VALUE) % bitCount);
+    }
+
+    /**
+     * MurmurHash3 x64 128 位，返回 {h1, h2}
+     */
+    private static long[] murmur3(byte[] data, long seed) {
+        final long c1 = 0x87C37B91114253D5L;
+        final long c2 = 0x4CF5AD432745937FL;
+        long h1 = seed;
+        long h2 = seed;
+        int blocks = data.length >>> 4;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = littleEndian(data, i << 4, 8);
+            long k2 = littleEndian(data, (i << 4) + 8, 8);
+            h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+            h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52DCE729;
+            h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+            h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495AB5;
+        }
+        int tail = blocks << 4;
+        int remaining = data.length - tail;
+        if (remaining > 8) {
+            h2 ^= Long.rotateLeft(littleEndian(data, tail + 8, remaining - 8) * c2, 33) * c1;
+        }
+        if (remaining > 0) {
+            h1 ^= Long.rotateLeft(littleEndian(data, tail, Math.min(remaining, 8)) * c1, 31) * c2;
+        }
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[] {h1, h2};
+    }
+
+    private static long littleEndian(byte[] data, int from, int length) {
+        long value = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            value = (value << 8) | (data[from + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
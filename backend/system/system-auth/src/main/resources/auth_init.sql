@@ -62,3 +62,11 @@ CREATE TABLE IF NOT EXISTS sys_role_menu (
     role_id INT NOT NULL REFERENCES sys_role(id),
     menu_id INT NOT NULL REFERENCES sys_menu(id)
 );
+
+-- =============================================
+-- Indexes (关联表索引)
+-- =============================================
+-- 按用户取角色、按角色取菜单是登录与权限加载的热路径，
+-- 复合索引让联表查询可以只走索引完成关联。
+CREATE INDEX IF NOT EXISTS idx_user_role_user_id ON sys_user_role(user_id, role_id);
+CREATE INDEX IF NOT EXISTS idx_role_menu_role_id ON sys_role_menu(role_id, menu_id);
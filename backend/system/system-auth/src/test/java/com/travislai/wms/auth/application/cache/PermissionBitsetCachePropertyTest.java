@@ -0,0 +1,161 @@
+package com.travislai.wms.auth.application.cache;
+
+import cn.dev33.satoken.util.SaFoxUtil;
+import com.travislai.wms.auth.domain.entity.SysMenu;
+import com.travislai.wms.auth.domain.entity.SysRole;
+import com.travislai.wms.auth.domain.service.RbacSnapshotService;
+import com.travislai.wms.auth.domain.service.UserPermissions;
+import net.jqwik.api.*;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 基于属性的测试：位图权限判断与按 {@code findUserPermissions} 逐个匹配权限串的结果一致
+ */
+class PermissionBitsetCachePropertyTest {
+
+    private static final int USERS = 5;
+    private static final int ROLES = 6;
+
+    private static final List<String> PERMISSIONS = List.of(
+            "wms:owner:view", "wms:owner:edit", "wms:product:view", "wms:product:edit",
+            "sys:user:view", "sys:role:edit", "wms:*", "wms:owner:*", "*:view");
+
+    private static final List<String> PROBES = List.of(
+            "wms:owner:view", "wms:owner:edit", "wms:owner:delete", "wms:product:view", "wms:product:edit",
+            "sys:user:view", "sys:user:edit", "sys:role:edit", "other", "");
+
+    /**
+     * 一版随机的 RBAC 数据：菜单的权限串（可为空）、角色拥有的菜单、用户拥有的角色
+     */
+    record Assignment(List<String> menuPermissions, List<Set<Integer>> roleMenus, List<Set<Integer>> userRoles) {}
+
+    /**
+     * 依次应用多版随机的角色、菜单分配（每版递增快照代数），对每个用户和每个待查权限，位图判断
+     * 都与按 Sa-Token 规则逐个匹配 findUserPermissions 返回的菜单权限串一致，权限列表也与之相同
+     */
+    @Property(tries = 300)
+    @Label("位图判断与逐个匹配权限串一致")
+    void bitsetMatchesUserPermissions(@ForAll("assignments") List<Assignment> assignments) {
+        FakeRbac rbac = new FakeRbac();
+        PermissionBitsetCache cache = new PermissionBitsetCache(rbac);
+
+        for (Assignment assignment : assignments) {
+            rbac.apply(assignment);
+            for (long userId = 1; userId <= USERS + 1; userId++) {
+                List<String> granted = rbac.findUserPermissions(userId).menus().stream()
+                        .map(SysMenu::getPermission).filter(p -> p != null && !p.isBlank()).toList();
+                CompiledPermissions compiled = cache.permissionsOf(userId);
+
+                assertThat(new HashSet<>(compiled)).isEqualTo(new HashSet<>(granted));
+                for (String probe : PROBES) {
+                    boolean expected = granted.stream().anyMatch(pattern -> SaFoxUtil.vagueMatch(pattern, probe));
+                    assertThat(cache.hasPermission(userId, probe)).as("user %d, %s", userId, probe)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Provide
+    Arbitrary<List<Assignment>> assignments() {
+        Arbitrary<List<String>> menuPermissions = Arbitraries.frequencyOf(
+                        Tuple.of(1, Arbitraries.just((String) null)),
+                        Tuple.of(6, Arbitraries.of(PERMISSIONS)))
+                .list().ofMinSize(1).ofMaxSize(12);
+        Arbitrary<List<Set<Integer>>> roleMenus = Arbitraries.integers().between(0, 11).set().ofMaxSize(5)
+                .list().ofSize(ROLES);
+        Arbitrary<List<Set<Integer>>> userRoles = Arbitraries.integers().between(1, ROLES + 1).set().ofMaxSize(3)
+                .list().ofSize(USERS);
+        return Combinators.combine(menuPermissions, roleMenus, userRoles).as(Assignment::new)
+                .list().ofMinSize(1).ofMaxSize(4);
+    }
+
+    /**
+     * 内存中的 RBAC 快照；角色 {@code ROLES + 1} 与用户 {@code USERS + 1} 不存在
+     */
+    private static final class FakeRbac implements RbacSnapshotService {
+
+        private final Map<Long, SysRole> roles = new LinkedHashMap<>();
+        private final Map<Long, SysMenu> menus = new LinkedHashMap<>();
+        private final Map<Long, List<Long>> roleMenus = new LinkedHashMap<>();
+        private final Map<Long, List<Long>> userRoles = new LinkedHashMap<>();
+        private long generation;
+
+        void apply(Assignment assignment) {
+            roles.clear();
+            menus.clear();
+            roleMenus.clear();
+            userRoles.clear();
+            for (int i = 0; i < assignment.menuPermissions().size(); i++) {
+                SysMenu menu = new SysMenu();
+                menu.setId((long) i);
+                menu.setSort(i % 3);
+                menu.setPermission(assignment.menuPermissions().get(i));
+                menus.put((long) i, menu);
+            }
+            for (int i = 0; i < ROLES; i++) {
+                long roleId = i + 1;
+                SysRole role = new SysRole();
+                role.setId(roleId);
+                role.setCode("role" + roleId);
+                roles.put(roleId, role);
+                roleMenus.put(roleId, assignment.roleMenus().get(i).stream()
+                        .map(Integer::longValue).filter(menus::containsKey).toList());
+            }
+            for (int i = 0; i < USERS; i++) {
+                userRoles.put(i + 1L, assignment.userRoles().get(i).stream().map(Integer::longValue).toList());
+            }
+            generation++;
+        }
+
+        @Override
+        public List<SysRole> findRolesByUserId(Long userId) {
+            return userRoles.getOrDefault(userId, List.of()).stream()
+                    .map(roles::get).filter(Objects::nonNull).toList();
+        }
+
+        @Override
+        public List<SysMenu> findMenusByRoleIds(Collection<Long> roleIds) {
+            Set<Long> ids = new HashSet<>();
+            roleIds.forEach(roleId -> ids.addAll(roleMenus.getOrDefault(roleId, List.of())));
+            return ids.stream().map(menus::get)
+                    .sorted(Comparator.comparing(SysMenu::getSort).thenComparing(SysMenu::getId)).toList();
+        }
+
+        @Override
+        public List<String> findPermissionsByRoleIds(Collection<Long> roleIds) {
+            return findMenusByRoleIds(roleIds).stream()
+                    .map(SysMenu::getPermission).filter(p -> p != null && !p.isBlank()).toList();
+        }
+
+        @Override
+        public UserPermissions findUserPermissions(Long userId) {
+            List<SysRole> userRoleList = findRolesByUserId(userId);
+            return new UserPermissions(userRoleList,
+                    findMenusByRoleIds(userRoleList.stream().map(SysRole::getId).toList()));
+        }
+
+        @Override
+        public long generation() {
+            return generation;
+        }
+
+        @Override
+        public void refresh() {
+        }
+
+        @Override
+        public void reload() {
+        }
+    }
+}
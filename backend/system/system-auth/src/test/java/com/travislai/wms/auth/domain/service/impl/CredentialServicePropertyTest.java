@@ -0,0 +1,118 @@
+package com.travislai.wms.auth.domain.service.impl;
+
+import cn.dev33.satoken.secure.SaSecureUtil;
+import com.travislai.wms.auth.domain.entity.SysUser;
+import com.travislai.wms.auth.domain.mapper.RbacTableStatMapper;
+import com.travislai.wms.auth.domain.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 基于属性的测试：用户名布隆过滤器与登录快速路径不会把存在的用户名判为不存在
+ */
+class CredentialServicePropertyTest {
+
+    private static final String PASSWORD = "secret";
+
+    /**
+     * 一步操作：新建用户、重建过滤器或用某个用户名登录
+     */
+    record Step(int kind, String username) {}
+
+    /**
+     * 任意用户名集合（含非 ASCII 字符），每次以新的随机种子重建过滤器，集合中的用户名都判为可能存在
+     */
+    @Property(tries = 200)
+    @Label("过滤器不会漏掉已存在的用户名")
+    void filterContainsEveryUsername(@ForAll("usernameSets") List<String> usernames,
+                                     @ForAll @IntRange(min = 1, max = 5) int rebuilds) {
+        for (int i = 0; i < rebuilds; i++) {
+            UsernameBloomFilter filter = UsernameBloomFilter.of(usernames, 0.01);
+            assertThat(usernames).allMatch(filter::mightContain);
+        }
+    }
+
+    /**
+     * 新建用户、重建过滤器与登录任意交错：上次重建时已存在的用户总能登录成功，即使它在新建前
+     * 曾被判为不存在并进入不存在用户名缓存；从未创建的用户名总是判为不存在
+     */
+    @Property(tries = 200)
+    @Label("重建后已存在的用户名不会被判为不存在")
+    void presentUsernameIsNeverRejected(@ForAll("steps") List<Step> steps) {
+        Map<String, SysUser> table = new ConcurrentHashMap<>();
+        UserService userService = mock(UserService.class);
+        when(userService.listUsernames()).thenAnswer(invocation -> new ArrayList<>(table.keySet()));
+        when(userService.findByUsername(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<String>getArgument(0))));
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        try {
+            CredentialServiceImpl service = new CredentialServiceImpl(userService, mock(RbacTableStatMapper.class),
+                    executor, Duration.ofSeconds(10), 100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+            service.reloadUsernames();
+            Set<String> indexed = new HashSet<>();
+
+            for (Step step : steps) {
+                switch (step.kind()) {
+                    case 0 -> table.computeIfAbsent(step.username(), CredentialServicePropertyTest::user);
+                    case 1 -> {
+                        service.reloadUsernames();
+                        indexed.clear();
+                        indexed.addAll(table.keySet());
+                    }
+                    default -> {
+                        if (indexed.contains(step.username())) {
+                            assertThat(service.authenticate(step.username(), PASSWORD).getUsername())
+                                    .isEqualTo(step.username());
+                        } else if (!table.containsKey(step.username())) {
+                            assertThatThrownBy(() -> service.authenticate(step.username(), PASSWORD))
+                                    .isInstanceOf(IllegalArgumentException.class)
+                                    .hasMessage("用户不存在");
+                        }
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Provide
+    Arbitrary<List<String>> usernameSets() {
+        return Arbitraries.strings().ofMinLength(1).ofMaxLength(40).set().ofMaxSize(300)
+                .map(ArrayList::new);
+    }
+
+    @Provide
+    Arbitrary<List<Step>> steps() {
+        Arbitrary<String> username = Arbitraries.strings().withChars("ab用户").ofMinLength(1).ofMaxLength(3);
+        return Combinators.combine(Arbitraries.frequency(Tuple.of(3, 0), Tuple.of(1, 1), Tuple.of(6, 2)), username)
+                .as(Step::new)
+                .list().ofMaxSize(60);
+    }
+
+    private static SysUser user(String username) {
+        SysUser user = new SysUser();
+        user.setUsername(username);
+        user.setPassword(SaSecureUtil.sha256(PASSWORD));
+        return user;
+    }
+}
@@ -0,0 +1,36 @@
+package com.travislai.wms.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Set;
+
+/**
+ * A stored 200 response. Immutable; revalidation replaces the entry with {@link #refreshed}.
+ *
+ * @param target      request target (route and URI) the entry was stored for
+ * @param key         full cache key including principal and {@code Vary} values
+ * @param headers     read-only response headers to replay
+ * @param body        response body
+ * @param etag        validator used for conditional revalidation, may be {@code null}
+ * @param freshUntil  {@link System#nanoTime()} until which the entry may be served without asking
+ *                    the backend
+ * @param maxAgeNanos freshness lifetime reapplied after a successful revalidation
+ * @param tags        invalidation tags
+ */
+public record CachedResponse(String target,
+                             String key,
+                             HttpHeaders headers,
+                             byte[] body,
+                             String etag,
+                             long freshUntil,
+                             long maxAgeNanos,
+                             Set<String> tags) {
+
+    public boolean fresh(long now) {
+        return freshUntil - now > 0;
+    }
+
+    public CachedResponse refreshed(long now) {
+        return new CachedResponse(target, key, headers, body, etag, now + maxAgeNanos, maxAgeNanos, tags);
+    }
+}
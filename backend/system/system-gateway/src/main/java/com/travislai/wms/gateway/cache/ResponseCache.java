@@ -0,0 +1,214 @@
+package com.travislai.wms.gateway.cache;
+
+import com.travislai.wms.gateway.config.GatewayResponseCacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte-bounded LRU store for {@link CachedResponse}s with a tag index.
+ * <p>
+ * Entries are addressed in two steps, as HTTP caches do: the request target maps to the
+ * {@code Vary} header names last seen for it, and those names plus the request's values (and the
+ * principal for private responses) form the entry key.
+ */
+@Component
+public class ResponseCache {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, List<String>> varyByTarget = new HashMap<>();
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private final Map<String, Set<String>> keysByTarget = new HashMap<>();
+
+    private long maxBytes;
+    private long bytes;
+
+    public ResponseCache(GatewayResponseCacheProperties properties) {
+        this.maxBytes = properties.maxSize().toBytes();
+    }
+
+    public void resize(long maxBytes) {
+        lock.lock();
+        try {
+            this.maxBytes = maxBytes;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<String> varyOf(String target) {
+        lock.lock();
+        try {
+            return varyByTarget.getOrDefault(target, List.of());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CachedResponse get(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String target, List<String> vary, CachedResponse response) {
+        lock.lock();
+        try {
+            remove(response.key());
+            List<String> previousVary = varyByTarget.get(target);
+            if (previousVary != null && !previousVary.equals(vary)) {
+                removeAll(keysByTarget.get(target));
+            }
+            varyByTarget.put(target, vary);
+            entries.put(response.key(), response);
+            bytes += response.body().length;
+            keysByTarget.computeIfAbsent(target, t -> new HashSet<>()).add(response.key());
+            for (String tag : response.tags()) {
+                keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(response.key());
+            }
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces an entry after a successful revalidation, unless it was invalidated meanwhile.
+     */
+    public void replace(CachedResponse response) {
+        lock.lock();
+        try {
+            if (entries.containsKey(response.key())) {
+                entries.put(response.key(), response);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int invalidateTags(Collection<String> tags) {
+        lock.lock();
+        try {
+            int removed = 0;
+            for (String tag : tags) {
+                removed += removeAll(keysByTag.get(tag));
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every variant stored for a request target, e.g. after a write to the same URI.
+     */
+    public int invalidateTarget(String target) {
+        lock.lock();
+        try {
+            varyByTarget.remove(target);
+            return removeAll(keysByTarget.get(target));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            varyByTarget.clear();
+            keysByTag.clear();
+            keysByTarget.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long bytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            CachedResponse response = eldest.next();
+            eldest.remove();
+            unlink(response);
+        }
+    }
+
+    private int removeAll(Set<String> keys) {
+        if (keys == null) {
+            return 0;
+        }
+        int removed = 0;
+        for (String key : new ArrayList<>(keys)) {
+            removed += remove(key) ? 1 : 0;
+        }
+        return removed;
+    }
+
+    private boolean remove(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        unlink(removed);
+        return true;
+    }
+
+    private void unlink(CachedResponse response) {
+        bytes -= response.body().length;
+        if (unindex(keysByTarget, response.target(), response.key())) {
+            varyByTarget.remove(response.target());
+        }
+        for (String tag : response.tags()) {
+            unindex(keysByTag, tag, response.key());
+        }
+    }
+
+    /**
+     * Removes a key from an index and reports whether the indexed name has no keys left.
+     */
+    private static boolean unindex(Map<String, Set<String>> index, String name, String key) {
+        Set<String> keys = index.get(name);
+        if (keys == null) {
+            return false;
+        }
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            index.remove(name);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.travislai.wms.gateway.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Control endpoint for the edge response cache at {@code /actuator/gatewaycache}.
+ * <p>
+ * Backends drop entries by tag with {@code POST {"tags": "owners,owner:42"}}; {@code DELETE}
+ * clears everything. Only served on {@code management.server.port}, which must not be reachable
+ * from outside; the public port has no actuator endpoints and gateway filters never run here.
+ */
+@Component
+@Endpoint(id = "gatewaycache")
+public class ResponseCacheEndpoint {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheEndpoint(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return Map.of("entries", cache.size(), "bytes", cache.bytes());
+    }
+
+    @WriteOperation
+    public Map<String, Object> invalidate(String tags) {
+        List<String> list = Arrays.stream(tags.split(",")).map(String::trim).filter(t -> !t.isEmpty()).toList();
+        return Map.of("invalidated", cache.invalidateTags(list));
+    }
+
+    @DeleteOperation
+    public void clear() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,42 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Composite views served by {@link com.travislai.wms.gateway.filter.AggregationFilter} for
+ * {@code bff://view} routes.
+ *
+ * @param views legs of each view, keyed by the host part of the {@code bff://} route URI
+ */
+@ConfigurationProperties(prefix = "wms.gateway.aggregation")
+public record GatewayAggregationProperties(Map<String, View> views) {
+
+    public GatewayAggregationProperties {
+        views = views == null ? Map.of() : views;
+    }
+
+    /**
+     * @param legs upstream calls made in parallel, keyed by the field they fill in the response
+     */
+    public record View(Map<String, Leg> legs) {
+
+        public View {
+            legs = legs == null ? Map.of() : legs;
+        }
+    }
+
+    /**
+     * @param service upstream service id, as configured under {@code wms.gateway.load-balancer.services}
+     * @param path    path and query requested from the service
+     * @param timeout longest the view waits for this leg before returning without it
+     */
+    public record Leg(String service, String path, Duration timeout) {
+
+        public Leg {
+            timeout = timeout == null ? Duration.ofSeconds(2) : timeout;
+        }
+    }
+}
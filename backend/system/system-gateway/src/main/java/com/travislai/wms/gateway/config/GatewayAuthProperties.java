@@ -0,0 +1,44 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Edge token verification settings.
+ *
+ * @param enabled            whether {@link com.travislai.wms.gateway.filter.TokenAuthenticationFilter} is active
+ * @param tokenHeader        request header carrying the Sa-Token value
+ * @param verifyService      upstream service, as configured under {@code wms.gateway.load-balancer.services},
+ *                           that validates a token the gateway has not seen recently
+ * @param verifyPath         token verification path on {@code verifyService}
+ * @param excludePaths       path patterns that are forwarded without a token
+ * @param cacheTtl           how long a successful verification is trusted locally
+ * @param negativeTtl        how long a rejected token is remembered
+ * @param maxEntries         upper bound on cached successful verifications
+ * @param maxNegativeEntries upper bound on remembered rejections; kept apart so a flood of invalid
+ *                           tokens never displaces valid sessions
+ */
+@ConfigurationProperties(prefix = "wms.gateway.auth")
+public record GatewayAuthProperties(boolean enabled,
+                                    String tokenHeader,
+                                    String verifyService,
+                                    String verifyPath,
+                                    List<String> excludePaths,
+                                    Duration cacheTtl,
+                                    Duration negativeTtl,
+                                    Integer maxEntries,
+                                    Integer maxNegativeEntries) {
+
+    public GatewayAuthProperties {
+        tokenHeader = tokenHeader == null ? "satoken" : tokenHeader;
+        verifyService = verifyService == null ? "system-auth" : verifyService;
+        verifyPath = verifyPath == null ? "/api/auth/token/verify" : verifyPath;
+        excludePaths = excludePaths == null ? List.of("/api/auth/login", "/actuator/**") : excludePaths;
+        cacheTtl = cacheTtl == null ? Duration.ofSeconds(30) : cacheTtl;
+        negativeTtl = negativeTtl == null ? Duration.ofSeconds(5) : negativeTtl;
+        maxEntries = maxEntries == null ? 50_000 : maxEntries;
+        maxNegativeEntries = maxNegativeEntries == null ? 5_000 : maxNegativeEntries;
+    }
+}
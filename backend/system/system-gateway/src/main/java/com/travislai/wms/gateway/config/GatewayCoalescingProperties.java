@@ -0,0 +1,39 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Single-flight settings for concurrent identical GETs.
+ *
+ * @param enabled     whether {@link com.travislai.wms.gateway.filter.CoalescingFilter} is active
+ * @param maxBodySize responses larger than this are not shared; waiters then call upstream themselves
+ * @param routes      routes whose GETs may be coalesced, keyed by route id
+ */
+@ConfigurationProperties(prefix = "wms.gateway.coalescing")
+public record GatewayCoalescingProperties(boolean enabled,
+                                          DataSize maxBodySize,
+                                          Map<String, RouteCoalescing> routes) {
+
+    public GatewayCoalescingProperties {
+        maxBodySize = maxBodySize == null ? DataSize.ofMegabytes(1) : maxBodySize;
+        routes = routes == null ? Map.of() : routes;
+    }
+
+    /**
+     * @param maxWait                longest a follower waits for the leader's response before sending
+     *                               its own request
+     * @param shareAcrossPrincipals  whether callers with different tokens may share one upstream call;
+     *                               only safe for responses that do not depend on the caller
+     */
+    public record RouteCoalescing(Duration maxWait, Boolean shareAcrossPrincipals) {
+
+        public RouteCoalescing {
+            maxWait = maxWait == null ? Duration.ofSeconds(2) : maxWait;
+            shareAcrossPrincipals = shareAcrossPrincipals != null && shareAcrossPrincipals;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Adaptive in-flight limits per route. Re-read when the overrides file changes
+ * (see {@link GatewayOverridesWatcher}).
+ *
+ * @param enabled  whether {@link com.travislai.wms.gateway.filter.ConcurrencyLimitFilter} is active
+ * @param defaults settings for routes without their own entry
+ * @param routes   per-route settings keyed by route id
+ */
+@ConfigurationProperties(prefix = "wms.gateway.concurrency-limit")
+public record GatewayConcurrencyLimitProperties(boolean enabled,
+                                                Limit defaults,
+                                                Map<String, Limit> routes) {
+
+    public GatewayConcurrencyLimitProperties {
+        defaults = defaults == null ? new Limit(null, null, null, null, null, null) : defaults;
+        routes = routes == null ? Map.of() : routes;
+    }
+
+    public Limit limitFor(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    /**
+     * @param initialLimit     in-flight limit before any latency has been observed
+     * @param minLimit         the limit never drops below this
+     * @param maxLimit         the limit never grows above this
+     * @param smoothing        weight of each new estimate, between 0 and 1
+     * @param shortWindow      samples averaged into the recent RTT
+     * @param longWindow       samples averaged into the baseline RTT
+     */
+    public record Limit(Integer initialLimit,
+                        Integer minLimit,
+                        Integer maxLimit,
+                        Double smoothing,
+                        Integer shortWindow,
+                        Integer longWindow) {
+
+        public Limit {
+            initialLimit = initialLimit == null ? 20 : initialLimit;
+            minLimit = minLimit == null ? 4 : minLimit;
+            maxLimit = maxLimit == null ? 200 : maxLimit;
+            smoothing = smoothing == null ? 0.2 : smoothing;
+            shortWindow = shortWindow == null ? 10 : shortWindow;
+            longWindow = longWindow == null ? 600 : longWindow;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hedged-request settings for idempotent GETs on load-balanced routes.
+ *
+ * @param enabled       whether {@link com.travislai.wms.gateway.filter.HedgingFilter} is active
+ * @param budgetPercent hedges allowed per hundred eligible requests, across all routes
+ * @param budgetBurst   hedges that may be saved up while traffic is quiet
+ * @param window        how often each route's hedge delay is recomputed from recent latencies
+ * @param minSamples    responses a window needs before its percentile replaces the delay
+ * @param routes        routes whose GETs may be hedged, keyed by route id
+ */
+@ConfigurationProperties(prefix = "wms.gateway.hedging")
+public record GatewayHedgingProperties(boolean enabled,
+                                       Integer budgetPercent,
+                                       Integer budgetBurst,
+                                       Duration window,
+                                       Integer minSamples,
+                                       Map<String, RouteHedging> routes) {
+
+    public GatewayHedgingProperties {
+        budgetPercent = budgetPercent == null ? 10 : budgetPercent;
+        budgetBurst = budgetBurst == null ? 10 : budgetBurst;
+        window = window == null ? Duration.ofSeconds(10) : window;
+        minSamples = minSamples == null ? 50 : minSamples;
+        routes = routes == null ? Map.of() : routes;
+    }
+
+    /**
+     * @param percentile upstream response-time percentile after which a second copy is sent
+     * @param minDelay   lower bound of the hedge delay, so fast routes are not hedged on jitter
+     * @param maxDelay   upper bound of the hedge delay, also used until enough samples exist
+     */
+    public record RouteHedging(Double percentile, Duration minDelay, Duration maxDelay) {
+
+        public RouteHedging {
+            percentile = percentile == null ? 0.95 : percentile;
+            minDelay = minDelay == null ? Duration.ofMillis(20) : minDelay;
+            maxDelay = maxDelay == null ? Duration.ofSeconds(1) : maxDelay;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static upstream instances for {@code lb://} routes, so services can be scaled out without a
+ * discovery server. Re-read when the overrides file changes (see {@link GatewayOverridesWatcher}).
+ *
+ * @param strategy           default balancing strategy for services without their own
+ * @param decayTime          time constant of the latency EWMA; older samples lose weight over it
+ * @param slowThreshold      responses whose first byte takes longer than this count as failures
+ *                           for ejection
+ * @param failureThreshold   consecutive failed or slow responses after which an instance is ejected
+ * @param ejectionTime       how long an ejected instance receives no traffic
+ * @param maxEjectionPercent upper bound on the share of a service's instances ejected at once
+ * @param services           instance lists keyed by the host part of the {@code lb://} route URI
+ */
+@ConfigurationProperties(prefix = "wms.gateway.load-balancer")
+public record GatewayLoadBalancerProperties(Strategy strategy,
+                                            Duration decayTime,
+                                            Duration slowThreshold,
+                                            Integer failureThreshold,
+                                            Duration ejectionTime,
+                                            Integer maxEjectionPercent,
+                                            Map<String, Service> services) {
+
+    public GatewayLoadBalancerProperties {
+        strategy = strategy == null ? Strategy.PEAK_EWMA : strategy;
+        decayTime = decayTime == null ? Duration.ofSeconds(10) : decayTime;
+        slowThreshold = slowThreshold == null ? Duration.ofSeconds(2) : slowThreshold;
+        failureThreshold = failureThreshold == null ? 5 : failureThreshold;
+        ejectionTime = ejectionTime == null ? Duration.ofSeconds(30) : ejectionTime;
+        maxEjectionPercent = maxEjectionPercent == null ? 50 : maxEjectionPercent;
+        services = services == null ? Map.of() : services;
+    }
+
+    /**
+     * @param instances base URIs of the service replicas
+     * @param strategy  overrides the default strategy for this service
+     */
+    public record Service(List<URI> instances, Strategy strategy) {
+
+        public Service {
+            instances = instances == null ? List.of() : instances;
+        }
+    }
+
+    public enum Strategy {
+        /**
+         * Fewest in-flight requests.
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * Lowest peak-sensitive latency EWMA weighted by in-flight requests, picked from two random
+         * candidates.
+         */
+        PEAK_EWMA
+    }
+}
@@ -0,0 +1,91 @@
+package com.travislai.wms.gateway.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes the environment when the external {@code gateway-overrides.yml} changes.
+ * <p>
+ * Replaces {@code POST /actuator/refresh}, which anyone reaching the gateway could call: the file
+ * is polled every {@code poll-interval} and a change in its modification time or size (including
+ * it appearing or disappearing) triggers {@link ContextRefresher#refresh()}, which publishes the
+ * {@code EnvironmentChangeEvent} the filters re-bind their properties on.
+ */
+@Component
+public class GatewayOverridesWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayOverridesWatcher.class);
+    private static final String FILE_NAME = "gateway-overrides.yml";
+
+    private final ContextRefresher refresher;
+    private final Path file;
+    private final Duration pollInterval;
+    private ScheduledExecutorService poller;
+    private String stamp;
+
+    public GatewayOverridesWatcher(ContextRefresher refresher,
+                                   @Value("${WMS_GATEWAY_CONFIG_DIR:config}") String configDir,
+                                   @Value("${wms.gateway.overrides.poll-interval:5s}") Duration pollInterval) {
+        this.refresher = refresher;
+        this.file = Path.of(configDir).resolve(FILE_NAME);
+        this.pollInterval = pollInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        stamp = stampOf(file);
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gateway-overrides-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::poll, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    private void poll() {
+        String current = stampOf(file);
+        if (current.equals(stamp)) {
+            return;
+        }
+        stamp = current;
+        try {
+            Set<String> keys = refresher.refresh();
+            log.info("Gateway overrides changed, refreshed keys={}", keys);
+        } catch (RuntimeException ex) {
+            log.warn("Refreshing gateway overrides from {} failed", file.toAbsolutePath(), ex);
+        }
+    }
+
+    private static String stampOf(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+        } catch (IOException ex) {
+            return "absent";
+        }
+    }
+}
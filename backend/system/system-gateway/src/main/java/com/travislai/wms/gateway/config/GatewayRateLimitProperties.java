@@ -0,0 +1,53 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Edge token-bucket limits. Re-read when the external YAML file changes (see
+ * {@link GatewayOverridesWatcher}), so limits can be changed without restarting the gateway.
+ *
+ * @param enabled     whether {@link com.travislai.wms.gateway.filter.RateLimitFilter} is active
+ * @param keyHeader   request header identifying a client; the remote address is used when it is
+ *                    unset or absent from the request
+ * @param stripes     number of independently locked bucket tables
+ * @param maxClients  upper bound on tracked (route, client) buckets; least recently used are dropped
+ * @param defaults    limit applied to routes without their own entry
+ * @param routes      per-route limits keyed by route id
+ */
+@ConfigurationProperties(prefix = "wms.gateway.rate-limit")
+public record GatewayRateLimitProperties(boolean enabled,
+                                         String keyHeader,
+                                         Integer stripes,
+                                         Integer maxClients,
+                                         Limit defaults,
+                                         Map<String, Limit> routes) {
+
+    public GatewayRateLimitProperties {
+        stripes = stripes == null ? 64 : stripes;
+        maxClients = maxClients == null ? 100_000 : maxClients;
+        defaults = defaults == null ? new Limit(null, null) : defaults;
+        routes = routes == null ? Map.of() : routes;
+    }
+
+    public Limit limitFor(String routeId) {
+        return routeId == null ? defaults : routes.getOrDefault(routeId, defaults);
+    }
+
+    /**
+     * @param capacity          bucket size, i.e. the largest burst a single client may send
+     * @param tokensPerSecond   sustained refill rate; {@code 0} disables limiting for the route
+     */
+    public record Limit(Integer capacity, Double tokensPerSecond) {
+
+        public Limit {
+            capacity = capacity == null ? 50 : capacity;
+            tokensPerSecond = tokensPerSecond == null ? 20.0 : tokensPerSecond;
+        }
+
+        public boolean unlimited() {
+            return tokensPerSecond <= 0 || capacity <= 0;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.travislai.wms.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Edge cache for GET responses.
+ *
+ * @param enabled          whether {@link com.travislai.wms.gateway.filter.ResponseCacheFilter} is active
+ * @param maxSize          total body bytes kept before least recently used entries are evicted
+ * @param maxEntrySize     responses larger than this are never stored
+ * @param tagHeader        response header listing comma-separated tags for the stored entry
+ * @param invalidateHeader response header listing tags to drop, typically sent on writes
+ * @param routes           routes whose GET responses may be cached, keyed by route id
+ */
+@ConfigurationProperties(prefix = "wms.gateway.response-cache")
+public record GatewayResponseCacheProperties(boolean enabled,
+                                             DataSize maxSize,
+                                             DataSize maxEntrySize,
+                                             String tagHeader,
+                                             String invalidateHeader,
+                                             Map<String, RouteCache> routes) {
+
+    public GatewayResponseCacheProperties {
+        maxSize = maxSize == null ? DataSize.ofMegabytes(64) : maxSize;
+        maxEntrySize = maxEntrySize == null ? DataSize.ofMegabytes(1) : maxEntrySize;
+        tagHeader = tagHeader == null ? "X-Cache-Tags" : tagHeader;
+        invalidateHeader = invalidateHeader == null ? "X-Cache-Invalidate" : invalidateHeader;
+        routes = routes == null ? Map.of() : routes;
+    }
+
+    /**
+     * @param defaultTtl freshness applied to 200 responses that carry no {@code Cache-Control} at all;
+     *                   such entries are private to the caller and dropped by any successful write
+     *                   through the same route. {@code 0} caches only what the backend marks cacheable.
+     */
+    public record RouteCache(Duration defaultTtl) {
+
+        public RouteCache {
+            defaultTtl = defaultTtl == null ? Duration.ZERO : defaultTtl;
+        }
+    }
+}
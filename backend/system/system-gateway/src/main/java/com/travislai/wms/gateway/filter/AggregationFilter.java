@@ -0,0 +1,226 @@
+package com.travislai.wms.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.travislai.wms.gateway.config.GatewayAggregationProperties;
+import com.travislai.wms.gateway.config.GatewayAuthProperties;
+import com.travislai.wms.gateway.loadbalancer.UpstreamInstance;
+import com.travislai.wms.gateway.loadbalancer.UpstreamRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves {@code bff://view} routes by calling every leg of the view in parallel and composing one
+ * JSON document, so a page that needs data from several services costs the browser one round
+ * trip.
+ * <p>
+ * Each leg goes to an instance picked by {@link UpstreamRegistry} with the caller's token and has
+ * its own timeout. The response carries the {@code data} of every successful leg under the leg's
+ * name; legs that failed or timed out are listed under {@code errors} instead of failing the whole
+ * view. Only when every leg fails is the answer a 502. Runs as a routing filter after
+ * {@link LoadBalancerFilter}, so authentication, rate and concurrency limits and timing apply to
+ * aggregated routes like to any other.
+ */
+@Component
+@EnableConfigurationProperties(GatewayAggregationProperties.class)
+public class AggregationFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = LoadBalancerFilter.ORDER + 50;
+
+    private static final Logger log = LoggerFactory.getLogger(AggregationFilter.class);
+    private static final String PREFIX = "wms.gateway.aggregation";
+    private static final String SCHEME = "bff";
+
+    private final GatewayAuthProperties authProperties;
+    private final UpstreamRegistry registry;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private volatile GatewayAggregationProperties properties;
+
+    public AggregationFilter(GatewayAggregationProperties properties,
+                             GatewayAuthProperties authProperties,
+                             UpstreamRegistry registry,
+                             WebClient.Builder webClientBuilder,
+                             ObjectMapper objectMapper,
+                             Environment environment,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.authProperties = authProperties;
+        this.registry = registry;
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || !SCHEME.equals(url.getScheme()) || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        ServerHttpResponse response = exchange.getResponse();
+        String viewName = url.getHost();
+        GatewayAggregationProperties.View view = properties.views().get(viewName);
+        if (view == null || view.legs().isEmpty()) {
+            return TokenAuthenticationFilter.reject(response, HttpStatus.NOT_FOUND, "视图不存在");
+        }
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return TokenAuthenticationFilter.reject(response, HttpStatus.METHOD_NOT_ALLOWED, "仅支持 GET");
+        }
+        String token = exchange.getRequest().getHeaders().getFirst(authProperties.tokenHeader());
+        return Flux.fromIterable(view.legs().entrySet())
+                .flatMap(entry -> call(viewName, entry.getKey(), entry.getValue(), token))
+                .collectList()
+                .flatMap(results -> write(response, view, results))
+                .then(Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            properties = Binder.get(environment).bindOrCreate(PREFIX, GatewayAggregationProperties.class);
+            log.info("Aggregated views reloaded: {}", properties.views().keySet());
+        }
+    }
+
+    /**
+     * Calls one leg; never fails, a failure becomes a {@link LegResult} with an error message.
+     */
+    private Mono<LegResult> call(String viewName, String name, GatewayAggregationProperties.Leg leg, String token) {
+        UpstreamInstance instance = registry.choose(leg.service());
+        if (instance == null) {
+            counter(viewName, name, "error").increment();
+            return Mono.just(LegResult.failed(name, "无可用实例"));
+        }
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    AtomicBoolean failed = new AtomicBoolean();
+                    registry.onStart(instance);
+                    return webClient.get()
+                            .uri(instance.uri().resolve(leg.path()))
+                            .headers(headers -> {
+                                headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                                if (token != null) {
+                                    headers.set(authProperties.tokenHeader(), token);
+                                }
+                            })
+                            .exchangeToMono(upstream -> upstream.bodyToMono(JsonNode.class)
+                                    .defaultIfEmpty(NullNode.getInstance())
+                                    .map(body -> toResult(name, upstream.statusCode(), body)))
+                            .timeout(leg.timeout())
+                            .doOnNext(result -> failed.set(result.status().is5xxServerError()))
+                            .doFinally(signal -> registry.onComplete(instance, System.nanoTime() - start,
+                                    failed.get() || signal == SignalType.ON_ERROR));
+                })
+                .doOnNext(result -> counter(viewName, name, result.error() == null ? "ok" : "error").increment())
+                .onErrorResume(ex -> {
+                    boolean timedOut = ex instanceof TimeoutException;
+                    counter(viewName, name, timedOut ? "timeout" : "error").increment();
+                    log.debug("Leg {} of view {} failed: {}", name, viewName, ex.toString());
+                    return Mono.just(LegResult.failed(name, timedOut ? "请求超时" : "服务暂不可用"));
+                });
+    }
+
+    private static LegResult toResult(String name, HttpStatusCode status, JsonNode body) {
+        if (status.is2xxSuccessful() && body.path("success").asBoolean(false)) {
+            return new LegResult(name, status, body.path("data"), null);
+        }
+        String message = body.path("message").asText("");
+        return new LegResult(name, status, null, message.isEmpty() ? "HTTP " + status.value() : message);
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, GatewayAggregationProperties.View view,
+                             List<LegResult> results) {
+        ObjectNode document = objectMapper.createObjectNode();
+        ObjectNode data = objectMapper.createObjectNode();
+        ObjectNode errors = objectMapper.createObjectNode();
+        // Fields follow the configured leg order rather than completion order.
+        for (String name : view.legs().keySet()) {
+            for (LegResult result : results) {
+                if (result.name().equals(name)) {
+                    if (result.error() == null) {
+                        data.set(name, result.data());
+                    } else {
+                        errors.put(name, result.error());
+                    }
+                }
+            }
+        }
+        boolean anySucceeded = !data.isEmpty();
+        document.put("success", anySucceeded);
+        document.put("message", anySucceeded ? "OK" : "上游服务均不可用");
+        document.set("data", data);
+        if (!errors.isEmpty()) {
+            document.set("errors", errors);
+        }
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(document);
+        } catch (JsonProcessingException ex) {
+            return Mono.error(ex);
+        }
+        response.setStatusCode(anySucceeded ? HttpStatus.OK : HttpStatus.BAD_GATEWAY);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private Counter counter(String viewName, String leg, String outcome) {
+        return counters.computeIfAbsent(viewName + '\u0000' + leg + '\u0000' + outcome,
+                k -> Counter.builder("gateway.aggregation.legs")
+                        .tag("view", viewName)
+                        .tag("leg", leg)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+
+    private record LegResult(String name, HttpStatusCode status, JsonNode data, String error) {
+
+        static LegResult failed(String name, String error) {
+            return new LegResult(name, HttpStatus.BAD_GATEWAY, null, error);
+        }
+    }
+}
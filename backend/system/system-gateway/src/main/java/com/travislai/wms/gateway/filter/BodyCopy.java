@@ -0,0 +1,77 @@
+package com.travislai.wms.gateway.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Copy of a response body taken while it passes through to the client, abandoned once it exceeds
+ * the limit. Used where a response may be kept or shared, so that an unexpectedly large or chunked
+ * body is never held in memory in full.
+ */
+final class BodyCopy {
+
+    private static final List<MediaType> STREAMING_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON,
+            MediaType.TEXT_EVENT_STREAM,
+            MediaType.parseMediaType("text/csv"));
+
+    private final long limit;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private boolean overflowed;
+
+    BodyCopy(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Whether the response is a download ({@code Content-Disposition: attachment}) or has a
+     * streaming media type, and so should be neither cached nor shared.
+     */
+    static boolean streaming(HttpHeaders headers) {
+        String disposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+        if (disposition != null && disposition.trim().toLowerCase(Locale.ROOT).startsWith("attachment")) {
+            return true;
+        }
+        MediaType contentType;
+        try {
+            contentType = headers.getContentType();
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        return contentType != null && STREAMING_TYPES.stream().anyMatch(type -> type.isCompatibleWith(contentType));
+    }
+
+    /**
+     * Copies the readable bytes of {@code buffer} without consuming them; returns {@code false}
+     * once the copy has been abandoned.
+     */
+    boolean append(DataBuffer buffer) {
+        int length = buffer.readableByteCount();
+        if (overflowed || length == 0) {
+            return !overflowed;
+        }
+        if (bytes.size() + (long) length > limit) {
+            overflowed = true;
+            bytes.reset();
+            return false;
+        }
+        byte[] chunk = new byte[length];
+        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, length);
+        bytes.write(chunk, 0, length);
+        return true;
+    }
+
+    boolean overflowed() {
+        return overflowed;
+    }
+
+    byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,240 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.config.GatewayAuthProperties;
+import com.travislai.wms.gateway.config.GatewayCoalescingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses concurrent identical GETs on configured routes into one upstream call.
+ * <p>
+ * The first request for a key becomes the leader and is forwarded; requests arriving while it is
+ * in flight wait up to {@code max-wait} and then receive a copy of the leader's status, headers and
+ * body. A follower whose wait runs out, or whose leader fails, streams, sets cookies, is a download
+ * or streaming media type, or exceeds {@code max-body-size}, is forwarded on its own. The leader's
+ * own client receives the body as it arrives; only a copy up to {@code max-body-size} is kept for
+ * the followers. Runs after {@link ResponseCacheFilter}, so cache hits never wait and the cache
+ * stores the shared response for every caller.
+ */
+@Component
+@EnableConfigurationProperties(GatewayCoalescingProperties.class)
+public class CoalescingFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = ResponseCacheFilter.ORDER + 50;
+
+    private static final String PREFIX = "wms.gateway.coalescing";
+    private static final List<String> KEY_HEADERS = List.of(
+            HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE,
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final Set<String> UNSHARED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT));
+
+    private final GatewayAuthProperties authProperties;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private volatile GatewayCoalescingProperties properties;
+
+    public CoalescingFilter(GatewayCoalescingProperties properties,
+                            GatewayAuthProperties authProperties,
+                            Environment environment,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.authProperties = authProperties;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        GatewayCoalescingProperties current = properties;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        GatewayCoalescingProperties.RouteCoalescing settings = route == null ? null : current.routes().get(route.getId());
+        if (!current.enabled() || settings == null || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        String routeId = route.getId();
+        String key = key(routeId, request, settings.shareAcrossPrincipals());
+        Flight flight = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            counter(routeId, "leader").increment();
+            LeaderResponse response = new LeaderResponse(exchange.getResponse(), key, flight,
+                    current.maxBodySize().toBytes());
+            return chain.filter(exchange.mutate().response(response).build())
+                    .doFinally(signal -> response.abandon());
+        }
+        return leader.sink.asMono()
+                .timeout(settings.maxWait(), Mono.empty())
+                .flatMap(shared -> {
+                    counter(routeId, "follower").increment();
+                    return replay(exchange.getResponse(), shared).thenReturn(Boolean.TRUE);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    counter(routeId, "fallback").increment();
+                    return chain.filter(exchange).thenReturn(Boolean.TRUE);
+                }))
+                .then();
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            properties = Binder.get(environment).bindOrCreate(PREFIX, GatewayCoalescingProperties.class);
+        }
+    }
+
+    private String key(String routeId, ServerHttpRequest request, boolean shareAcrossPrincipals) {
+        StringBuilder key = new StringBuilder(routeId).append(' ').append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        HttpHeaders headers = request.getHeaders();
+        if (!shareAcrossPrincipals) {
+            key.append('\n').append(headers.getFirst(authProperties.tokenHeader()));
+        }
+        for (String name : KEY_HEADERS) {
+            key.append('\n').append(headers.getOrEmpty(name));
+        }
+        return key.toString();
+    }
+
+    private static Mono<Void> replay(ServerHttpResponse response, Shared shared) {
+        response.setStatusCode(shared.status());
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        headers.setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private Counter counter(String routeId, String role) {
+        return counters.computeIfAbsent(routeId + '\u0000' + role, k -> Counter.builder("gateway.coalesce.requests")
+                .tag("route", routeId)
+                .tag("role", role)
+                .register(meterRegistry));
+    }
+
+    private static final class Flight {
+
+        private final Sinks.One<Shared> sink = Sinks.one();
+    }
+
+    private record Shared(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * Copies the leader's response on its way to the leader's own client and hands it to the
+     * waiting followers once complete.
+     */
+    private final class LeaderResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Flight flight;
+        private final long maxBodySize;
+
+        LeaderResponse(ServerHttpResponse delegate, String key, Flight flight, long maxBodySize) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+            this.maxBodySize = maxBodySize;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (getStatusCode() == null || headers.containsKey(HttpHeaders.SET_COOKIE)
+                    || headers.getContentLength() > maxBodySize || BodyCopy.streaming(headers)) {
+                abandon();
+                return super.writeWith(body);
+            }
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders shared = copy(headers);
+            BodyCopy copy = new BodyCopy(maxBodySize);
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (!copy.append(buffer)) {
+                            // Followers stop waiting as soon as the body outgrows the limit
+                            abandon();
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!copy.overflowed()) {
+                            publish(new Shared(status, shared, copy.toByteArray()));
+                        }
+                    }));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            abandon();
+            return super.writeAndFlushWith(body);
+        }
+
+        private void publish(Shared shared) {
+            inFlight.remove(key, flight);
+            flight.sink.tryEmitValue(shared);
+        }
+
+        /**
+         * Releases followers without a response; no-op once a response has been published.
+         */
+        void abandon() {
+            inFlight.remove(key, flight);
+            flight.sink.tryEmitEmpty();
+        }
+
+        private static HttpHeaders copy(HttpHeaders headers) {
+            HttpHeaders copy = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                String lower = name.toLowerCase(Locale.ROOT);
+                if (!UNSHARED_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+                    copy.addAll(name, values);
+                }
+            });
+            return HttpHeaders.readOnlyHttpHeaders(copy);
+        }
+    }
+}
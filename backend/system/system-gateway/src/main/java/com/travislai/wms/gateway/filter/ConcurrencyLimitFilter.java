@@ -0,0 +1,200 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.config.GatewayConcurrencyLimitProperties;
+import com.travislai.wms.gateway.metrics.RequestTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps in-flight upstream requests per route with a limit that adapts to backend latency.
+ * <p>
+ * The limit follows the gradient algorithm: a short-window RTT average is compared with a
+ * long-window baseline, and {@code limit * clamp(baseline / recent, 0.5, 1) + sqrt(limit)} is
+ * blended into the current limit. When the backend slows down the ratio falls and the limit
+ * shrinks; when latency returns to baseline the square-root headroom lets it grow again. Upstream
+ * errors and 503/504 responses also back the limit off. Requests above the limit are rejected at
+ * once with 503 instead of queueing, so a slow database degrades throughput rather than piling up
+ * timeouts. Runs after the response cache and coalescing, so only requests that actually go
+ * upstream hold a permit.
+ */
+@Component
+@EnableConfigurationProperties(GatewayConcurrencyLimitProperties.class)
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = CoalescingFilter.ORDER + 50;
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+    private static final String PREFIX = "wms.gateway.concurrency-limit";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GradientLimit> limits = new ConcurrentHashMap<>();
+
+    private volatile GatewayConcurrencyLimitProperties properties;
+
+    public ConcurrencyLimitFilter(GatewayConcurrencyLimitProperties properties, Environment environment,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        GatewayConcurrencyLimitProperties current = properties;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!current.enabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        GradientLimit limit = limit(route.getId(), current);
+        if (!limit.tryAcquire()) {
+            limit.rejected.increment();
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return TokenAuthenticationFilter.reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                    "服务繁忙，请稍后再试");
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            RequestTiming timing = exchange.getAttribute(RequestTiming.ATTR);
+            long rtt = timing == null ? -1 : timing.upstreamRttNanos();
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean dropped = signal == SignalType.ON_ERROR || (status != null
+                    && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || status.value() == HttpStatus.GATEWAY_TIMEOUT.value()));
+            limit.release(rtt > 0 ? rtt : System.nanoTime() - start, dropped, signal == SignalType.CANCEL);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            properties = Binder.get(environment).bindOrCreate(PREFIX, GatewayConcurrencyLimitProperties.class);
+            limits.forEach((routeId, limit) -> limit.configure(properties.limitFor(routeId)));
+            log.info("Concurrency limits reloaded: defaults={}, routes={}", properties.defaults(), properties.routes());
+        }
+    }
+
+    private GradientLimit limit(String routeId, GatewayConcurrencyLimitProperties current) {
+        GradientLimit limit = limits.get(routeId);
+        if (limit != null) {
+            return limit;
+        }
+        return limits.computeIfAbsent(routeId, id -> {
+            GradientLimit created = new GradientLimit(current.limitFor(id),
+                    Counter.builder("gateway.concurrency.rejected").tag("route", id).register(meterRegistry));
+            Gauge.builder("gateway.concurrency.limit", created, GradientLimit::limit).tag("route", id)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.inflight", created, GradientLimit::inflight).tag("route", id)
+                    .register(meterRegistry);
+            return created;
+        });
+    }
+
+    static final class GradientLimit {
+
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final Counter rejected;
+
+        private volatile int limit;
+        private GatewayConcurrencyLimitProperties.Limit settings;
+        private double estimate;
+        private double shortRtt;
+        private double longRtt;
+
+        GradientLimit(GatewayConcurrencyLimitProperties.Limit settings, Counter rejected) {
+            this.rejected = rejected;
+            this.settings = settings;
+            update(settings.initialLimit(), settings);
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inflight.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (inflight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        synchronized void release(long rttNanos, boolean dropped, boolean cancelled) {
+            int inflightBefore = inflight.getAndDecrement();
+            if (cancelled) {
+                return;
+            }
+            GatewayConcurrencyLimitProperties.Limit s = settings;
+            if (dropped) {
+                update(estimate * 0.9, s);
+                return;
+            }
+            double rtt = rttNanos;
+            shortRtt = shortRtt == 0 ? rtt : ewma(shortRtt, rtt, s.shortWindow());
+            longRtt = longRtt == 0 ? rtt : ewma(longRtt, rtt, s.longWindow());
+            // Let the baseline follow a lasting improvement instead of waiting out the long window.
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            // An under-used limit says nothing about capacity; do not grow it.
+            if (inflightBefore < estimate / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+            double target = estimate * gradient + Math.sqrt(estimate);
+            update(estimate * (1 - s.smoothing()) + target * s.smoothing(), s);
+        }
+
+        synchronized void configure(GatewayConcurrencyLimitProperties.Limit settings) {
+            this.settings = settings;
+            update(estimate, settings);
+        }
+
+        int limit() {
+            return limit;
+        }
+
+        int inflight() {
+            return inflight.get();
+        }
+
+        private void update(double next, GatewayConcurrencyLimitProperties.Limit s) {
+            estimate = Math.max(s.minLimit(), Math.min(s.maxLimit(), next));
+            limit = (int) estimate;
+        }
+
+        private static double ewma(double average, double sample, int window) {
+            double alpha = 2.0 / (window + 1);
+            return average + alpha * (sample - average);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.config.GatewayHedgingProperties;
+import com.travislai.wms.gateway.loadbalancer.UpstreamInstance;
+import com.travislai.wms.gateway.loadbalancer.UpstreamRegistry;
+import com.travislai.wms.gateway.metrics.LatencyHistogram;
+import com.travislai.wms.gateway.metrics.RequestTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedges idempotent GETs on configured load-balanced routes.
+ * <p>
+ * The request is sent to the instance {@link LoadBalancerFilter} chose; if no response headers
+ * have arrived after the route's hedge delay, an identical copy goes to another instance and
+ * whichever answers first is streamed to the client while the other is cancelled, or its
+ * connection closed if it answers too. A failed attempt never decides the race while the other
+ * may still answer; only when both fail is the first error returned. The delay
+ * tracks a percentile of the route's recent upstream response times, recomputed every
+ * {@code window}, so only the slow tail is hedged. A global budget earns {@code budget-percent}
+ * hedges per hundred eligible requests, which caps the extra load a slow backend can attract.
+ * <p>
+ * Runs just before {@link NettyRoutingFilter} and takes its place for hedged requests: the winning
+ * response is stored in the same exchange attributes and the exchange is marked as routed, so
+ * {@code NettyWriteResponseFilter} writes the body as usual.
+ */
+@Component
+@EnableConfigurationProperties(GatewayHedgingProperties.class)
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = NettyRoutingFilter.ORDER - 2;
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingFilter.class);
+    private static final String PREFIX = "wms.gateway.hedging";
+    /** The budget is kept in thousandths of a hedge so fractional percentages add up exactly. */
+    private static final long UNIT = 1_000;
+
+    private final HttpClient httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final UpstreamRegistry registry;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong budget = new AtomicLong();
+    private final Map<String, RouteState> states = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private volatile GatewayHedgingProperties properties;
+    private volatile List<HttpHeadersFilter> headersFilters;
+
+    public HedgingFilter(GatewayHedgingProperties properties,
+                         HttpClient httpClient,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                         UpstreamRegistry registry,
+                         Environment environment,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.httpClient = httpClient;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.registry = registry;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        budget.set(properties.budgetBurst() * UNIT);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        GatewayHedgingProperties current = properties;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        GatewayHedgingProperties.RouteHedging settings = route == null ? null : current.routes().get(route.getId());
+        UpstreamInstance primary = exchange.getAttribute(LoadBalancerFilter.INSTANCE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (!current.enabled() || settings == null || primary == null || url == null
+                || exchange.getRequest().getMethod() != HttpMethod.GET
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)
+                || registry.instances(primary.serviceId()).size() < 2) {
+            return chain.filter(exchange);
+        }
+        String routeId = route.getId();
+        RouteState state = state(routeId, settings);
+        deposit(current);
+        DefaultHttpHeaders headers = requestHeaders(exchange);
+        RequestTiming timing = exchange.getAttribute(RequestTiming.ATTR);
+        if (timing != null) {
+            timing.markDispatched();
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean delayElapsed = new AtomicBoolean();
+        Race race = new Race();
+        Mono<Attempt> first = race.enter(send(url, headers, primary, false));
+        Mono<Attempt> second = race.enter(Mono.delay(Duration.ofNanos(state.delayNanos()))
+                .flatMap(tick -> {
+                    delayElapsed.set(true);
+                    return hedge(routeId, url, headers, primary);
+                }));
+        return Mono.firstWithValue(first, second)
+                .onErrorMap(ex -> race.firstError.get() != null ? race.firstError.get() : ex)
+                .flatMap(winner -> {
+                    state.record(System.nanoTime() - start, current);
+                    if (!delayElapsed.get()) {
+                        counter(routeId, "none").increment();
+                    }
+                    if (winner.hedge()) {
+                        counter(routeId, "won").increment();
+                        exchange.getAttributes().put(LoadBalancerFilter.INSTANCE_ATTR, winner.instance());
+                    }
+                    applyResponse(exchange, winner);
+                    ServerWebExchangeUtils.setAlreadyRouted(exchange);
+                    return chain.filter(exchange);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            properties = Binder.get(environment).bindOrCreate(PREFIX, GatewayHedgingProperties.class);
+            states.forEach((routeId, state) -> {
+                GatewayHedgingProperties.RouteHedging settings = properties.routes().get(routeId);
+                if (settings != null) {
+                    state.configure(settings);
+                }
+            });
+            log.info("Hedging settings reloaded: budget={}%, routes={}", properties.budgetPercent(), properties.routes());
+        }
+    }
+
+    /**
+     * Sends the hedged copy to another instance, or completes empty when the budget is spent or
+     * no other instance exists, leaving the primary to answer.
+     */
+    private Mono<Attempt> hedge(String routeId, URI url, DefaultHttpHeaders headers, UpstreamInstance primary) {
+        UpstreamInstance other = registry.choose(primary.serviceId(), primary);
+        if (other == null) {
+            return Mono.empty();
+        }
+        if (!withdraw()) {
+            counter(routeId, "budget-exhausted").increment();
+            return Mono.empty();
+        }
+        counter(routeId, "fired").increment();
+        URI target = other.uri();
+        URI hedgeUrl = UriComponentsBuilder.fromUri(url)
+                .scheme(target.getScheme())
+                .host(target.getHost())
+                .port(target.getPort())
+                .build(true)
+                .toUri();
+        return send(hedgeUrl, headers, other, true)
+                .doOnError(ex -> log.debug("Hedged request to {} failed: {}", other, ex.toString()));
+    }
+
+    private Mono<Attempt> send(URI url, DefaultHttpHeaders headers, UpstreamInstance instance, boolean hedge) {
+        Mono<Attempt> attempt = httpClient.headers(h -> h.add(headers))
+                .request(io.netty.handler.codec.http.HttpMethod.GET)
+                .uri(url)
+                .responseConnection((response, connection) ->
+                        Mono.just(new Attempt(instance, hedge, response, connection)))
+                .next();
+        if (!hedge) {
+            // The primary's outcome is reported by LoadBalancerFilter.
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            registry.onStart(instance);
+            return attempt.doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    // Lost the race before responding
+                    registry.onCancel(instance);
+                } else {
+                    registry.onComplete(instance, System.nanoTime() - start, signal == SignalType.ON_ERROR);
+                }
+            });
+        });
+    }
+
+    private DefaultHttpHeaders requestHeaders(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders filtered = HttpHeadersFilter.filterRequest(headersFilters(), exchange);
+        DefaultHttpHeaders headers = new DefaultHttpHeaders();
+        filtered.forEach(headers::set);
+        if (exchange.getAttributeOrDefault(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE, false)) {
+            headers.set(HttpHeaders.HOST, request.getHeaders().getFirst(HttpHeaders.HOST));
+        } else {
+            // Let Netty derive it from the instance URI.
+            headers.remove(HttpHeaders.HOST);
+        }
+        return headers;
+    }
+
+    /**
+     * Copies the winner's status and headers the way {@link NettyRoutingFilter} does.
+     */
+    private void applyResponse(ServerWebExchange exchange, Attempt winner) {
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR, winner.response());
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR, winner.connection());
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders upstream = new HttpHeaders();
+        winner.response().responseHeaders().forEach(entry -> upstream.add(entry.getKey(), entry.getValue()));
+        String contentType = upstream.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasText(contentType)) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(winner.response().status().code()));
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters(), upstream, exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, filtered.keySet());
+        response.getHeaders().addAll(filtered);
+    }
+
+    private List<HttpHeadersFilter> headersFilters() {
+        List<HttpHeadersFilter> filters = headersFilters;
+        if (filters == null) {
+            filters = headersFiltersProvider.getIfAvailable(List::of);
+            headersFilters = filters;
+        }
+        return filters;
+    }
+
+    private void deposit(GatewayHedgingProperties current) {
+        long cap = current.budgetBurst() * UNIT;
+        long amount = current.budgetPercent() * UNIT / 100;
+        budget.getAndUpdate(balance -> Math.min(cap, balance + amount));
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long balance = budget.get();
+            if (balance < UNIT) {
+                return false;
+            }
+            if (budget.compareAndSet(balance, balance - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    private RouteState state(String routeId, GatewayHedgingProperties.RouteHedging settings) {
+        RouteState state = states.get(routeId);
+        if (state != null) {
+            return state;
+        }
+        return states.computeIfAbsent(routeId, id -> {
+            RouteState created = new RouteState(settings);
+            Gauge.builder("gateway.hedge.delay", created, s -> s.delayNanos() / 1e9)
+                    .tag("route", id)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            return created;
+        });
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return counters.computeIfAbsent(routeId + '\u0000' + outcome, k -> Counter.builder("gateway.hedge.requests")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private record Attempt(UpstreamInstance instance, boolean hedge, HttpClientResponse response,
+                           Connection connection) {
+    }
+
+    /**
+     * Decides which attempt answers the client. The first response to arrive claims the race; one
+     * arriving later closes its own connection instead of relying on the losing subscription to
+     * be discarded, and the first failure is kept in case no attempt succeeds.
+     */
+    private static final class Race {
+
+        private final AtomicReference<Attempt> winner = new AtomicReference<>();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        Mono<Attempt> enter(Mono<Attempt> attempt) {
+            return attempt
+                    .doOnError(ex -> firstError.compareAndSet(null, ex))
+                    .flatMap(candidate -> {
+                        if (winner.compareAndSet(null, candidate)) {
+                            return Mono.just(candidate);
+                        }
+                        candidate.connection().dispose();
+                        return Mono.empty();
+                    });
+        }
+    }
+
+    /**
+     * Recent upstream response times of one route and the hedge delay derived from them. A
+     * request won by its hedge is recorded with the time it took, which is a lower bound for the
+     * cancelled primary.
+     */
+    private static final class RouteState {
+
+        private volatile GatewayHedgingProperties.RouteHedging settings;
+        private volatile LatencyHistogram window = new LatencyHistogram();
+        private volatile long windowStart = System.nanoTime();
+        private volatile long delayNanos;
+
+        RouteState(GatewayHedgingProperties.RouteHedging settings) {
+            this.settings = settings;
+            this.delayNanos = settings.maxDelay().toNanos();
+        }
+
+        long delayNanos() {
+            return delayNanos;
+        }
+
+        void record(long nanos, GatewayHedgingProperties current) {
+            window.recordNanos(nanos);
+            long now = System.nanoTime();
+            if (now - windowStart >= current.window().toNanos()) {
+                rotate(now, current);
+            }
+        }
+
+        synchronized void configure(GatewayHedgingProperties.RouteHedging settings) {
+            this.settings = settings;
+            delayNanos = clamp(delayNanos, settings);
+        }
+
+        private synchronized void rotate(long now, GatewayHedgingProperties current) {
+            if (now - windowStart < current.window().toNanos()) {
+                return;
+            }
+            LatencyHistogram finished = window;
+            window = new LatencyHistogram();
+            windowStart = now;
+            GatewayHedgingProperties.RouteHedging s = settings;
+            long quantile = finished.quantileNanos(s.percentile(), current.minSamples());
+            if (quantile > 0) {
+                delayNanos = clamp(quantile, s);
+            }
+        }
+
+        private static long clamp(long nanos, GatewayHedgingProperties.RouteHedging s) {
+            return Math.max(s.minDelay().toNanos(), Math.min(s.maxDelay().toNanos(), nanos));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.loadbalancer.UpstreamInstance;
+import com.travislai.wms.gateway.loadbalancer.UpstreamRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves {@code lb://service} route URIs to one of the statically configured instances held by
+ * {@link UpstreamRegistry}, and reports each request's latency and outcome back to it.
+ * <p>
+ * Runs right after {@link RouteToRequestUrlFilter}, in the slot Spring Cloud LoadBalancer would
+ * use, so no discovery client is needed. The chosen instance is stored under
+ * {@link #INSTANCE_ATTR} for later filters.
+ * <p>
+ * The reported latency is the time until the upstream response starts being written back, not
+ * until its body has been streamed, so long downloads such as exports do not count as slow.
+ */
+@Component
+public class LoadBalancerFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 150;
+    public static final String INSTANCE_ATTR = LoadBalancerFilter.class.getName() + ".instance";
+
+    private static final String SCHEME = "lb";
+
+    private final UpstreamRegistry registry;
+
+    public LoadBalancerFilter(UpstreamRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        String schemePrefix = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_SCHEME_PREFIX_ATTR);
+        if (url == null || (!SCHEME.equals(url.getScheme()) && !SCHEME.equals(schemePrefix))) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.addOriginalRequestUrl(exchange, url);
+        String serviceId = url.getHost();
+        UpstreamInstance instance = registry.choose(serviceId);
+        if (instance == null) {
+            return Mono.error(NotFoundException.create(true, "No instances configured for " + serviceId));
+        }
+        URI target = instance.uri();
+        URI requestUrl = UriComponentsBuilder.fromUri(url)
+                .scheme(target.getScheme())
+                .host(target.getHost())
+                .port(target.getPort())
+                .build(true)
+                .toUri();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, requestUrl);
+        exchange.getAttributes().put(INSTANCE_ATTR, instance);
+
+        long start = System.nanoTime();
+        AtomicLong firstByteNanos = new AtomicLong();
+        AtomicBoolean errored = new AtomicBoolean();
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                firstByteNanos.compareAndSet(0, System.nanoTime() - start);
+                return super.writeWith(body);
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                firstByteNanos.compareAndSet(0, System.nanoTime() - start);
+                return super.writeAndFlushWith(body);
+            }
+        };
+        registry.onStart(instance);
+        return chain.filter(exchange.mutate().response(response).build())
+                .doOnError(ex -> errored.set(true))
+                .doFinally(signal -> {
+                    HttpStatusCode status = response.getStatusCode();
+                    boolean failed = errored.get() || (status != null && status.is5xxServerError());
+                    long latency = firstByteNanos.get();
+                    registry.onComplete(instance, latency != 0 ? latency : System.nanoTime() - start, failed);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
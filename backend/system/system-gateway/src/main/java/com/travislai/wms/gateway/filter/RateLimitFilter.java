@@ -0,0 +1,185 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.config.GatewayRateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-route, per-client token buckets kept in gateway memory.
+ * <p>
+ * Buckets live in lock-striped, access-ordered tables so unrelated clients never contend on the
+ * same lock and idle clients are evicted once {@code max-clients} is reached. Runs ahead of
+ * {@link TokenAuthenticationFilter}, so throttled traffic never costs a verification call.
+ * Limits are re-bound whenever {@code wms.gateway.rate-limit.*} changes on refresh; existing
+ * buckets are dropped so new limits apply immediately.
+ */
+@Component
+@EnableConfigurationProperties(GatewayRateLimitProperties.class)
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = TokenAuthenticationFilter.ORDER - 50;
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final String PREFIX = "wms.gateway.rate-limit";
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> allowedCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> throttledCounters = new ConcurrentHashMap<>();
+
+    private volatile GatewayRateLimitProperties properties;
+    private volatile Stripe[] stripes;
+
+    public RateLimitFilter(GatewayRateLimitProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        apply(properties);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        GatewayRateLimitProperties current = properties;
+        if (!current.enabled() || exchange.getRequest().getMethod() == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? "unrouted" : route.getId();
+        GatewayRateLimitProperties.Limit limit = current.limitFor(routeId);
+        if (limit.unlimited()) {
+            return chain.filter(exchange);
+        }
+        String key = routeId + '\u0000' + clientKey(exchange.getRequest(), current.keyHeader());
+        Stripe[] table = stripes;
+        long waitNanos = table[(key.hashCode() & 0x7fffffff) % table.length].acquire(key, limit, System.nanoTime());
+        if (waitNanos == 0) {
+            counter(allowedCounters, routeId, "allowed").increment();
+            return chain.filter(exchange);
+        }
+        counter(throttledCounters, routeId, "throttled").increment();
+        long retryAfter = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        return TokenAuthenticationFilter.reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, "请求过于频繁，请稍后再试");
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            apply(Binder.get(environment).bindOrCreate(PREFIX, GatewayRateLimitProperties.class));
+            log.info("Rate limits reloaded: defaults={}, routes={}", properties.defaults(), properties.routes());
+        }
+    }
+
+    private void apply(GatewayRateLimitProperties updated) {
+        int stripeCount = Math.max(1, updated.stripes());
+        int perStripe = Math.max(16, updated.maxClients() / stripeCount);
+        Stripe[] table = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            table[i] = new Stripe(perStripe);
+        }
+        this.stripes = table;
+        this.properties = updated;
+    }
+
+    private Counter counter(Map<String, Counter> counters, String routeId, String outcome) {
+        return counters.computeIfAbsent(routeId, id -> Counter.builder("gateway.ratelimit.requests")
+                .tag("route", id)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String clientKey(ServerHttpRequest request, String keyHeader) {
+        if (keyHeader != null) {
+            String value = request.getHeaders().getFirst(keyHeader);
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote == null || remote.getAddress() == null ? "unknown" : remote.getAddress().getHostAddress();
+    }
+
+    static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Bucket> buckets;
+
+        Stripe(int capacity) {
+            this.buckets = new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        /**
+         * Takes one token, returning 0 on success or the nanoseconds until one becomes available.
+         */
+        long acquire(String key, GatewayRateLimitProperties.Limit limit, long now) {
+            double nanosPerToken = NANOS_PER_SECOND / limit.tokensPerSecond();
+            lock.lock();
+            try {
+                Bucket bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new Bucket(limit.capacity(), now);
+                    buckets.put(key, bucket);
+                } else {
+                    double refilled = (now - bucket.updatedAt) / nanosPerToken;
+                    bucket.tokens = Math.min(limit.capacity(), bucket.tokens + refilled);
+                    bucket.updatedAt = now;
+                }
+                if (bucket.tokens >= 1) {
+                    bucket.tokens -= 1;
+                    return 0;
+                }
+                // One extra nanosecond so that rounding in the refill cannot leave a retry after
+                // exactly this wait just short of a whole token.
+                return (long) Math.ceil((1 - bucket.tokens) * nanosPerToken) + 1;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
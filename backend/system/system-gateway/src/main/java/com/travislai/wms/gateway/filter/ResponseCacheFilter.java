@@ -0,0 +1,426 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.cache.CachedResponse;
+import com.travislai.wms.gateway.cache.ResponseCache;
+import com.travislai.wms.gateway.config.GatewayAuthProperties;
+import com.travislai.wms.gateway.config.GatewayResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves repeated GETs on configured routes from {@link ResponseCache}.
+ * <p>
+ * Follows the backend's caching headers: {@code no-store} and {@code Set-Cookie} responses are
+ * never kept, fresh entries ({@code max-age}/{@code s-maxage}) are answered locally, and entries
+ * that must be revalidated are checked with a conditional request so the backend only has to
+ * answer 304. Responses marked {@code private}, or to requests carrying a token without an
+ * explicit {@code public}/{@code s-maxage}, are keyed by the caller's token. {@code Vary} request
+ * headers are part of the key. Downloads ({@code Content-Disposition: attachment}) and streaming
+ * media types are never kept, and bodies are passed through as they arrive while a copy is taken
+ * only up to {@code max-entry-size}.
+ * <p>
+ * A successful write through a cached route drops entries for the same URI and the route's
+ * heuristic entries; backends can drop entries by tag with the {@code invalidate-header} on any
+ * response or through {@link com.travislai.wms.gateway.cache.ResponseCacheEndpoint}.
+ */
+@Component
+@EnableConfigurationProperties(GatewayResponseCacheProperties.class)
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = TokenAuthenticationFilter.ORDER + 100;
+
+    private static final String PREFIX = "wms.gateway.response-cache";
+    private static final String ROUTE_TAG_PREFIX = "route:";
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.DATE.toLowerCase(Locale.ROOT),
+            HttpHeaders.VARY.toLowerCase(Locale.ROOT));
+
+    private final ResponseCache cache;
+    private final GatewayAuthProperties authProperties;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+
+    private volatile GatewayResponseCacheProperties properties;
+
+    public ResponseCacheFilter(ResponseCache cache,
+                               GatewayResponseCacheProperties properties,
+                               GatewayAuthProperties authProperties,
+                               Environment environment,
+                               MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.properties = properties;
+        this.authProperties = authProperties;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.cache.entries", cache, ResponseCache::size).register(meterRegistry);
+        Gauge.builder("gateway.cache.bytes", cache, ResponseCache::bytes).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        GatewayResponseCacheProperties current = properties;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!current.enabled() || route == null || !current.routes().containsKey(route.getId())) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String pathTarget = route.getId() + ' ' + request.getURI().getRawPath();
+        String target = request.getURI().getRawQuery() == null
+                ? pathTarget : pathTarget + '?' + request.getURI().getRawQuery();
+        if (request.getMethod() != HttpMethod.GET) {
+            if (request.getMethod() == HttpMethod.HEAD || request.getMethod() == HttpMethod.OPTIONS) {
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange.mutate().response(new InvalidatingResponse(exchange.getResponse(),
+                    route.getId(), pathTarget, current)).build());
+        }
+        Set<String> requestDirectives = directives(request.getHeaders().get(HttpHeaders.CACHE_CONTROL));
+        if (requestDirectives.contains("no-store")) {
+            return chain.filter(exchange);
+        }
+        RouteStats routeStats = stats(route.getId());
+        String principal = request.getHeaders().getFirst(authProperties.tokenHeader());
+        List<String> vary = cache.varyOf(target);
+        String varyValues = varyValues(request.getHeaders(), vary);
+        CachedResponse entry = principal == null ? null : cache.get(key(target, principal, varyValues));
+        if (entry == null) {
+            entry = cache.get(key(target, "", varyValues));
+        }
+        String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (entry != null && entry.fresh(System.nanoTime()) && !requestDirectives.contains("no-cache")) {
+            routeStats.hit.increment();
+            return serve(exchange.getResponse(), entry, ifNoneMatch);
+        }
+        ServerWebExchange forwarded = exchange;
+        CachedResponse revalidating = entry != null && entry.etag() != null ? entry : null;
+        if (revalidating != null) {
+            forwarded = exchange.mutate()
+                    .request(request.mutate().headers(h -> h.set(HttpHeaders.IF_NONE_MATCH, revalidating.etag())).build())
+                    .build();
+        }
+        StoringResponse response = new StoringResponse(exchange.getResponse(), route.getId(), target, principal,
+                request.getHeaders(), ifNoneMatch, revalidating, routeStats, current);
+        return chain.filter(forwarded.mutate().response(response).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            properties = Binder.get(environment).bindOrCreate(PREFIX, GatewayResponseCacheProperties.class);
+            cache.resize(properties.maxSize().toBytes());
+        }
+    }
+
+    private static Mono<Void> serve(ServerHttpResponse response, CachedResponse entry, String ifNoneMatch) {
+        HttpHeaders headers = response.getHeaders();
+        entry.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        List<String> vary = headers.getVary();
+        for (String name : entry.headers().getVary()) {
+            if (vary.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.add(HttpHeaders.VARY, name);
+            }
+        }
+        headers.set("X-Cache", "HIT");
+        if (entry.etag() != null && etagMatches(entry.etag(), ifNoneMatch)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(entry.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    private static boolean etagMatches(String etag, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag.startsWith("W/") ? etag.substring(2) : etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> directives(List<String> cacheControl) {
+        if (cacheControl == null || cacheControl.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> directives = new LinkedHashSet<>();
+        for (String header : cacheControl) {
+            for (String part : header.split(",")) {
+                String directive = part.trim().toLowerCase(Locale.ROOT);
+                if (!directive.isEmpty()) {
+                    directives.add(directive);
+                }
+            }
+        }
+        return directives;
+    }
+
+    private static long seconds(Set<String> directives, String name) {
+        for (String directive : directives) {
+            if (directive.startsWith(name + "=")) {
+                try {
+                    return Long.parseLong(directive.substring(name.length() + 1).replace("\"", ""));
+                } catch (NumberFormatException ex) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String varyValues(HttpHeaders headers, List<String> vary) {
+        if (vary.isEmpty()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder();
+        for (String name : vary) {
+            builder.append(name).append('=').append(headers.getOrEmpty(name)).append(';');
+        }
+        return builder.toString();
+    }
+
+    private static String key(String target, String principal, String varyValues) {
+        return target + '\n' + principal + '\n' + varyValues;
+    }
+
+    private static List<String> tags(HttpHeaders headers, String name) {
+        List<String> tags = new ArrayList<>();
+        for (String value : headers.getOrEmpty(name)) {
+            Arrays.stream(value.split(",")).map(String::trim).filter(t -> !t.isEmpty()).forEach(tags::add);
+        }
+        return tags;
+    }
+
+    private RouteStats stats(String routeId) {
+        return stats.computeIfAbsent(routeId, id -> new RouteStats(id, meterRegistry));
+    }
+
+    /**
+     * Captures cacheable responses on their way to the client, and turns a 304 from revalidation
+     * back into the stored response.
+     */
+    private final class StoringResponse extends ServerHttpResponseDecorator {
+
+        private final String routeId;
+        private final String target;
+        private final String principal;
+        private final HttpHeaders requestHeaders;
+        private final String ifNoneMatch;
+        private final CachedResponse revalidating;
+        private final RouteStats routeStats;
+        private final GatewayResponseCacheProperties settings;
+
+        StoringResponse(ServerHttpResponse delegate, String routeId, String target, String principal,
+                        HttpHeaders requestHeaders, String ifNoneMatch, CachedResponse revalidating,
+                        RouteStats routeStats, GatewayResponseCacheProperties settings) {
+            super(delegate);
+            this.routeId = routeId;
+            this.target = target;
+            this.principal = principal;
+            this.requestHeaders = requestHeaders;
+            this.ifNoneMatch = ifNoneMatch;
+            this.revalidating = revalidating;
+            this.routeStats = routeStats;
+            this.settings = settings;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            if (revalidating != null && status != null && status.value() == HttpStatus.NOT_MODIFIED.value()) {
+                routeStats.revalidated.increment();
+                CachedResponse refreshed = revalidating.refreshed(System.nanoTime());
+                cache.replace(refreshed);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return Flux.from(body).doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> serve(getDelegate(), refreshed, ifNoneMatch)));
+            }
+            routeStats.miss.increment();
+            cache.invalidateTags(tags(headers, settings.invalidateHeader()));
+            Storage storage = storage(status, headers);
+            long contentLength = headers.getContentLength();
+            if (storage == null || contentLength > settings.maxEntrySize().toBytes()) {
+                return super.writeWith(body);
+            }
+            // Chunked responses have no Content-Length, so the body is copied only while it fits
+            // and is streamed to the client unchanged either way
+            BodyCopy copy = new BodyCopy(settings.maxEntrySize().toBytes());
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(copy::append)
+                    .doOnComplete(() -> {
+                        if (!copy.overflowed()) {
+                            store(storage, headers, copy.toByteArray());
+                        }
+                    }));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            routeStats.miss.increment();
+            return super.writeAndFlushWith(body);
+        }
+
+        private Storage storage(HttpStatusCode status, HttpHeaders headers) {
+            if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return null;
+            }
+            List<String> vary = headers.getVary().stream().map(name -> name.toLowerCase(Locale.ROOT)).distinct()
+                    .sorted().toList();
+            if (vary.contains("*")) {
+                return null;
+            }
+            List<String> cacheControl = headers.get(HttpHeaders.CACHE_CONTROL);
+            Set<String> directives = directives(cacheControl);
+            if (directives.contains("no-store") || BodyCopy.streaming(headers)) {
+                return null;
+            }
+            String etag = headers.getETag();
+            List<String> tags = tags(headers, settings.tagHeader());
+            if (cacheControl == null || cacheControl.isEmpty()) {
+                long ttl = settings.routes().get(routeId).defaultTtl().toNanos();
+                if (ttl <= 0) {
+                    return null;
+                }
+                tags.add(ROUTE_TAG_PREFIX + routeId);
+                return new Storage(true, ttl, etag, vary, tags);
+            }
+            boolean personal = directives.contains("private") || (principal != null
+                    && !directives.contains("public") && seconds(directives, "s-maxage") < 0);
+            long maxAge = personal ? -1 : seconds(directives, "s-maxage");
+            if (maxAge < 0) {
+                maxAge = seconds(directives, "max-age");
+            }
+            if (directives.contains("no-cache") || maxAge < 0) {
+                maxAge = 0;
+            }
+            if (maxAge == 0 && etag == null) {
+                return null;
+            }
+            return new Storage(personal, TimeUnit.SECONDS.toNanos(maxAge), etag, vary, tags);
+        }
+
+        private void store(Storage storage, HttpHeaders headers, byte[] body) {
+            HttpHeaders stored = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                String lower = name.toLowerCase(Locale.ROOT);
+                if (!UNSTORED_HEADERS.contains(lower) && !lower.startsWith("access-control-")
+                        && !lower.equals(settings.tagHeader().toLowerCase(Locale.ROOT))) {
+                    stored.addAll(name, values);
+                }
+            });
+            if (!storage.vary().isEmpty()) {
+                stored.setVary(storage.vary());
+            }
+            String owner = storage.personal() && principal != null ? principal : "";
+            String key = key(target, owner, varyValues(requestHeaders, storage.vary()));
+            long now = System.nanoTime();
+            cache.put(target, storage.vary(), new CachedResponse(target, key, HttpHeaders.readOnlyHttpHeaders(stored),
+                    body, storage.etag(), now + storage.maxAgeNanos(), storage.maxAgeNanos(), Set.copyOf(storage.tags())));
+        }
+    }
+
+    /**
+     * Drops affected entries once a write through a cached route has succeeded.
+     */
+    private final class InvalidatingResponse extends ServerHttpResponseDecorator {
+
+        InvalidatingResponse(ServerHttpResponse delegate, String routeId, String pathTarget,
+                             GatewayResponseCacheProperties settings) {
+            super(delegate);
+            beforeCommit(() -> {
+                HttpStatusCode status = getStatusCode();
+                cache.invalidateTags(tags(getHeaders(), settings.invalidateHeader()));
+                if (status != null && status.is2xxSuccessful()) {
+                    cache.invalidateTarget(pathTarget);
+                    cache.invalidateTags(List.of(ROUTE_TAG_PREFIX + routeId));
+                }
+                return Mono.empty();
+            });
+        }
+    }
+
+    private record Storage(boolean personal, long maxAgeNanos, String etag, List<String> vary, List<String> tags) {
+    }
+
+    private static final class RouteStats {
+
+        private final Counter hit;
+        private final Counter revalidated;
+        private final Counter miss;
+
+        RouteStats(String routeId, MeterRegistry registry) {
+            this.hit = counter(registry, routeId, "hit");
+            this.revalidated = counter(registry, routeId, "revalidated");
+            this.miss = counter(registry, routeId, "miss");
+            Gauge.builder("gateway.cache.hit.ratio", this, RouteStats::hitRatio).tag("route", routeId)
+                    .register(registry);
+        }
+
+        private double hitRatio() {
+            double served = hit.count() + revalidated.count();
+            double total = served + miss.count();
+            return total == 0 ? 0 : served / total;
+        }
+
+        private static Counter counter(MeterRegistry registry, String routeId, String result) {
+            return Counter.builder("gateway.cache.requests").tag("route", routeId).tag("result", result)
+                    .register(registry);
+        }
+    }
+}
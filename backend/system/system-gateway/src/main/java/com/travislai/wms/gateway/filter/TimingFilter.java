@@ -0,0 +1,97 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.loadbalancer.UpstreamInstance;
+import com.travislai.wms.gateway.metrics.GatewayLatencyCollector;
+import com.travislai.wms.gateway.metrics.RequestTiming;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Times every routed request and feeds {@link GatewayLatencyCollector}.
+ * <p>
+ * The filter itself runs first and last: it stamps arrival, and when the response is complete it
+ * records queueing, connect, time-to-first-byte and total for the route and the chosen upstream
+ * instance. The dispatch stamp is taken by {@link Dispatch}, which runs right before
+ * {@link NettyRoutingFilter}; connection and first-byte stamps come from hooks on the gateway's
+ * HTTP client, which find the {@link RequestTiming} in the Reactor context.
+ */
+@Component
+public class TimingFilter implements GlobalFilter, Ordered, HttpClientCustomizer {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private final GatewayLatencyCollector collector;
+
+    public TimingFilter(GatewayLatencyCollector collector) {
+        this.collector = collector;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        exchange.getAttributes().put(RequestTiming.ATTR, timing);
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    UpstreamInstance instance = exchange.getAttribute(LoadBalancerFilter.INSTANCE_ATTR);
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    collector.record(route == null ? null : route.getId(), instance, timing,
+                            status == null ? 0 : status.value());
+                })
+                .contextWrite(context -> context.put(RequestTiming.class, timing));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public HttpClient customize(HttpClient httpClient) {
+        return httpClient
+                .doOnRequest((request, connection) -> {
+                    RequestTiming timing = request.currentContextView().getOrDefault(RequestTiming.class, null);
+                    if (timing != null) {
+                        timing.markRequestSent();
+                    }
+                })
+                .doOnResponse((response, connection) -> {
+                    RequestTiming timing = response.currentContextView().getOrDefault(RequestTiming.class, null);
+                    if (timing != null) {
+                        timing.markFirstByte();
+                    }
+                });
+    }
+
+    /**
+     * Stamps the moment a request leaves the gateway's own filter chain for the HTTP client.
+     */
+    @Component
+    public static class Dispatch implements GlobalFilter, Ordered {
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            RequestTiming timing = exchange.getAttribute(RequestTiming.ATTR);
+            // HedgingFilter has already sent the request itself and stamped the dispatch.
+            if (timing != null && !ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+                timing.markDispatched();
+            }
+            return chain.filter(exchange);
+        }
+
+        @Override
+        public int getOrder() {
+            return NettyRoutingFilter.ORDER - 1;
+        }
+    }
+}
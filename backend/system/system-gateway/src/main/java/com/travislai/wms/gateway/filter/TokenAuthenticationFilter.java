@@ -0,0 +1,215 @@
+package com.travislai.wms.gateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.travislai.wms.gateway.config.GatewayAuthProperties;
+import com.travislai.wms.gateway.loadbalancer.UpstreamInstance;
+import com.travislai.wms.gateway.loadbalancer.UpstreamRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejects requests without a valid Sa-Token at the edge.
+ * <p>
+ * Verdicts are cached per token for a short TTL, so system-auth is asked at most once per token
+ * per {@code cache-ttl}; concurrent first requests for the same token share a single verification
+ * call. Rejections live in a separate, smaller map, so a flood of invalid tokens can only evict other
+ * rejections and never sends valid sessions back to system-auth. The verification call goes through
+ * {@link UpstreamRegistry} like every other upstream request. Everything runs on the event loop
+ * without blocking.
+ */
+@Component
+@EnableConfigurationProperties(GatewayAuthProperties.class)
+public class TokenAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private static final Logger log = LoggerFactory.getLogger(TokenAuthenticationFilter.class);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final GatewayAuthProperties properties;
+    private final UpstreamRegistry registry;
+    private final WebClient webClient;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Verdict> verdicts = new ConcurrentHashMap<>();
+    private final Map<String, Verdict> rejections = new ConcurrentHashMap<>();
+    private final Map<String, Mono<Verdict>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+    public TokenAuthenticationFilter(GatewayAuthProperties properties, UpstreamRegistry registry,
+                                     WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.registry = registry;
+        this.webClient = webClientBuilder.build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!properties.enabled() || exchange.getRequest().getMethod() == HttpMethod.OPTIONS || isExcluded(path)) {
+            return chain.filter(exchange);
+        }
+        String token = exchange.getRequest().getHeaders().getFirst(properties.tokenHeader());
+        if (token == null || token.isBlank()) {
+            return reject(exchange.getResponse(), HttpStatus.UNAUTHORIZED, "未提供 Token");
+        }
+        return verify(token).flatMap(verdict -> verdict.valid()
+                ? chain.filter(exchange)
+                : reject(exchange.getResponse(), HttpStatus.UNAUTHORIZED, "Token 无效或已过期"))
+                .onErrorResume(VerificationUnavailableException.class,
+                        ex -> reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, "认证服务暂不可用"));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Drops every cached verdict, e.g. after a mass logout.
+     */
+    public void invalidateAll() {
+        verdicts.clear();
+        rejections.clear();
+    }
+
+    private Mono<Verdict> verify(String token) {
+        long now = System.currentTimeMillis();
+        Verdict cached = verdicts.get(token);
+        if (cached == null) {
+            cached = rejections.get(token);
+        }
+        if (cached != null && cached.expiresAt() > now) {
+            return Mono.just(cached);
+        }
+        return inFlight.computeIfAbsent(token, key -> callAuth(key)
+                .doOnNext(verdict -> remember(key, verdict))
+                .doFinally(signal -> inFlight.remove(key))
+                .cache());
+    }
+
+    private Mono<Verdict> callAuth(String token) {
+        UpstreamInstance instance = registry.choose(properties.verifyService());
+        if (instance == null) {
+            return Mono.error(new VerificationUnavailableException(
+                    new IllegalStateException("No instance of " + properties.verifyService())));
+        }
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    AtomicBoolean failed = new AtomicBoolean();
+                    registry.onStart(instance);
+                    return webClient.get()
+                            .uri(instance.uri().resolve(properties.verifyPath()))
+                            .header(properties.tokenHeader(), token)
+                            .retrieve()
+                            .bodyToMono(JsonNode.class)
+                            .doOnError(ex -> failed.set(!(ex instanceof WebClientResponseException response)
+                                    || response.getStatusCode().is5xxServerError()))
+                            .doFinally(signal -> registry.onComplete(instance, System.nanoTime() - start,
+                                    failed.get()));
+                })
+                .map(this::toVerdict)
+                .onErrorResume(WebClientResponseException.class, ex -> ex.getStatusCode().is4xxClientError()
+                        ? Mono.just(negative())
+                        : Mono.error(new VerificationUnavailableException(ex)))
+                .onErrorMap(ex -> !(ex instanceof VerificationUnavailableException),
+                        VerificationUnavailableException::new);
+    }
+
+    private Verdict toVerdict(JsonNode body) {
+        if (!body.path("success").asBoolean(false)) {
+            return negative();
+        }
+        long ttl = properties.cacheTtl().toMillis();
+        long remainingSeconds = body.path("data").path("timeout").asLong(-1);
+        if (remainingSeconds >= 0) {
+            ttl = Math.min(ttl, remainingSeconds * 1000);
+        }
+        return new Verdict(true, System.currentTimeMillis() + ttl);
+    }
+
+    private Verdict negative() {
+        return new Verdict(false, System.currentTimeMillis() + properties.negativeTtl().toMillis());
+    }
+
+    /**
+     * Valid sessions are never evicted early: when their map is full, expired entries are swept at
+     * most once a second and new sessions go uncached until there is room. Rejections are cheap to
+     * lose, so a full rejection map is swept and, if still full, cleared.
+     */
+    private void remember(String token, Verdict verdict) {
+        long now = System.currentTimeMillis();
+        if (!verdict.valid()) {
+            if (rejections.size() >= properties.maxNegativeEntries()) {
+                rejections.values().removeIf(v -> v.expiresAt() <= now);
+                if (rejections.size() >= properties.maxNegativeEntries()) {
+                    rejections.clear();
+                }
+            }
+            verdicts.remove(token);
+            rejections.put(token, verdict);
+            return;
+        }
+        rejections.remove(token);
+        if (verdicts.size() >= properties.maxEntries() && !verdicts.containsKey(token)) {
+            long nanos = System.nanoTime();
+            long due = nextSweepNanos.get();
+            if (nanos - due >= 0 && nextSweepNanos.compareAndSet(due, nanos + SWEEP_INTERVAL_NANOS)) {
+                verdicts.values().removeIf(v -> v.expiresAt() <= now);
+            }
+            if (verdicts.size() >= properties.maxEntries()) {
+                log.debug("Token verdict cache full ({} entries), not caching", verdicts.size());
+                return;
+            }
+        }
+        verdicts.put(token, verdict);
+    }
+
+    private boolean isExcluded(String path) {
+        for (String pattern : properties.excludePaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"success\":false,\"message\":\"" + message + "\"}";
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private record Verdict(boolean valid, long expiresAt) {
+    }
+
+    private static final class VerificationUnavailableException extends RuntimeException {
+
+        VerificationUnavailableException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
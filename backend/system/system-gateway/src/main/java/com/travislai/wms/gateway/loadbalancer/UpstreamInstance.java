@@ -0,0 +1,100 @@
+package com.travislai.wms.gateway.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One replica of an upstream service and the load signals observed for it by this gateway.
+ * <p>
+ * The latency estimate is a peak EWMA: a sample above the current estimate replaces it at once,
+ * lower samples are blended in with a weight that decays with the time since the last sample.
+ * A single slow response therefore steers traffic away immediately, and recovery is gradual.
+ * An ejected instance keeps a penalty estimate, so it is not flooded the moment it returns.
+ */
+public final class UpstreamInstance {
+
+    private final String serviceId;
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private long ewmaNanos;
+    private long lastSampleNanos;
+    private int consecutiveFailures;
+    private volatile long ejectedUntilNanos;
+
+    UpstreamInstance(String serviceId, URI uri) {
+        this.serviceId = serviceId;
+        this.uri = uri;
+    }
+
+    public String serviceId() {
+        return serviceId;
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    public synchronized long ewmaNanos() {
+        return ewmaNanos;
+    }
+
+    public boolean ejected(long now) {
+        return ejectedUntilNanos - now > 0;
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Records a finished request and returns the number of consecutive failures so far.
+     */
+    synchronized int finish(long now, long latencyNanos, boolean failed, long decayNanos) {
+        outstanding.decrementAndGet();
+        if (latencyNanos > ewmaNanos || lastSampleNanos == 0) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(double) Math.max(0, now - lastSampleNanos) / decayNanos);
+            ewmaNanos = (long) (ewmaNanos * weight + latencyNanos * (1 - weight));
+        }
+        lastSampleNanos = now;
+        consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+        return consecutiveFailures;
+    }
+
+    /**
+     * Releases a request abandoned before its outcome was known, without recording a sample.
+     */
+    void cancel() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * Load score for peak-EWMA selection; instances without samples are treated as fast so new
+     * replicas receive traffic.
+     */
+    synchronized double cost() {
+        return (double) ewmaNanos * (outstanding.get() + 1);
+    }
+
+    /**
+     * Ejects the instance until {@code until}. Its estimate becomes at least {@code penaltyNanos}
+     * and starts decaying only once the ejection ends.
+     */
+    synchronized void eject(long until, long penaltyNanos) {
+        ejectedUntilNanos = until;
+        consecutiveFailures = 0;
+        ewmaNanos = Math.max(ewmaNanos, penaltyNanos);
+        lastSampleNanos = until;
+    }
+
+    @Override
+    public String toString() {
+        return serviceId + "@" + uri;
+    }
+}
@@ -0,0 +1,200 @@
+package com.travislai.wms.gateway.loadbalancer;
+
+import com.travislai.wms.gateway.config.GatewayLoadBalancerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Holds the statically configured instances of every upstream service and picks one per request.
+ * <p>
+ * Instances that return {@code failure-threshold} consecutive errors or responses whose first byte
+ * takes longer than {@code slow-threshold} are ejected for {@code ejection-time}; at most
+ * {@code max-ejection-percent} of a service is ejected at once so a service-wide slowdown never
+ * leaves it without instances. An ejected instance returns with the highest latency estimate among
+ * its peers. On refresh, instances whose URI is unchanged keep their statistics.
+ */
+@Component
+@EnableConfigurationProperties(GatewayLoadBalancerProperties.class)
+public class UpstreamRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamRegistry.class);
+    private static final String PREFIX = "wms.gateway.load-balancer";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private volatile GatewayLoadBalancerProperties properties;
+    private volatile Map<String, List<UpstreamInstance>> services = Map.of();
+
+    public UpstreamRegistry(GatewayLoadBalancerProperties properties, Environment environment,
+                            MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        apply(properties);
+    }
+
+    /**
+     * Picks an instance for the next request, or {@code null} if the service has none configured.
+     */
+    public UpstreamInstance choose(String serviceId) {
+        return choose(serviceId, null);
+    }
+
+    /**
+     * Picks an instance other than {@code excluded}, e.g. for a hedged copy of a request, or
+     * {@code null} if the service has no other instance.
+     */
+    public UpstreamInstance choose(String serviceId, UpstreamInstance excluded) {
+        List<UpstreamInstance> instances = services.get(serviceId);
+        if (instances == null || instances.isEmpty()) {
+            return null;
+        }
+        long now = System.nanoTime();
+        List<UpstreamInstance> others = new ArrayList<>(instances.size());
+        List<UpstreamInstance> healthy = new ArrayList<>(instances.size());
+        for (UpstreamInstance instance : instances) {
+            if (instance == excluded) {
+                continue;
+            }
+            others.add(instance);
+            if (!instance.ejected(now)) {
+                healthy.add(instance);
+            }
+        }
+        if (others.isEmpty()) {
+            return null;
+        }
+        List<UpstreamInstance> candidates = healthy.isEmpty() ? others : healthy;
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        return strategyOf(serviceId) == GatewayLoadBalancerProperties.Strategy.PEAK_EWMA
+                ? powerOfTwo(candidates)
+                : leastOutstanding(candidates);
+    }
+
+    public List<UpstreamInstance> instances(String serviceId) {
+        return services.getOrDefault(serviceId, List.of());
+    }
+
+    public void onStart(UpstreamInstance instance) {
+        instance.start();
+    }
+
+    /**
+     * Feeds a finished request back into the instance statistics and applies passive ejection.
+     */
+    public void onComplete(UpstreamInstance instance, long latencyNanos, boolean failed) {
+        GatewayLoadBalancerProperties current = properties;
+        long now = System.nanoTime();
+        long slowNanos = current.slowThreshold().toNanos();
+        boolean slow = latencyNanos > slowNanos;
+        int failures = instance.finish(now, latencyNanos, failed || slow, current.decayTime().toNanos());
+        if (failures >= current.failureThreshold()) {
+            tryEject(instance, now, current);
+        }
+    }
+
+    private void tryEject(UpstreamInstance instance, long now, GatewayLoadBalancerProperties current) {
+        List<UpstreamInstance> instances = instances(instance.serviceId());
+        synchronized (instances) {
+            if (instance.ejected(now)) {
+                return;
+            }
+            long ejected = instances.stream().filter(i -> i.ejected(now)).count();
+            if ((ejected + 1) * 100 > (long) instances.size() * current.maxEjectionPercent()) {
+                return;
+            }
+            long penalty = instances.stream().mapToLong(UpstreamInstance::ewmaNanos).max().orElse(0);
+            instance.eject(now + current.ejectionTime().toNanos(), penalty);
+        }
+        log.warn("Ejected slow or failing upstream {} for {}", instance, current.ejectionTime());
+    }
+
+    /**
+     * Releases a request that was cancelled before it produced a response, e.g. the losing copy of a
+     * hedged request. Its elapsed time says nothing about the instance, so no latency is recorded.
+     */
+    public void onCancel(UpstreamInstance instance) {
+        instance.cancel();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            apply(Binder.get(environment).bindOrCreate(PREFIX, GatewayLoadBalancerProperties.class));
+            log.info("Upstream instances reloaded: {}", services);
+        }
+    }
+
+    private synchronized void apply(GatewayLoadBalancerProperties updated) {
+        Map<String, List<UpstreamInstance>> previous = services;
+        Map<String, List<UpstreamInstance>> next = new HashMap<>();
+        updated.services().forEach((serviceId, service) -> {
+            List<UpstreamInstance> list = new ArrayList<>();
+            for (URI uri : service.instances()) {
+                UpstreamInstance existing = previous.getOrDefault(serviceId, List.of()).stream()
+                        .filter(i -> i.uri().equals(uri)).findFirst().orElse(null);
+                list.add(existing != null ? existing : register(new UpstreamInstance(serviceId, uri)));
+            }
+            next.put(serviceId, List.copyOf(list));
+        });
+        this.properties = updated;
+        this.services = Map.copyOf(next);
+    }
+
+    private UpstreamInstance register(UpstreamInstance instance) {
+        Gauge.builder("gateway.upstream.outstanding", instance, UpstreamInstance::outstanding)
+                .tag("service", instance.serviceId()).tag("instance", instance.uri().toString())
+                .register(meterRegistry);
+        Gauge.builder("gateway.upstream.ejected", instance, i -> i.ejected(System.nanoTime()) ? 1 : 0)
+                .tag("service", instance.serviceId()).tag("instance", instance.uri().toString())
+                .register(meterRegistry);
+        return instance;
+    }
+
+    private GatewayLoadBalancerProperties.Strategy strategyOf(String serviceId) {
+        GatewayLoadBalancerProperties current = properties;
+        GatewayLoadBalancerProperties.Service service = current.services().get(serviceId);
+        return service != null && service.strategy() != null ? service.strategy() : current.strategy();
+    }
+
+    private static UpstreamInstance powerOfTwo(List<UpstreamInstance> candidates) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamInstance a = candidates.get(first);
+        UpstreamInstance b = candidates.get(second);
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    private static UpstreamInstance leastOutstanding(List<UpstreamInstance> candidates) {
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        UpstreamInstance best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            UpstreamInstance candidate = candidates.get((offset + i) % candidates.size());
+            if (best == null || candidate.outstanding() < best.outstanding()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,111 @@
+package com.travislai.wms.gateway.metrics;
+
+import com.travislai.wms.gateway.loadbalancer.UpstreamInstance;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link LatencyRecorder} per route and per upstream instance and exports them on
+ * {@code /actuator/prometheus} as {@code gateway_route_latency_seconds},
+ * {@code gateway_upstream_latency_seconds} and the matching {@code *_responses_total} counters.
+ * <p>
+ * Recorders are looked up by the route id string and the {@link UpstreamInstance} the request
+ * already carries, so steady-state recording performs no allocation; all formatting happens on
+ * scrape.
+ */
+@Component
+public class GatewayLatencyCollector extends Collector {
+
+    private static final double MICROS_PER_SECOND = 1_000_000d;
+
+    private final Map<String, LatencyRecorder> routes = new ConcurrentHashMap<>();
+    private final Map<UpstreamInstance, LatencyRecorder> instances = new ConcurrentHashMap<>();
+
+    public GatewayLatencyCollector(CollectorRegistry collectorRegistry) {
+        collectorRegistry.register(this);
+    }
+
+    public void record(String routeId, UpstreamInstance instance, RequestTiming timing, int status) {
+        long end = System.nanoTime();
+        if (routeId != null) {
+            recorder(routes, routeId).record(timing, end, status);
+        }
+        if (instance != null) {
+            recorder(instances, instance).record(timing, end, status);
+        }
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+        List<MetricFamilySamples.Sample> routeLatency = new ArrayList<>();
+        List<MetricFamilySamples.Sample> routeResponses = new ArrayList<>();
+        routes.forEach((routeId, recorder) -> export(recorder, "gateway_route",
+                List.of("route"), List.of(routeId), routeLatency, routeResponses));
+        List<MetricFamilySamples.Sample> upstreamLatency = new ArrayList<>();
+        List<MetricFamilySamples.Sample> upstreamResponses = new ArrayList<>();
+        instances.forEach((instance, recorder) -> export(recorder, "gateway_upstream",
+                List.of("service", "instance"), List.of(instance.serviceId(), instance.uri().toString()),
+                upstreamLatency, upstreamResponses));
+        return List.of(
+                new MetricFamilySamples("gateway_route_latency_seconds", Type.HISTOGRAM,
+                        "Gateway latency per route and phase", routeLatency),
+                new MetricFamilySamples("gateway_route_responses_total", Type.COUNTER,
+                        "Gateway responses per route and status class", routeResponses),
+                new MetricFamilySamples("gateway_upstream_latency_seconds", Type.HISTOGRAM,
+                        "Gateway latency per upstream instance and phase", upstreamLatency),
+                new MetricFamilySamples("gateway_upstream_responses_total", Type.COUNTER,
+                        "Gateway responses per upstream instance and status class", upstreamResponses));
+    }
+
+    static void export(LatencyRecorder recorder, String prefix, List<String> labelNames,
+                               List<String> labelValues, List<MetricFamilySamples.Sample> latency,
+                               List<MetricFamilySamples.Sample> responses) {
+        List<String> phaseLabels = with(labelNames, "phase");
+        List<String> bucketLabels = with(phaseLabels, "le");
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        for (int phase = 0; phase < LatencyRecorder.PHASES.length; phase++) {
+            List<String> phaseValues = with(labelValues, LatencyRecorder.PHASES[phase]);
+            long sumMicros = recorder.phases[phase].snapshot(counts);
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                // Cumulative counts allow skipping boundaries: export half-octave bounds from 16us up.
+                if (LatencyHistogram.upperBoundMicros(i) < 16 || (i & 1) == 0) {
+                    continue;
+                }
+                latency.add(new MetricFamilySamples.Sample(prefix + "_latency_seconds_bucket", bucketLabels,
+                        with(phaseValues, doubleToGoString(LatencyHistogram.upperBoundMicros(i) / MICROS_PER_SECOND)),
+                        cumulative));
+            }
+            latency.add(new MetricFamilySamples.Sample(prefix + "_latency_seconds_bucket", bucketLabels,
+                    with(phaseValues, "+Inf"), cumulative));
+            latency.add(new MetricFamilySamples.Sample(prefix + "_latency_seconds_count", phaseLabels,
+                    phaseValues, cumulative));
+            latency.add(new MetricFamilySamples.Sample(prefix + "_latency_seconds_sum", phaseLabels,
+                    phaseValues, sumMicros / MICROS_PER_SECOND));
+        }
+        List<String> statusLabels = with(labelNames, "status_class");
+        for (int i = 0; i < LatencyRecorder.STATUS_CLASSES.length; i++) {
+            responses.add(new MetricFamilySamples.Sample(prefix + "_responses_total", statusLabels,
+                    with(labelValues, LatencyRecorder.STATUS_CLASSES[i]), recorder.statuses.get(i)));
+        }
+    }
+
+    private static <K> LatencyRecorder recorder(Map<K, LatencyRecorder> recorders, K key) {
+        LatencyRecorder recorder = recorders.get(key);
+        return recorder != null ? recorder : recorders.computeIfAbsent(key, k -> new LatencyRecorder());
+    }
+
+    private static List<String> with(List<String> values, String value) {
+        List<String> result = new ArrayList<>(values.size() + 1);
+        result.addAll(values);
+        result.add(value);
+        return result;
+    }
+}
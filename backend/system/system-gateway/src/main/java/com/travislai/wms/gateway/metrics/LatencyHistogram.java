@@ -0,0 +1,84 @@
+package com.travislai.wms.gateway.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: each power of two of microseconds is
+ * split into {@value #SUB_BUCKETS} equal sub-buckets, giving a relative error below 25% from one
+ * microsecond up to {@link #MAX_MICROS} (about two minutes; longer values land in the last bucket). Recording is a shift, an index computation and one atomic
+ * increment; it never allocates or locks.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 2;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final long MAX_MICROS = 1L << 27;
+    static final int BUCKETS = index(MAX_MICROS - 1) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong sumMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(index(Math.min(micros, MAX_MICROS - 1)));
+        sumMicros.addAndGet(micros);
+    }
+
+    /**
+     * Upper bound, in nanoseconds, of the bucket holding the {@code quantile} (0 to 1) of the
+     * recorded values, or -1 if fewer than {@code minCount} values have been recorded.
+     */
+    public long quantileNanos(double quantile, long minCount) {
+        long[] snapshot = new long[BUCKETS];
+        snapshot(snapshot);
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        if (total == 0 || total < minCount) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundMicros(i) * 1_000;
+            }
+        }
+        return MAX_MICROS * 1_000;
+    }
+
+    /**
+     * Copies the bucket counts into {@code target}, which must hold {@link #BUCKETS} elements, and
+     * returns the sum of recorded values in microseconds.
+     */
+    long snapshot(long[] target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            target[i] = counts.get(i);
+        }
+        return sumMicros.get();
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Exclusive upper bound, in microseconds, of the values counted in bucket {@code index}.
+     */
+    static long upperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int exponent = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long subBucket = index & (SUB_BUCKETS - 1);
+        return (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,59 @@
+package com.travislai.wms.gateway.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Phase histograms and status-class counters for one route or one upstream instance.
+ */
+public final class LatencyRecorder {
+
+    /**
+     * Time spent inside the gateway before the request was handed to the HTTP client.
+     */
+    public static final int QUEUEING = 0;
+    /**
+     * Time to obtain a pooled or freshly connected upstream connection.
+     */
+    public static final int CONNECT = 1;
+    /**
+     * Time from dispatch until the upstream response headers arrived.
+     */
+    public static final int TTFB = 2;
+    /**
+     * Time from arrival at the gateway until the response was fully written.
+     */
+    public static final int TOTAL = 3;
+
+    static final String[] PHASES = {"queueing", "connect", "ttfb", "total"};
+    /**
+     * Index 0 counts requests that ended without a status, e.g. connection errors or cancellations.
+     */
+    static final String[] STATUS_CLASSES = {"none", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+    final AtomicLongArray statuses = new AtomicLongArray(STATUS_CLASSES.length);
+
+    LatencyRecorder() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    void record(RequestTiming timing, long end, int status) {
+        long dispatched = timing.dispatched;
+        if (dispatched != 0) {
+            phases[QUEUEING].recordNanos(dispatched - timing.start);
+            long requestSent = timing.requestSent;
+            if (requestSent != 0) {
+                phases[CONNECT].recordNanos(requestSent - dispatched);
+            }
+            long firstByte = timing.firstByte;
+            if (firstByte != 0) {
+                phases[TTFB].recordNanos(firstByte - dispatched);
+            }
+        }
+        phases[TOTAL].recordNanos(end - timing.start);
+        int statusClass = status / 100;
+        statuses.incrementAndGet(statusClass >= 1 && statusClass <= 5 ? statusClass : 0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.travislai.wms.gateway.metrics;
+
+/**
+ * Timestamps ({@link System#nanoTime()}) of one request's way through the gateway. Created once
+ * per request and carried both as an exchange attribute and in the Reactor context, so the
+ * upstream HTTP client hooks can reach it. Fields stay 0 for phases the request never reached,
+ * e.g. cache hits never dispatch upstream.
+ */
+public final class RequestTiming {
+
+    public static final String ATTR = RequestTiming.class.getName();
+
+    final long start;
+    volatile long dispatched;
+    volatile long requestSent;
+    volatile long firstByte;
+
+    public RequestTiming(long start) {
+        this.start = start;
+    }
+
+    public void markDispatched() {
+        dispatched = System.nanoTime();
+    }
+
+    public void markRequestSent() {
+        requestSent = System.nanoTime();
+    }
+
+    public void markFirstByte() {
+        firstByte = System.nanoTime();
+    }
+
+    /**
+     * Dispatch to upstream response headers, or -1 if the request never got a response.
+     */
+    public long upstreamRttNanos() {
+        long from = dispatched;
+        long to = firstByte;
+        return from != 0 && to != 0 ? to - from : -1;
+    }
+}
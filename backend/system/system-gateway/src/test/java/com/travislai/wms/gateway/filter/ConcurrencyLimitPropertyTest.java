@@ -0,0 +1,84 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.config.GatewayConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for the gradient concurrency limit
+ */
+class ConcurrencyLimitPropertyTest {
+
+    /**
+     * One step against the limit: take a permit, return one with an RTT (possibly dropped or
+     * cancelled), or reconfigure the limit
+     */
+    record Step(int kind, long rttMicros, boolean dropped, boolean cancelled,
+                GatewayConcurrencyLimitProperties.Limit settings) {}
+
+    /**
+     * Whatever the RTTs, drops, cancellations and reconfigurations, the limit stays within the
+     * current [min-limit, max-limit], and a permit is only granted below the limit
+     */
+    @Property(tries = 500)
+    @Label("Limit stays within min and max")
+    void limitStaysWithinBounds(@ForAll("settings") GatewayConcurrencyLimitProperties.Limit initial,
+                                @ForAll("steps") List<Step> steps) {
+        ConcurrencyLimitFilter.GradientLimit limit =
+                new ConcurrencyLimitFilter.GradientLimit(initial, new SimpleMeterRegistry().counter("rejected"));
+        GatewayConcurrencyLimitProperties.Limit settings = initial;
+        assertThat(limit.limit()).isBetween(settings.minLimit(), settings.maxLimit());
+
+        for (Step step : steps) {
+            switch (step.kind()) {
+                case 0 -> {
+                    int before = limit.inflight();
+                    if (limit.tryAcquire()) {
+                        assertThat(before).isLessThan(limit.limit());
+                    }
+                }
+                case 1 -> {
+                    if (limit.inflight() > 0) {
+                        limit.release(step.rttMicros() * 1_000, step.dropped(), step.cancelled());
+                    }
+                }
+                default -> {
+                    settings = step.settings();
+                    limit.configure(settings);
+                }
+            }
+            assertThat(limit.limit()).isBetween(settings.minLimit(), settings.maxLimit());
+            assertThat(limit.inflight()).isNotNegative();
+        }
+    }
+
+    @Provide
+    Arbitrary<GatewayConcurrencyLimitProperties.Limit> settings() {
+        return Combinators.combine(
+                Arbitraries.integers().between(1, 50),
+                Arbitraries.integers().between(0, 300),
+                Arbitraries.integers().between(0, 600),
+                Arbitraries.doubles().between(0.01, 1),
+                Arbitraries.integers().between(1, 50),
+                Arbitraries.integers().between(0, 1_000))
+            .as((min, extra, initial, smoothing, shortWindow, longExtra) ->
+                    new GatewayConcurrencyLimitProperties.Limit(initial, min, min + extra, smoothing,
+                            shortWindow, shortWindow + longExtra));
+    }
+
+    @Provide
+    Arbitrary<List<Step>> steps() {
+        Arbitrary<Step> step = Combinators.combine(
+                Arbitraries.frequency(Tuple.of(10, 0), Tuple.of(10, 1), Tuple.of(1, 2)),
+                Arbitraries.longs().between(1, 5_000_000),
+                Arbitraries.of(true, false, false, false),
+                Arbitraries.of(true, false, false, false),
+                settings())
+            .as(Step::new);
+        return step.list().ofMaxSize(300);
+    }
+}
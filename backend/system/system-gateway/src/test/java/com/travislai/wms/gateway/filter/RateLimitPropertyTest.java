@@ -0,0 +1,116 @@
+package com.travislai.wms.gateway.filter;
+
+import com.travislai.wms.gateway.config.GatewayRateLimitProperties;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.LongRange;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for the per-client token buckets
+ */
+class RateLimitPropertyTest {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long START = 1_000 * NANOS_PER_SECOND;
+
+    /**
+     * A new client may burst exactly {@code capacity} requests at once; after idling it gets at most
+     * {@code capacity} again, and all of it once the idle time has refilled the bucket
+     */
+    @Property
+    @Label("Burst is capped at capacity")
+    void burstIsCappedAtCapacity(@ForAll @IntRange(min = 1, max = 200) int capacity,
+                                 @ForAll @IntRange(min = 1, max = 1_000) int tokensPerSecond,
+                                 @ForAll @LongRange(min = 0, max = 3_600) long idleSeconds) {
+        RateLimitFilter.Stripe stripe = new RateLimitFilter.Stripe(16);
+        GatewayRateLimitProperties.Limit limit = new GatewayRateLimitProperties.Limit(capacity, (double) tokensPerSecond);
+
+        assertThat(burst(stripe, limit, START)).isEqualTo(capacity);
+        long again = burst(stripe, limit, START + idleSeconds * NANOS_PER_SECOND);
+        assertThat(again).isLessThanOrEqualTo(Math.min(capacity, idleSeconds * tokensPerSecond));
+        if (idleSeconds * tokensPerSecond > capacity) {
+            assertThat(again).isEqualTo(capacity);
+        }
+    }
+
+    /**
+     * Over any run of requests no more than {@code capacity + rate * elapsed} are allowed
+     */
+    @Property
+    @Label("Allowed requests never exceed capacity plus refill")
+    void allowedNeverExceedsRefill(@ForAll @IntRange(min = 1, max = 50) int capacity,
+                                   @ForAll @IntRange(min = 1, max = 100) int tokensPerSecond,
+                                   @ForAll("gaps") List<Long> gapsNanos) {
+        RateLimitFilter.Stripe stripe = new RateLimitFilter.Stripe(16);
+        GatewayRateLimitProperties.Limit limit = new GatewayRateLimitProperties.Limit(capacity, (double) tokensPerSecond);
+        long now = START;
+        long allowed = 0;
+        for (long gap : gapsNanos) {
+            now += gap;
+            if (stripe.acquire("client", limit, now) == 0) {
+                allowed++;
+            }
+            double refilled = (double) (now - START) * tokensPerSecond / NANOS_PER_SECOND;
+            assertThat((double) allowed).isLessThanOrEqualTo(capacity + refilled + 1e-6);
+        }
+    }
+
+    /**
+     * A rejected request is told how long to wait, and a retry after that wait is allowed
+     */
+    @Property
+    @Label("Retry after the returned wait is allowed")
+    void retryAfterWaitIsAllowed(@ForAll @IntRange(min = 1, max = 50) int capacity,
+                                 @ForAll @IntRange(min = 1, max = 1_000) int tokensPerSecond,
+                                 @ForAll("gaps") List<Long> gapsNanos) {
+        RateLimitFilter.Stripe stripe = new RateLimitFilter.Stripe(16);
+        GatewayRateLimitProperties.Limit limit = new GatewayRateLimitProperties.Limit(capacity, (double) tokensPerSecond);
+        long now = START;
+        for (long gap : gapsNanos) {
+            now += gap;
+            long wait = stripe.acquire("client", limit, now);
+            if (wait > 0) {
+                assertThat(wait).isLessThanOrEqualTo(NANOS_PER_SECOND / tokensPerSecond + 2);
+                now += wait;
+                assertThat(stripe.acquire("client", limit, now)).isZero();
+            }
+        }
+    }
+
+    /**
+     * Clients have separate buckets: draining one leaves the other's burst intact
+     */
+    @Example
+    @Label("Clients do not share a bucket")
+    void clientsDoNotShareBucket() {
+        RateLimitFilter.Stripe stripe = new RateLimitFilter.Stripe(16);
+        GatewayRateLimitProperties.Limit limit = new GatewayRateLimitProperties.Limit(5, 1.0);
+        for (int i = 0; i < 5; i++) {
+            stripe.acquire("a", limit, START);
+        }
+
+        assertThat(stripe.acquire("a", limit, START)).isPositive();
+        assertThat(stripe.acquire("b", limit, START)).isZero();
+    }
+
+    @Provide
+    Arbitrary<List<Long>> gaps() {
+        return Arbitraries.frequencyOf(
+                Tuple.of(4, Arbitraries.just(0L)),
+                Tuple.of(4, Arbitraries.longs().between(1, NANOS_PER_SECOND / 10)),
+                Tuple.of(1, Arbitraries.longs().between(1, 10 * NANOS_PER_SECOND)))
+            .list().ofMaxSize(300);
+    }
+
+    private static int burst(RateLimitFilter.Stripe stripe, GatewayRateLimitProperties.Limit limit, long now) {
+        int allowed = 0;
+        while (stripe.acquire("client", limit, now) == 0) {
+            allowed++;
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,97 @@
+package com.travislai.wms.gateway.loadbalancer;
+
+import com.travislai.wms.gateway.config.GatewayLoadBalancerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for passive ejection in the upstream registry
+ */
+class UpstreamRegistryPropertyTest {
+
+    private static final String SERVICE = "svc";
+
+    /**
+     * One finished request: which instance served it, how long it took and whether it failed
+     */
+    record Outcome(int instance, long latencyMillis, boolean failed) {}
+
+    /**
+     * However failures and slow responses are spread over the instances, no more than
+     * {@code max-ejection-percent} of them are ejected at once, and a request always finds an instance
+     */
+    @Property(tries = 500)
+    @Label("Ejection never exceeds max-ejection-percent")
+    void ejectionStaysWithinPercent(@ForAll @IntRange(min = 1, max = 10) int size,
+                                    @ForAll @IntRange(min = 0, max = 100) int maxEjectionPercent,
+                                    @ForAll @IntRange(min = 1, max = 3) int failureThreshold,
+                                    @ForAll("outcomes") List<Outcome> outcomes) {
+        UpstreamRegistry registry = registry(size, maxEjectionPercent, failureThreshold);
+        List<UpstreamInstance> instances = registry.instances(SERVICE);
+
+        for (Outcome outcome : outcomes) {
+            UpstreamInstance instance = instances.get(outcome.instance() % size);
+            registry.onStart(instance);
+            registry.onComplete(instance, outcome.latencyMillis() * 1_000_000, outcome.failed());
+
+            long now = System.nanoTime();
+            long ejected = instances.stream().filter(i -> i.ejected(now)).count();
+            assertThat(ejected * 100).isLessThanOrEqualTo((long) size * maxEjectionPercent);
+            assertThat(registry.choose(SERVICE)).isNotNull();
+        }
+    }
+
+    /**
+     * With the whole service allowed out, an instance that keeps failing is ejected and no longer
+     * chosen while a healthy peer remains
+     */
+    @Example
+    @Label("Failing instance is ejected")
+    void failingInstanceIsEjected() {
+        UpstreamRegistry registry = registry(2, 100, 2);
+        UpstreamInstance failing = registry.instances(SERVICE).get(0);
+        for (int i = 0; i < 2; i++) {
+            registry.onStart(failing);
+            registry.onComplete(failing, 1_000_000, true);
+        }
+
+        assertThat(failing.ejected(System.nanoTime())).isTrue();
+        for (int i = 0; i < 20; i++) {
+            assertThat(registry.choose(SERVICE)).isNotSameAs(failing);
+        }
+    }
+
+    @Provide
+    Arbitrary<List<Outcome>> outcomes() {
+        return Combinators.combine(
+                Arbitraries.integers().between(0, 9),
+                Arbitraries.frequencyOf(
+                        Tuple.of(4, Arbitraries.longs().between(1, 500)),
+                        Tuple.of(1, Arbitraries.longs().between(1_001, 5_000))),
+                Arbitraries.of(true, true, false))
+            .as(Outcome::new)
+            .list().ofMaxSize(200);
+    }
+
+    private static UpstreamRegistry registry(int size, int maxEjectionPercent, int failureThreshold) {
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            uris.add(URI.create("http://localhost:" + (18_000 + i)));
+        }
+        GatewayLoadBalancerProperties properties = new GatewayLoadBalancerProperties(null, null,
+                Duration.ofSeconds(1), failureThreshold, Duration.ofHours(1), maxEjectionPercent,
+                Map.of(SERVICE, new GatewayLoadBalancerProperties.Service(uris, null)));
+        return new UpstreamRegistry(properties, new StandardEnvironment(),
+                new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,122 @@
+package com.travislai.wms.gateway.metrics;
+
+import io.prometheus.client.Collector;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.DoubleRange;
+import net.jqwik.api.constraints.LongRange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for the log-linear latency histogram and its Prometheus export
+ */
+class LatencyHistogramPropertyTest {
+
+    private static final int TOTAL = LatencyRecorder.TOTAL;
+
+    /**
+     * A longer latency never lands in an earlier bucket, and every value lands in a valid bucket
+     */
+    @Property
+    @Label("Bucket index is monotonic and in range")
+    void indexIsMonotonic(@ForAll @LongRange(min = 0, max = LatencyHistogram.MAX_MICROS - 1) long a,
+                          @ForAll @LongRange(min = 0, max = LatencyHistogram.MAX_MICROS - 1) long b) {
+        long low = Math.min(a, b);
+        long high = Math.max(a, b);
+
+        assertThat(LatencyHistogram.index(low)).isLessThanOrEqualTo(LatencyHistogram.index(high));
+        assertThat(LatencyHistogram.index(high)).isBetween(0, LatencyHistogram.BUCKETS - 1);
+    }
+
+    /**
+     * Every value lies in [upper bound of the previous bucket, upper bound of its bucket), and the
+     * bucket is no wider than a quarter of the value
+     */
+    @Property
+    @Label("Value lies within its bucket bounds")
+    void valueLiesWithinBucket(@ForAll @LongRange(min = 0, max = LatencyHistogram.MAX_MICROS - 1) long micros) {
+        int index = LatencyHistogram.index(micros);
+        long lower = index == 0 ? 0 : LatencyHistogram.upperBoundMicros(index - 1);
+        long upper = LatencyHistogram.upperBoundMicros(index);
+
+        assertThat(micros).isGreaterThanOrEqualTo(lower).isLessThan(upper);
+        assertThat(upper - lower).isLessThanOrEqualTo(Math.max(1, micros / 4));
+    }
+
+    /**
+     * Bucket upper bounds increase strictly and the last one is {@link LatencyHistogram#MAX_MICROS}
+     */
+    @Example
+    @Label("Upper bounds increase strictly up to the maximum")
+    void upperBoundsIncrease() {
+        for (int i = 1; i < LatencyHistogram.BUCKETS; i++) {
+            assertThat(LatencyHistogram.upperBoundMicros(i)).isGreaterThan(LatencyHistogram.upperBoundMicros(i - 1));
+        }
+        assertThat(LatencyHistogram.upperBoundMicros(LatencyHistogram.BUCKETS - 1)).isEqualTo(LatencyHistogram.MAX_MICROS);
+    }
+
+    /**
+     * A quantile reports the upper bound of the bucket holding the value of that rank
+     */
+    @Property
+    @Label("Quantile is the upper bound of the bucket of the ranked value")
+    void quantileIsBucketOfRankedValue(@ForAll("latencies") List<Long> micros,
+                                       @ForAll @DoubleRange(min = 0, max = 1) double quantile) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        micros.forEach(value -> histogram.recordNanos(value * 1_000));
+        List<Long> sorted = micros.stream().map(value -> Math.min(value, LatencyHistogram.MAX_MICROS - 1))
+                .sorted().toList();
+        long rank = Math.max(1, (long) Math.ceil(quantile * sorted.size()));
+        long ranked = sorted.get((int) rank - 1);
+
+        assertThat(histogram.quantileNanos(quantile, 1))
+                .isEqualTo(LatencyHistogram.upperBoundMicros(LatencyHistogram.index(ranked)) * 1_000);
+        assertThat(histogram.quantileNanos(quantile, micros.size() + 1)).isEqualTo(-1);
+    }
+
+    /**
+     * The export skips odd buckets and those below 16us, but each exported {@code le} still counts
+     * exactly the values below it, bounds and counts never decrease, and {@code +Inf} counts all
+     */
+    @Property
+    @Label("Exported buckets are cumulative counts below each bound")
+    void exportCountsValuesBelowEachBound(@ForAll("latencies") List<Long> micros) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        micros.forEach(value -> recorder.phases[TOTAL].recordNanos(value * 1_000));
+        List<Collector.MetricFamilySamples.Sample> latency = new ArrayList<>();
+        GatewayLatencyCollector.export(recorder, "test", List.of(), List.of(), latency, new ArrayList<>());
+        List<Collector.MetricFamilySamples.Sample> buckets = latency.stream()
+                .filter(sample -> sample.name.equals("test_latency_seconds_bucket"))
+                .filter(sample -> sample.labelValues.get(0).equals(LatencyRecorder.PHASES[TOTAL]))
+                .toList();
+
+        assertThat(buckets.get(buckets.size() - 1).labelValues.get(1)).isEqualTo("+Inf");
+        assertThat(buckets.get(buckets.size() - 1).value).isEqualTo(micros.size());
+        double previousBound = 0;
+        double previousCount = 0;
+        for (Collector.MetricFamilySamples.Sample bucket : buckets.subList(0, buckets.size() - 1)) {
+            double bound = Double.parseDouble(bucket.labelValues.get(1));
+            long boundMicros = Math.round(bound * 1_000_000);
+            long below = micros.stream()
+                    .filter(value -> Math.min(value, LatencyHistogram.MAX_MICROS - 1) < boundMicros).count();
+
+            assertThat(bound).isGreaterThan(previousBound);
+            assertThat(boundMicros).isGreaterThanOrEqualTo(16);
+            assertThat(bucket.value).isGreaterThanOrEqualTo(previousCount).isEqualTo(below);
+            previousBound = bound;
+            previousCount = bucket.value;
+        }
+        assertThat(Math.round(previousBound * 1_000_000)).isEqualTo(LatencyHistogram.MAX_MICROS);
+    }
+
+    @Provide
+    Arbitrary<List<Long>> latencies() {
+        Arbitrary<Long> micros = Arbitraries.frequencyOf(
+                Tuple.of(5, Arbitraries.longs().between(0, 100_000)),
+                Tuple.of(1, Arbitraries.longs().between(0, LatencyHistogram.MAX_MICROS * 2)));
+        return micros.list().ofMinSize(1).ofMaxSize(200);
+    }
+}
@@ -2,6 +2,7 @@ package com.travislai.wms.masterdata;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Master Data Service Application
@@ -13,6 +14,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - Products
  * - Barcodes
  */
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = "com.travislai.wms")
 public class MasterDataServiceApplication {
 
@@ -0,0 +1,72 @@
+package com.travislai.wms.masterdata.application.assembler;
+
+import com.travislai.wms.masterdata.application.dto.BarcodeResolution;
+import com.travislai.wms.masterdata.application.dto.BarcodeResponse;
+import com.travislai.wms.masterdata.application.dto.CreateBarcodeRequest;
+import com.travislai.wms.masterdata.application.dto.UpdateBarcodeRequest;
+import com.travislai.wms.masterdata.domain.entity.Barcode;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assembler for converting between Barcode entity and DTOs
+ */
+@Component
+public class BarcodeAssembler {
+    
+    /**
+     * Convert CreateBarcodeRequest to Barcode entity
+     */
+    public Barcode toEntity(CreateBarcodeRequest request) {
+        Barcode barcode = new Barcode();
+        barcode.setProductId(request.productId());
+        barcode.setBarcode(request.barcode());
+        barcode.setType(request.type());
+        barcode.setIsPrimary(request.isPrimary() != null ? request.isPrimary() : 0);
+        barcode.setRemark(request.remark());
+        return barcode;
+    }
+    
+    /**
+     * Update Barcode entity from UpdateBarcodeRequest
+     */
+    public void updateEntity(Barcode barcode, UpdateBarcodeRequest request) {
+        barcode.setProductId(request.productId());
+        barcode.setType(request.type());
+        barcode.setIsPrimary(request.isPrimary() != null ? request.isPrimary() : 0);
+        barcode.setRemark(request.remark());
+        barcode.setVersion(request.version());
+    }
+    
+    /**
+     * Convert Barcode entity to BarcodeResponse
+     */
+    public BarcodeResponse toResponse(Barcode barcode) {
+        return new BarcodeResponse(
+            barcode.getId(),
+            barcode.getProductId(),
+            barcode.getBarcode(),
+            barcode.getType(),
+            barcode.getIsPrimary(),
+            barcode.getRemark(),
+            barcode.getCreateDate(),
+            barcode.getCreateBy(),
+            barcode.getUpdateDate(),
+            barcode.getUpdateBy(),
+            barcode.getVersion()
+        );
+    }
+    
+    /**
+     * Pair each barcode with its resolved product ID
+     */
+    public List<BarcodeResolution> toResolutions(List<String> barcodes, List<Long> productIds) {
+        List<BarcodeResolution> resolutions = new ArrayList<>(barcodes.size());
+        for (int i = 0; i < barcodes.size(); i++) {
+            resolutions.add(new BarcodeResolution(barcodes.get(i), productIds.get(i)));
+        }
+        return resolutions;
+    }
+}
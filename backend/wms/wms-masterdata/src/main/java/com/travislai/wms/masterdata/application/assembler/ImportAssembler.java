@@ -0,0 +1,28 @@
+package com.travislai.wms.masterdata.application.assembler;
+
+import com.travislai.wms.masterdata.application.dto.ImportResponse;
+import com.travislai.wms.masterdata.domain.bulk.ImportResult;
+import org.springframework.stereotype.Component;
+
+/**
+ * Assembler for converting bulk import results to DTOs
+ */
+@Component
+public class ImportAssembler {
+    
+    /**
+     * Convert ImportResult to ImportResponse
+     */
+    public ImportResponse toResponse(ImportResult result) {
+        return new ImportResponse(
+            result.total(),
+            result.imported(),
+            result.failed(),
+            result.errors().stream()
+                .map(error -> new ImportResponse.RowError(error.row(), error.key(), error.message()))
+                .toList(),
+            result.errorsTruncated() ? Boolean.TRUE : null,
+            result.aborted()
+        );
+    }
+}
@@ -1,11 +1,17 @@
 package com.travislai.wms.masterdata.application.assembler;
 
+import com.travislai.wms.masterdata.application.dto.BatchUpdateOwnerRequest;
+import com.travislai.wms.masterdata.application.dto.BatchUpdateResponse;
 import com.travislai.wms.masterdata.application.dto.CreateOwnerRequest;
 import com.travislai.wms.masterdata.application.dto.OwnerResponse;
 import com.travislai.wms.masterdata.application.dto.UpdateOwnerRequest;
+import com.travislai.wms.masterdata.domain.bulk.OwnerUpdate;
+import com.travislai.wms.masterdata.domain.bulk.UpdateResult;
 import com.travislai.wms.masterdata.domain.entity.Owner;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Assembler for converting between Owner entity and DTOs
  */
@@ -46,4 +52,32 @@ public class OwnerAssembler {
             owner.getVersion()
         );
     }
+    
+    /**
+     * Convert BatchUpdateOwnerRequest items to OwnerUpdates
+     */
+    public List<OwnerUpdate> toUpdates(BatchUpdateOwnerRequest request) {
+        return request.items().stream()
+            .map(item -> new OwnerUpdate(
+                item.id(),
+                item.version(),
+                item.fields() != null ? item.fields().code() : null,
+                item.fields() != null ? item.fields().name() : null))
+            .toList();
+    }
+    
+    /**
+     * Convert UpdateResult to BatchUpdateResponse
+     */
+    public BatchUpdateResponse toResponse(UpdateResult result) {
+        return new BatchUpdateResponse(
+            result.total(),
+            result.updated(),
+            result.failed(),
+            result.rolledBack() ? Boolean.TRUE : null,
+            result.rows().stream()
+                .map(row -> new BatchUpdateResponse.RowResult(row.id(), row.status().name(), row.version(), row.message()))
+                .toList()
+        );
+    }
 }
@@ -0,0 +1,109 @@
+package com.travislai.wms.masterdata.application.controller;
+
+import com.travislai.wms.common.web.ApiResponse;
+import com.travislai.wms.masterdata.application.assembler.BarcodeAssembler;
+import com.travislai.wms.masterdata.application.dto.BarcodeResolution;
+import com.travislai.wms.masterdata.application.dto.BarcodeResponse;
+import com.travislai.wms.masterdata.application.dto.CreateBarcodeRequest;
+import com.travislai.wms.masterdata.application.dto.ResolveBarcodesRequest;
+import com.travislai.wms.masterdata.application.dto.UpdateBarcodeRequest;
+import com.travislai.wms.masterdata.domain.entity.Barcode;
+import com.travislai.wms.masterdata.domain.service.BarcodeService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Barcode REST API Controller
+ * Provides endpoints for managing barcodes (条码) and resolving scanned barcodes to products
+ */
+@RestController
+@RequestMapping("/api/masterdata/barcodes")
+@Validated
+public class BarcodeController {
+    
+    private final BarcodeService barcodeService;
+    private final BarcodeAssembler barcodeAssembler;
+    
+    public BarcodeController(BarcodeService barcodeService, BarcodeAssembler barcodeAssembler) {
+        this.barcodeService = barcodeService;
+        this.barcodeAssembler = barcodeAssembler;
+    }
+    
+    /**
+     * Create a new barcode
+     * POST /api/masterdata/barcodes
+     */
+    @PostMapping
+    public ApiResponse<BarcodeResponse> createBarcode(@Valid @RequestBody CreateBarcodeRequest request) {
+        Barcode created = barcodeService.createBarcode(barcodeAssembler.toEntity(request));
+        return ApiResponse.ok(barcodeAssembler.toResponse(created));
+    }
+    
+    /**
+     * Update an existing barcode; the barcode text itself cannot change
+     * PUT /api/masterdata/barcodes/{id}
+     */
+    @PutMapping("/{id}")
+    public ApiResponse<BarcodeResponse> updateBarcode(
+            @PathVariable @Min(1) Long id,
+            @Valid @RequestBody UpdateBarcodeRequest request) {
+        Barcode barcode = new Barcode();
+        barcodeAssembler.updateEntity(barcode, request);
+        Barcode updated = barcodeService.updateBarcode(id, barcode);
+        return ApiResponse.ok(barcodeAssembler.toResponse(updated));
+    }
+    
+    /**
+     * Delete a barcode (logical delete)
+     * DELETE /api/masterdata/barcodes/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> deleteBarcode(@PathVariable @Min(1) Long id) {
+        barcodeService.deleteBarcode(id);
+        return ApiResponse.ok();
+    }
+    
+    /**
+     * Get barcode by ID
+     * GET /api/masterdata/barcodes/{id}
+     */
+    @GetMapping("/{id}")
+    public ApiResponse<BarcodeResponse> getBarcode(@PathVariable @Min(1) Long id) {
+        return ApiResponse.ok(barcodeAssembler.toResponse(barcodeService.getById(id)));
+    }
+    
+    /**
+     * Get the barcodes of a product, primary first
+     * GET /api/masterdata/barcodes?productId=1
+     */
+    @GetMapping
+    public ApiResponse<List<BarcodeResponse>> getBarcodesByProduct(@RequestParam @Min(1) Long productId) {
+        List<BarcodeResponse> responses = barcodeService.getByProductId(productId).stream()
+                .map(barcodeAssembler::toResponse)
+                .toList();
+        return ApiResponse.ok(responses);
+    }
+    
+    /**
+     * Resolve a scanned barcode to its product
+     * GET /api/masterdata/barcodes/resolve/{barcode}
+     */
+    @GetMapping("/resolve/{barcode}")
+    public ApiResponse<BarcodeResolution> resolveBarcode(@PathVariable String barcode) {
+        return ApiResponse.ok(new BarcodeResolution(barcode, barcodeService.resolve(barcode)));
+    }
+    
+    /**
+     * Resolve a burst of scanned barcodes; unknown barcodes come back with a null productId
+     * POST /api/masterdata/barcodes/resolve
+     */
+    @PostMapping("/resolve")
+    public ApiResponse<List<BarcodeResolution>> resolveBarcodes(@Valid @RequestBody ResolveBarcodesRequest request) {
+        return ApiResponse.ok(barcodeAssembler.toResolutions(request.barcodes(),
+                barcodeService.resolveAll(request.barcodes())));
+    }
+}
@@ -0,0 +1,94 @@
+package com.travislai.wms.masterdata.application.controller;
+
+import com.travislai.wms.masterdata.domain.bulk.BulkExporter;
+import com.travislai.wms.masterdata.domain.bulk.BulkFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds streamed bulk export responses
+ */
+final class BulkResponses {
+    
+    private static final int GZIP_BUFFER = 64 * 1024;
+    
+    private BulkResponses() {
+    }
+    
+    /**
+     * A response that streams {@code body} as a {@code name.csv} or {@code name.ndjson} attachment,
+     * gzip-compressed when the client accepts it. Exports are never stored by caches: they are a
+     * snapshot of live data and may be large. {@code permit} is released when the body is done
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String name, BulkFormat format, String acceptEncoding,
+                                                         BulkExporter.Permit permit, StreamingResponseBody export) {
+        StreamingResponseBody body = output -> {
+            try (permit) {
+                export.writeTo(output);
+            }
+        };
+        boolean gzip = acceptsGzip(acceptEncoding);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.mediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(name + "." + format.name().toLowerCase())
+                .build());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        headers.setCacheControl(CacheControl.noStore());
+        if (!gzip) {
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return ResponseEntity.ok().headers(headers).body(output -> {
+            GZIPOutputStream compressed = new GZIPOutputStream(output, GZIP_BUFFER);
+            body.writeTo(compressed);
+            compressed.finish();
+        });
+    }
+    
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip: an explicit {@code gzip} (or
+     * {@code x-gzip}) entry decides, otherwise {@code *}; a q-value of 0 means not acceptable
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean acceptable = quality(parts) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return acceptable;
+            }
+            if (coding.equals("*")) {
+                wildcard = acceptable;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+    
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -1,20 +1,39 @@
 package com.travislai.wms.masterdata.application.controller;
 
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.travislai.wms.common.web.ApiResponse;
+import com.travislai.wms.masterdata.application.assembler.ImportAssembler;
 import com.travislai.wms.masterdata.application.assembler.OwnerAssembler;
+import com.travislai.wms.masterdata.application.dto.BatchUpdateOwnerRequest;
+import com.travislai.wms.masterdata.application.dto.BatchUpdateResponse;
 import com.travislai.wms.masterdata.application.dto.CreateOwnerRequest;
+import com.travislai.wms.masterdata.application.dto.CursorPageResponse;
+import com.travislai.wms.masterdata.application.dto.ImportResponse;
 import com.travislai.wms.masterdata.application.dto.OwnerResponse;
 import com.travislai.wms.masterdata.application.dto.PageResponse;
 import com.travislai.wms.masterdata.application.dto.UpdateOwnerRequest;
+import com.travislai.wms.masterdata.domain.bulk.BulkExporter;
+import com.travislai.wms.masterdata.domain.bulk.BulkFormat;
 import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.exception.BusinessException;
+import com.travislai.wms.masterdata.domain.pagination.KeysetPage;
+import com.travislai.wms.masterdata.domain.pagination.OffsetPage;
+import com.travislai.wms.masterdata.domain.pagination.TotalMode;
 import com.travislai.wms.masterdata.domain.service.OwnerService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
@@ -28,10 +47,15 @@ public class OwnerController {
     
     private final OwnerService ownerService;
     private final OwnerAssembler ownerAssembler;
+    private final ImportAssembler importAssembler;
+    private final BulkExporter bulkExporter;
     
-    public OwnerController(OwnerService ownerService, OwnerAssembler ownerAssembler) {
+    public OwnerController(OwnerService ownerService, OwnerAssembler ownerAssembler,
+                           ImportAssembler importAssembler, BulkExporter bulkExporter) {
         this.ownerService = ownerService;
         this.ownerAssembler = ownerAssembler;
+        this.importAssembler = importAssembler;
+        this.bulkExporter = bulkExporter;
     }
     
     /**
@@ -45,6 +69,40 @@ public class OwnerController {
         return ApiResponse.ok(ownerAssembler.toResponse(created));
     }
     
+    /**
+     * Import owners from a streamed CSV (text/csv, header row) or NDJSON (application/x-ndjson) body
+     * POST /api/masterdata/owners/import[?format=csv|ndjson]
+     */
+    @PostMapping("/import")
+    public ApiResponse<ImportResponse> importOwners(
+            HttpServletRequest request,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String format) throws IOException {
+        
+        BulkFormat bulkFormat = BulkFormat.resolve(format, contentType);
+        return ApiResponse.ok(importAssembler.toResponse(ownerService.importOwners(request.getInputStream(), bulkFormat)));
+    }
+    
+    /**
+     * Stream active owners as NDJSON or CSV, optionally only those last modified in [updatedFrom, updatedTo)
+     * GET /api/masterdata/owners/export?format=ndjson|csv&updatedFrom=2025-01-01T00:00:00&updatedTo=...
+     * The format can also come from the Accept header; the body is gzip-compressed when Accept-Encoding allows.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOwners(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        // Checked before streaming starts, while an error can still change the status
+        BulkExporter.checkRange(updatedFrom, updatedTo);
+        BulkFormat bulkFormat = BulkFormat.negotiate(format, accept);
+        return BulkResponses.stream("owners", bulkFormat, acceptEncoding, bulkExporter.reserve(),
+                output -> ownerService.exportOwners(output, bulkFormat, updatedFrom, updatedTo));
+    }
+    
     /**
      * Update an existing owner
      * PUT /api/masterdata/owners/{id}
@@ -59,6 +117,20 @@ public class OwnerController {
         return ApiResponse.ok(ownerAssembler.toResponse(updated));
     }
     
+    /**
+     * Update many owners, each guarded by its own version
+     * PUT /api/masterdata/owners/batch[?atomic=true]
+     * Without atomic, updated items are kept even if others fail; with it, nothing is kept unless every item is updated.
+     */
+    @PutMapping("/batch")
+    public ApiResponse<BatchUpdateResponse> updateOwners(
+            @Valid @RequestBody BatchUpdateOwnerRequest request,
+            @RequestParam(defaultValue = "false") boolean atomic) {
+        
+        return ApiResponse.ok(ownerAssembler.toResponse(
+                ownerService.updateOwners(ownerAssembler.toUpdates(request), atomic)));
+    }
+    
     /**
      * Delete an owner (logical delete)
      * DELETE /api/masterdata/owners/{id}
@@ -80,53 +152,92 @@ public class OwnerController {
     }
     
     /**
-     * Get paginated list of owners
-     * GET /api/masterdata/owners?page=1&size=20
+     * Get owner by code
+     * GET /api/masterdata/owners/code/{code}
+     */
+    @GetMapping("/code/{code}")
+    public ApiResponse<OwnerResponse> getOwnerByCode(@PathVariable String code) {
+        Owner owner = ownerService.getByCode(code);
+        return ApiResponse.ok(ownerAssembler.toResponse(owner));
+    }
+    
+    /**
+     * Get paginated list of owners by id; {@code order=desc} lists the most recently created first
+     * GET /api/masterdata/owners?page=1&size=20&total=exact|estimate|none&order=asc|desc
      */
     @GetMapping
     public ApiResponse<PageResponse<OwnerResponse>> getOwners(
             @RequestParam(defaultValue = "1") @Min(1) Integer page,
-            @RequestParam(defaultValue = "20") @Min(1) Integer size) {
+            @RequestParam(defaultValue = "20") @Min(1) @Max(KeysetPage.MAX_SIZE) Integer size,
+            @RequestParam(defaultValue = "exact") String total,
+            @RequestParam(defaultValue = "asc") String order) {
         
-        Page<Owner> ownerPage = ownerService.getOwners(page, size);
-        
-        List<OwnerResponse> responses = ownerPage.getRecords().stream()
-                .map(ownerAssembler::toResponse)
-                .collect(Collectors.toList());
-        
-        PageResponse<OwnerResponse> pageResponse = new PageResponse<>(
-                responses,
-                ownerPage.getTotal(),
-                (int) ownerPage.getCurrent(),
-                (int) ownerPage.getSize()
-        );
+        return ApiResponse.ok(toPage(ownerService.getOwners(page, size, TotalMode.parse(total), newestFirst(order))));
+    }
+    
+    /**
+     * Get owners by keyset pagination; cost does not grow with depth
+     * GET /api/masterdata/owners?after=0&size=20
+     */
+    @GetMapping(params = "after")
+    public ApiResponse<CursorPageResponse<OwnerResponse>> getOwnersAfter(
+            @RequestParam @Min(0) Long after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(KeysetPage.MAX_SIZE) Integer size) {
         
-        return ApiResponse.ok(pageResponse);
+        return ApiResponse.ok(toCursorPage(ownerService.getOwnersAfter(after, size), size));
     }
     
     /**
      * Search owners by code or name
-     * GET /api/masterdata/owners/search?keyword=xxx&page=1&size=20
+     * GET /api/masterdata/owners/search?keyword=xxx&page=1&size=20&total=exact|estimate|none
+     * total=estimate only saves the COUNT when paging on through the same keyword; use none for ad-hoc searches.
      */
     @GetMapping("/search")
     public ApiResponse<PageResponse<OwnerResponse>> searchOwners(
             @RequestParam(required = false) String keyword,
             @RequestParam(defaultValue = "1") @Min(1) Integer page,
-            @RequestParam(defaultValue = "20") @Min(1) Integer size) {
+            @RequestParam(defaultValue = "20") @Min(1) @Max(KeysetPage.MAX_SIZE) Integer size,
+            @RequestParam(defaultValue = "exact") String total) {
         
-        Page<Owner> ownerPage = ownerService.searchOwners(keyword, page, size);
+        return ApiResponse.ok(toPage(ownerService.searchOwners(keyword, page, size, TotalMode.parse(total))));
+    }
+    
+    /**
+     * Search owners by code or name with keyset pagination
+     * GET /api/masterdata/owners/search?keyword=xxx&after=0&size=20
+     */
+    @GetMapping(value = "/search", params = "after")
+    public ApiResponse<CursorPageResponse<OwnerResponse>> searchOwnersAfter(
+            @RequestParam(required = false) String keyword,
+            @RequestParam @Min(0) Long after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(KeysetPage.MAX_SIZE) Integer size) {
         
-        List<OwnerResponse> responses = ownerPage.getRecords().stream()
+        return ApiResponse.ok(toCursorPage(ownerService.searchOwnersAfter(keyword, after, size), size));
+    }
+    
+    private static boolean newestFirst(String order) {
+        switch (order.trim().toLowerCase(Locale.ROOT)) {
+            case "asc":
+                return false;
+            case "desc":
+                return true;
+            default:
+                throw new BusinessException("order must be one of asc, desc");
+        }
+    }
+    
+    private PageResponse<OwnerResponse> toPage(OffsetPage<Owner> ownerPage) {
+        List<OwnerResponse> responses = ownerPage.records().stream()
                 .map(ownerAssembler::toResponse)
                 .collect(Collectors.toList());
-        
-        PageResponse<OwnerResponse> pageResponse = new PageResponse<>(
-                responses,
-                ownerPage.getTotal(),
-                (int) ownerPage.getCurrent(),
-                (int) ownerPage.getSize()
-        );
-        
-        return ApiResponse.ok(pageResponse);
+        return new PageResponse<>(responses, ownerPage.total(), ownerPage.page(), ownerPage.size(),
+                ownerPage.hasNext(), ownerPage.estimated() ? Boolean.TRUE : null);
+    }
+    
+    private CursorPageResponse<OwnerResponse> toCursorPage(KeysetPage<Owner> slice, int size) {
+        List<OwnerResponse> responses = slice.records().stream()
+                .map(ownerAssembler::toResponse)
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(responses, size, slice.hasNext(), slice.nextAfter());
     }
 }
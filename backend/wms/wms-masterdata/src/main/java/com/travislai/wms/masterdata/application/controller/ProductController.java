@@ -0,0 +1,73 @@
+package com.travislai.wms.masterdata.application.controller;
+
+import com.travislai.wms.common.web.ApiResponse;
+import com.travislai.wms.masterdata.application.assembler.ImportAssembler;
+import com.travislai.wms.masterdata.application.dto.ImportResponse;
+import com.travislai.wms.masterdata.domain.bulk.BulkExporter;
+import com.travislai.wms.masterdata.domain.bulk.BulkFormat;
+import com.travislai.wms.masterdata.domain.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Product REST API Controller
+ * Provides endpoints for managing product (产品/物料) entities
+ */
+@RestController
+@RequestMapping("/api/masterdata/products")
+@Validated
+public class ProductController {
+    
+    private final ProductService productService;
+    private final ImportAssembler importAssembler;
+    private final BulkExporter bulkExporter;
+    
+    public ProductController(ProductService productService, ImportAssembler importAssembler,
+                             BulkExporter bulkExporter) {
+        this.productService = productService;
+        this.importAssembler = importAssembler;
+        this.bulkExporter = bulkExporter;
+    }
+    
+    /**
+     * Import products from a streamed CSV (text/csv, header row) or NDJSON (application/x-ndjson) body
+     * POST /api/masterdata/products/import[?format=csv|ndjson]
+     */
+    @PostMapping("/import")
+    public ApiResponse<ImportResponse> importProducts(
+            HttpServletRequest request,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String format) throws IOException {
+        
+        BulkFormat bulkFormat = BulkFormat.resolve(format, contentType);
+        return ApiResponse.ok(importAssembler.toResponse(productService.importProducts(request.getInputStream(), bulkFormat)));
+    }
+    
+    /**
+     * Stream active products as NDJSON or CSV, optionally only those last modified in [updatedFrom, updatedTo)
+     * GET /api/masterdata/products/export?format=ndjson|csv&updatedFrom=2025-01-01T00:00:00&updatedTo=...
+     * The format can also come from the Accept header; the body is gzip-compressed when Accept-Encoding allows.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        // Checked before streaming starts, while an error can still change the status
+        BulkExporter.checkRange(updatedFrom, updatedTo);
+        BulkFormat bulkFormat = BulkFormat.negotiate(format, accept);
+        return BulkResponses.stream("products", bulkFormat, acceptEncoding, bulkExporter.reserve(),
+                output -> productService.exportProducts(output, bulkFormat, updatedFrom, updatedTo));
+    }
+}
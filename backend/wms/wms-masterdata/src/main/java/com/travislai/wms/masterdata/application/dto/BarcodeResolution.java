@@ -0,0 +1,9 @@
+package com.travislai.wms.masterdata.application.dto;
+
+/**
+ * Response DTO for one resolved barcode; productId is null if the barcode is unknown
+ */
+public record BarcodeResolution(
+    String barcode,
+    Long productId
+) {}
@@ -0,0 +1,20 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for Barcode entity
+ */
+public record BarcodeResponse(
+    Long id,
+    Long productId,
+    String barcode,
+    String type,
+    Integer isPrimary,
+    String remark,
+    LocalDateTime createDate,
+    String createBy,
+    LocalDateTime updateDate,
+    String updateBy,
+    Integer version
+) {}
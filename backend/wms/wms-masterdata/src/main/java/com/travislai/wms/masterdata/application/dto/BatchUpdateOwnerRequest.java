@@ -0,0 +1,28 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for updating many owners at once
+ * Each item is checked on its own and reported in the response, so one bad item does not fail the request
+ */
+public record BatchUpdateOwnerRequest(
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 10000, message = "At most 10000 items can be updated at once")
+    List<@NotNull(message = "Items must not be null") Item> items
+) {
+    
+    /**
+     * One owner to update: its id, the version last read, and the fields to change
+     */
+    public record Item(Long id, Integer version, Fields fields) {}
+    
+    /**
+     * Fields to change; omitted fields keep their current value
+     */
+    public record Fields(String code, String name) {}
+}
@@ -0,0 +1,27 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Response DTO for batch updates
+ * {@code rolledBack} is only present when an atomic batch was rolled back
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchUpdateResponse(
+    long total,
+    long updated,
+    long failed,
+    Boolean rolledBack,
+    List<RowResult> results
+) {
+    
+    /**
+     * The outcome of one item, in request order
+     * status is UPDATED, VERSION_CONFLICT, NOT_FOUND, REJECTED or ROLLED_BACK; version is the new
+     * version after an update or the current one on a conflict
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record RowResult(Long id, String status, Integer version, String message) {}
+}
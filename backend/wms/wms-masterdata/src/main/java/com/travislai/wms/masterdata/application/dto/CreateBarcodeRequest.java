@@ -0,0 +1,29 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for creating a new Barcode
+ */
+public record CreateBarcodeRequest(
+    @NotNull(message = "Product ID is required")
+    Long productId,
+    
+    @NotBlank(message = "Barcode is required")
+    @Size(max = 100, message = "Barcode must not exceed 100 characters")
+    String barcode,
+    
+    @Size(max = 50, message = "Barcode type must not exceed 50 characters")
+    String type,
+    
+    @Min(value = 0, message = "Primary flag must be 0 or 1")
+    @Max(value = 1, message = "Primary flag must be 0 or 1")
+    Integer isPrimary,
+    
+    @Size(max = 500, message = "Remark must not exceed 500 characters")
+    String remark
+) {}
@@ -0,0 +1,13 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import java.util.List;
+
+/**
+ * Keyset page response DTO; pass {@code nextAfter} as {@code after} to fetch the next slice
+ */
+public record CursorPageResponse<T>(
+    List<T> records,
+    Integer size,
+    Boolean hasNext,
+    Long nextAfter
+) {}
@@ -0,0 +1,27 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Response DTO for bulk imports
+ * {@code errorsTruncated} is only present when more rows failed than {@code errors} lists;
+ * {@code aborted} is only present when the input could not be read to the end and says why
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportResponse(
+    long total,
+    long imported,
+    long failed,
+    List<RowError> errors,
+    Boolean errorsTruncated,
+    String aborted
+) {
+    
+    /**
+     * A rejected row: its 1-based position among data rows, its key when readable, and the reason
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record RowError(long row, String key, String message) {}
+}
@@ -1,13 +1,19 @@
 package com.travislai.wms.masterdata.application.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
  * Generic page response DTO for paginated results
+ * {@code total} is omitted when not requested and {@code estimated} is only present for estimates
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record PageResponse<T>(
     List<T> records,
     Long total,
     Integer page,
-    Integer size
+    Integer size,
+    Boolean hasNext,
+    Boolean estimated
 ) {}
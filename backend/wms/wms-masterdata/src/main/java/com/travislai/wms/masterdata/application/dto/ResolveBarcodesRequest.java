@@ -0,0 +1,16 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for resolving a burst of scanned barcodes at once
+ */
+public record ResolveBarcodesRequest(
+    @NotEmpty(message = "At least one barcode is required")
+    @Size(max = 1000, message = "At most 1000 barcodes can be resolved at once")
+    List<@NotBlank(message = "Barcodes must not be blank") String> barcodes
+) {}
@@ -0,0 +1,28 @@
+package com.travislai.wms.masterdata.application.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for updating an existing Barcode
+ * The barcode text cannot change; delete the barcode and create a new one instead
+ */
+public record UpdateBarcodeRequest(
+    @NotNull(message = "Product ID is required")
+    Long productId,
+    
+    @Size(max = 50, message = "Barcode type must not exceed 50 characters")
+    String type,
+    
+    @Min(value = 0, message = "Primary flag must be 0 or 1")
+    @Max(value = 1, message = "Primary flag must be 0 or 1")
+    Integer isPrimary,
+    
+    @Size(max = 500, message = "Remark must not exceed 500 characters")
+    String remark,
+    
+    @NotNull(message = "Version is required for optimistic locking")
+    Integer version
+) {}
@@ -21,7 +21,7 @@ public class AuditMetaObjectHandler implements MetaObjectHandler {
     @Override
     public void insertFill(MetaObject metaObject) {
         this.strictInsertFill(metaObject, "createDate", LocalDateTime.class, LocalDateTime.now());
-        this.strictInsertFill(metaObject, "createBy", String.class, getCurrentUser());
+        this.strictInsertFill(metaObject, "createBy", String.class, currentUser());
     }
     
     /**
@@ -31,14 +31,14 @@ public class AuditMetaObjectHandler implements MetaObjectHandler {
     @Override
     public void updateFill(MetaObject metaObject) {
         this.strictUpdateFill(metaObject, "updateDate", LocalDateTime.class, LocalDateTime.now());
-        this.strictUpdateFill(metaObject, "updateBy", String.class, getCurrentUser());
+        this.strictUpdateFill(metaObject, "updateBy", String.class, currentUser());
     }
     
     /**
      * Get current user from Sa-Token authentication context
      * Falls back to "system" if no user is authenticated
      */
-    private String getCurrentUser() {
+    public static String currentUser() {
         try {
             return StpUtil.getLoginIdAsString();
         } catch (Exception e) {
@@ -4,11 +4,15 @@ import com.baomidou.mybatisplus.core.exceptions.MybatisPlusException;
 import com.travislai.wms.common.web.ApiResponse;
 import com.travislai.wms.masterdata.domain.exception.BusinessException;
 import com.travislai.wms.masterdata.domain.exception.ResourceNotFoundException;
+import com.travislai.wms.masterdata.domain.exception.ServiceBusyException;
 import com.travislai.wms.masterdata.domain.exception.UniqueConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -42,6 +46,16 @@ public class MasterDataExceptionHandler {
         return ApiResponse.fail(ex.getMessage());
     }
     
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServiceBusy(ServiceBusyException ex) {
+        log.warn("Service busy: {}", ex.getMessage());
+        // JSON even when the client asked for an export format
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.fail(ex.getMessage()));
+    }
+    
     @ExceptionHandler(OptimisticLockingFailureException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ApiResponse<Void> handleOptimisticLock(OptimisticLockingFailureException ex) {
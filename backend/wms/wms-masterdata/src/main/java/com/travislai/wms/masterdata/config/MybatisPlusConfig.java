@@ -2,14 +2,15 @@ package com.travislai.wms.masterdata.config;
 
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.travislai.wms.masterdata.domain.pagination.KeysetPage;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * MyBatis-Plus configuration
- * Configures optimistic locking and logical delete
- * Pagination is configured via application.yml global-config
+ * Configures optimistic locking, pagination and logical delete
  */
 @Configuration
 @MapperScan("com.travislai.wms.masterdata.domain.mapper")
@@ -18,6 +19,8 @@ public class MybatisPlusConfig {
     /**
      * Configure MyBatis-Plus interceptors
      * - Optimistic locking: prevents concurrent update conflicts using version field
+     * - Pagination: turns selectPage into LIMIT/OFFSET plus a COUNT query, with the page size
+     *   capped at {@link KeysetPage#MAX_SIZE}; the dialect is detected from the JDBC URL
      * - Logical delete: configured via @TableLogic annotation and application.yml
      */
     @Bean
@@ -27,6 +30,11 @@ public class MybatisPlusConfig {
         // Optimistic lock interceptor - handles version field updates
         interceptor.addInnerInterceptor(new OptimisticLockerInnerInterceptor());
         
+        // Pagination interceptor - must be registered last
+        PaginationInnerInterceptor pagination = new PaginationInnerInterceptor();
+        pagination.setMaxLimit((long) KeysetPage.MAX_SIZE);
+        interceptor.addInnerInterceptor(pagination);
+        
         return interceptor;
     }
 }
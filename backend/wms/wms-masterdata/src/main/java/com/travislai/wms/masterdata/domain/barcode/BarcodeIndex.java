@@ -0,0 +1,404 @@
+package com.travislai.wms.masterdata.domain.barcode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing map from barcode to product id over primitive arrays
+ * <p>
+ * Barcodes are stored UTF-8 encoded back to back in 1 MiB byte pages, each behind a two-byte
+ * length. The table is a single {@code long[]} of slot pairs: a 32-bit hash of the key with the
+ * key's offset in the pages, followed by the product id. It uses linear probing with
+ * backward-shift deletion, so there are no tombstones, and the stored hash skips almost every key
+ * comparison that would fail. A lookup therefore touches one slot pair and one run of key bytes,
+ * typically two cache misses. No object is allocated per barcode: the GC sees a few large
+ * primitive arrays, which it never has to scan, and a barcode costs its key bytes plus 2, plus
+ * 16 bytes per slot (21 to 43 bytes depending on load).
+ * <p>
+ * Lookups are lock-free: they run under a {@link StampedLock} optimistic read and are repeated
+ * under the read lock only if a write interleaved. Writes take the write lock. Key bytes of
+ * removed barcodes are not reused; {@link #needsCompaction()} tells when copying the live
+ * barcodes into a fresh index with {@link #compacted()} pays off. Key pages address at most
+ * 4 GiB, live and removed together.
+ */
+public final class BarcodeIndex {
+    
+    /**
+     * Returned by {@link #get} for an unknown barcode
+     */
+    public static final long ABSENT = -1L;
+    
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_KEY_BYTES = 0xFFFF;
+    private static final long MAX_KEY_OFFSET = 0xFFFF_FFFFL;
+    private static final int MIN_CAPACITY = 16;
+    /**
+     * Slot pairs must fit in one array
+     */
+    private static final int MAX_CAPACITY = 1 << 29;
+    
+    private final StampedLock lock = new StampedLock();
+    
+    /**
+     * Slot pairs: hash in the high 32 bits and key offset in the low 32 bits (0 is empty), then
+     * the product id
+     */
+    private long[] slots;
+    private int size;
+    
+    private byte[][] keyPages = new byte[16][];
+    /**
+     * Offset of the next key across all pages; starts at 1 so that no key has offset 0
+     */
+    private long keyEnd = 1;
+    private long garbageBytes;
+    
+    public BarcodeIndex() {
+        this(0);
+    }
+    
+    /**
+     * @param expectedSize number of barcodes to hold without resizing the table
+     */
+    public BarcodeIndex(int expectedSize) {
+        this.slots = new long[capacityFor(expectedSize) * 2];
+    }
+    
+    /**
+     * The product id of {@code barcode}, or {@link #ABSENT}
+     */
+    public long get(String barcode) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            long result;
+            try {
+                result = find(barcode);
+            } catch (RuntimeException ex) {
+                // Arrays read mid-write can be inconsistent; the stamp check below fails then
+                result = ABSENT;
+            }
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(barcode);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Map {@code barcode} to {@code productId}, replacing any previous product
+     * @throws IllegalArgumentException if the barcode is longer than 65535 bytes in UTF-8
+     * @throws IllegalStateException if the key pages or the table are full
+     */
+    public void put(String barcode, long productId) {
+        byte[] key = barcode.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Barcode too long: " + key.length + " bytes");
+        }
+        int hash = hash(key, 0, key.length);
+        long stamp = lock.writeLock();
+        try {
+            int slot = locate(hash, key);
+            if (slot >= 0) {
+                slots[slot + 1] = productId;
+                return;
+            }
+            insert(hash, key, productId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Forget {@code barcode}
+     * @return whether it was present
+     */
+    public boolean remove(String barcode) {
+        byte[] key = barcode.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key, 0, key.length);
+        long stamp = lock.writeLock();
+        try {
+            int slot = locate(hash, key);
+            if (slot < 0) {
+                return false;
+            }
+            garbageBytes += 2 + key.length;
+            deleteSlot(slot);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Number of barcodes
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Approximate heap held by the index in bytes
+     */
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            long pages = Arrays.stream(keyPages).filter(page -> page != null).count();
+            return (long) slots.length * Long.BYTES + pages * PAGE_SIZE;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Whether key bytes of removed barcodes outweigh those of live ones, so {@link #compacted()} would pay off
+     */
+    public boolean needsCompaction() {
+        long stamp = lock.readLock();
+        try {
+            return garbageBytes > PAGE_SIZE && garbageBytes > keyEnd - garbageBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * A copy holding only the live barcodes, packed; this index stays readable meanwhile but
+     * writes wait until the copy is done
+     */
+    public BarcodeIndex compacted() {
+        long stamp = lock.readLock();
+        try {
+            BarcodeIndex copy = new BarcodeIndex(size);
+            for (int slot = 0; slot < slots.length; slot += 2) {
+                long meta = slots[slot];
+                if (meta != 0) {
+                    long offset = meta & MAX_KEY_OFFSET;
+                    byte[] page = keyPages[(int) (offset >>> PAGE_BITS)];
+                    int start = (int) (offset & (PAGE_SIZE - 1));
+                    byte[] key = Arrays.copyOfRange(page, start + 2, start + 2 + keyLength(page, start));
+                    copy.insert((int) (meta >>> 32), key, slots[slot + 1]);
+                }
+            }
+            return copy;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Probe for {@code barcode}; must tolerate arrays changing underneath when called optimistically
+     */
+    private long find(String barcode) {
+        byte[] utf8 = isAscii(barcode) ? null : barcode.getBytes(StandardCharsets.UTF_8);
+        int hash = utf8 == null ? hashAscii(barcode) : hash(utf8, 0, utf8.length);
+        long[] table = slots;
+        int mask = table.length - 2;
+        int i = (hash << 1) & mask;
+        for (int probes = 0; probes < table.length; probes += 2) {
+            long meta = table[i];
+            if (meta == 0) {
+                return ABSENT;
+            }
+            if ((int) (meta >>> 32) == hash
+                    && (utf8 == null ? equalsAscii(meta, barcode) : equalsBytes(meta, utf8))) {
+                return table[i + 1];
+            }
+            i = (i + 2) & mask;
+        }
+        return ABSENT;
+    }
+    
+    /**
+     * Array index of the slot pair holding {@code key}, or -1; caller holds the write lock
+     */
+    private int locate(int hash, byte[] key) {
+        int mask = slots.length - 2;
+        int i = (hash << 1) & mask;
+        while (slots[i] != 0) {
+            if ((int) (slots[i] >>> 32) == hash && equalsBytes(slots[i], key)) {
+                return i;
+            }
+            i = (i + 2) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Add {@code key}, known to be absent; caller holds the write lock or owns the index
+     */
+    private void insert(int hash, byte[] key, long productId) {
+        if ((long) (size + 1) * 4 > (long) slots.length / 2 * 3) {
+            if (slots.length / 2 == MAX_CAPACITY) {
+                throw new IllegalStateException("Barcode index is full");
+            }
+            resize(slots.length);
+        }
+        long offset = appendKey(key);
+        int mask = slots.length - 2;
+        int i = (hash << 1) & mask;
+        while (slots[i] != 0) {
+            i = (i + 2) & mask;
+        }
+        slots[i + 1] = productId;
+        slots[i] = ((long) hash << 32) | offset;
+        size++;
+    }
+    
+    /**
+     * Empty the slot pair at {@code slot} and shift later pairs of its probe run back, so no lookup hits a gap
+     */
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 2;
+        int hole = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 2) & mask;
+            long moving = slots[i];
+            if (moving == 0) {
+                break;
+            }
+            int home = ((int) (moving >>> 32) << 1) & mask;
+            // Move the pair into the hole unless its home lies cyclically in (hole, i]
+            boolean homeBetween = hole <= i ? home > hole && home <= i : home > hole || home <= i;
+            if (!homeBetween) {
+                slots[hole] = moving;
+                slots[hole + 1] = slots[i + 1];
+                hole = i;
+            }
+        }
+        slots[hole] = 0;
+        slots[hole + 1] = 0;
+    }
+    
+    /**
+     * @param capacity the new number of slot pairs
+     */
+    private void resize(int capacity) {
+        long[] old = slots;
+        long[] table = new long[capacity * 2];
+        int mask = table.length - 2;
+        for (int slot = 0; slot < old.length; slot += 2) {
+            long meta = old[slot];
+            if (meta != 0) {
+                int i = ((int) (meta >>> 32) << 1) & mask;
+                while (table[i] != 0) {
+                    i = (i + 2) & mask;
+                }
+                table[i] = meta;
+                table[i + 1] = old[slot + 1];
+            }
+        }
+        slots = table;
+    }
+    
+    /**
+     * Copy {@code key} behind its length into the pages without crossing a page boundary
+     * @return the offset of the length
+     */
+    private long appendKey(byte[] key) {
+        int stored = 2 + key.length;
+        long offset = keyEnd;
+        if ((offset & (PAGE_SIZE - 1)) + stored > PAGE_SIZE) {
+            offset = ((offset >>> PAGE_BITS) + 1) << PAGE_BITS;
+        }
+        if (offset + stored > MAX_KEY_OFFSET) {
+            throw new IllegalStateException("Barcode index key pages are full");
+        }
+        int page = (int) (offset >>> PAGE_BITS);
+        if (page == keyPages.length) {
+            keyPages = Arrays.copyOf(keyPages, page * 2);
+        }
+        if (keyPages[page] == null) {
+            keyPages[page] = new byte[PAGE_SIZE];
+        }
+        int start = (int) (offset & (PAGE_SIZE - 1));
+        keyPages[page][start] = (byte) key.length;
+        keyPages[page][start + 1] = (byte) (key.length >>> 8);
+        System.arraycopy(key, 0, keyPages[page], start + 2, key.length);
+        keyEnd = offset + stored;
+        return offset;
+    }
+    
+    private boolean equalsAscii(long meta, String key) {
+        long offset = meta & MAX_KEY_OFFSET;
+        byte[] page = keyPages[(int) (offset >>> PAGE_BITS)];
+        int start = (int) (offset & (PAGE_SIZE - 1));
+        int length = keyLength(page, start);
+        if (length != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (page[start + 2 + i] != (byte) key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean equalsBytes(long meta, byte[] key) {
+        long offset = meta & MAX_KEY_OFFSET;
+        byte[] page = keyPages[(int) (offset >>> PAGE_BITS)];
+        int start = (int) (offset & (PAGE_SIZE - 1));
+        int length = keyLength(page, start);
+        return length == key.length && Arrays.equals(page, start + 2, start + 2 + length, key, 0, length);
+    }
+    
+    private static int keyLength(byte[] page, int start) {
+        return (page[start] & 0xFF) | (page[start + 1] & 0xFF) << 8;
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+        return (int) Math.min(MAX_CAPACITY, Long.highestOneBit(needed - 1) << 1);
+    }
+    
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with a murmur3 mix so that the low bits are usable as
+     * the table index; {@link #hashAscii} gives the same value for ASCII strings without encoding
+     */
+    private static int hash(byte[] bytes, int from, int length) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < from + length; i++) {
+            h = (h ^ (bytes[i] & 0xFF)) * 0x01000193;
+        }
+        return mix(h);
+    }
+    
+    private static int hashAscii(String value) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x01000193;
+        }
+        return mix(h);
+    }
+    
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
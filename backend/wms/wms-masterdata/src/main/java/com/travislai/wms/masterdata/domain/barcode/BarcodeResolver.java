@@ -0,0 +1,198 @@
+package com.travislai.wms.masterdata.domain.barcode;
+
+import com.travislai.wms.masterdata.domain.entity.Barcode;
+import com.travislai.wms.masterdata.domain.mapper.BarcodeMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process barcode to product resolution backed by {@link BarcodeIndex}
+ * <p>
+ * Enabled with {@code wms.masterdata.barcode.index.enabled=true}. All active barcodes are loaded
+ * at startup into an index sized for them up front; until then lookups fall back to the database.
+ * Writes made through this instance are applied once their transaction commits, and rows changed
+ * by other instances are picked up every {@code refresh-interval} from
+ * {@code update_date}/{@code create_date} (logical deletes fill {@code update_date} too). When
+ * removed barcodes hold more key bytes than live ones, the index is copied compactly and swapped
+ * in, so lookups never wait for it.
+ * <p>
+ * Mutations are serialized on one monitor; lookups only read the current index.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wms.masterdata.barcode.index", name = "enabled", havingValue = "true")
+public class BarcodeResolver {
+    
+    private static final Logger log = LoggerFactory.getLogger(BarcodeResolver.class);
+    private static final int BATCH_SIZE = 10_000;
+    /**
+     * Re-read this much before the last sync, so clock skew between instances does not lose changes
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+    
+    private final BarcodeMapper barcodeMapper;
+    private final Object syncLock = new Object();
+    
+    /**
+     * Null until the initial load has finished
+     */
+    private volatile BarcodeIndex index;
+    private LocalDateTime syncedAt;
+    
+    public BarcodeResolver(BarcodeMapper barcodeMapper, MeterRegistry meterRegistry) {
+        this.barcodeMapper = barcodeMapper;
+        Gauge.builder("masterdata.barcode.index.size", this, resolver -> resolver.ifReady(BarcodeIndex::size))
+                .register(meterRegistry);
+        Gauge.builder("masterdata.barcode.index.memory", this, resolver -> resolver.ifReady(BarcodeIndex::memoryBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Whether the initial load has finished and lookups can be answered from memory
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+    
+    /**
+     * The product id of an active barcode, or {@link BarcodeIndex#ABSENT}; only valid once {@link #isReady()}
+     */
+    public long resolve(String barcode) {
+        return index.get(barcode);
+    }
+    
+    /**
+     * Map a created or updated barcode to its product once the current transaction commits
+     */
+    public void onSaved(String barcode, long productId) {
+        afterCommit(() -> apply(barcode, productId, false));
+    }
+    
+    /**
+     * Forget a deleted barcode once the current transaction commits
+     */
+    public void onDeleted(String barcode) {
+        afterCommit(() -> apply(barcode, BarcodeIndex.ABSENT, true));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            load();
+        } catch (RuntimeException ex) {
+            log.warn("Barcode index load failed, resolving from the database until the next refresh", ex);
+        }
+    }
+    
+    /**
+     * Apply barcodes changed by other instances since the last sync, or retry a failed load
+     */
+    @Scheduled(fixedDelayString = "${wms.masterdata.barcode.index.refresh-interval:30000}",
+            initialDelayString = "${wms.masterdata.barcode.index.refresh-interval:30000}")
+    public void refresh() {
+        try {
+            if (index == null) {
+                load();
+                return;
+            }
+            synchronized (syncLock) {
+                LocalDateTime started = LocalDateTime.now();
+                LocalDateTime since = syncedAt.minus(SYNC_OVERLAP);
+                long afterId = 0;
+                int changed = 0;
+                List<Barcode> batch;
+                do {
+                    batch = barcodeMapper.selectChangedSince(since, afterId, BATCH_SIZE);
+                    for (Barcode barcode : batch) {
+                        if (barcode.getDeleteFlag() != null && barcode.getDeleteFlag() != 0) {
+                            index.remove(barcode.getBarcode());
+                        } else {
+                            index.put(barcode.getBarcode(), barcode.getProductId());
+                        }
+                        afterId = barcode.getId();
+                    }
+                    changed += batch.size();
+                } while (batch.size() == BATCH_SIZE);
+                syncedAt = started;
+                if (index.needsCompaction()) {
+                    index = index.compacted();
+                }
+                log.debug("Barcode index synced, changed={}, size={}", changed, index.size());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Barcode index refresh failed, keeping the previous state", ex);
+        }
+    }
+    
+    private void load() {
+        synchronized (syncLock) {
+            if (index != null) {
+                return;
+            }
+            long startNanos = System.nanoTime();
+            LocalDateTime started = LocalDateTime.now();
+            // Sized for every active barcode so the table never rehashes while loading
+            long count = barcodeMapper.selectCount(null);
+            BarcodeIndex loaded = new BarcodeIndex((int) Math.min(count, Integer.MAX_VALUE / 2));
+            long afterId = 0;
+            List<Barcode> batch;
+            do {
+                batch = barcodeMapper.selectIndexBatch(afterId, BATCH_SIZE);
+                for (Barcode barcode : batch) {
+                    loaded.put(barcode.getBarcode(), barcode.getProductId());
+                    afterId = barcode.getId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+            syncedAt = started;
+            index = loaded;
+            log.info("Barcode index loaded, barcodes={}, memory={}MiB, took={}ms", loaded.size(),
+                    loaded.memoryBytes() >> 20, (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+    
+    private void apply(String barcode, long productId, boolean deleted) {
+        synchronized (syncLock) {
+            // Before the initial load the change is read by the load or the first refresh instead
+            if (index == null) {
+                return;
+            }
+            if (deleted) {
+                index.remove(barcode);
+            } else {
+                index.put(barcode, productId);
+            }
+        }
+    }
+    
+    private double ifReady(ToLongFunction<BarcodeIndex> metric) {
+        BarcodeIndex current = index;
+        return current != null ? metric.applyAsLong(current) : 0;
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
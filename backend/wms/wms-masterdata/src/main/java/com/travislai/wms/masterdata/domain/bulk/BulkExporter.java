@@ -0,0 +1,154 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travislai.wms.masterdata.domain.exception.BusinessException;
+import com.travislai.wms.masterdata.domain.exception.ServiceBusyException;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Streams query results to CSV or NDJSON without holding them in memory
+ * <p>
+ * The query is read through a MyBatis {@link Cursor} inside a read-only transaction, which on
+ * PostgreSQL makes the driver fetch {@code fetchSize} rows at a time from a server-side portal
+ * instead of loading the whole result set. Each row is written as soon as it is read, so memory
+ * stays flat and throughput is bounded by how fast the client reads.
+ * <p>
+ * Each export therefore holds a pooled connection and an open transaction for the whole download.
+ * At most {@code max-concurrent-exports} run at once, so slow clients cannot exhaust the pool;
+ * callers {@link #reserve()} a slot before streaming starts and further exports are refused with a
+ * {@link ServiceBusyException}. On PostgreSQL each fetch is bounded by
+ * {@code export-statement-timeout}, and a client that stops reading for
+ * {@code export-idle-timeout} has its session ended, so a stalled download cannot hold back vacuum.
+ */
+@Component
+public class BulkExporter {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkExporter.class);
+    private static final long RETRY_AFTER_SECONDS = 30;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final Semaphore slots;
+    private final Duration statementTimeout;
+    private final Duration idleTimeout;
+    
+    private volatile Boolean postgres;
+    
+    public BulkExporter(PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${wms.masterdata.bulk.max-concurrent-exports:4}") int maxConcurrentExports,
+                        @Value("${wms.masterdata.bulk.export-statement-timeout:5m}") Duration statementTimeout,
+                        @Value("${wms.masterdata.bulk.export-idle-timeout:60s}") Duration idleTimeout) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.slots = new Semaphore(maxConcurrentExports);
+        this.statementTimeout = statementTimeout;
+        this.idleTimeout = idleTimeout;
+    }
+    
+    /**
+     * Take one of the {@code max-concurrent-exports} slots, to be closed when the export ends
+     * @throws ServiceBusyException if all slots are taken
+     */
+    public Permit reserve() {
+        if (!slots.tryAcquire()) {
+            throw new ServiceBusyException("Too many exports in progress, retry later", RETRY_AFTER_SECONDS);
+        }
+        return new Permit();
+    }
+    
+    /**
+     * Check an optional {@code [from, to)} modification-time range
+     */
+    public static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BusinessException("updatedFrom must be before updatedTo");
+        }
+    }
+    
+    /**
+     * Write every row of {@code query} to {@code output}
+     * @param output  the response body; flushed but not closed
+     * @param format  the record format
+     * @param entity  entity name used in logs
+     * @param columns column names, in the order of {@code values}
+     * @param query   opens the cursor; called inside the transaction
+     * @param values  the column values of one row
+     * @return the number of rows written
+     */
+    public <E> long export(OutputStream output, BulkFormat format, String entity, List<String> columns,
+                           Supplier<Cursor<E>> query, Function<E, Object[]> values) {
+        long startNanos = System.nanoTime();
+        Long rows = readOnlyTransaction.execute(status -> {
+            if (isPostgres()) {
+                jdbcTemplate.execute("SET LOCAL statement_timeout = " + statementTimeout.toMillis());
+                jdbcTemplate.execute("SET LOCAL idle_in_transaction_session_timeout = " + idleTimeout.toMillis());
+            }
+            long count = 0;
+            try (Cursor<E> cursor = query.get();
+                 RecordWriter writer = RecordWriter.open(output, format, objectMapper, columns)) {
+                for (E row : cursor) {
+                    writer.write(values.apply(row));
+                    count++;
+                }
+            } catch (IOException ex) {
+                // Usually the client went away; the transaction and cursor are released either way
+                throw new UncheckedIOException(ex);
+            }
+            return count;
+        });
+        log.info("Exported {} records: rows={}, took={}ms", entity, rows, (System.nanoTime() - startNanos) / 1_000_000);
+        return rows == null ? 0 : rows;
+    }
+    
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = result;
+        }
+        return result;
+    }
+    
+    /**
+     * A reserved export slot; closing it more than once releases it once
+     */
+    public final class Permit implements AutoCloseable {
+        
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Permit() {
+        }
+        
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.travislai.wms.masterdata.domain.exception.BusinessException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Record formats accepted by bulk endpoints
+ */
+public enum BulkFormat {
+    
+    /**
+     * Comma-separated values with a header row (RFC 4180 quoting)
+     */
+    CSV(new MediaType("text", "csv")),
+    
+    /**
+     * One JSON object per line
+     */
+    NDJSON(new MediaType("application", "x-ndjson"));
+    
+    private final MediaType mediaType;
+    
+    BulkFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+    
+    public MediaType mediaType() {
+        return mediaType;
+    }
+    
+    /**
+     * Pick the format from an explicit {@code format} parameter, else from the content type
+     * @param format csv or ndjson, case-insensitive; may be null
+     * @param contentType the request's Content-Type; may be null
+     * @return the format
+     */
+    public static BulkFormat resolve(String format, String contentType) {
+        if (StringUtils.hasText(format)) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new BusinessException("format must be one of csv, ndjson");
+            }
+        }
+        if (StringUtils.hasText(contentType)) {
+            MediaType type;
+            try {
+                type = MediaType.parseMediaType(contentType);
+            } catch (InvalidMediaTypeException ex) {
+                throw new BusinessException("Invalid Content-Type: " + contentType);
+            }
+            if (type.isCompatibleWith(CSV.mediaType)) {
+                return CSV;
+            }
+            if (type.isCompatibleWith(NDJSON.mediaType) || "ndjson".equals(type.getSubtype())
+                    || "jsonl".equals(type.getSubtype())) {
+                return NDJSON;
+            }
+        }
+        throw new BusinessException("Unsupported format; send text/csv or application/x-ndjson");
+    }
+    
+    /**
+     * Pick the response format from an explicit {@code format} parameter, else the first of
+     * CSV or NDJSON named in the Accept header, else NDJSON
+     * @param format csv or ndjson, case-insensitive; may be null
+     * @param accept the request's Accept header; may be null
+     * @return the format
+     */
+    public static BulkFormat negotiate(String format, String accept) {
+        if (StringUtils.hasText(format)) {
+            return resolve(format, null);
+        }
+        if (StringUtils.hasText(accept)) {
+            List<MediaType> types;
+            try {
+                types = MediaType.parseMediaTypes(accept);
+            } catch (InvalidMediaTypeException ex) {
+                return NDJSON;
+            }
+            for (MediaType type : types) {
+                if (!type.isWildcardType() && !type.isWildcardSubtype()) {
+                    if (type.isCompatibleWith(CSV.mediaType)) {
+                        return CSV;
+                    }
+                    if (type.isCompatibleWith(NDJSON.mediaType)) {
+                        return NDJSON;
+                    }
+                }
+            }
+        }
+        return NDJSON;
+    }
+}
@@ -0,0 +1,215 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travislai.wms.masterdata.config.AuditMetaObjectHandler;
+import com.travislai.wms.masterdata.domain.entity.BaseEntity;
+import com.travislai.wms.masterdata.domain.exception.BusinessException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams CSV or NDJSON records into a table in chunks
+ * <p>
+ * Records are read one chunk ({@code chunk-size}) at a time, so memory does not depend on the size
+ * of the input. Each chunk is parsed and validated in parallel, checked against the database with
+ * one set-based query per kind of check (see {@link ImportTarget#resolve}) instead of a COUNT per
+ * row, and inserted with one JDBC batch in its own transaction. Duplicates inside a chunk are
+ * rejected here; duplicates of rows from earlier chunks are found by the next chunk's check,
+ * since those rows are committed by then. If a batch still hits a constraint (a concurrent
+ * writer inserted the same key), the chunk is retried row by row so only the conflicting rows
+ * fail. Rejected rows are reported with their position, up to {@code max-errors}.
+ * <p>
+ * Records longer than {@code max-record-chars} are rejected without being held in memory. If the
+ * input cannot be read further (see {@link RecordReader#abortReason()}), the rows of the chunks
+ * already committed are still reported and the result says why the import stopped.
+ */
+@Component
+public class BulkImporter {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+    
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxRecordChars;
+    
+    public BulkImporter(Validator validator,
+                        TransactionTemplate transactionTemplate,
+                        ObjectMapper objectMapper,
+                        @Value("${wms.masterdata.bulk.import-chunk-size:1000}") int chunkSize,
+                        @Value("${wms.masterdata.bulk.max-errors:1000}") int maxErrors,
+                        @Value("${wms.masterdata.bulk.max-record-chars:65536}") int maxRecordChars) {
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxRecordChars = maxRecordChars;
+    }
+    
+    /**
+     * Import every record of {@code input}
+     * @param input  the request body; read to the end but not closed
+     * @param format the record format
+     * @param target the kind of record
+     * @return counts, the first errors and, if the input could not be read to the end, why
+     */
+    public <T, E extends BaseEntity> ImportResult run(InputStream input, BulkFormat format, ImportTarget<T, E> target) {
+        long startNanos = System.nanoTime();
+        Progress progress = new Progress(maxErrors);
+        // Captured on the request thread: chunks are validated on pool threads
+        String user = AuditMetaObjectHandler.currentUser();
+        RecordReader reader = RecordReader.open(input, format, objectMapper, maxRecordChars);
+        List<RecordReader.Record> chunk = new ArrayList<>(chunkSize);
+        RecordReader.Record record;
+        while ((record = reader.next()) != null) {
+            chunk.add(record);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, target, user, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, target, user, progress);
+        }
+        ImportResult result = progress.result(reader.abortReason());
+        log.info("Imported {} records: total={}, imported={}, failed={}, took={}ms", target.entity(),
+                result.total(), result.imported(), result.failed(), (System.nanoTime() - startNanos) / 1_000_000);
+        return result;
+    }
+    
+    private <T, E extends BaseEntity> void importChunk(List<RecordReader.Record> records, ImportTarget<T, E> target,
+                                                       String user, Progress progress) {
+        List<ImportRow<T, E>> rows = records.parallelStream()
+                .map(record -> parse(record, target))
+                .toList();
+        
+        Map<String, Long> firstRowByKey = new HashMap<>();
+        List<ImportRow<T, E>> candidates = new ArrayList<>(rows.size());
+        for (ImportRow<T, E> row : rows) {
+            if (row.rejected()) {
+                continue;
+            }
+            Long first = firstRowByKey.putIfAbsent(row.key(), row.row());
+            if (first != null) {
+                row.reject("Duplicate of row " + first + " in this input");
+            } else {
+                candidates.add(row);
+            }
+        }
+        
+        if (!candidates.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    target.resolve(candidates);
+                    target.insert(accepted(candidates, now, user));
+                });
+            } catch (DataIntegrityViolationException ex) {
+                log.warn("{} import batch conflicted, retrying rows one by one: {}", target.entity(),
+                        ex.getMostSpecificCause().getMessage());
+                insertOneByOne(candidates, target);
+            }
+        }
+        rows.forEach(progress::add);
+    }
+    
+    private <T, E extends BaseEntity> ImportRow<T, E> parse(RecordReader.Record record, ImportTarget<T, E> target) {
+        if (record.error() != null) {
+            return new ImportRow<>(record.row(), null, null, record.error());
+        }
+        T value;
+        try {
+            value = target.parse(record.fields());
+        } catch (IllegalArgumentException | BusinessException ex) {
+            return new ImportRow<>(record.row(), null, null, ex.getMessage());
+        }
+        String key = target.key(value);
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; "));
+            return new ImportRow<>(record.row(), value, key, message);
+        }
+        return new ImportRow<>(record.row(), value, key, null);
+    }
+    
+    private static <T, E extends BaseEntity> List<E> accepted(List<ImportRow<T, E>> rows, LocalDateTime now,
+                                                            String user) {
+        List<E> entities = new ArrayList<>(rows.size());
+        for (ImportRow<T, E> row : rows) {
+            if (!row.rejected() && row.entity() != null) {
+                row.entity().setCreateDate(now);
+                row.entity().setCreateBy(user);
+                entities.add(row.entity());
+            }
+        }
+        return entities;
+    }
+    
+    private <T, E extends BaseEntity> void insertOneByOne(List<ImportRow<T, E>> rows, ImportTarget<T, E> target) {
+        for (ImportRow<T, E> row : rows) {
+            if (row.rejected() || row.entity() == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> target.insert(List.of(row.entity())));
+            } catch (DataIntegrityViolationException ex) {
+                row.reject("Conflicts with an existing record");
+            }
+        }
+    }
+    
+    /**
+     * Running totals; keeps at most {@code maxErrors} errors
+     */
+    private static final class Progress {
+        
+        private final int maxErrors;
+        private final List<ImportResult.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+        
+        Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+        
+        void add(ImportRow<?, ?> row) {
+            total++;
+            if (!row.rejected() && row.entity() != null) {
+                imported++;
+                return;
+            }
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportResult.RowError(row.row(), row.key(),
+                        row.rejected() ? row.error() : "Not imported"));
+            }
+        }
+        
+        ImportResult result(String aborted) {
+            return new ImportResult(total, imported, failed, List.copyOf(errors), failed > errors.size(), aborted);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of an import
+ * @param total           number of records read
+ * @param imported        number of records inserted
+ * @param failed          number of records rejected
+ * @param errors          the first rejected records, up to the configured maximum
+ * @param errorsTruncated whether more records failed than {@code errors} lists
+ * @param aborted         why the input was not read to the end, or null; the counts cover the
+ *                        records read before it stopped
+ */
+public record ImportResult(long total, long imported, long failed, List<RowError> errors, boolean errorsTruncated,
+                           String aborted) {
+    
+    /**
+     * A rejected record
+     * @param row     1-based position of the record among data records
+     * @param key     the record's key (e.g. code) when it could be read
+     * @param message why the record was rejected
+     */
+    public record RowError(long row, String key, String message) {
+    }
+}
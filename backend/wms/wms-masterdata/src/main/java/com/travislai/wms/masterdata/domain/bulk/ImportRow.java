@@ -0,0 +1,70 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+/**
+ * One record of an import as it moves through parsing, checks and insert
+ * @param <T> the parsed row type
+ * @param <E> the entity type inserted for the row
+ */
+public final class ImportRow<T, E> {
+    
+    private final long row;
+    private final T value;
+    private final String key;
+    private E entity;
+    private String error;
+    
+    ImportRow(long row, T value, String key, String error) {
+        this.row = row;
+        this.value = value;
+        this.key = key;
+        this.error = error;
+    }
+    
+    /**
+     * 1-based position of the record among data records
+     */
+    public long row() {
+        return row;
+    }
+    
+    /**
+     * The parsed and validated row
+     */
+    public T value() {
+        return value;
+    }
+    
+    /**
+     * The key that must be unique across the input and the table
+     */
+    public String key() {
+        return key;
+    }
+    
+    public E entity() {
+        return entity;
+    }
+    
+    public String error() {
+        return error;
+    }
+    
+    public boolean rejected() {
+        return error != null;
+    }
+    
+    /**
+     * Accept the row for insert as {@code entity}
+     */
+    public void accept(E entity) {
+        this.entity = entity;
+    }
+    
+    /**
+     * Reject the row; it will be reported and not inserted
+     */
+    public void reject(String error) {
+        this.error = error;
+        this.entity = null;
+    }
+}
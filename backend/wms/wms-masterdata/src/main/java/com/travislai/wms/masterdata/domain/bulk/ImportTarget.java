@@ -0,0 +1,53 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.travislai.wms.masterdata.domain.entity.BaseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link BulkImporter} needs to know to import one kind of record
+ * @param <T> the parsed row type, validated with Bean Validation
+ * @param <E> the entity type inserted for each accepted row
+ */
+public interface ImportTarget<T, E extends BaseEntity> {
+    
+    /**
+     * Entity name used in logs
+     */
+    String entity();
+    
+    /**
+     * Map the fields of one record to a row
+     * @throws IllegalArgumentException when a value cannot be converted; the message is reported for the row
+     */
+    T parse(Map<String, String> fields);
+    
+    /**
+     * The key that must be unique across the input and the table, e.g. the code
+     */
+    String key(T row);
+    
+    /**
+     * Check one chunk against the database with set-based queries and accept the rows that pass
+     * @param rows the rows of the chunk that passed validation; duplicates within the input are already removed
+     */
+    void resolve(List<ImportRow<T, E>> rows);
+    
+    /**
+     * Insert the entities of accepted rows as one JDBC batch
+     */
+    void insert(List<E> entities);
+    
+    /**
+     * A field's value with surrounding whitespace removed, or null when missing or blank
+     */
+    static String text(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            return null;
+        }
+        value = value.strip();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,250 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.travislai.wms.masterdata.config.AuditMetaObjectHandler;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of owner updates with per-row optimistic locking
+ * <p>
+ * Each item carries the version the caller read. Items are sent as one JDBC batch per
+ * {@code update-chunk-size} of a single conditional UPDATE ({@code WHERE id = ? AND version = ?}),
+ * so a chunk costs one round trip instead of the four (read, code check, update, re-read) of
+ * {@link com.travislai.wms.masterdata.domain.service.OwnerService#updateOwner}. Rows the batch
+ * did not update are told apart with one query per chunk: a row that still exists has a version
+ * conflict, any other is not found. Items are applied in id order so that concurrent batches lock
+ * rows in the same order and cannot deadlock each other.
+ * <p>
+ * By default each chunk commits on its own and failed items do not affect the others. An atomic
+ * batch runs in one transaction (a savepoint when the caller already has one) and is rolled back
+ * unless every item is updated. If a chunk hits
+ * a constraint (a new code that is already taken) it is rolled back to a savepoint and retried row
+ * by row, so only the conflicting items are rejected.
+ */
+@Component
+public class OwnerBatchUpdater {
+    
+    private static final Logger log = LoggerFactory.getLogger(OwnerBatchUpdater.class);
+    
+    private static final String UPDATE = """
+            UPDATE wms_owner
+            SET code = COALESCE(?, code), name = COALESCE(?, name), version = version + 1,
+                update_date = ?, update_by = ?
+            WHERE id = ? AND version = ? AND delete_flag = 0
+            """;
+    
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    /**
+     * A savepoint inside an enclosing transaction, a new transaction otherwise; an atomic batch
+     * rolls back to it without affecting the caller's transaction
+     */
+    private final TransactionTemplate nestedTemplate;
+    private final int chunkSize;
+    
+    public OwnerBatchUpdater(Validator validator,
+                             JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedJdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${wms.masterdata.bulk.update-chunk-size:500}") int chunkSize) {
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.nestedTemplate = new TransactionTemplate(transactionManager);
+        this.nestedTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Apply {@code updates}
+     * @param updates the items, at most one per id
+     * @param atomic  whether to apply all items in one transaction, or none if any fails
+     * @return one result per item, in the order of {@code updates}
+     */
+    public UpdateResult run(List<OwnerUpdate> updates, boolean atomic) {
+        long startNanos = System.nanoTime();
+        UpdateResult.RowResult[] results = new UpdateResult.RowResult[updates.size()];
+        List<Integer> pending = check(updates, results);
+        
+        String user = AuditMetaObjectHandler.currentUser();
+        LocalDateTime now = LocalDateTime.now();
+        boolean rolledBack = false;
+        if (!atomic) {
+            applyAll(updates, pending, results, now, user);
+        } else if (pending.size() == updates.size()) {
+            rolledBack = Boolean.TRUE.equals(nestedTemplate.execute(status -> {
+                applyAll(updates, pending, results, now, user);
+                if (Arrays.stream(results).anyMatch(result -> result.status() != UpdateResult.Status.UPDATED)) {
+                    status.setRollbackOnly();
+                    return true;
+                }
+                return false;
+            }));
+        } else {
+            // Some items are invalid, so the batch cannot succeed as a whole
+            rolledBack = true;
+        }
+        if (rolledBack) {
+            for (int index : pending) {
+                if (results[index] == null || results[index].status() == UpdateResult.Status.UPDATED) {
+                    results[index] = new UpdateResult.RowResult(updates.get(index).id(),
+                            UpdateResult.Status.ROLLED_BACK, updates.get(index).version(), null);
+                }
+            }
+        }
+        
+        long updated = Arrays.stream(results).filter(result -> result.status() == UpdateResult.Status.UPDATED).count();
+        log.info("Batch updated owners: total={}, updated={}, atomic={}, rolledBack={}, took={}ms", results.length,
+                updated, atomic, rolledBack, (System.nanoTime() - startNanos) / 1_000_000);
+        return new UpdateResult(results.length, updated, results.length - updated, rolledBack, List.of(results));
+    }
+    
+    /**
+     * Reject invalid and repeated items
+     * @return indexes of the remaining items, in id order
+     */
+    private List<Integer> check(List<OwnerUpdate> updates, UpdateResult.RowResult[] results) {
+        Map<Long, Integer> firstById = new HashMap<>();
+        List<Integer> pending = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            OwnerUpdate update = updates.get(i);
+            String error = validate(update);
+            if (error == null) {
+                Integer first = firstById.putIfAbsent(update.id(), i);
+                if (first != null) {
+                    error = "Duplicate of item " + (first + 1) + " in this batch";
+                }
+            }
+            if (error != null) {
+                results[i] = new UpdateResult.RowResult(update.id(), UpdateResult.Status.REJECTED, null, error);
+            } else {
+                pending.add(i);
+            }
+        }
+        pending.sort(Comparator.comparing(index -> updates.get(index).id()));
+        return pending;
+    }
+    
+    private String validate(OwnerUpdate update) {
+        Set<ConstraintViolation<OwnerUpdate>> violations = validator.validate(update);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; "));
+        }
+        return update.hasChanges() ? null : "No fields to update";
+    }
+    
+    private void applyAll(List<OwnerUpdate> updates, List<Integer> pending, UpdateResult.RowResult[] results,
+                          LocalDateTime now, String user) {
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            try {
+                nestedTemplate.executeWithoutResult(status -> applyChunk(updates, chunk, results, now, user));
+            } catch (DataIntegrityViolationException ex) {
+                log.warn("Owner update batch conflicted, retrying rows one by one: {}",
+                        ex.getMostSpecificCause().getMessage());
+                for (int index : chunk) {
+                    applyOne(updates, index, results, now, user);
+                }
+            }
+        }
+    }
+    
+    private void applyChunk(List<OwnerUpdate> updates, List<Integer> chunk, UpdateResult.RowResult[] results,
+                            LocalDateTime now, String user) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE, chunk, chunk.size(),
+                (ps, index) -> bind(ps, updates.get(index), now, user));
+        List<Integer> missed = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunk.get(i);
+            if (counts[0][i] != 0) {
+                results[index] = updated(updates.get(index));
+            } else {
+                missed.add(index);
+            }
+        }
+        if (!missed.isEmpty()) {
+            explainMissed(updates, missed, results);
+        }
+    }
+    
+    private void applyOne(List<OwnerUpdate> updates, int index, UpdateResult.RowResult[] results,
+                          LocalDateTime now, String user) {
+        OwnerUpdate update = updates.get(index);
+        try {
+            nestedTemplate.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(UPDATE, ps -> bind(ps, update, now, user)) != 0) {
+                    results[index] = updated(update);
+                } else {
+                    explainMissed(updates, List.of(index), results);
+                }
+            });
+        } catch (DuplicateKeyException ex) {
+            results[index] = new UpdateResult.RowResult(update.id(), UpdateResult.Status.REJECTED, null,
+                    "Owner code already exists");
+        } catch (DataIntegrityViolationException ex) {
+            results[index] = new UpdateResult.RowResult(update.id(), UpdateResult.Status.REJECTED, null,
+                    "Conflicts with an existing record");
+        }
+    }
+    
+    /**
+     * Tell version conflicts from missing rows with one query
+     */
+    private void explainMissed(List<OwnerUpdate> updates, List<Integer> missed, UpdateResult.RowResult[] results) {
+        Map<Long, Integer> versions = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, version FROM wms_owner WHERE id IN (:ids) AND delete_flag = 0",
+                Map.of("ids", missed.stream().map(index -> updates.get(index).id()).toList()),
+                rs -> {
+                    versions.put(rs.getLong("id"), rs.getInt("version"));
+                });
+        for (int index : missed) {
+            Long id = updates.get(index).id();
+            Integer current = versions.get(id);
+            results[index] = current != null
+                    ? new UpdateResult.RowResult(id, UpdateResult.Status.VERSION_CONFLICT, current, null)
+                    : new UpdateResult.RowResult(id, UpdateResult.Status.NOT_FOUND, null, null);
+        }
+    }
+    
+    private static UpdateResult.RowResult updated(OwnerUpdate update) {
+        return new UpdateResult.RowResult(update.id(), UpdateResult.Status.UPDATED, update.version() + 1, null);
+    }
+    
+    private static void bind(PreparedStatement ps, OwnerUpdate update, LocalDateTime now, String user)
+            throws SQLException {
+        ps.setString(1, update.code());
+        ps.setString(2, update.name());
+        ps.setTimestamp(3, Timestamp.valueOf(now));
+        ps.setString(4, user);
+        ps.setLong(5, update.id());
+        ps.setInt(6, update.version());
+    }
+}
@@ -0,0 +1,17 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One owner record of an import; limits follow the wms_owner columns
+ */
+public record OwnerImportRow(
+    @NotBlank(message = "Owner code is required")
+    @Size(max = 50, message = "Owner code must not exceed 50 characters")
+    String code,
+    
+    @NotBlank(message = "Owner name is required")
+    @Size(max = 100, message = "Owner name must not exceed 100 characters")
+    String name
+) {}
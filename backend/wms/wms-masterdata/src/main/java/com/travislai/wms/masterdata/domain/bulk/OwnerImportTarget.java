@@ -0,0 +1,78 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports owners; the code must be new
+ * <p>
+ * Imported owners reach the in-memory search index, when enabled, at its next refresh.
+ */
+@Component
+public class OwnerImportTarget implements ImportTarget<OwnerImportRow, Owner> {
+    
+    private static final String INSERT = """
+            INSERT INTO wms_owner (code, name, create_date, create_by)
+            VALUES (?, ?, ?, ?)
+            """;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    public OwnerImportTarget(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+    
+    @Override
+    public String entity() {
+        return "Owner";
+    }
+    
+    @Override
+    public OwnerImportRow parse(Map<String, String> fields) {
+        return new OwnerImportRow(ImportTarget.text(fields, "code"), ImportTarget.text(fields, "name"));
+    }
+    
+    @Override
+    public String key(OwnerImportRow row) {
+        return row.code();
+    }
+    
+    @Override
+    public void resolve(List<ImportRow<OwnerImportRow, Owner>> rows) {
+        // The UNIQUE constraint covers logically deleted owners too, so they are not filtered out
+        Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT code FROM wms_owner WHERE code IN (:codes)",
+                Map.of("codes", rows.stream().map(ImportRow::key).toList()),
+                String.class));
+        for (ImportRow<OwnerImportRow, Owner> row : rows) {
+            if (existing.contains(row.key())) {
+                row.reject("Owner code already exists");
+            } else {
+                Owner owner = new Owner();
+                owner.setCode(row.value().code());
+                owner.setName(row.value().name());
+                row.accept(owner);
+            }
+        }
+    }
+    
+    @Override
+    public void insert(List<Owner> owners) {
+        jdbcTemplate.batchUpdate(INSERT, owners, owners.size(), (ps, owner) -> {
+            ps.setString(1, owner.getCode());
+            ps.setString(2, owner.getName());
+            ps.setTimestamp(3, Timestamp.valueOf(owner.getCreateDate()));
+            ps.setString(4, owner.getCreateBy());
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One item of a batch owner update; a {@code null} field keeps its current value, limits follow
+ * the wms_owner columns
+ * @param id      the owner to update
+ * @param version the version the caller last read; the row is only updated if it still has it
+ * @param code    the new code
+ * @param name    the new name
+ */
+public record OwnerUpdate(
+    @NotNull(message = "Owner id is required")
+    @Min(value = 1, message = "Owner id must be positive")
+    Long id,
+    
+    @NotNull(message = "Version is required for optimistic locking")
+    Integer version,
+    
+    @Size(max = 50, message = "Owner code must not exceed 50 characters")
+    @Pattern(regexp = "(?s).*\\S.*", message = "Owner code must not be blank")
+    String code,
+    
+    @Size(max = 100, message = "Owner name must not exceed 100 characters")
+    @Pattern(regexp = "(?s).*\\S.*", message = "Owner name must not be blank")
+    String name
+) {
+    
+    /**
+     * Whether the item changes anything
+     */
+    public boolean hasChanges() {
+        return code != null || name != null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One product record of an import; the owner and category are referenced by code,
+ * limits follow the wms_product columns
+ */
+public record ProductImportRow(
+    @NotBlank(message = "Owner code is required")
+    String ownerCode,
+    
+    String categoryCode,
+    
+    @NotBlank(message = "Product code is required")
+    @Size(max = 50, message = "Product code must not exceed 50 characters")
+    String code,
+    
+    @NotBlank(message = "Product name is required")
+    @Size(max = 200, message = "Product name must not exceed 200 characters")
+    String name,
+    
+    @Size(max = 100, message = "Short name must not exceed 100 characters")
+    String shortName,
+    
+    @NotBlank(message = "Unit is required")
+    @Size(max = 20, message = "Unit must not exceed 20 characters")
+    String unit,
+    
+    String spec,
+    
+    String batchRules,
+    
+    @PositiveOrZero(message = "Shelf life days must not be negative")
+    Integer shelfLifeDays,
+    
+    @Size(max = 50, message = "Storage condition must not exceed 50 characters")
+    String storageCondition
+) {}
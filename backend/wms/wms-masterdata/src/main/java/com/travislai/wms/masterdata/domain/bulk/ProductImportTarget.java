@@ -0,0 +1,148 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.travislai.wms.masterdata.domain.entity.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Imports products; the owner and the optional category are referenced by code and the
+ * product code must be new for its owner
+ */
+@Component
+public class ProductImportTarget implements ImportTarget<ProductImportRow, Product> {
+    
+    private static final String INSERT = """
+            INSERT INTO wms_product (owner_id, category_id, code, name, short_name, unit, spec, batch_rules,
+                                     shelf_life_days, storage_condition, create_date, create_by)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    public ProductImportTarget(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+    
+    @Override
+    public String entity() {
+        return "Product";
+    }
+    
+    @Override
+    public ProductImportRow parse(Map<String, String> fields) {
+        String shelfLifeDays = ImportTarget.text(fields, "shelfLifeDays");
+        Integer days;
+        try {
+            days = shelfLifeDays == null ? null : Integer.valueOf(shelfLifeDays);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Shelf life days must be an integer");
+        }
+        return new ProductImportRow(
+                ImportTarget.text(fields, "ownerCode"),
+                ImportTarget.text(fields, "categoryCode"),
+                ImportTarget.text(fields, "code"),
+                ImportTarget.text(fields, "name"),
+                ImportTarget.text(fields, "shortName"),
+                ImportTarget.text(fields, "unit"),
+                ImportTarget.text(fields, "spec"),
+                ImportTarget.text(fields, "batchRules"),
+                days,
+                ImportTarget.text(fields, "storageCondition"));
+    }
+    
+    @Override
+    public String key(ProductImportRow row) {
+        return row.ownerCode() + '\u0000' + row.code();
+    }
+    
+    @Override
+    public void resolve(List<ImportRow<ProductImportRow, Product>> rows) {
+        Map<String, Long> owners = idsByCode("wms_owner",
+                rows.stream().map(row -> row.value().ownerCode()).distinct().toList());
+        Map<String, Long> categories = idsByCode("wms_product_category",
+                rows.stream().map(row -> row.value().categoryCode()).filter(Objects::nonNull).distinct().toList());
+        
+        // Existing (owner, code) pairs; the UNIQUE constraint covers logically deleted products too
+        Set<String> existing = new HashSet<>();
+        if (!owners.isEmpty()) {
+            namedJdbcTemplate.query(
+                    "SELECT owner_id, code FROM wms_product WHERE owner_id IN (:owners) AND code IN (:codes)",
+                    Map.of("owners", owners.values(),
+                           "codes", rows.stream().map(row -> row.value().code()).distinct().toList()),
+                    rs -> {
+                        existing.add(rs.getLong(1) + "\u0000" + rs.getString(2));
+                    });
+        }
+        
+        for (ImportRow<ProductImportRow, Product> row : rows) {
+            ProductImportRow value = row.value();
+            Long ownerId = owners.get(value.ownerCode());
+            Long categoryId = value.categoryCode() == null ? null : categories.get(value.categoryCode());
+            if (ownerId == null) {
+                row.reject("Owner not found: " + value.ownerCode());
+            } else if (value.categoryCode() != null && categoryId == null) {
+                row.reject("Product category not found: " + value.categoryCode());
+            } else if (existing.contains(ownerId + "\u0000" + value.code())) {
+                row.reject("Product code already exists for this owner");
+            } else {
+                Product product = new Product();
+                product.setOwnerId(ownerId);
+                product.setCategoryId(categoryId);
+                product.setCode(value.code());
+                product.setName(value.name());
+                product.setShortName(value.shortName());
+                product.setUnit(value.unit());
+                product.setSpec(value.spec());
+                product.setBatchRules(value.batchRules());
+                product.setShelfLifeDays(value.shelfLifeDays());
+                product.setStorageCondition(value.storageCondition());
+                row.accept(product);
+            }
+        }
+    }
+    
+    @Override
+    public void insert(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT, products, products.size(), (ps, product) -> {
+            ps.setLong(1, product.getOwnerId());
+            ps.setObject(2, product.getCategoryId(), Types.BIGINT);
+            ps.setString(3, product.getCode());
+            ps.setString(4, product.getName());
+            ps.setString(5, product.getShortName());
+            ps.setString(6, product.getUnit());
+            ps.setString(7, product.getSpec());
+            ps.setString(8, product.getBatchRules());
+            ps.setObject(9, product.getShelfLifeDays(), Types.INTEGER);
+            ps.setString(10, product.getStorageCondition());
+            ps.setTimestamp(11, Timestamp.valueOf(product.getCreateDate()));
+            ps.setString(12, product.getCreateBy());
+        });
+    }
+    
+    /**
+     * Ids of the active rows of {@code table} with the given codes, by code
+     */
+    private Map<String, Long> idsByCode(String table, List<String> codes) {
+        Map<String, Long> ids = new HashMap<>();
+        if (!codes.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id, code FROM " + table + " WHERE delete_flag = 0 AND code IN (:codes)",
+                    Map.of("codes", codes),
+                    rs -> {
+                        ids.put(rs.getString(2), rs.getLong(1));
+                    });
+        }
+        return ids;
+    }
+}
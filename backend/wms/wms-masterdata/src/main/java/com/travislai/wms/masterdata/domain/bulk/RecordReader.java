@@ -0,0 +1,311 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads CSV or NDJSON records one at a time from a stream, so an upload of any size is held in
+ * memory one record at a time
+ * <p>
+ * Each record becomes a map from field name to text: CSV fields are named by the header row, NDJSON
+ * fields by the object's keys (scalars as text, nulls omitted). A record that cannot be read is
+ * returned with an error instead of ending the stream. No more than {@code maxRecordChars}
+ * characters of a record are ever held: a longer NDJSON line is rejected and reading resumes at the
+ * next line, while a longer CSV record (whose end cannot be found reliably, e.g. an unterminated
+ * quote) or an unterminated quote at the end of the input stops reading; {@link #abortReason()}
+ * then says why.
+ */
+public abstract class RecordReader implements Closeable {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final Reader input;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder line = new StringBuilder();
+    protected final int maxRecordChars;
+    private int position;
+    private int end;
+    private boolean lineTruncated;
+    private long row;
+    private String abortReason;
+    
+    private RecordReader(InputStream input, int maxRecordChars) {
+        this.input = new InputStreamReader(input, StandardCharsets.UTF_8);
+        this.maxRecordChars = maxRecordChars;
+    }
+    
+    /**
+     * One input record
+     * @param row    1-based position of the record among data records
+     * @param fields field values by name, or null when {@code error} is set
+     * @param error  why the record could not be read
+     */
+    public record Record(long row, Map<String, String> fields, String error) {
+    }
+    
+    /**
+     * Open a reader for {@code format}
+     * @param maxRecordChars the longest record accepted, in characters
+     */
+    public static RecordReader open(InputStream input, BulkFormat format, ObjectMapper objectMapper,
+                                    int maxRecordChars) {
+        return format == BulkFormat.CSV
+                ? new Csv(input, maxRecordChars)
+                : new Ndjson(input, objectMapper, maxRecordChars);
+    }
+    
+    /**
+     * The next record, or null at the end of the input or after reading was aborted
+     */
+    public Record next() {
+        if (abortReason != null) {
+            return null;
+        }
+        try {
+            Record record = read(row + 1);
+            if (record != null) {
+                row++;
+            }
+            return record;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    /**
+     * Why reading stopped before the end of the input, or null if it did not
+     */
+    public String abortReason() {
+        return abortReason;
+    }
+    
+    protected abstract Record read(long row) throws IOException;
+    
+    /**
+     * Stop reading; the failing record is returned with {@code reason} as its error
+     */
+    protected Record abort(long row, String reason) {
+        abortReason = reason;
+        return new Record(row, null, reason);
+    }
+    
+    /**
+     * The next line without its terminator ({@code \n}, {@code \r\n} or {@code \r}), or null at the
+     * end of the input. At most {@code limit} characters are kept; the rest of a longer line is
+     * skipped and {@link #lineTruncated()} reports it.
+     */
+    protected String readLine(int limit) throws IOException {
+        line.setLength(0);
+        lineTruncated = false;
+        if (position == end && !fill()) {
+            return null;
+        }
+        while (true) {
+            if (position == end && !fill()) {
+                return line.toString();
+            }
+            int start = position;
+            while (position < end && buffer[position] != '\n' && buffer[position] != '\r') {
+                position++;
+            }
+            append(start, position, limit);
+            if (position < end) {
+                char terminator = buffer[position++];
+                if (terminator == '\r' && (position < end || fill()) && buffer[position] == '\n') {
+                    position++;
+                }
+                return line.toString();
+            }
+        }
+    }
+    
+    /**
+     * Whether the last line returned by {@link #readLine} was longer than its limit
+     */
+    protected boolean lineTruncated() {
+        return lineTruncated;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+    
+    private void append(int from, int to, int limit) {
+        int room = Math.max(0, limit - line.length());
+        if (to - from > room) {
+            line.append(buffer, from, room);
+            lineTruncated = true;
+        } else {
+            line.append(buffer, from, to - from);
+        }
+    }
+    
+    private boolean fill() throws IOException {
+        int read = input.read(buffer);
+        position = 0;
+        end = Math.max(read, 0);
+        return read > 0;
+    }
+    
+    private static String stripBom(String line) {
+        return line != null && !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+    
+    private static final class Csv extends RecordReader {
+        
+        private String[] header;
+        private String failure;
+        
+        Csv(InputStream input, int maxRecordChars) {
+            super(input, maxRecordChars);
+        }
+        
+        @Override
+        protected Record read(long row) throws IOException {
+            if (header == null) {
+                List<String> names = parse(true);
+                if (names == null) {
+                    return failure == null ? null : abort(row, failure);
+                }
+                header = names.stream().map(String::trim).toArray(String[]::new);
+            }
+            List<String> values;
+            do {
+                values = parse(false);
+                if (values == null) {
+                    return failure == null ? null : abort(row, failure);
+                }
+            } while (values.size() == 1 && values.get(0).isEmpty());
+            if (values.size() != header.length) {
+                return new Record(row, null,
+                        "Expected " + header.length + " columns but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>(header.length * 2);
+            for (int i = 0; i < header.length; i++) {
+                fields.put(header[i], values.get(i));
+            }
+            return new Record(row, fields, null);
+        }
+        
+        /**
+         * Split the next record; a quoted field may continue on following lines. Returns null at the
+         * end of the input, or with {@code failure} set when the record is too long or unterminated.
+         */
+        private List<String> parse(boolean first) throws IOException {
+            String line = readLine(maxRecordChars);
+            if (line == null) {
+                return null;
+            }
+            if (first) {
+                line = stripBom(line);
+            }
+            int length = line.length();
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (lineTruncated()) {
+                    failure = "Record is longer than " + maxRecordChars
+                            + " characters; the rest of the input was not read";
+                    return null;
+                }
+                if (i == line.length()) {
+                    if (!quoted) {
+                        values.add(field.toString());
+                        return values;
+                    }
+                    line = readLine(maxRecordChars - length - 1);
+                    if (line == null) {
+                        failure = "Unterminated quoted field at end of input";
+                        return null;
+                    }
+                    length += line.length() + 1;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+    }
+    
+    private static final class Ndjson extends RecordReader {
+        
+        private final ObjectMapper objectMapper;
+        private boolean first = true;
+        
+        Ndjson(InputStream input, ObjectMapper objectMapper, int maxRecordChars) {
+            super(input, maxRecordChars);
+            this.objectMapper = objectMapper;
+        }
+        
+        @Override
+        protected Record read(long row) throws IOException {
+            String line;
+            do {
+                line = readLine(maxRecordChars);
+                if (line == null) {
+                    return null;
+                }
+                if (lineTruncated()) {
+                    first = false;
+                    return new Record(row, null, "Record is longer than " + maxRecordChars + " characters");
+                }
+                if (first) {
+                    line = stripBom(line);
+                    first = false;
+                }
+            } while (line.isBlank());
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException ex) {
+                return new Record(row, null, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Record(row, null, "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>(node.size() * 2);
+            node.fields().forEachRemaining(entry -> {
+                if (!entry.getValue().isNull()) {
+                    fields.put(entry.getKey(), entry.getValue().isValueNode()
+                            ? entry.getValue().asText()
+                            : entry.getValue().toString());
+                }
+            });
+            return new Record(row, fields, null);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes records as CSV or NDJSON to a stream one at a time, the counterpart of {@link RecordReader}
+ * <p>
+ * CSV starts with a header row of the column names and quotes values containing a comma, quote or
+ * line break; NDJSON writes one object per line keyed by the column names. Nulls are empty in CSV
+ * and {@code null} in NDJSON. Temporal values use ISO-8601 in both.
+ */
+public abstract class RecordWriter implements Closeable {
+    
+    protected final List<String> columns;
+    
+    private RecordWriter(List<String> columns) {
+        this.columns = columns;
+    }
+    
+    /**
+     * Open a writer for {@code format}; closing it flushes but does not close {@code output}
+     */
+    public static RecordWriter open(OutputStream output, BulkFormat format, ObjectMapper objectMapper,
+                                    List<String> columns) throws IOException {
+        return format == BulkFormat.CSV ? new Csv(output, columns) : new Ndjson(output, objectMapper, columns);
+    }
+    
+    /**
+     * Write one record; {@code values} are in column order
+     */
+    public abstract void write(Object[] values) throws IOException;
+    
+    private static final class Csv extends RecordWriter {
+        
+        private final BufferedWriter writer;
+        
+        Csv(OutputStream output, List<String> columns) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            write(columns.toArray());
+        }
+        
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(values[i].toString());
+                }
+            }
+            writer.write('\n');
+        }
+        
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+    
+    private static final class Ndjson extends RecordWriter {
+        
+        private final JsonGenerator generator;
+        
+        Ndjson(OutputStream output, ObjectMapper objectMapper, List<String> columns) throws IOException {
+            super(columns);
+            this.generator = objectMapper.getFactory().createGenerator(output);
+            this.generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            // Records are separated by the newline written after each one, not Jackson's space
+            this.generator.setRootValueSeparator(null);
+        }
+        
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch update
+ * @param total      number of items
+ * @param updated    number of rows updated and committed
+ * @param failed     number of items not applied
+ * @param rolledBack whether an atomic batch was rolled back because some item failed
+ * @param rows       one result per item, in request order
+ */
+public record UpdateResult(long total, long updated, long failed, boolean rolledBack, List<RowResult> rows) {
+    
+    /**
+     * What happened to one item
+     */
+    public enum Status {
+        /** The row was updated */
+        UPDATED,
+        /** The row exists but its version no longer matches */
+        VERSION_CONFLICT,
+        /** No active row has the id */
+        NOT_FOUND,
+        /** The item was invalid or violated a constraint, see the message */
+        REJECTED,
+        /** The item would have been applied, but the atomic batch was rolled back */
+        ROLLED_BACK
+    }
+    
+    /**
+     * The result of one item
+     * @param id      the item's id
+     * @param status  what happened
+     * @param version the row's version after the update, or its current version on a conflict
+     * @param message why the item was rejected
+     */
+    public record RowResult(Long id, Status status, Integer version, String message) {
+    }
+}
@@ -0,0 +1,306 @@
+package com.travislai.wms.masterdata.domain.cache;
+
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of active owners by id and by code
+ * <p>
+ * Enabled with {@code wms.masterdata.cache.owner.enabled=true}. At most {@code max-size} owners are
+ * kept; when full, a CLOCK sweep evicts owners not read since the previous sweep. Entries older
+ * than {@code max-age} are reloaded, which bounds staleness if an invalidation is ever lost.
+ * <p>
+ * Invalidations carry the version of the row after the write ({@link #DELETED} for deletes). A
+ * local invalidation only drops an entry older than that version, and a placeholder remembers the
+ * version when nothing is cached, so a load that read the row before the write cannot put the old
+ * row back afterwards. Writes through this instance invalidate once their transaction commits;
+ * writes by other instances, batch updates and manual SQL arrive through {@link OwnerChangeListener}.
+ * Such a write may not bump {@code version} (manual SQL), so a notification also drops an entry at
+ * the same version; only a load racing such a write can then cache the old row, until {@code max-age}.
+ * <p>
+ * Concurrent misses for the same id or code share one database read. Owners are copied on the way
+ * in and out, so callers cannot change cached state.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wms.masterdata.cache.owner", name = "enabled", havingValue = "true")
+public class OwnerCache {
+    
+    /**
+     * Invalidation version of a deleted owner; newer than any version it can be loaded with
+     */
+    public static final int DELETED = Integer.MAX_VALUE;
+    
+    private final int maxSize;
+    private final long maxAgeNanos;
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> byCode = new ConcurrentHashMap<>();
+    /**
+     * Loads in progress, keyed by id (Long) or code (String)
+     */
+    private final Map<Object, CompletableFuture<Owner>> loading = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter evictions;
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+    private final Timer entryAge;
+    
+    public OwnerCache(@Value("${wms.masterdata.cache.owner.max-size:10000}") int maxSize,
+                      @Value("${wms.masterdata.cache.owner.max-age:10m}") Duration maxAge,
+                      MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.hits = Counter.builder("masterdata.owner.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("masterdata.owner.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.coalesced = Counter.builder("masterdata.owner.cache.loads.coalesced").register(meterRegistry);
+        this.evictions = Counter.builder("masterdata.owner.cache.evictions").register(meterRegistry);
+        this.localInvalidations = Counter.builder("masterdata.owner.cache.invalidations").tag("source", "local")
+                .register(meterRegistry);
+        this.remoteInvalidations = Counter.builder("masterdata.owner.cache.invalidations").tag("source", "notify")
+                .register(meterRegistry);
+        // Staleness: how long ago the owners served from the cache were read from the database
+        this.entryAge = Timer.builder("masterdata.owner.cache.entry.age").register(meterRegistry);
+        Gauge.builder("masterdata.owner.cache.size", byId, Map::size).register(meterRegistry);
+        Gauge.builder("masterdata.owner.cache.hit.ratio", this, OwnerCache::hitRatio).register(meterRegistry);
+    }
+    
+    /**
+     * The active owner with {@code id}, read through {@code loader} on a miss
+     * @return a copy of the owner, or null if {@code loader} finds none
+     */
+    public Owner getById(Long id, Supplier<Owner> loader) {
+        Entry entry = fresh(byId.get(id));
+        if (entry != null) {
+            return hit(entry);
+        }
+        misses.increment();
+        return copy(load(id, loader));
+    }
+    
+    /**
+     * The active owner with {@code code}, read through {@code loader} on a miss
+     * @return a copy of the owner, or null if {@code loader} finds none
+     */
+    public Owner getByCode(String code, Supplier<Owner> loader) {
+        Long id = byCode.get(code);
+        Entry entry = id != null ? fresh(byId.get(id)) : null;
+        // The mapping can outlive a rename until the entry is invalidated, so check the code too
+        if (entry != null && code.equals(entry.owner.getCode())) {
+            return hit(entry);
+        }
+        misses.increment();
+        return copy(load(code, loader));
+    }
+    
+    /**
+     * Drop the owner once the current transaction commits, unless it is cached at {@code version} or later
+     * @param version the owner's version after the write, or {@link #DELETED}
+     */
+    public void invalidateAfterCommit(Long id, int version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id, version, false);
+                }
+            });
+        } else {
+            invalidate(id, version, false);
+        }
+    }
+    
+    /**
+     * Drop the owner unless it is cached at a later version, or for a local invalidation at
+     * {@code version} itself
+     * @param version the owner's version after the write, or {@link #DELETED}
+     * @param remote whether the invalidation came from a database notification, whose write may
+     *               have left the version unchanged
+     */
+    public void invalidate(Long id, int version, boolean remote) {
+        (remote ? remoteInvalidations : localInvalidations).increment();
+        Entry[] dropped = new Entry[1];
+        byId.compute(id, (key, existing) -> {
+            if (existing != null && (existing.version > version
+                    || !remote && existing.version == version)) {
+                return existing;
+            }
+            dropped[0] = existing;
+            return new Entry(null, version);
+        });
+        unmapCode(id, dropped[0]);
+        evictIfFull();
+    }
+    
+    /**
+     * Drop everything, e.g. after notifications may have been missed
+     */
+    public void clear() {
+        byId.clear();
+        byCode.clear();
+    }
+    
+    /**
+     * Number of entries, including placeholders
+     */
+    public int size() {
+        return byId.size();
+    }
+    
+    private Owner hit(Entry entry) {
+        hits.increment();
+        entry.referenced = true;
+        entryAge.record(System.nanoTime() - entry.loadedAtNanos, TimeUnit.NANOSECONDS);
+        return copy(entry.owner);
+    }
+    
+    private Entry fresh(Entry entry) {
+        if (entry == null || entry.owner == null || System.nanoTime() - entry.loadedAtNanos > maxAgeNanos) {
+            return null;
+        }
+        return entry;
+    }
+    
+    /**
+     * Run {@code loader} once for all concurrent callers with the same key and cache what it finds
+     */
+    private Owner load(Object key, Supplier<Owner> loader) {
+        CompletableFuture<Owner> mine = new CompletableFuture<>();
+        CompletableFuture<Owner> inFlight = loading.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            coalesced.increment();
+            try {
+                return inFlight.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+        try {
+            Owner owner = loader.get();
+            if (owner != null) {
+                put(copy(owner));
+            }
+            mine.complete(owner);
+            return owner;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+    
+    private void put(Owner owner) {
+        Entry loaded = new Entry(owner, owner.getVersion() != null ? owner.getVersion() : 0);
+        Entry[] replaced = new Entry[1];
+        Entry stored = byId.compute(owner.getId(), (key, existing) -> {
+            // A placeholder or entry at a newer version means this row was read before a write
+            if (existing != null && (existing.version > loaded.version
+                    || existing.version == loaded.version && existing.owner != null)) {
+                return existing;
+            }
+            replaced[0] = existing;
+            return loaded;
+        });
+        if (stored == loaded) {
+            unmapCode(owner.getId(), replaced[0]);
+            byCode.put(owner.getCode(), owner.getId());
+            evictIfFull();
+        }
+    }
+    
+    private void unmapCode(Long id, Entry entry) {
+        if (entry != null && entry.owner != null) {
+            byCode.remove(entry.owner.getCode(), id);
+        }
+    }
+    
+    /**
+     * CLOCK sweep: evict entries not read since they were last passed, down to 90% of {@code max-size}
+     */
+    private void evictIfFull() {
+        if (byId.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxSize - maxSize / 10;
+            Iterator<Map.Entry<Long, Entry>> it = byId.entrySet().iterator();
+            while (byId.size() > target) {
+                if (!it.hasNext()) {
+                    it = byId.entrySet().iterator();
+                    if (!it.hasNext()) {
+                        break;
+                    }
+                }
+                Map.Entry<Long, Entry> candidate = it.next();
+                Entry entry = candidate.getValue();
+                if (entry.referenced) {
+                    entry.referenced = false;
+                } else if (byId.remove(candidate.getKey(), entry)) {
+                    unmapCode(candidate.getKey(), entry);
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+    
+    private static Owner copy(Owner owner) {
+        if (owner == null) {
+            return null;
+        }
+        Owner copy = new Owner();
+        copy.setId(owner.getId());
+        copy.setCode(owner.getCode());
+        copy.setName(owner.getName());
+        copy.setCreateDate(owner.getCreateDate());
+        copy.setCreateBy(owner.getCreateBy());
+        copy.setUpdateDate(owner.getUpdateDate());
+        copy.setUpdateBy(owner.getUpdateBy());
+        copy.setDeleteFlag(owner.getDeleteFlag());
+        copy.setVersion(owner.getVersion());
+        return copy;
+    }
+    
+    /**
+     * A cached owner, or a placeholder ({@code owner == null}) remembering the version of a write
+     */
+    private static final class Entry {
+        
+        private final Owner owner;
+        private final int version;
+        private final long loadedAtNanos = System.nanoTime();
+        private volatile boolean referenced;
+        
+        Entry(Owner owner, int version) {
+            this.owner = owner;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.travislai.wms.masterdata.domain.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies owner changes from any instance to {@link OwnerCache} through PostgreSQL LISTEN/NOTIFY
+ * <p>
+ * The {@code wms_owner_notify_change} trigger (master_data_init.sql) sends one notification on
+ * {@value #CHANNEL} per updated or deleted row, whoever wrote it; PostgreSQL delivers it when the
+ * writing transaction commits and drops it if it rolls back. The payload is
+ * {@code id:version:delete_flag:sent_at_epoch_millis}. This listener holds its own connection
+ * outside the pool. If the connection fails, notifications may have been missed, so the cache is
+ * cleared and the listener reconnects after {@code reconnect-delay}. Waiting for notifications
+ * never touches the socket, so a silently dropped connection would look like a quiet one: the
+ * listener runs {@code SELECT 1} every {@code health-check-interval} with a socket timeout, and
+ * TCP keepalive is on.
+ * <p>
+ * Only runs on PostgreSQL; elsewhere (e.g. H2 in tests) the cache relies on local invalidation and
+ * {@code max-age}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wms.masterdata.cache.owner", name = "enabled", havingValue = "true")
+public class OwnerChangeListener implements DisposableBean {
+    
+    private static final Logger log = LoggerFactory.getLogger(OwnerChangeListener.class);
+    
+    public static final String CHANNEL = "wms_owner_changed";
+    private static final int POLL_MILLIS = 1_000;
+    private static final int SOCKET_TIMEOUT_SECONDS = 10;
+    
+    private final OwnerCache ownerCache;
+    private final DataSourceProperties dataSourceProperties;
+    private final Duration reconnectDelay;
+    private final Duration healthCheckInterval;
+    /**
+     * Time from the write to this instance applying the invalidation
+     */
+    private final Timer lag;
+    
+    private volatile boolean running = true;
+    private volatile Thread thread;
+    
+    public OwnerChangeListener(OwnerCache ownerCache,
+                               DataSourceProperties dataSourceProperties,
+                               @Value("${wms.masterdata.cache.owner.reconnect-delay:5s}") Duration reconnectDelay,
+                               @Value("${wms.masterdata.cache.owner.health-check-interval:30s}")
+                               Duration healthCheckInterval,
+                               MeterRegistry meterRegistry) {
+        this.ownerCache = ownerCache;
+        this.dataSourceProperties = dataSourceProperties;
+        this.reconnectDelay = reconnectDelay;
+        this.healthCheckInterval = healthCheckInterval;
+        this.lag = Timer.builder("masterdata.owner.cache.invalidation.lag").register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String url = dataSourceProperties.determineUrl();
+        if (url == null || !url.startsWith("jdbc:postgresql:")) {
+            log.info("Owner cache change notifications need PostgreSQL, relying on local invalidation only");
+            return;
+        }
+        Thread listener = new Thread(this::run, "owner-change-listener");
+        listener.setDaemon(true);
+        thread = listener;
+        listener.start();
+    }
+    
+    @Override
+    public void destroy() {
+        running = false;
+        Thread listener = thread;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+    
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    connectionProperties())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Changes made while not listening are unknown
+                ownerCache.clear();
+                log.info("Listening for owner changes on {}", CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long nextCheck = System.nanoTime() + healthCheckInterval.toNanos();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                    if (System.nanoTime() - nextCheck >= 0) {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        nextCheck = System.nanoTime() + healthCheckInterval.toNanos();
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                ownerCache.clear();
+                log.warn("Owner change listener disconnected, cache cleared, reconnecting in {}", reconnectDelay, ex);
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private Properties connectionProperties() {
+        Properties properties = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        properties.setProperty("tcpKeepAlive", "true");
+        // Bounds the health check on a dead connection; getNotifications uses its own timeout
+        properties.setProperty("socketTimeout", String.valueOf(SOCKET_TIMEOUT_SECONDS));
+        return properties;
+    }
+    
+    private void apply(String payload) {
+        String[] parts = payload.split(":");
+        try {
+            long id = Long.parseLong(parts[0]);
+            int version = Integer.parseInt(parts[2]) != 0 ? OwnerCache.DELETED : Integer.parseInt(parts[1]);
+            ownerCache.invalidate(id, version, true);
+            lag.record(Math.max(0, System.currentTimeMillis() - Long.parseLong(parts[3])), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed owner change notification: {}", payload);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.travislai.wms.masterdata.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Barcode (条码) entity
+ * Maps a globally unique barcode to the product it identifies; the barcode text cannot change
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("wms_barcode")
+public class Barcode extends BaseEntity {
+    
+    /**
+     * Primary key - auto-generated
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * The product this barcode identifies
+     */
+    private Long productId;
+    
+    /**
+     * Barcode text - globally unique, including deleted barcodes
+     */
+    private String barcode;
+    
+    /**
+     * Barcode type, e.g. EAN13, UPC, CODE128
+     */
+    private String type;
+    
+    /**
+     * Whether this is the product's primary barcode: 1=yes, 0=no
+     */
+    private Integer isPrimary;
+    
+    /**
+     * Remark
+     */
+    private String remark;
+}
@@ -0,0 +1,73 @@
+package com.travislai.wms.masterdata.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Product (产品/物料) entity
+ * Represents an item an owner stores in the warehouse; the code is unique per owner
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("wms_product")
+public class Product extends BaseEntity {
+    
+    /**
+     * Primary key - auto-generated
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * Owning owner
+     */
+    private Long ownerId;
+    
+    /**
+     * Product category, optional
+     */
+    private Long categoryId;
+    
+    /**
+     * Product code - unique within the owner
+     */
+    private String code;
+    
+    /**
+     * Product name
+     */
+    private String name;
+    
+    /**
+     * Short name
+     */
+    private String shortName;
+    
+    /**
+     * Unit of measure
+     */
+    private String unit;
+    
+    /**
+     * Specification
+     */
+    private String spec;
+    
+    /**
+     * Batch rules
+     */
+    private String batchRules;
+    
+    /**
+     * Shelf life in days
+     */
+    private Integer shelfLifeDays;
+    
+    /**
+     * Storage condition
+     */
+    private String storageCondition;
+}
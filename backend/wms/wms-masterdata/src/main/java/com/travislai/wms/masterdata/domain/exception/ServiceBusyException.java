@@ -0,0 +1,19 @@
+package com.travislai.wms.masterdata.domain.exception;
+
+/**
+ * Exception thrown when a request is refused because the service is at capacity; the client may
+ * retry after {@code retryAfterSeconds}
+ */
+public class ServiceBusyException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
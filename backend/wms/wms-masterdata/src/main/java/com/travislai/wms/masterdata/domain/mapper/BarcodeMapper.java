@@ -0,0 +1,98 @@
+package com.travislai.wms.masterdata.domain.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.travislai.wms.masterdata.domain.entity.Barcode;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Barcode mapper interface
+ * Provides CRUD operations for Barcode entity
+ */
+@Mapper
+public interface BarcodeMapper extends BaseMapper<Barcode> {
+    
+    /**
+     * Active barcodes after {@code afterId} in id order, only the columns the resolution index needs
+     */
+    @Select("""
+            SELECT id, barcode, product_id
+            FROM wms_barcode
+            WHERE delete_flag = 0 AND id > #{afterId}
+            ORDER BY id
+            LIMIT #{limit}
+            """)
+    List<Barcode> selectIndexBatch(@Param("afterId") long afterId, @Param("limit") int limit);
+    
+    /**
+     * Barcodes created, updated or logically deleted since {@code since}, including deleted rows,
+     * in id order after {@code afterId}
+     */
+    @Select("""
+            SELECT id, barcode, product_id, delete_flag
+            FROM wms_barcode
+            WHERE COALESCE(update_date, create_date) >= #{since}
+              AND id > #{afterId}
+            ORDER BY id
+            LIMIT #{limit}
+            """)
+    List<Barcode> selectChangedSince(@Param("since") LocalDateTime since,
+                                     @Param("afterId") long afterId,
+                                     @Param("limit") int limit);
+    
+    /**
+     * Active barcodes among {@code barcodes}, with their product
+     */
+    @Select("""
+            <script>
+            SELECT barcode, product_id
+            FROM wms_barcode
+            WHERE delete_flag = 0 AND barcode IN
+            <foreach collection="barcodes" item="barcode" open="(" separator="," close=")">#{barcode}</foreach>
+            </script>
+            """)
+    List<Barcode> selectProducts(@Param("barcodes") Collection<String> barcodes);
+    
+    /**
+     * Set product, type, primary flag and remark of an active barcode that still has
+     * {@code barcode.version}, and bump the version
+     * The barcode text, new version and creation audit fields are read back as generated keys
+     * ({@code UPDATE ... RETURNING} on PostgreSQL). update_date and update_by are filled by the
+     * MetaObjectHandler.
+     * @return 1 if updated, 0 if no active barcode has the id and version
+     */
+    @Update("""
+            UPDATE wms_barcode
+            SET product_id = #{productId}, type = #{type}, is_primary = #{isPrimary}, remark = #{remark},
+                version = version + 1, update_date = #{updateDate}, update_by = #{updateBy}
+            WHERE id = #{id} AND version = #{version} AND delete_flag = 0
+            """)
+    @Options(useGeneratedKeys = true, keyProperty = "barcode,version,createDate,createBy",
+            keyColumn = "barcode,version,create_date,create_by")
+    int updateReturning(Barcode barcode);
+    
+    /**
+     * Logically delete an active barcode, reading its text back as a generated key
+     * @return 1 if deleted, 0 if no active barcode has the id
+     */
+    @Update("""
+            UPDATE wms_barcode
+            SET delete_flag = 1, update_date = #{updateDate}, update_by = #{updateBy}
+            WHERE id = #{id} AND delete_flag = 0
+            """)
+    @Options(useGeneratedKeys = true, keyProperty = "barcode", keyColumn = "barcode")
+    int deleteReturning(Barcode barcode);
+    
+    /**
+     * The version of an active barcode, or null if there is none with the id
+     */
+    @Select("SELECT version FROM wms_barcode WHERE id = #{id} AND delete_flag = 0")
+    Integer selectActiveVersion(@Param("id") Long id);
+}
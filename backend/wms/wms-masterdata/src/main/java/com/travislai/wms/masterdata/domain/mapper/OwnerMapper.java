@@ -3,6 +3,15 @@ package com.travislai.wms.masterdata.domain.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.travislai.wms.masterdata.domain.entity.Owner;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Owner mapper interface
@@ -10,4 +19,103 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface OwnerMapper extends BaseMapper<Owner> {
+    
+    /**
+     * Case-insensitive substring search over code and name, best matches first
+     * On PostgreSQL the ILIKE conditions use the pg_trgm GIN indexes on code and name.
+     * @param keyword the trimmed, lower-cased keyword
+     * @param pattern {@code %keyword%} with LIKE wildcards escaped
+     * @param prefix {@code keyword%} with LIKE wildcards escaped
+     * @param limit the maximum number of rows
+     * @param offset the number of rows to skip
+     * @return matching owners ranked exact code, code prefix, exact name, name prefix, code substring, name substring, then by id
+     */
+    @Select("""
+            SELECT id, code, name, create_date, create_by, update_date, update_by, delete_flag, version
+            FROM wms_owner
+            WHERE delete_flag = 0
+              AND (code ILIKE #{pattern} OR name ILIKE #{pattern})
+            ORDER BY CASE
+                       WHEN lower(code) = #{keyword} THEN 0
+                       WHEN lower(code) LIKE #{prefix} THEN 1
+                       WHEN lower(name) = #{keyword} THEN 2
+                       WHEN lower(name) LIKE #{prefix} THEN 3
+                       WHEN lower(code) LIKE #{pattern} THEN 4
+                       ELSE 5
+                     END,
+                     id
+            LIMIT #{limit} OFFSET #{offset}
+            """)
+    List<Owner> searchRanked(@Param("keyword") String keyword,
+                             @Param("pattern") String pattern,
+                             @Param("prefix") String prefix,
+                             @Param("limit") int limit,
+                             @Param("offset") long offset);
+    
+    /**
+     * Count the owners {@link #searchRanked} would return across all pages
+     */
+    @Select("""
+            SELECT COUNT(*)
+            FROM wms_owner
+            WHERE delete_flag = 0
+              AND (code ILIKE #{pattern} OR name ILIKE #{pattern})
+            """)
+    long countMatches(@Param("pattern") String pattern);
+    
+    /**
+     * Owners created, updated or logically deleted since {@code since}, including deleted rows,
+     * in id order after {@code afterId}
+     */
+    @Select("""
+            SELECT id, code, name, delete_flag
+            FROM wms_owner
+            WHERE COALESCE(update_date, create_date) >= #{since}
+              AND id > #{afterId}
+            ORDER BY id
+            LIMIT #{limit}
+            """)
+    List<Owner> selectChangedSince(@Param("since") LocalDateTime since,
+                                   @Param("afterId") long afterId,
+                                   @Param("limit") int limit);
+    
+    /**
+     * Stream active owners last modified in {@code [from, to)} in id order; either bound may be null
+     * Must be consumed inside a transaction so PostgreSQL fetches {@code fetchSize} rows at a time.
+     */
+    @Select("""
+            <script>
+            SELECT id, code, name, create_date, create_by, update_date, update_by, delete_flag, version
+            FROM wms_owner
+            WHERE delete_flag = 0
+            <if test="from != null">AND COALESCE(update_date, create_date) &gt;= #{from}</if>
+            <if test="to != null">AND COALESCE(update_date, create_date) &lt; #{to}</if>
+            ORDER BY id
+            </script>
+            """)
+    @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<Owner> streamModified(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    /**
+     * Set code and name of an active owner that still has {@code owner.version}, and bump the version
+     * The new version and the creation audit fields are read back into {@code owner} as generated
+     * keys, which the PostgreSQL driver sends as {@code UPDATE ... RETURNING}, so the write and the
+     * read are one round trip. update_date and update_by are filled by the MetaObjectHandler.
+     * @return 1 if updated, 0 if no active owner has the id and version
+     */
+    @Update("""
+            UPDATE wms_owner
+            SET code = #{code}, name = #{name}, version = version + 1,
+                update_date = #{updateDate}, update_by = #{updateBy}
+            WHERE id = #{id} AND version = #{version} AND delete_flag = 0
+            """)
+    @Options(useGeneratedKeys = true, keyProperty = "version,createDate,createBy",
+            keyColumn = "version,create_date,create_by")
+    int updateReturning(Owner owner);
+    
+    /**
+     * The version of an active owner, or null if there is none with the id
+     */
+    @Select("SELECT version FROM wms_owner WHERE id = #{id} AND delete_flag = 0")
+    Integer selectActiveVersion(@Param("id") Long id);
 }
@@ -0,0 +1,38 @@
+package com.travislai.wms.masterdata.domain.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.travislai.wms.masterdata.domain.entity.Product;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Product mapper interface
+ * Provides CRUD operations for Product entity
+ */
+@Mapper
+public interface ProductMapper extends BaseMapper<Product> {
+    
+    /**
+     * Stream active products last modified in {@code [from, to)} in id order; either bound may be null
+     * Must be consumed inside a transaction so PostgreSQL fetches {@code fetchSize} rows at a time.
+     */
+    @Select("""
+            <script>
+            SELECT id, owner_id, category_id, code, name, short_name, unit, spec, batch_rules, shelf_life_days,
+                   storage_condition, create_date, create_by, update_date, update_by, delete_flag, version
+            FROM wms_product
+            WHERE delete_flag = 0
+            <if test="from != null">AND COALESCE(update_date, create_date) &gt;= #{from}</if>
+            <if test="to != null">AND COALESCE(update_date, create_date) &lt; #{to}</if>
+            ORDER BY id
+            </script>
+            """)
+    @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<Product> streamModified(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,53 @@
+package com.travislai.wms.masterdata.domain.pagination;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One slice of a keyset (cursor) paginated list, ordered by primary key
+ * <p>
+ * Instead of skipping {@code OFFSET} rows, the next slice starts after the last id of the
+ * previous one ({@code WHERE id > :after ORDER BY id LIMIT :size + 1}), so the primary key index
+ * is used and page 10 000 costs the same as page 1. Works for any masterdata entity with a
+ * numeric primary key; the extra row only tells whether another slice exists.
+ *
+ * @param records   the rows of this slice, at most the requested size
+ * @param hasNext   whether more rows follow
+ * @param nextAfter value to pass as {@code after} for the next slice, or null on the last one
+ */
+public record KeysetPage<T>(List<T> records, boolean hasNext, Long nextAfter) {
+    
+    /**
+     * Upper bound for the size of any page, offset or keyset
+     */
+    public static final int MAX_SIZE = 100;
+    
+    /**
+     * Select the slice of rows matching {@code filter} whose id is greater than {@code after}
+     * @param mapper the entity mapper
+     * @param filter additional conditions, or null for all rows; applied in parentheses, so OR is safe
+     * @param id     the primary key column getter
+     * @param after  the last id of the previous slice, or null for the first slice
+     * @param size   the slice size, capped at {@link #MAX_SIZE}
+     * @return the slice
+     */
+    public static <T> KeysetPage<T> select(BaseMapper<T> mapper, Consumer<LambdaQueryWrapper<T>> filter,
+                                           SFunction<T, Long> id, Long after, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SIZE));
+        LambdaQueryWrapper<T> wrapper = new LambdaQueryWrapper<>();
+        wrapper.and(filter != null, filter)
+               .gt(after != null, id, after)
+               .orderByAsc(id)
+               .last("LIMIT " + (limit + 1));
+        
+        List<T> rows = mapper.selectList(wrapper);
+        boolean hasNext = rows.size() > limit;
+        List<T> records = hasNext ? rows.subList(0, limit) : rows;
+        Long nextAfter = hasNext ? id.apply(records.get(records.size() - 1)) : null;
+        return new KeysetPage<>(records, hasNext, nextAfter);
+    }
+}
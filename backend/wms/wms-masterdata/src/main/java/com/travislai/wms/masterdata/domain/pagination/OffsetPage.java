@@ -0,0 +1,16 @@
+package com.travislai.wms.masterdata.domain.pagination;
+
+import java.util.List;
+
+/**
+ * One LIMIT/OFFSET page together with as much of the total as was asked for
+ *
+ * @param records   the rows of this page
+ * @param total     number of matching rows; approximate when {@code estimated}, null for {@link TotalMode#NONE}
+ * @param estimated whether {@code total} is an estimate
+ * @param hasNext   whether another page follows
+ * @param page      the page number (1-based)
+ * @param size      the effective page size
+ */
+public record OffsetPage<T>(List<T> records, Long total, boolean estimated, boolean hasNext, int page, int size) {
+}
@@ -0,0 +1,239 @@
+package com.travislai.wms.masterdata.domain.pagination;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offset pagination for masterdata entities with a choice of how the total is obtained
+ * <p>
+ * {@link TotalMode#EXACT} runs the usual COUNT(*) through the pagination interceptor. The other
+ * modes skip it and read one row more than the page size, which tells whether a next page exists.
+ * {@link TotalMode#ESTIMATE} then takes the total from the PostgreSQL planner for unfiltered
+ * lists ({@code EXPLAIN} of the logical-delete filter, kept current by autovacuum's ANALYZE), and
+ * from a cached COUNT refreshed every {@code count-cache-ttl} for filtered lists or other
+ * databases, so a large table is counted at most once per interval per filter.
+ * <p>
+ * The cache is keyed by filter, so for ad-hoc filters such as search keywords an estimate is not
+ * cheaper than an exact total: the first request for each new keyword runs a full COUNT, and only
+ * further pages of the same keyword within the interval reuse it. Up to 1000 counts are kept; once
+ * that many are live, counts for new filters are run without being cached.
+ */
+@Component
+public class OffsetPaginator {
+    
+    private static final Logger log = LoggerFactory.getLogger(OffsetPaginator.class);
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+    private static final int MAX_CACHED_COUNTS = 1_000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final long countTtlNanos;
+    private final Map<String, CompletableFuture<CachedCount>> counts = new ConcurrentHashMap<>();
+    
+    private volatile Boolean postgres;
+    
+    public OffsetPaginator(JdbcTemplate jdbcTemplate,
+                           @Value("${wms.masterdata.pagination.count-cache-ttl:60s}") Duration countCacheTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.countTtlNanos = countCacheTtl.toNanos();
+    }
+    
+    /**
+     * Select one page of the rows matching {@code filter}, ordered by {@code orderBy}
+     * @param mapper    the entity mapper
+     * @param entity    the entity class, used to find its table for estimates
+     * @param filter    additional conditions, or null for all rows
+     * @param filterKey identifies {@code filter} in the count cache, or null when unfiltered
+     * @param orderBy   a unique column giving pages a stable order, normally the primary key
+     * @param ascending whether to order by {@code orderBy} ascending; descending lists newest rows first
+     * @param page      the page number (1-based)
+     * @param size      the page size, capped at {@link KeysetPage#MAX_SIZE}
+     * @param mode      how to compute the total
+     * @return the page
+     */
+    public <T> OffsetPage<T> select(BaseMapper<T> mapper, Class<T> entity, Consumer<LambdaQueryWrapper<T>> filter,
+                                    String filterKey, SFunction<T, ?> orderBy, boolean ascending,
+                                    int page, int size, TotalMode mode) {
+        int limit = Math.max(1, Math.min(size, KeysetPage.MAX_SIZE));
+        long offset = (long) (page - 1) * limit;
+        
+        if (mode == TotalMode.EXACT) {
+            LambdaQueryWrapper<T> query = new LambdaQueryWrapper<>();
+            query.and(filter != null, filter).orderBy(true, ascending, orderBy);
+            Page<T> result = mapper.selectPage(new Page<>(page, limit), query);
+            return new OffsetPage<>(result.getRecords(), result.getTotal(), false,
+                    offset + result.getRecords().size() < result.getTotal(), page, limit);
+        }
+        
+        return withoutCount(offset, limit, page, mode,
+                (rowOffset, rowLimit) -> {
+                    LambdaQueryWrapper<T> query = new LambdaQueryWrapper<>();
+                    query.and(filter != null, filter)
+                         .orderBy(true, ascending, orderBy)
+                         .last("LIMIT " + rowLimit + " OFFSET " + rowOffset);
+                    return mapper.selectList(query);
+                },
+                () -> estimate(mapper, entity, filter, filterKey));
+    }
+    
+    /**
+     * Page over a query the caller runs itself, e.g. one with a computed ORDER BY
+     * @param page     the page number (1-based)
+     * @param size     the page size, capped at {@link KeysetPage#MAX_SIZE}
+     * @param mode     how to compute the total
+     * @param fetch    reads up to {@code limit} rows starting at {@code offset}
+     * @param countKey identifies the query in the count cache used by {@link TotalMode#ESTIMATE}
+     * @param count    counts all rows of the query
+     * @return the page
+     */
+    public <T> OffsetPage<T> page(int page, int size, TotalMode mode, RowFetcher<T> fetch,
+                                  String countKey, LongSupplier count) {
+        int limit = Math.max(1, Math.min(size, KeysetPage.MAX_SIZE));
+        long offset = (long) (page - 1) * limit;
+        if (mode == TotalMode.EXACT) {
+            List<T> records = fetch.fetch(offset, limit);
+            long total = count.getAsLong();
+            return new OffsetPage<>(records, total, false, offset + records.size() < total, page, limit);
+        }
+        return withoutCount(offset, limit, page, mode, fetch, () -> cachedCount(countKey, count));
+    }
+    
+    /**
+     * Reads one row more than the page to learn whether a next page exists, and only counts
+     * (through {@code estimate}) when the total is wanted and the page does not reveal it
+     */
+    private <T> OffsetPage<T> withoutCount(long offset, int limit, int page, TotalMode mode,
+                                           RowFetcher<T> fetch, LongSupplier estimate) {
+        List<T> rows = fetch.fetch(offset, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<T> records = hasNext ? rows.subList(0, limit) : rows;
+        if (mode == TotalMode.NONE) {
+            return new OffsetPage<>(records, null, false, hasNext, page, limit);
+        }
+        
+        long seen = offset + records.size();
+        if (!hasNext && (!records.isEmpty() || offset == 0)) {
+            // The last page reveals the exact total for free
+            return new OffsetPage<>(records, seen, false, false, page, limit);
+        }
+        long estimated = estimate.getAsLong();
+        return new OffsetPage<>(records, Math.max(estimated, hasNext ? seen + 1 : seen), true, hasNext, page, limit);
+    }
+    
+    private <T> long estimate(BaseMapper<T> mapper, Class<T> entity, Consumer<LambdaQueryWrapper<T>> filter,
+                              String filterKey) {
+        TableInfo table = TableInfoHelper.getTableInfo(entity);
+        if (filterKey == null && isPostgres()) {
+            Long planned = plannedRows(table);
+            if (planned != null) {
+                return planned;
+            }
+        }
+        return cachedCount(table.getTableName() + '\u0000' + filterKey, () -> {
+            LambdaQueryWrapper<T> query = new LambdaQueryWrapper<>();
+            query.and(filter != null, filter);
+            return mapper.selectCount(query);
+        });
+    }
+    
+    private long cachedCount(String key, LongSupplier count) {
+        CompletableFuture<CachedCount> cached = counts.get(key);
+        if (cached == null || isExpired(cached)) {
+            if (cached == null && counts.size() >= MAX_CACHED_COUNTS) {
+                counts.values().removeIf(OffsetPaginator::isExpired);
+                if (counts.size() >= MAX_CACHED_COUNTS) {
+                    // Full of live counts: count this one without caching it rather than dropping them all
+                    return count.getAsLong();
+                }
+            }
+            CompletableFuture<CachedCount> mine = new CompletableFuture<>();
+            // Only the future is swapped in under the map's lock; the COUNT runs outside it, and
+            // concurrent callers for the same key wait on the one future
+            cached = counts.compute(key, (k, current) -> current == null || isExpired(current) ? mine : current);
+            if (cached == mine) {
+                try {
+                    mine.complete(new CachedCount(count.getAsLong(), System.nanoTime() + countTtlNanos));
+                } catch (RuntimeException ex) {
+                    counts.remove(key, mine);
+                    mine.completeExceptionally(ex);
+                    throw ex;
+                }
+            }
+        }
+        try {
+            return cached.join().value();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+    
+    /**
+     * Whether a cached count must be replaced; one still being counted is not expired
+     */
+    private static boolean isExpired(CompletableFuture<CachedCount> count) {
+        if (!count.isDone()) {
+            return false;
+        }
+        return count.isCompletedExceptionally() || count.join().expiresAt() - System.nanoTime() <= 0;
+    }
+    
+    /**
+     * Row estimate of the planner for the table's active rows, or null if it cannot be read
+     */
+    private Long plannedRows(TableInfo table) {
+        String sql = "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + table.getTableName()
+                + " WHERE 1 = 1" + table.getLogicDeleteSql(true, true);
+        try {
+            String plan = jdbcTemplate.queryForObject(sql, String.class);
+            Matcher matcher = PLAN_ROWS.matcher(plan == null ? "" : plan);
+            return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+        } catch (DataAccessException ex) {
+            log.warn("Planner estimate for {} unavailable: {}", table.getTableName(), ex.getMessage());
+            return null;
+        }
+    }
+    
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = result;
+        }
+        return result;
+    }
+    
+    /**
+     * Reads a window of rows of a custom query
+     */
+    @FunctionalInterface
+    public interface RowFetcher<T> {
+        
+        List<T> fetch(long offset, int limit);
+    }
+    
+    private record CachedCount(long value, long expiresAt) {
+    }
+}
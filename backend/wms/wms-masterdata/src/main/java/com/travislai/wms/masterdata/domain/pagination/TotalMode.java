@@ -0,0 +1,40 @@
+package com.travislai.wms.masterdata.domain.pagination;
+
+import com.travislai.wms.masterdata.domain.exception.BusinessException;
+
+import java.util.Locale;
+
+/**
+ * How the total of an offset page is computed
+ */
+public enum TotalMode {
+    
+    /**
+     * COUNT(*) over all matching rows on every request
+     */
+    EXACT,
+    
+    /**
+     * Planner statistics for unfiltered lists on PostgreSQL, otherwise a periodically refreshed
+     * cached count; for a new search keyword this is still one full COUNT
+     */
+    ESTIMATE,
+    
+    /**
+     * No total; only whether a next page exists
+     */
+    NONE;
+    
+    /**
+     * Parse the {@code total} request parameter (exact, estimate or none, case-insensitive)
+     * @param value the parameter value
+     * @return the mode
+     */
+    public static TotalMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("total must be one of exact, estimate, none");
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.travislai.wms.masterdata.domain.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over the code and name of masterdata records
+ * <p>
+ * Every record gets an ordinal; each trigram of its lower-cased code and name maps to a posting
+ * list of ordinals. Ordinals only ever grow, so posting lists stay sorted by appending, and a
+ * removed or replaced record only clears its slot: stale postings are skipped at query time and
+ * dropped by {@link #compact()} once they outnumber live records. A query of three characters or
+ * more scans the shortest posting list of its trigrams and verifies the substring on the stored
+ * text; shorter queries scan all records.
+ * <p>
+ * Matches are ranked like {@code OwnerMapper#searchRanked}: exact code, code prefix, exact name,
+ * name prefix, code substring, name substring, then by id.
+ */
+public class NgramIndex {
+    
+    static final int N = 3;
+    private static final int RANK_SHIFT = 56;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    
+    private long[] ids = new long[1024];
+    private String[] codes = new String[1024];
+    private String[] names = new String[1024];
+    private int next;
+    
+    /**
+     * Matching ids of one page, best first, and the number of all matches
+     */
+    public record Result(List<Long> ids, long total) {
+    }
+    
+    /**
+     * Add a record or replace its previous text
+     */
+    public void put(long id, String code, String name) {
+        String lowerCode = normalize(code);
+        String lowerName = normalize(name);
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(id);
+            if (previous != null) {
+                if (lowerCode.equals(codes[previous]) && lowerName.equals(names[previous])) {
+                    return;
+                }
+                clear(previous);
+            }
+            int ordinal = allocate(id, lowerCode, lowerName);
+            ordinals.put(id, ordinal);
+            for (long gram : grams(lowerCode, lowerName)) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                clear(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Find records whose code or name contains {@code keyword}, ignoring case
+     * @param keyword the search keyword
+     * @param offset the number of best matches to skip
+     * @param limit the maximum number of ids to return
+     * @return one page of ids and the total number of matches
+     */
+    public Result search(String keyword, long offset, int limit) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        Matches matches = new Matches();
+        lock.readLock().lock();
+        try {
+            if (query.length() < N) {
+                for (int ordinal = 0; ordinal < next; ordinal++) {
+                    match(matches, ordinal, query);
+                }
+            } else {
+                Postings shortest = null;
+                for (long gram : grams(query, "")) {
+                    Postings list = postings.get(gram);
+                    if (list == null) {
+                        return new Result(List.of(), 0);
+                    }
+                    if (shortest == null || list.size < shortest.size) {
+                        shortest = list;
+                    }
+                }
+                for (int i = 0; i < shortest.size; i++) {
+                    match(matches, shortest.ordinals[i], query);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        int count = matches.size;
+        Arrays.sort(matches.keys, 0, count);
+        int from = (int) Math.min(offset, count);
+        int to = (int) Math.min((long) from + limit, count);
+        Long[] page = new Long[to - from];
+        for (int i = from; i < to; i++) {
+            page[i - from] = matches.keys[i] & ((1L << RANK_SHIFT) - 1);
+        }
+        return new Result(List.of(page), count);
+    }
+    
+    /**
+     * Drop stale postings left by removed and replaced records
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            long[] oldIds = ids;
+            String[] oldCodes = codes;
+            String[] oldNames = names;
+            int oldNext = next;
+            ids = new long[Math.max(1024, ordinals.size() * 2)];
+            codes = new String[ids.length];
+            names = new String[ids.length];
+            next = 0;
+            ordinals.clear();
+            postings.clear();
+            for (int ordinal = 0; ordinal < oldNext; ordinal++) {
+                if (oldCodes[ordinal] != null) {
+                    int moved = allocate(oldIds[ordinal], oldCodes[ordinal], oldNames[ordinal]);
+                    ordinals.put(oldIds[ordinal], moved);
+                    for (long gram : grams(oldCodes[ordinal], oldNames[ordinal])) {
+                        postings.computeIfAbsent(gram, g -> new Postings()).add(moved);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Whether stale slots outnumber live records, so {@link #compact()} would pay off
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return next > 1024 && next - ordinals.size() > ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void match(Matches matches, int ordinal, String query) {
+        String code = codes[ordinal];
+        if (code == null) {
+            return;
+        }
+        int rank = rank(code, names[ordinal], query);
+        if (rank >= 0) {
+            // Sorting the keys orders by rank, then by id
+            matches.add(((long) rank << RANK_SHIFT) | ids[ordinal]);
+        }
+    }
+    
+    static int rank(String code, String name, String query) {
+        if (code.equals(query)) {
+            return 0;
+        }
+        if (code.startsWith(query)) {
+            return 1;
+        }
+        if (name.equals(query)) {
+            return 2;
+        }
+        if (name.startsWith(query)) {
+            return 3;
+        }
+        if (code.contains(query)) {
+            return 4;
+        }
+        return name.contains(query) ? 5 : -1;
+    }
+    
+    private int allocate(long id, String code, String name) {
+        if (next == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        ids[next] = id;
+        codes[next] = code;
+        names[next] = name;
+        return next++;
+    }
+    
+    private void clear(int ordinal) {
+        codes[ordinal] = null;
+        names[ordinal] = null;
+    }
+    
+    /**
+     * Distinct trigrams of both fields, each packed into a long (three 16-bit chars)
+     */
+    static long[] grams(String code, String name) {
+        long[] grams = new long[Math.max(0, code.length() - N + 1) + Math.max(0, name.length() - N + 1)];
+        int count = 0;
+        for (String text : new String[] {code, name}) {
+            for (int i = 0; i + N <= text.length(); i++) {
+                grams[count++] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+    
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class Matches {
+        
+        private long[] keys = new long[16];
+        private int size;
+        
+        void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+    }
+    
+    private static final class Postings {
+        
+        private int[] ordinals = new int[4];
+        private int size;
+        
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
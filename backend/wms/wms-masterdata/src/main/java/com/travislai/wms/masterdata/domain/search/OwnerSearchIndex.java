@@ -0,0 +1,195 @@
+package com.travislai.wms.masterdata.domain.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.mapper.OwnerMapper;
+import com.travislai.wms.masterdata.domain.pagination.KeysetPage;
+import com.travislai.wms.masterdata.domain.pagination.OffsetPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional in-process owner search backed by {@link NgramIndex}
+ * <p>
+ * Enabled with {@code wms.masterdata.search.in-memory-index.enabled=true}. All active owners
+ * are loaded at startup; until then searches fall back to the database. Writes made through
+ * this instance are applied once their transaction commits, and rows changed by other instances
+ * are picked up every {@code refresh-interval} from {@code update_date}/{@code create_date}
+ * (logical deletes fill {@code update_date} too). The index holds only ids and lower-cased text;
+ * the returned page is read from the database by id.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wms.masterdata.search.in-memory-index", name = "enabled", havingValue = "true")
+public class OwnerSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(OwnerSearchIndex.class);
+    private static final int BATCH_SIZE = 5_000;
+    /**
+     * Re-read this much before the last sync, so clock skew between instances does not lose changes
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final OwnerMapper ownerMapper;
+    private final NgramIndex index = new NgramIndex();
+    private final Object syncLock = new Object();
+
+    private volatile boolean ready;
+    private LocalDateTime syncedAt;
+
+    public OwnerSearchIndex(OwnerMapper ownerMapper) {
+        this.ownerMapper = ownerMapper;
+    }
+
+    /**
+     * Whether the initial load has finished and searches can be answered from memory
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * One page of owners whose code or name contains {@code keyword}, best matches first
+     * @param keyword the search keyword
+     * @param page the page number (1-based)
+     * @param size the page size, capped at {@link KeysetPage#MAX_SIZE}
+     * @return the page with its exact total
+     */
+    public OffsetPage<Owner> search(String keyword, int page, int size) {
+        int limit = Math.max(1, Math.min(size, KeysetPage.MAX_SIZE));
+        long offset = (long) (page - 1) * limit;
+        NgramIndex.Result result = index.search(keyword, offset, limit);
+        List<Owner> records = List.of();
+        if (!result.ids().isEmpty()) {
+            Map<Long, Integer> order = new HashMap<>();
+            for (int i = 0; i < result.ids().size(); i++) {
+                order.put(result.ids().get(i), i);
+            }
+            records = ownerMapper.selectBatchIds(result.ids()).stream()
+                    .sorted(Comparator.comparing(owner -> order.get(owner.getId())))
+                    .toList();
+        }
+        return new OffsetPage<>(records, result.total(), false, offset + result.ids().size() < result.total(),
+                page, limit);
+    }
+
+    /**
+     * Index a created or updated owner once the current transaction commits
+     */
+    public void onSaved(Owner owner) {
+        Long id = owner.getId();
+        String code = owner.getCode();
+        String name = owner.getName();
+        afterCommit(() -> index.put(id, code, name));
+    }
+
+    /**
+     * Remove a deleted owner once the current transaction commits
+     */
+    public void onDeleted(Long id) {
+        afterCommit(() -> index.remove(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            load();
+        } catch (RuntimeException ex) {
+            log.warn("Owner search index load failed, searching the database until the next refresh", ex);
+        }
+    }
+
+    /**
+     * Apply owners changed by other instances since the last sync, or retry a failed load
+     */
+    @Scheduled(fixedDelayString = "${wms.masterdata.search.in-memory-index.refresh-interval:30000}",
+            initialDelayString = "${wms.masterdata.search.in-memory-index.refresh-interval:30000}")
+    public void refresh() {
+        try {
+            if (!ready) {
+                load();
+                return;
+            }
+            synchronized (syncLock) {
+                LocalDateTime started = LocalDateTime.now();
+                LocalDateTime since = syncedAt.minus(SYNC_OVERLAP);
+                long afterId = 0;
+                int changed = 0;
+                List<Owner> batch;
+                do {
+                    batch = ownerMapper.selectChangedSince(since, afterId, BATCH_SIZE);
+                    for (Owner owner : batch) {
+                        if (owner.getDeleteFlag() != null && owner.getDeleteFlag() != 0) {
+                            index.remove(owner.getId());
+                        } else {
+                            index.put(owner.getId(), owner.getCode(), owner.getName());
+                        }
+                        afterId = owner.getId();
+                    }
+                    changed += batch.size();
+                } while (batch.size() == BATCH_SIZE);
+                syncedAt = started;
+                if (index.needsCompaction()) {
+                    index.compact();
+                }
+                log.debug("Owner search index synced, changed={}, size={}", changed, index.size());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Owner search index refresh failed, keeping the previous state", ex);
+        }
+    }
+
+    private void load() {
+        synchronized (syncLock) {
+            if (ready) {
+                return;
+            }
+            long startNanos = System.nanoTime();
+            LocalDateTime started = LocalDateTime.now();
+            Long afterId = null;
+            List<Owner> batch;
+            do {
+                LambdaQueryWrapper<Owner> query = new LambdaQueryWrapper<>();
+                query.select(Owner::getId, Owner::getCode, Owner::getName)
+                     .gt(afterId != null, Owner::getId, afterId)
+                     .orderByAsc(Owner::getId)
+                     .last("LIMIT " + BATCH_SIZE);
+                batch = ownerMapper.selectList(query);
+                for (Owner owner : batch) {
+                    index.put(owner.getId(), owner.getCode(), owner.getName());
+                    afterId = owner.getId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+            syncedAt = started;
+            ready = true;
+            log.info("Owner search index loaded, owners={}, took={}ms", index.size(),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.travislai.wms.masterdata.domain.service;
+
+import com.travislai.wms.masterdata.domain.entity.Barcode;
+
+import java.util.List;
+
+/**
+ * Barcode domain service interface
+ */
+public interface BarcodeService {
+    
+    /**
+     * Create a new barcode for an active product
+     * @param barcode the barcode to create
+     * @return the created barcode with generated ID
+     */
+    Barcode createBarcode(Barcode barcode);
+    
+    /**
+     * Update the product, type, primary flag and remark of a barcode; the barcode text cannot change
+     * @param id the barcode ID
+     * @param barcode the barcode data to update, with the version last read
+     * @return the updated barcode
+     */
+    Barcode updateBarcode(Long id, Barcode barcode);
+    
+    /**
+     * Delete a barcode (logical delete); its text stays reserved
+     * @param id the barcode ID
+     */
+    void deleteBarcode(Long id);
+    
+    /**
+     * Get barcode by ID
+     * @param id the barcode ID
+     * @return the barcode
+     */
+    Barcode getById(Long id);
+    
+    /**
+     * Get the active barcodes of a product, primary first
+     * @param productId the product ID
+     * @return the barcodes, possibly empty
+     */
+    List<Barcode> getByProductId(Long productId);
+    
+    /**
+     * Resolve a scanned barcode to its product
+     * @param barcode the barcode text
+     * @return the product ID
+     */
+    Long resolve(String barcode);
+    
+    /**
+     * Resolve a burst of scanned barcodes to their products
+     * @param barcodes the barcode texts
+     * @return the product ID of each barcode in the same order, null where the barcode is unknown
+     */
+    List<Long> resolveAll(List<String> barcodes);
+}
@@ -1,7 +1,18 @@
 package com.travislai.wms.masterdata.domain.service;
 
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.travislai.wms.masterdata.domain.bulk.BulkFormat;
+import com.travislai.wms.masterdata.domain.bulk.ImportResult;
+import com.travislai.wms.masterdata.domain.bulk.OwnerUpdate;
+import com.travislai.wms.masterdata.domain.bulk.UpdateResult;
 import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.pagination.KeysetPage;
+import com.travislai.wms.masterdata.domain.pagination.OffsetPage;
+import com.travislai.wms.masterdata.domain.pagination.TotalMode;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Owner domain service interface
@@ -23,6 +34,14 @@ public interface OwnerService {
      */
     Owner updateOwner(Long id, Owner owner);
     
+    /**
+     * Update many owners, each only if it still has the version the caller read
+     * @param updates the items; null fields keep their current value
+     * @param atomic whether to roll back every item unless all of them are updated
+     * @return one result per item: updated, version conflict, not found or rejected
+     */
+    UpdateResult updateOwners(List<OwnerUpdate> updates, boolean atomic);
+    
     /**
      * Delete an owner (logical delete)
      * @param id the owner ID
@@ -37,19 +56,64 @@ public interface OwnerService {
     Owner getById(Long id);
     
     /**
-     * Get paginated list of owners
+     * Get owner by code
+     * @param code the owner code
+     * @return the owner
+     */
+    Owner getByCode(String code);
+    
+    /**
+     * Get paginated list of owners in id order
      * @param page the page number (1-based)
      * @param size the page size
+     * @param total how to compute the total
+     * @param newestFirst whether to order by id descending, so the most recently created owners come first
      * @return page of owners
      */
-    Page<Owner> getOwners(int page, int size);
+    OffsetPage<Owner> getOwners(int page, int size, TotalMode total, boolean newestFirst);
+    
+    /**
+     * Get the owners following {@code after} in id order (keyset pagination)
+     * @param after the last owner ID of the previous slice, or null for the first slice
+     * @param size the slice size
+     * @return slice of owners
+     */
+    KeysetPage<Owner> getOwnersAfter(Long after, int size);
     
     /**
      * Search owners by code or name
      * @param keyword the search keyword
      * @param page the page number (1-based)
      * @param size the page size
+     * @param total how to compute the total
      * @return page of matching owners
      */
-    Page<Owner> searchOwners(String keyword, int page, int size);
+    OffsetPage<Owner> searchOwners(String keyword, int page, int size, TotalMode total);
+    
+    /**
+     * Search owners by code or name, following {@code after} in id order (keyset pagination)
+     * @param keyword the search keyword
+     * @param after the last owner ID of the previous slice, or null for the first slice
+     * @param size the slice size
+     * @return slice of matching owners
+     */
+    KeysetPage<Owner> searchOwnersAfter(String keyword, Long after, int size);
+    
+    /**
+     * Import owners from a CSV or NDJSON stream (fields: code, name)
+     * @param input the records
+     * @param format the record format
+     * @return counts and per-row errors
+     */
+    ImportResult importOwners(InputStream input, BulkFormat format);
+    
+    /**
+     * Stream active owners last modified in {@code [from, to)} as CSV or NDJSON, in id order
+     * @param output the stream to write to
+     * @param format the record format
+     * @param from the inclusive lower bound of the modification time, or null
+     * @param to the exclusive upper bound of the modification time, or null
+     * @return the number of owners written
+     */
+    long exportOwners(OutputStream output, BulkFormat format, LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,33 @@
+package com.travislai.wms.masterdata.domain.service;
+
+import com.travislai.wms.masterdata.domain.bulk.BulkFormat;
+import com.travislai.wms.masterdata.domain.bulk.ImportResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Product domain service interface
+ */
+public interface ProductService {
+    
+    /**
+     * Import products from a CSV or NDJSON stream (fields: ownerCode, categoryCode, code, name,
+     * shortName, unit, spec, batchRules, shelfLifeDays, storageCondition)
+     * @param input the records
+     * @param format the record format
+     * @return counts and per-row errors
+     */
+    ImportResult importProducts(InputStream input, BulkFormat format);
+    
+    /**
+     * Stream active products last modified in {@code [from, to)} as CSV or NDJSON, in id order
+     * @param output the stream to write to
+     * @param format the record format
+     * @param from the inclusive lower bound of the modification time, or null
+     * @param to the exclusive upper bound of the modification time, or null
+     * @return the number of products written
+     */
+    long exportProducts(OutputStream output, BulkFormat format, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,187 @@
+package com.travislai.wms.masterdata.domain.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.travislai.wms.masterdata.domain.barcode.BarcodeIndex;
+import com.travislai.wms.masterdata.domain.barcode.BarcodeResolver;
+import com.travislai.wms.masterdata.domain.entity.Barcode;
+import com.travislai.wms.masterdata.domain.entity.Product;
+import com.travislai.wms.masterdata.domain.exception.BusinessException;
+import com.travislai.wms.masterdata.domain.exception.ResourceNotFoundException;
+import com.travislai.wms.masterdata.domain.exception.UniqueConstraintViolationException;
+import com.travislai.wms.masterdata.domain.mapper.BarcodeMapper;
+import com.travislai.wms.masterdata.domain.mapper.ProductMapper;
+import com.travislai.wms.masterdata.domain.service.BarcodeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Barcode service implementation
+ */
+@Service
+public class BarcodeServiceImpl implements BarcodeService {
+    
+    /**
+     * Barcodes looked up per query when resolving from the database
+     */
+    private static final int RESOLVE_BATCH_SIZE = 1_000;
+    
+    private final BarcodeMapper barcodeMapper;
+    private final ProductMapper productMapper;
+    private final BarcodeResolver resolver;
+    
+    public BarcodeServiceImpl(BarcodeMapper barcodeMapper, ProductMapper productMapper,
+                              ObjectProvider<BarcodeResolver> resolver) {
+        this.barcodeMapper = barcodeMapper;
+        this.productMapper = productMapper;
+        this.resolver = resolver.getIfAvailable();
+    }
+    
+    @Override
+    @Transactional
+    public Barcode createBarcode(Barcode barcode) {
+        checkProductExists(barcode.getProductId());
+        // The UNIQUE constraint on barcode covers deleted rows too, so a barcode is never reused
+        // for another product
+        try {
+            barcodeMapper.insert(barcode);
+        } catch (DuplicateKeyException ex) {
+            throw new UniqueConstraintViolationException("barcode", barcode.getBarcode());
+        }
+        
+        if (resolver != null) {
+            resolver.onSaved(barcode.getBarcode(), barcode.getProductId());
+        }
+        return barcode;
+    }
+    
+    @Override
+    @Transactional
+    public Barcode updateBarcode(Long id, Barcode barcode) {
+        checkProductExists(barcode.getProductId());
+        barcode.setId(id);
+        Integer expectedVersion = barcode.getVersion();
+        
+        // One conditional UPDATE returns the new version and the barcode text the index is keyed by
+        if (barcodeMapper.updateReturning(barcode) == 0) {
+            if (barcodeMapper.selectActiveVersion(id) == null) {
+                throw new ResourceNotFoundException("Barcode", id);
+            }
+            throw new OptimisticLockingFailureException(
+                    "Barcode " + id + " has been modified since version " + expectedVersion);
+        }
+        barcode.setDeleteFlag(0);
+        
+        if (resolver != null) {
+            resolver.onSaved(barcode.getBarcode(), barcode.getProductId());
+        }
+        return barcode;
+    }
+    
+    @Override
+    @Transactional
+    public void deleteBarcode(Long id) {
+        // Logical delete that reads the barcode text back in the same round trip
+        Barcode barcode = new Barcode();
+        barcode.setId(id);
+        if (barcodeMapper.deleteReturning(barcode) == 0) {
+            throw new ResourceNotFoundException("Barcode", id);
+        }
+        if (resolver != null) {
+            resolver.onDeleted(barcode.getBarcode());
+        }
+    }
+    
+    @Override
+    public Barcode getById(Long id) {
+        Barcode barcode = barcodeMapper.selectById(id);
+        if (barcode == null) {
+            throw new ResourceNotFoundException("Barcode", id);
+        }
+        return barcode;
+    }
+    
+    @Override
+    public List<Barcode> getByProductId(Long productId) {
+        return barcodeMapper.selectList(new LambdaQueryWrapper<Barcode>()
+                .eq(Barcode::getProductId, productId)
+                .orderByDesc(Barcode::getIsPrimary)
+                .orderByAsc(Barcode::getId));
+    }
+    
+    @Override
+    public Long resolve(String barcode) {
+        if (indexable()) {
+            long productId = resolver.resolve(barcode);
+            if (productId != BarcodeIndex.ABSENT) {
+                return productId;
+            }
+        }
+        Long productId = selectProducts(List.of(barcode)).get(barcode);
+        if (productId == null) {
+            throw new ResourceNotFoundException("Barcode " + barcode + " not found");
+        }
+        return productId;
+    }
+    
+    @Override
+    public List<Long> resolveAll(List<String> barcodes) {
+        Long[] productIds = new Long[barcodes.size()];
+        Set<String> misses = new LinkedHashSet<>();
+        boolean fromIndex = indexable();
+        for (int i = 0; i < productIds.length; i++) {
+            long productId = fromIndex ? resolver.resolve(barcodes.get(i)) : BarcodeIndex.ABSENT;
+            if (productId != BarcodeIndex.ABSENT) {
+                productIds[i] = productId;
+            } else {
+                misses.add(barcodes.get(i));
+            }
+        }
+        if (!misses.isEmpty()) {
+            // Misses are rare once the index is loaded, but one may be a barcode created by another
+            // instance since the last refresh, so the database has the final word
+            Map<String, Long> found = selectProducts(new ArrayList<>(misses));
+            for (int i = 0; i < productIds.length; i++) {
+                if (productIds[i] == null) {
+                    productIds[i] = found.get(barcodes.get(i));
+                }
+            }
+        }
+        return Arrays.asList(productIds);
+    }
+    
+    private Map<String, Long> selectProducts(List<String> barcodes) {
+        Map<String, Long> found = new HashMap<>();
+        for (int from = 0; from < barcodes.size(); from += RESOLVE_BATCH_SIZE) {
+            barcodeMapper.selectProducts(barcodes.subList(from, Math.min(from + RESOLVE_BATCH_SIZE, barcodes.size())))
+                    .forEach(barcode -> found.put(barcode.getBarcode(), barcode.getProductId()));
+        }
+        return found;
+    }
+    
+    private void checkProductExists(Long productId) {
+        // The foreign key also accepts logically deleted products
+        if (productMapper.selectCount(new LambdaQueryWrapper<Product>().eq(Product::getId, productId)) == 0) {
+            throw new BusinessException("Product " + productId + " does not exist");
+        }
+    }
+    
+    /**
+     * Whether lookups may use the index; inside a transaction the caller may have written the
+     * barcode and must see its own uncommitted change
+     */
+    private boolean indexable() {
+        return resolver != null && resolver.isReady() && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+}
@@ -1,78 +1,175 @@
 package com.travislai.wms.masterdata.domain.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.travislai.wms.masterdata.domain.bulk.BulkExporter;
+import com.travislai.wms.masterdata.domain.bulk.BulkFormat;
+import com.travislai.wms.masterdata.domain.bulk.BulkImporter;
+import com.travislai.wms.masterdata.domain.bulk.ImportResult;
+import com.travislai.wms.masterdata.domain.bulk.OwnerBatchUpdater;
+import com.travislai.wms.masterdata.domain.bulk.OwnerImportTarget;
+import com.travislai.wms.masterdata.domain.bulk.OwnerUpdate;
+import com.travislai.wms.masterdata.domain.bulk.UpdateResult;
+import com.travislai.wms.masterdata.domain.cache.OwnerCache;
 import com.travislai.wms.masterdata.domain.entity.Owner;
 import com.travislai.wms.masterdata.domain.exception.ResourceNotFoundException;
 import com.travislai.wms.masterdata.domain.exception.UniqueConstraintViolationException;
 import com.travislai.wms.masterdata.domain.mapper.OwnerMapper;
+import com.travislai.wms.masterdata.domain.pagination.KeysetPage;
+import com.travislai.wms.masterdata.domain.pagination.OffsetPage;
+import com.travislai.wms.masterdata.domain.pagination.OffsetPaginator;
+import com.travislai.wms.masterdata.domain.pagination.TotalMode;
+import com.travislai.wms.masterdata.domain.search.OwnerSearchIndex;
 import com.travislai.wms.masterdata.domain.service.OwnerService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
 /**
  * Owner service implementation
  */
 @Service
 public class OwnerServiceImpl implements OwnerService {
     
+    private static final List<String> EXPORT_COLUMNS = List.of(
+            "id", "code", "name", "createDate", "createBy", "updateDate", "updateBy", "version");
+    /**
+     * Owners re-read per query to refresh the search index after a batch update
+     */
+    private static final int RELOAD_BATCH_SIZE = 1_000;
+    
     private final OwnerMapper ownerMapper;
+    private final OffsetPaginator offsetPaginator;
+    private final BulkImporter bulkImporter;
+    private final BulkExporter bulkExporter;
+    private final OwnerImportTarget ownerImportTarget;
+    private final OwnerBatchUpdater ownerBatchUpdater;
+    private final OwnerSearchIndex searchIndex;
+    private final OwnerCache ownerCache;
     
-    public OwnerServiceImpl(OwnerMapper ownerMapper) {
+    public OwnerServiceImpl(OwnerMapper ownerMapper, OffsetPaginator offsetPaginator,
+                            BulkImporter bulkImporter, BulkExporter bulkExporter,
+                            OwnerImportTarget ownerImportTarget, OwnerBatchUpdater ownerBatchUpdater,
+                            ObjectProvider<OwnerSearchIndex> searchIndex,
+                            ObjectProvider<OwnerCache> ownerCache) {
         this.ownerMapper = ownerMapper;
+        this.offsetPaginator = offsetPaginator;
+        this.bulkImporter = bulkImporter;
+        this.bulkExporter = bulkExporter;
+        this.ownerImportTarget = ownerImportTarget;
+        this.ownerBatchUpdater = ownerBatchUpdater;
+        this.searchIndex = searchIndex.getIfAvailable();
+        this.ownerCache = ownerCache.getIfAvailable();
     }
     
     @Override
     @Transactional
     public Owner createOwner(Owner owner) {
-        // Check uniqueness of code (Requirements 1.2, 8.5)
-        checkCodeUniqueness(owner.getCode(), null);
-        
         // Insert owner - base fields will be auto-filled by MetaObjectHandler
-        ownerMapper.insert(owner);
+        // The UNIQUE constraint on code enforces uniqueness (Requirements 1.2, 8.5) in the same
+        // round trip, without the race of a separate check
+        try {
+            ownerMapper.insert(owner);
+        } catch (DuplicateKeyException ex) {
+            throw new UniqueConstraintViolationException("code", owner.getCode());
+        }
         
+        if (searchIndex != null) {
+            searchIndex.onSaved(owner);
+        }
         return owner;
     }
     
     @Override
     @Transactional
     public Owner updateOwner(Long id, Owner owner) {
-        // Check if owner exists
-        Owner existing = getById(id);
-        
-        // Check uniqueness of code if changed (Requirements 1.2, 8.5)
-        if (!existing.getCode().equals(owner.getCode())) {
-            checkCodeUniqueness(owner.getCode(), id);
-        }
-        
-        // Set ID for update
         owner.setId(id);
+        Integer expectedVersion = owner.getVersion();
         
-        // Update owner - optimistic lock will be checked automatically
-        // update_date and update_by will be auto-filled by MetaObjectHandler
-        int updated = ownerMapper.updateById(owner);
+        // One conditional UPDATE returns the new version; code uniqueness (Requirements 1.2, 8.5)
+        // is enforced by the UNIQUE constraint
+        int updated;
+        try {
+            updated = ownerMapper.updateReturning(owner);
+        } catch (DuplicateKeyException ex) {
+            throw new UniqueConstraintViolationException("code", owner.getCode());
+        }
         
         if (updated == 0) {
-            throw new RuntimeException("Update failed - possible version conflict");
+            // Only a failed update costs a second query, to tell a missing owner from a stale version
+            if (ownerMapper.selectActiveVersion(id) == null) {
+                throw new ResourceNotFoundException("Owner", id);
+            }
+            throw new OptimisticLockingFailureException(
+                    "Owner " + id + " has been modified since version " + expectedVersion);
         }
+        owner.setDeleteFlag(0);
         
-        return ownerMapper.selectById(id);
+        if (ownerCache != null) {
+            ownerCache.invalidateAfterCommit(id, owner.getVersion());
+        }
+        if (searchIndex != null) {
+            searchIndex.onSaved(owner);
+        }
+        return owner;
+    }
+    
+    @Override
+    public UpdateResult updateOwners(List<OwnerUpdate> updates, boolean atomic) {
+        // Not @Transactional: the updater commits per chunk, or once for an atomic batch
+        UpdateResult result = ownerBatchUpdater.run(updates, atomic);
+        if (ownerCache != null) {
+            result.rows().stream()
+                    .filter(row -> row.status() == UpdateResult.Status.UPDATED)
+                    .forEach(row -> ownerCache.invalidateAfterCommit(row.id(), row.version()));
+        }
+        if (searchIndex != null && result.updated() > 0) {
+            List<Long> ids = result.rows().stream()
+                    .filter(row -> row.status() == UpdateResult.Status.UPDATED)
+                    .map(UpdateResult.RowResult::id)
+                    .toList();
+            for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+                ownerMapper.selectBatchIds(ids.subList(from, Math.min(from + RELOAD_BATCH_SIZE, ids.size())))
+                        .forEach(searchIndex::onSaved);
+            }
+        }
+        return result;
     }
     
     @Override
     @Transactional
     public void deleteOwner(Long id) {
-        // Check if owner exists
-        Owner owner = getById(id);
-        
-        // Logical delete - delete_flag will be set to 1 automatically
-        ownerMapper.deleteById(id);
+        // Logical delete - delete_flag will be set to 1 automatically; passing an entity lets the
+        // update fill update_date, which the search index sync relies on. Only active rows match,
+        // so no update means the owner does not exist
+        Owner owner = new Owner();
+        owner.setId(id);
+        if (ownerMapper.deleteById(owner) == 0) {
+            throw new ResourceNotFoundException("Owner", id);
+        }
+        if (ownerCache != null) {
+            ownerCache.invalidateAfterCommit(id, OwnerCache.DELETED);
+        }
+        if (searchIndex != null) {
+            searchIndex.onDeleted(id);
+        }
     }
     
     @Override
     public Owner getById(Long id) {
-        Owner owner = ownerMapper.selectById(id);
+        Owner owner = cacheable()
+                ? ownerCache.getById(id, () -> ownerMapper.selectById(id))
+                : ownerMapper.selectById(id);
         if (owner == null) {
             throw new ResourceNotFoundException("Owner", id);
         }
@@ -80,44 +177,90 @@ public class OwnerServiceImpl implements OwnerService {
     }
     
     @Override
-    public Page<Owner> getOwners(int page, int size) {
-        Page<Owner> pageRequest = new Page<>(page, size);
-        return ownerMapper.selectPage(pageRequest, null);
+    public Owner getByCode(String code) {
+        Owner owner = cacheable()
+                ? ownerCache.getByCode(code, () -> selectByCode(code))
+                : selectByCode(code);
+        if (owner == null) {
+            throw new ResourceNotFoundException("Owner with code " + code + " not found");
+        }
+        return owner;
     }
     
     @Override
-    public Page<Owner> searchOwners(String keyword, int page, int size) {
-        Page<Owner> pageRequest = new Page<>(page, size);
-        
+    public OffsetPage<Owner> getOwners(int page, int size, TotalMode total, boolean newestFirst) {
+        // Order by id so pages are stable; descending walks the primary key index backwards
+        return offsetPaginator.select(ownerMapper, Owner.class, null, null, Owner::getId, !newestFirst,
+                page, size, total);
+    }
+    
+    @Override
+    public KeysetPage<Owner> getOwnersAfter(Long after, int size) {
+        return KeysetPage.select(ownerMapper, null, Owner::getId, after, size);
+    }
+    
+    @Override
+    public OffsetPage<Owner> searchOwners(String keyword, int page, int size, TotalMode total) {
         if (!StringUtils.hasText(keyword)) {
-            return ownerMapper.selectPage(pageRequest, null);
+            return getOwners(page, size, total, false);
         }
-        
-        // Search by code or name using LIKE (Requirements 9.1)
-        LambdaQueryWrapper<Owner> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.like(Owner::getCode, keyword)
-                   .or()
-                   .like(Owner::getName, keyword);
-        
-        return ownerMapper.selectPage(pageRequest, queryWrapper);
+        if (searchIndex != null && searchIndex.isReady()) {
+            return searchIndex.search(keyword, page, size);
+        }
+        String lower = keyword.trim().toLowerCase(Locale.ROOT);
+        String escaped = escapeLike(lower);
+        String pattern = "%" + escaped + "%";
+        return offsetPaginator.page(page, size, total,
+                (offset, limit) -> ownerMapper.searchRanked(lower, pattern, escaped + "%", limit, offset),
+                "wms_owner\u0000search:" + lower,
+                () -> ownerMapper.countMatches(pattern));
+    }
+    
+    @Override
+    public KeysetPage<Owner> searchOwnersAfter(String keyword, Long after, int size) {
+        return KeysetPage.select(ownerMapper, StringUtils.hasText(keyword) ? keywordFilter(keyword) : null,
+                Owner::getId, after, size);
+    }
+    
+    @Override
+    public ImportResult importOwners(InputStream input, BulkFormat format) {
+        // Not @Transactional: each chunk commits on its own so memory and lock time stay bounded
+        return bulkImporter.run(input, format, ownerImportTarget);
+    }
+    
+    @Override
+    public long exportOwners(OutputStream output, BulkFormat format, LocalDateTime from, LocalDateTime to) {
+        BulkExporter.checkRange(from, to);
+        return bulkExporter.export(output, format, "Owner", EXPORT_COLUMNS,
+                () -> ownerMapper.streamModified(from, to),
+                owner -> new Object[] {owner.getId(), owner.getCode(), owner.getName(), owner.getCreateDate(),
+                        owner.getCreateBy(), owner.getUpdateDate(), owner.getUpdateBy(), owner.getVersion()});
     }
     
     /**
-     * Check if owner code is unique
-     * @param code the code to check
-     * @param excludeId the ID to exclude from check (for updates)
+     * Case-insensitive search by code or name (Requirements 9.1); ILIKE can use the trigram indexes
      */
-    private void checkCodeUniqueness(String code, Long excludeId) {
-        LambdaQueryWrapper<Owner> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Owner::getCode, code);
-        
-        if (excludeId != null) {
-            queryWrapper.ne(Owner::getId, excludeId);
-        }
-        
-        Long count = ownerMapper.selectCount(queryWrapper);
-        if (count > 0) {
-            throw new UniqueConstraintViolationException("code", code);
-        }
+    private static Consumer<LambdaQueryWrapper<Owner>> keywordFilter(String keyword) {
+        String pattern = "%" + escapeLike(keyword.trim().toLowerCase(Locale.ROOT)) + "%";
+        return wrapper -> wrapper.apply("(code ILIKE {0} OR name ILIKE {0})", pattern);
+    }
+    
+    /**
+     * Escape LIKE wildcards so the keyword matches literally
+     */
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    private Owner selectByCode(String code) {
+        return ownerMapper.selectOne(new LambdaQueryWrapper<Owner>().eq(Owner::getCode, code));
+    }
+    
+    /**
+     * Whether reads may use the cache; inside a transaction the caller may have written the owner
+     * and must see its own uncommitted change
+     */
+    private boolean cacheable() {
+        return ownerCache != null && !TransactionSynchronizationManager.isActualTransactionActive();
     }
 }
@@ -0,0 +1,57 @@
+package com.travislai.wms.masterdata.domain.service.impl;
+
+import com.travislai.wms.masterdata.domain.bulk.BulkExporter;
+import com.travislai.wms.masterdata.domain.bulk.BulkFormat;
+import com.travislai.wms.masterdata.domain.bulk.BulkImporter;
+import com.travislai.wms.masterdata.domain.bulk.ImportResult;
+import com.travislai.wms.masterdata.domain.bulk.ProductImportTarget;
+import com.travislai.wms.masterdata.domain.mapper.ProductMapper;
+import com.travislai.wms.masterdata.domain.service.ProductService;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Product service implementation
+ */
+@Service
+public class ProductServiceImpl implements ProductService {
+    
+    private static final List<String> EXPORT_COLUMNS = List.of(
+            "id", "ownerId", "categoryId", "code", "name", "shortName", "unit", "spec", "batchRules",
+            "shelfLifeDays", "storageCondition", "createDate", "createBy", "updateDate", "updateBy", "version");
+    
+    private final ProductMapper productMapper;
+    private final BulkImporter bulkImporter;
+    private final BulkExporter bulkExporter;
+    private final ProductImportTarget productImportTarget;
+    
+    public ProductServiceImpl(ProductMapper productMapper, BulkImporter bulkImporter, BulkExporter bulkExporter,
+                              ProductImportTarget productImportTarget) {
+        this.productMapper = productMapper;
+        this.bulkImporter = bulkImporter;
+        this.bulkExporter = bulkExporter;
+        this.productImportTarget = productImportTarget;
+    }
+    
+    @Override
+    public ImportResult importProducts(InputStream input, BulkFormat format) {
+        // Not @Transactional: each chunk commits on its own so memory and lock time stay bounded
+        return bulkImporter.run(input, format, productImportTarget);
+    }
+    
+    @Override
+    public long exportProducts(OutputStream output, BulkFormat format, LocalDateTime from, LocalDateTime to) {
+        BulkExporter.checkRange(from, to);
+        return bulkExporter.export(output, format, "Product", EXPORT_COLUMNS,
+                () -> productMapper.streamModified(from, to),
+                product -> new Object[] {product.getId(), product.getOwnerId(), product.getCategoryId(),
+                        product.getCode(), product.getName(), product.getShortName(), product.getUnit(),
+                        product.getSpec(), product.getBatchRules(), product.getShelfLifeDays(),
+                        product.getStorageCondition(), product.getCreateDate(), product.getCreateBy(),
+                        product.getUpdateDate(), product.getUpdateBy(), product.getVersion()});
+    }
+}
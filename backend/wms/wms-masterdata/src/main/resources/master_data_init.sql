@@ -26,6 +26,32 @@ CREATE TABLE IF NOT EXISTS wms_owner (
 CREATE INDEX IF NOT EXISTS idx_owner_code ON wms_owner(code);
 CREATE INDEX IF NOT EXISTS idx_owner_delete_flag ON wms_owner(delete_flag);
 
+-- Substring search (ILIKE '%kw%') on code and name uses trigram GIN indexes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_owner_code_trgm ON wms_owner USING gin (code gin_trgm_ops) WHERE delete_flag = 0;
+CREATE INDEX IF NOT EXISTS idx_owner_name_trgm ON wms_owner USING gin (name gin_trgm_ops) WHERE delete_flag = 0;
+-- Incremental sync of the in-memory search index and exports read rows changed since a point in time
+CREATE INDEX IF NOT EXISTS idx_owner_changed ON wms_owner((COALESCE(update_date, create_date)));
+-- Owner cache invalidation: every masterdata instance LISTENs on wms_owner_changed (OwnerChangeListener).
+-- Payload id:version:delete_flag:epoch_millis; delivered on commit, covers batch updates and manual SQL too
+CREATE OR REPLACE FUNCTION wms_owner_notify_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('wms_owner_changed', OLD.id || ':' || OLD.version || ':1:'
+            || (extract(epoch FROM clock_timestamp()) * 1000)::bigint);
+        RETURN OLD;
+    END IF;
+    PERFORM pg_notify('wms_owner_changed', NEW.id || ':' || NEW.version || ':' || NEW.delete_flag || ':'
+        || (extract(epoch FROM clock_timestamp()) * 1000)::bigint);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS wms_owner_notify_change ON wms_owner;
+CREATE TRIGGER wms_owner_notify_change
+    AFTER UPDATE OR DELETE ON wms_owner
+    FOR EACH ROW EXECUTE FUNCTION wms_owner_notify_change();
+
 -- =============================================
 -- Contact Table (联系方式表)
 -- =============================================
@@ -114,6 +140,8 @@ CREATE INDEX IF NOT EXISTS idx_product_owner_id ON wms_product(owner_id);
 CREATE INDEX IF NOT EXISTS idx_product_category_id ON wms_product(category_id);
 CREATE INDEX IF NOT EXISTS idx_product_code ON wms_product(code);
 CREATE INDEX IF NOT EXISTS idx_product_delete_flag ON wms_product(delete_flag);
+-- Exports filtered by modification time
+CREATE INDEX IF NOT EXISTS idx_product_changed ON wms_product((COALESCE(update_date, create_date)));
 
 -- =============================================
 -- Barcode Table (条码映射表)
@@ -140,3 +168,5 @@ CREATE TABLE IF NOT EXISTS wms_barcode (
 CREATE INDEX IF NOT EXISTS idx_barcode_product_id ON wms_barcode(product_id);
 CREATE INDEX IF NOT EXISTS idx_barcode_barcode ON wms_barcode(barcode);
 CREATE INDEX IF NOT EXISTS idx_barcode_delete_flag ON wms_barcode(delete_flag);
+-- Incremental sync of the in-memory barcode resolution index
+CREATE INDEX IF NOT EXISTS idx_barcode_changed ON wms_barcode((COALESCE(update_date, create_date)));
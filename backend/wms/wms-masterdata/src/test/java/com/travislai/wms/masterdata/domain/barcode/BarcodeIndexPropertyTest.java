@@ -0,0 +1,152 @@
+package com.travislai.wms.masterdata.domain.barcode;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property-based tests for the primitive barcode index
+ */
+class BarcodeIndexPropertyTest {
+    
+    /**
+     * A put (with a product) or a remove of one barcode
+     */
+    record Operation(boolean put, String barcode, long productId) {}
+    
+    /**
+     * After any puts and removes, including ones that grow the table and shift probe runs back,
+     * every barcode resolves exactly as in a HashMap given the same operations
+     */
+    @Property(tries = 200)
+    @Label("Lookups agree with a HashMap after any puts and removes")
+    void agreesWithHashMap(@ForAll("operations") List<Operation> operations,
+                           @ForAll @IntRange(min = 0, max = 64) int expectedSize) {
+        BarcodeIndex index = new BarcodeIndex(expectedSize);
+        Map<String, Long> model = new HashMap<>();
+        
+        for (Operation op : operations) {
+            if (op.put()) {
+                index.put(op.barcode(), op.productId());
+                model.put(op.barcode(), op.productId());
+            } else {
+                assertThat(index.remove(op.barcode())).isEqualTo(model.remove(op.barcode()) != null);
+            }
+            assertThat(index.get(op.barcode())).isEqualTo(model.getOrDefault(op.barcode(), BarcodeIndex.ABSENT));
+        }
+        
+        assertThat(index.size()).isEqualTo(model.size());
+        for (Operation op : operations) {
+            assertThat(index.get(op.barcode())).isEqualTo(model.getOrDefault(op.barcode(), BarcodeIndex.ABSENT));
+        }
+    }
+    
+    /**
+     * A compacted copy holds exactly the live barcodes
+     */
+    @Property(tries = 100)
+    @Label("Compacted copy holds exactly the live barcodes")
+    void compactedCopyHoldsLiveBarcodes(@ForAll("operations") List<Operation> operations) {
+        BarcodeIndex index = new BarcodeIndex();
+        Map<String, Long> model = new HashMap<>();
+        for (Operation op : operations) {
+            if (op.put()) {
+                index.put(op.barcode(), op.productId());
+                model.put(op.barcode(), op.productId());
+            } else {
+                index.remove(op.barcode());
+                model.remove(op.barcode());
+            }
+        }
+        
+        BarcodeIndex copy = index.compacted();
+        
+        assertThat(copy.size()).isEqualTo(model.size());
+        for (Operation op : operations) {
+            assertThat(copy.get(op.barcode())).isEqualTo(model.getOrDefault(op.barcode(), BarcodeIndex.ABSENT));
+        }
+        assertThat(copy.needsCompaction()).isFalse();
+    }
+    
+    /**
+     * Lock-free lookups racing with writes to other barcodes never miss or misread a barcode that
+     * stays in the index
+     */
+    @Property(tries = 5)
+    @Label("Concurrent lookups of stable barcodes are never wrong")
+    void concurrentLookupsOfStableBarcodes(@ForAll @IntRange(min = 1, max = 500) int stable) throws Exception {
+        BarcodeIndex index = new BarcodeIndex();
+        for (int i = 0; i < stable; i++) {
+            index.put("S" + i, i);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Long>> wrong = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                wrong.add(readers.submit(() -> {
+                    long errors = 0;
+                    while (!done.get()) {
+                        for (int i = 0; i < stable; i++) {
+                            if (index.get("S" + i) != i) {
+                                errors++;
+                            }
+                        }
+                    }
+                    return errors;
+                }));
+            }
+            // Churn grows the table several times and reuses removed entries
+            for (int i = 0; i < 20_000; i++) {
+                index.put("C" + i, -i);
+                if (i >= 100) {
+                    index.remove("C" + (i - 100));
+                }
+            }
+            done.set(true);
+            for (Future<Long> future : wrong) {
+                assertThat(future.get(30, TimeUnit.SECONDS)).isZero();
+            }
+        } finally {
+            done.set(true);
+            readers.shutdownNow();
+        }
+        assertThat(index.size()).isEqualTo(stable + 100);
+    }
+    
+    @Example
+    @Label("Barcodes longer than 65535 UTF-8 bytes are rejected")
+    void rejectsOversizedBarcodes() {
+        BarcodeIndex index = new BarcodeIndex();
+        String tooLong = "é".repeat(40_000);
+        
+        assertThatThrownBy(() -> index.put(tooLong, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(index.get(tooLong)).isEqualTo(BarcodeIndex.ABSENT);
+        assertThat(index.size()).isZero();
+    }
+    
+    @Provide
+    Arbitrary<List<Operation>> operations() {
+        // A small key space (ASCII and non-ASCII, empty included) makes overwrites, removes of
+        // present keys and long probe runs likely
+        Arbitrary<String> barcodes = Arbitraries.oneOf(
+                Arbitraries.integers().between(0, 40).map(i -> "690" + i),
+                Arbitraries.strings().withChars("aé条码1").ofMinLength(0).ofMaxLength(3));
+        Arbitrary<Operation> operation = Combinators.combine(
+                Arbitraries.integers().between(0, 2), barcodes, Arbitraries.longs().between(0, 1_000_000))
+                .as((kind, barcode, productId) -> new Operation(kind != 0, barcode, productId));
+        return operation.list().ofMaxSize(300);
+    }
+}
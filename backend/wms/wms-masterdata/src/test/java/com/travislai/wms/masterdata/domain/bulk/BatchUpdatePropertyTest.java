@@ -0,0 +1,182 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.service.OwnerService;
+import net.jqwik.api.*;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for batch owner updates
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-test.sql",
+    "spring.main.allow-bean-definition-overriding=true",
+    "wms.masterdata.bulk.update-chunk-size=3"
+})
+class BatchUpdatePropertyTest {
+    
+    /**
+     * How an item of the generated batch relates to the database
+     */
+    enum Kind { CURRENT, STALE, DELETED, MISSING, TAKEN_CODE }
+    
+    @Autowired
+    private OwnerService ownerService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Each item gets the status its row calls for, only UPDATED items change the database, and
+     * other items in the same chunk are unaffected
+     */
+    @Property(tries = 30)
+    @Label("Batch update reports each item and applies only current versions")
+    @Transactional
+    void batchUpdateAppliesOnlyCurrentVersions(@ForAll("kinds") List<Kind> kinds) {
+        String prefix = "BU" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        Owner taken = create(prefix + "T", "Taken");
+        
+        List<Owner> owners = new ArrayList<>();
+        List<OwnerUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < kinds.size(); i++) {
+            Owner owner = create(prefix + i, "Owner " + i);
+            owners.add(owner);
+            switch (kinds.get(i)) {
+                case CURRENT -> updates.add(new OwnerUpdate(owner.getId(), owner.getVersion(), null, "Renamed " + i));
+                case STALE -> updates.add(new OwnerUpdate(owner.getId(), owner.getVersion() + 1, null, "Renamed " + i));
+                case DELETED -> {
+                    ownerService.deleteOwner(owner.getId());
+                    updates.add(new OwnerUpdate(owner.getId(), owner.getVersion(), null, "Renamed " + i));
+                }
+                case MISSING -> updates.add(new OwnerUpdate(owner.getId() + 1_000_000, 0, null, "Renamed " + i));
+                case TAKEN_CODE -> updates.add(new OwnerUpdate(owner.getId(), owner.getVersion(), taken.getCode(), null));
+            }
+        }
+        
+        UpdateResult result = ownerService.updateOwners(updates, false);
+        
+        assertThat(result.rolledBack()).isFalse();
+        assertThat(result.rows()).hasSize(kinds.size());
+        for (int i = 0; i < kinds.size(); i++) {
+            UpdateResult.RowResult row = result.rows().get(i);
+            Owner owner = owners.get(i);
+            assertThat(row.id()).isEqualTo(updates.get(i).id());
+            switch (kinds.get(i)) {
+                case CURRENT -> {
+                    assertThat(row.status()).isEqualTo(UpdateResult.Status.UPDATED);
+                    Owner saved = read(owner.getId());
+                    assertThat(saved.getName()).isEqualTo("Renamed " + i);
+                    assertThat(saved.getCode()).isEqualTo(owner.getCode());
+                    assertThat(saved.getVersion()).isEqualTo(owner.getVersion() + 1).isEqualTo(row.version());
+                }
+                case STALE -> {
+                    assertThat(row.status()).isEqualTo(UpdateResult.Status.VERSION_CONFLICT);
+                    assertThat(row.version()).isEqualTo(owner.getVersion());
+                    assertThat(read(owner.getId()).getName()).isEqualTo("Owner " + i);
+                }
+                case DELETED, MISSING -> assertThat(row.status()).isEqualTo(UpdateResult.Status.NOT_FOUND);
+                case TAKEN_CODE -> {
+                    assertThat(row.status()).isEqualTo(UpdateResult.Status.REJECTED);
+                    assertThat(read(owner.getId()).getCode()).isEqualTo(owner.getCode());
+                }
+            }
+        }
+        assertThat(result.updated()).isEqualTo(kinds.stream().filter(kind -> kind == Kind.CURRENT).count());
+        assertThat(result.failed()).isEqualTo(kinds.size() - result.updated());
+    }
+    
+    /**
+     * An atomic batch changes nothing unless every item can be applied
+     */
+    @Property(tries = 30)
+    @Label("Atomic batch update is all or nothing")
+    @Transactional
+    void atomicBatchIsAllOrNothing(@ForAll("kinds") List<Kind> kinds) {
+        String prefix = "BA" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        List<Owner> owners = new ArrayList<>();
+        List<OwnerUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < kinds.size(); i++) {
+            Owner owner = create(prefix + i, "Owner " + i);
+            owners.add(owner);
+            int version = kinds.get(i) == Kind.CURRENT ? owner.getVersion() : owner.getVersion() + 1;
+            updates.add(new OwnerUpdate(owner.getId(), version, prefix + "N" + i, null));
+        }
+        boolean allCurrent = kinds.stream().allMatch(kind -> kind == Kind.CURRENT);
+        
+        UpdateResult result = ownerService.updateOwners(updates, true);
+        
+        assertThat(result.rolledBack()).isEqualTo(!allCurrent);
+        assertThat(result.updated()).isEqualTo(allCurrent ? kinds.size() : 0);
+        for (int i = 0; i < kinds.size(); i++) {
+            Owner saved = read(owners.get(i).getId());
+            assertThat(saved.getCode()).isEqualTo(allCurrent ? prefix + "N" + i : prefix + i);
+            UpdateResult.Status expected = kinds.get(i) != Kind.CURRENT ? UpdateResult.Status.VERSION_CONFLICT
+                    : allCurrent ? UpdateResult.Status.UPDATED : UpdateResult.Status.ROLLED_BACK;
+            assertThat(result.rows().get(i).status()).isEqualTo(expected);
+        }
+    }
+    
+    /**
+     * Invalid and repeated items are rejected without touching the database
+     */
+    @Example
+    @Label("Invalid and repeated items are rejected")
+    @Transactional
+    void invalidItemsAreRejected() {
+        Owner owner = create("BV" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase(), "Valid");
+        
+        UpdateResult result = ownerService.updateOwners(List.of(
+                new OwnerUpdate(owner.getId(), owner.getVersion(), null, "Renamed"),
+                new OwnerUpdate(owner.getId(), owner.getVersion(), null, "Again"),
+                new OwnerUpdate(owner.getId() + 1, null, null, "No version"),
+                new OwnerUpdate(owner.getId() + 2, 0, null, null),
+                new OwnerUpdate(owner.getId() + 3, 0, " ", null)), false);
+        
+        assertThat(result.rows()).extracting(UpdateResult.RowResult::status).containsExactly(
+                UpdateResult.Status.UPDATED, UpdateResult.Status.REJECTED, UpdateResult.Status.REJECTED,
+                UpdateResult.Status.REJECTED, UpdateResult.Status.REJECTED);
+        assertThat(result.rows().get(1).message()).isEqualTo("Duplicate of item 1 in this batch");
+        assertThat(result.rows().get(3).message()).isEqualTo("No fields to update");
+        assertThat(read(owner.getId()).getName()).isEqualTo("Renamed");
+    }
+    
+    @Provide
+    Arbitrary<List<Kind>> kinds() {
+        return Arbitraries.of(Kind.class).list().ofMinSize(1).ofMaxSize(12);
+    }
+    
+    private Owner create(String code, String name) {
+        Owner owner = new Owner();
+        owner.setCode(code);
+        owner.setName(name);
+        return read(ownerService.createOwner(owner).getId());
+    }
+    
+    /**
+     * Read around the MyBatis session cache, which does not see JDBC batch updates in the same transaction
+     */
+    private Owner read(Long id) {
+        return jdbcTemplate.queryForObject("SELECT * FROM wms_owner WHERE id = ?",
+                new BeanPropertyRowMapper<>(Owner.class), id);
+    }
+}
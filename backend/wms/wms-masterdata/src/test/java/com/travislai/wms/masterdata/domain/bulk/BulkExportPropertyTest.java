@@ -0,0 +1,147 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.exception.ServiceBusyException;
+import com.travislai.wms.masterdata.domain.service.OwnerService;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property-based tests for streaming export
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-test.sql",
+    "spring.main.allow-bean-definition-overriding=true",
+    "wms.masterdata.bulk.max-concurrent-exports=2"
+})
+class BulkExportPropertyTest {
+    
+    /**
+     * Far enough in the past that no other test data falls into the exported ranges
+     */
+    private static final LocalDateTime BASE = LocalDateTime.of(2001, 1, 1, 0, 0);
+    
+    @Autowired
+    private OwnerService ownerService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BulkExporter bulkExporter;
+    
+    /**
+     * Exporting a modification-time range and reading the output back yields exactly the owners
+     * modified in that range, in id order, with their text intact in either format
+     */
+    @Property(tries = 30)
+    @Label("Export of a modification range reads back as exactly the owners in it")
+    @Transactional
+    void exportReadsBackAsOwnersInRange(
+            @ForAll("names") List<String> names,
+            @ForAll @IntRange(min = 0, max = 20) int from,
+            @ForAll @IntRange(min = 1, max = 10) int length,
+            @ForAll BulkFormat format) throws Exception {
+        
+        String prefix = "EX" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        List<Owner> expected = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            Owner owner = new Owner();
+            owner.setCode(prefix + i);
+            owner.setName(names.get(i));
+            ownerService.createOwner(owner);
+            // Owner i was last modified i minutes after BASE
+            jdbcTemplate.update("UPDATE wms_owner SET update_date = ? WHERE id = ?",
+                    Timestamp.valueOf(BASE.plusMinutes(i)), owner.getId());
+            if (i >= from && i < from + length) {
+                expected.add(owner);
+            }
+        }
+        
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long written = ownerService.exportOwners(output, format,
+                BASE.plusMinutes(from), BASE.plusMinutes(from + length));
+        
+        List<RecordReader.Record> records = new ArrayList<>();
+        RecordReader reader = RecordReader.open(new ByteArrayInputStream(output.toByteArray()), format, objectMapper,
+                Integer.MAX_VALUE);
+        for (RecordReader.Record record = reader.next(); record != null; record = reader.next()) {
+            records.add(record);
+        }
+        
+        assertThat(written).isEqualTo(expected.size());
+        assertThat(records).allSatisfy(record -> assertThat(record.error()).isNull());
+        assertThat(records).extracting(record -> Long.valueOf(record.fields().get("id")))
+            .containsExactlyElementsOf(expected.stream().map(Owner::getId).toList());
+        assertThat(records).extracting(record -> record.fields().get("name"))
+            .containsExactlyElementsOf(expected.stream().map(Owner::getName).toList());
+    }
+    
+    /**
+     * An empty or inverted range is rejected before anything is written
+     */
+    @Example
+    @Label("Inverted modification range is rejected")
+    void invertedRangeIsRejected() {
+        assertThatThrownBy(() -> ownerService.exportOwners(new ByteArrayOutputStream(), BulkFormat.CSV,
+                BASE.plusDays(1), BASE))
+            .isInstanceOf(com.travislai.wms.masterdata.domain.exception.BusinessException.class);
+    }
+    
+    /**
+     * No more than max-concurrent-exports slots are handed out; a closed slot can be taken again,
+     * and closing it twice frees it only once
+     */
+    @Example
+    @Label("Concurrent exports are limited")
+    void concurrentExportsAreLimited() {
+        List<BulkExporter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            permits.add(bulkExporter.reserve());
+        }
+        
+        assertThatThrownBy(() -> bulkExporter.reserve()).isInstanceOf(ServiceBusyException.class);
+        permits.get(0).close();
+        permits.get(0).close();
+        BulkExporter.Permit again = bulkExporter.reserve();
+        assertThatThrownBy(() -> bulkExporter.reserve()).isInstanceOf(ServiceBusyException.class);
+        
+        again.close();
+        permits.get(1).close();
+    }
+    
+    @Provide
+    Arbitrary<List<String>> names() {
+        return Arbitraries.strings().withChars("ab ,\"\n").ofMinLength(1).ofMaxLength(12)
+            .filter(name -> !name.isBlank())
+            .list().ofMaxSize(25);
+    }
+}
@@ -0,0 +1,238 @@
+package com.travislai.wms.masterdata.domain.bulk;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.entity.Product;
+import com.travislai.wms.masterdata.domain.mapper.OwnerMapper;
+import com.travislai.wms.masterdata.domain.mapper.ProductMapper;
+import com.travislai.wms.masterdata.domain.service.OwnerService;
+import com.travislai.wms.masterdata.domain.service.ProductService;
+import net.jqwik.api.*;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for streaming bulk import
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-test.sql",
+    "spring.main.allow-bean-definition-overriding=true",
+    // Small chunks so inputs span several of them
+    "wms.masterdata.bulk.import-chunk-size=7",
+    "wms.masterdata.bulk.max-record-chars=200"
+})
+class BulkImportPropertyTest {
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OwnerMapper ownerMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * A row is imported exactly when it is valid and its code is neither in the table nor on an
+     * earlier row of the input, wherever chunk boundaries fall; every other row is reported
+     */
+    @Property(tries = 30)
+    @Label("Owner import accepts exactly the valid, new codes and reports the rest")
+    @Transactional
+    void ownerImportMatchesModel(
+            @ForAll("ownerRows") List<String[]> rows,
+            @ForAll("existingCodes") Set<Integer> existing,
+            @ForAll BulkFormat format) throws Exception {
+
+        String prefix = "BI" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        Set<String> seen = new HashSet<>();
+        for (int code : existing) {
+            Owner owner = new Owner();
+            owner.setCode(prefix + code);
+            owner.setName("Existing " + code);
+            ownerService.createOwner(owner);
+            seen.add(owner.getCode());
+        }
+
+        List<Map<String, String>> records = new ArrayList<>();
+        Map<String, String> expected = new LinkedHashMap<>();
+        Set<Long> expectedFailures = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            String code = prefix + rows.get(i)[0];
+            String name = rows.get(i)[1];
+            records.add(Map.of("code", code, "name", name));
+            if (name.isBlank() || name.strip().length() > 100 || !seen.add(code)) {
+                expectedFailures.add(i + 1L);
+            } else {
+                expected.put(code, name.strip());
+            }
+        }
+
+        ImportResult result = ownerService.importOwners(body(records, format, List.of("code", "name")), format);
+
+        assertThat(result.total()).isEqualTo(rows.size());
+        assertThat(result.imported()).isEqualTo(expected.size());
+        assertThat(result.failed()).isEqualTo(expectedFailures.size());
+        assertThat(result.errors()).extracting(ImportResult.RowError::row)
+            .containsExactlyInAnyOrderElementsOf(expectedFailures);
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            Owner owner = ownerMapper.selectOne(new LambdaQueryWrapper<Owner>().eq(Owner::getCode, entry.getKey()));
+            assertThat(owner).isNotNull();
+            assertThat(owner.getName()).isEqualTo(entry.getValue());
+            assertThat(owner.getCreateDate()).isNotNull();
+        }
+    }
+
+    /**
+     * Product rows resolve owners and categories by code; unknown references, duplicates and
+     * unparsable values fail only their own row
+     */
+    @Example
+    @Label("Product import resolves references and reports per-row errors")
+    @Transactional
+    void productImportReportsPerRowErrors() throws Exception {
+        String prefix = "PI" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        Owner owner = new Owner();
+        owner.setCode(prefix);
+        owner.setName("Product owner");
+        ownerService.createOwner(owner);
+
+        String csv = """
+                ownerCode,categoryCode,code,name,unit,shelfLifeDays,spec
+                %1$s,,P1,"Widget, large",EA,30,"multi
+                line ""spec\"""
+                %1$s,,P2,Gadget,EA,,
+                %1$s,,P1,Widget again,EA,,
+                NOPE%1$s,,P3,Orphan,EA,,
+                %1$s,MISSING,P4,Uncategorised,EA,,
+                %1$s,,P5,Bad shelf life,EA,soon,
+                %1$s,,P6,No unit,,,
+                """.formatted(prefix);
+
+        ImportResult result = productService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkFormat.CSV);
+
+        assertThat(result.total()).isEqualTo(7);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ImportResult.RowError::row).containsExactly(3L, 4L, 5L, 6L, 7L);
+        List<Product> products = productMapper.selectList(
+                new LambdaQueryWrapper<Product>().eq(Product::getOwnerId, owner.getId()).orderByAsc(Product::getCode));
+        assertThat(products).extracting(Product::getCode).containsExactly("P1", "P2");
+        assertThat(products.get(0).getName()).isEqualTo("Widget, large");
+        assertThat(products.get(0).getSpec()).isEqualTo("multi\nline \"spec\"");
+        assertThat(products.get(0).getShelfLifeDays()).isEqualTo(30);
+    }
+
+    /**
+     * An unterminated quote stops the import without reading the rest of the input into one field;
+     * rows of chunks committed before it are kept and reported
+     */
+    @Example
+    @Label("Unterminated CSV quote keeps earlier chunks and reports why the import stopped")
+    @Transactional
+    void unterminatedQuoteReturnsPartialResult() {
+        String prefix = "UQ" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        StringBuilder csv = new StringBuilder("code,name\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append(prefix).append(i).append(",Owner ").append(i).append('\n');
+        }
+        csv.append(prefix).append("X,\"never closed\n");
+        csv.append("x".repeat(150)).append('\n').append("x".repeat(150)).append('\n');
+
+        ImportResult result = ownerService.importOwners(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), BulkFormat.CSV);
+
+        assertThat(result.imported()).isEqualTo(10);
+        assertThat(result.total()).isEqualTo(11);
+        assertThat(result.errors()).extracting(ImportResult.RowError::row).containsExactly(11L);
+        assertThat(result.aborted()).contains("200 characters");
+        assertThat(ownerMapper.selectCount(new LambdaQueryWrapper<Owner>().likeRight(Owner::getCode, prefix)))
+            .isEqualTo(10);
+    }
+
+    /**
+     * An NDJSON line over the record limit fails only its own row; reading resumes at the next line
+     */
+    @Example
+    @Label("Overlong NDJSON line is rejected and the import continues")
+    @Transactional
+    void overlongNdjsonLineIsRejected() {
+        String prefix = "OL" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        String ndjson = """
+                {"code":"%1$s1","name":"One"}
+                {"code":"%1$s2","name":"%2$s"}
+                {"code":"%1$s3","name":"Three"}
+                """.formatted(prefix, "n".repeat(500));
+
+        ImportResult result = ownerService.importOwners(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), BulkFormat.NDJSON);
+
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ImportResult.RowError::row).containsExactly(2L);
+        assertThat(result.aborted()).isNull();
+    }
+
+    @Provide
+    Arbitrary<List<String[]>> ownerRows() {
+        Arbitrary<String> code = Arbitraries.integers().between(0, 15).map(String::valueOf);
+        Arbitrary<String> name = Arbitraries.oneOf(
+            Arbitraries.strings().withChars("ab ,\"").ofMinLength(0).ofMaxLength(12),
+            Arbitraries.strings().alpha().ofLength(101));
+        return Combinators.combine(code, name).as((c, n) -> new String[] {c, n}).list().ofMaxSize(30);
+    }
+
+    @Provide
+    Arbitrary<Set<Integer>> existingCodes() {
+        return Arbitraries.integers().between(0, 15).set().ofMaxSize(4);
+    }
+
+    private ByteArrayInputStream body(List<Map<String, String>> records, BulkFormat format, List<String> columns)
+            throws Exception {
+        StringBuilder body = new StringBuilder();
+        if (format == BulkFormat.CSV) {
+            body.append(String.join(",", columns)).append('\n');
+            for (Map<String, String> record : records) {
+                List<String> values = new ArrayList<>();
+                for (String column : columns) {
+                    values.add('"' + record.get(column).replace("\"", "\"\"") + '"');
+                }
+                body.append(String.join(",", values)).append('\n');
+            }
+        } else {
+            for (Map<String, String> record : records) {
+                body.append(objectMapper.writeValueAsString(record)).append('\n');
+            }
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,209 @@
+package com.travislai.wms.masterdata.domain.cache;
+
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for the owner read-through cache
+ */
+class OwnerCachePropertyTest {
+    
+    /**
+     * An operation against the simulated table: read by id or code, rename (a write that bumps the
+     * version) or delete
+     */
+    record Operation(int kind, long id) {}
+    
+    /**
+     * With every write invalidated, reads by id and by code always return what the table holds,
+     * and the cache never grows past its bound
+     */
+    @Property(tries = 200)
+    @Label("Cache reads agree with the table after any writes")
+    void readsAgreeWithTable(@ForAll("operations") List<Operation> operations,
+                             @ForAll @IntRange(min = 1, max = 6) int maxSize) {
+        OwnerCache cache = new OwnerCache(maxSize, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        Map<Long, Owner> table = new HashMap<>();
+        for (long id = 1; id <= 8; id++) {
+            table.put(id, owner(id, "C" + id, 1));
+        }
+        int renames = 0;
+        
+        for (Operation op : operations) {
+            Owner current = table.get(op.id());
+            switch (op.kind()) {
+                case 0 -> assertSame(cache.getById(op.id(), () -> copy(table.get(op.id()))), current);
+                case 1 -> {
+                    String code = current != null ? current.getCode() : "C" + op.id();
+                    Owner byCode = cache.getByCode(code, () -> table.values().stream()
+                            .filter(owner -> owner.getCode().equals(code)).findFirst().map(OwnerCachePropertyTest::copy)
+                            .orElse(null));
+                    assertSame(byCode, current);
+                }
+                case 2 -> {
+                    if (current != null) {
+                        Owner renamed = owner(op.id(), "R" + renames++, current.getVersion() + 1);
+                        table.put(op.id(), renamed);
+                        cache.invalidate(op.id(), renamed.getVersion(), false);
+                    }
+                }
+                default -> {
+                    if (table.remove(op.id()) != null) {
+                        cache.invalidate(op.id(), OwnerCache.DELETED, false);
+                    }
+                }
+            }
+            assertThat(cache.size()).isLessThanOrEqualTo(maxSize);
+        }
+    }
+    
+    /**
+     * A load that read the row before a write committed must not put the old row back
+     */
+    @Example
+    @Label("A load overtaken by an invalidation is not cached")
+    void overtakenLoadIsNotCached() {
+        OwnerCache cache = new OwnerCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        Owner[] row = {owner(1L, "OLD", 1)};
+        
+        Owner loaded = cache.getById(1L, () -> {
+            Owner before = copy(row[0]);
+            // The write commits and its invalidation arrives while this load is in flight
+            row[0] = owner(1L, "NEW", 2);
+            cache.invalidate(1L, 2, true);
+            return before;
+        });
+        
+        assertThat(loaded.getCode()).isEqualTo("OLD");
+        assertThat(cache.getById(1L, () -> copy(row[0])).getCode()).isEqualTo("NEW");
+        assertThat(cache.getByCode("OLD", () -> null)).isNull();
+    }
+    
+    /**
+     * A write that leaves the version unchanged (manual SQL) still drops the entry when its
+     * notification arrives; a local invalidation at the cached version does not
+     */
+    @Example
+    @Label("A notification at the cached version drops the entry")
+    void notificationAtSameVersionDropsEntry() {
+        OwnerCache cache = new OwnerCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        Owner[] row = {owner(1L, "OLD", 3)};
+        cache.getById(1L, () -> copy(row[0]));
+        
+        cache.invalidate(1L, 3, false);
+        assertThat(cache.getById(1L, () -> owner(1L, "UNUSED", 3)).getCode()).isEqualTo("OLD");
+        
+        row[0] = owner(1L, "NEW", 3);
+        cache.invalidate(1L, 3, true);
+        
+        assertThat(cache.getById(1L, () -> copy(row[0])).getCode()).isEqualTo("NEW");
+        assertThat(cache.getByCode("OLD", () -> null)).isNull();
+    }
+    
+    /**
+     * Concurrent misses for one owner are served by a single load
+     */
+    @Example
+    @Label("Concurrent misses share one load")
+    void concurrentMissesShareOneLoad() throws Exception {
+        OwnerCache cache = new OwnerCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 16;
+        CountDownLatch started = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Owner>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return cache.getById(7L, () -> {
+                        loads.incrementAndGet();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return owner(7L, "C7", 1);
+                    });
+                }));
+            }
+            started.await(5, TimeUnit.SECONDS);
+            // Let the waiting callers reach the in-flight load before it completes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Owner> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getCode()).isEqualTo("C7");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+    }
+    
+    /**
+     * Hits and misses are counted and returned owners are copies
+     */
+    @Example
+    @Label("Hit ratio is reported and cached owners cannot be changed by callers")
+    void reportsHitRatioAndReturnsCopies() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OwnerCache cache = new OwnerCache(100, Duration.ofMinutes(10), registry);
+        
+        cache.getById(1L, () -> owner(1L, "C1", 1)).setName("changed by caller");
+        Owner cached = cache.getById(1L, () -> null);
+        cache.getById(1L, () -> null);
+        cache.getByCode("C1", () -> null);
+        
+        assertThat(cached.getName()).isEqualTo("Owner C1");
+        assertThat(registry.get("masterdata.owner.cache.hit.ratio").gauge().value()).isEqualTo(0.75);
+        assertThat(registry.get("masterdata.owner.cache.entry.age").timer().count()).isEqualTo(3);
+    }
+    
+    @Provide
+    Arbitrary<List<Operation>> operations() {
+        return Combinators.combine(Arbitraries.integers().between(0, 3), Arbitraries.longs().between(1, 8))
+            .as(Operation::new)
+            .list().ofMaxSize(60);
+    }
+    
+    private static void assertSame(Owner actual, Owner expected) {
+        if (expected == null) {
+            assertThat(actual).isNull();
+            return;
+        }
+        assertThat(actual).isNotNull();
+        assertThat(actual.getId()).isEqualTo(expected.getId());
+        assertThat(actual.getCode()).isEqualTo(expected.getCode());
+        assertThat(actual.getVersion()).isEqualTo(expected.getVersion());
+    }
+    
+    private static Owner owner(Long id, String code, int version) {
+        Owner owner = new Owner();
+        owner.setId(id);
+        owner.setCode(code);
+        owner.setName("Owner " + code);
+        owner.setVersion(version);
+        return owner;
+    }
+    
+    private static Owner copy(Owner owner) {
+        return owner == null ? null : owner(owner.getId(), owner.getCode(), owner.getVersion());
+    }
+}
@@ -0,0 +1,85 @@
+package com.travislai.wms.masterdata.domain.search;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for the in-memory trigram index
+ */
+class NgramIndexPropertyTest {
+
+    /**
+     * After any sequence of puts and removes, with or without compaction, a search returns the
+     * same ids in the same order as ranking every live record by brute force
+     */
+    @Property(tries = 200)
+    @Label("Index search matches a brute-force scan")
+    void searchMatchesBruteForce(
+            @ForAll("operations") List<Operation> operations,
+            @ForAll("keyword") String keyword,
+            @ForAll boolean compact,
+            @ForAll @IntRange(min = 0, max = 5) int offset,
+            @ForAll @IntRange(min = 1, max = 10) int limit) {
+
+        NgramIndex index = new NgramIndex();
+        Map<Long, String[]> live = new LinkedHashMap<>();
+        for (Operation op : operations) {
+            if (op.remove()) {
+                index.remove(op.id());
+                live.remove(op.id());
+            } else {
+                index.put(op.id(), op.code(), op.name());
+                live.put(op.id(), new String[] {op.code(), op.name()});
+            }
+        }
+        if (compact) {
+            index.compact();
+        }
+
+        String query = NgramIndex.normalize(keyword);
+        List<long[]> expected = new ArrayList<>();
+        live.forEach((id, text) -> {
+            int rank = NgramIndex.rank(NgramIndex.normalize(text[0]), NgramIndex.normalize(text[1]), query);
+            if (rank >= 0 && !query.isEmpty()) {
+                expected.add(new long[] {rank, id});
+            }
+        });
+        expected.sort(Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+        List<Long> expectedIds = expected.stream().map(e -> e[1]).toList();
+
+        NgramIndex.Result result = index.search(keyword, offset, limit);
+
+        assertThat(index.size()).isEqualTo(live.size());
+        assertThat(result.total()).isEqualTo(expectedIds.size());
+        assertThat(result.ids()).containsExactlyElementsOf(
+                expectedIds.subList(Math.min(offset, expectedIds.size()), Math.min(offset + limit, expectedIds.size())));
+    }
+
+    @Provide
+    Arbitrary<List<Operation>> operations() {
+        Arbitrary<String> text = Arbitraries.strings().withChars("aAbBc ").ofMinLength(1).ofMaxLength(8);
+        Arbitrary<Operation> operation = Combinators.combine(
+                Arbitraries.longs().between(1, 20),
+                text,
+                text,
+                Arbitraries.integers().between(0, 4).map(i -> i == 0))
+            .as(Operation::new);
+        return operation.list().ofMaxSize(40);
+    }
+
+    @Provide
+    Arbitrary<String> keyword() {
+        return Arbitraries.strings().withChars("aAbBc ").ofMinLength(0).ofMaxLength(4);
+    }
+
+    record Operation(long id, String code, String name, boolean remove) {
+    }
+}
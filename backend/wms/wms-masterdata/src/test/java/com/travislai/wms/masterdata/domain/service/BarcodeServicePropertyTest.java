@@ -0,0 +1,223 @@
+package com.travislai.wms.masterdata.domain.service;
+
+import com.travislai.wms.masterdata.domain.barcode.BarcodeResolver;
+import com.travislai.wms.masterdata.domain.entity.Barcode;
+import com.travislai.wms.masterdata.domain.exception.BusinessException;
+import com.travislai.wms.masterdata.domain.exception.ResourceNotFoundException;
+import com.travislai.wms.masterdata.domain.exception.UniqueConstraintViolationException;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property-based tests for barcode writes and barcode to product resolution
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-test.sql",
+    "spring.main.allow-bean-definition-overriding=true"
+})
+class BarcodeServicePropertyTest {
+    
+    @Autowired
+    private BarcodeService barcodeService;
+    
+    @Autowired
+    private BarcodeResolver barcodeResolver;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Create (kind 0), move to another product (kind 1) or delete (kind 2) the barcode at {@code target}
+     */
+    record Operation(int kind, int target, int product) {}
+    
+    /**
+     * With every write committed, single and batch resolution from the in-memory index agree with
+     * the table after any creates, moves and deletes; unknown barcodes resolve to nothing
+     */
+    @Property(tries = 15)
+    @Label("Resolution agrees with the table after committed writes")
+    void resolutionAgreesWithTable(@ForAll("operations") List<Operation> operations) {
+        String prefix = uniquePrefix();
+        String ownerCode = prefix.substring(0, 12);
+        List<Long> products = new ArrayList<>();
+        try {
+            jdbcTemplate.update("INSERT INTO wms_owner (code, name) VALUES (?, ?)", ownerCode, "Barcode owner");
+            Long ownerId = jdbcTemplate.queryForObject("SELECT id FROM wms_owner WHERE code = ?", Long.class, ownerCode);
+            for (int i = 0; i < 3; i++) {
+                jdbcTemplate.update("INSERT INTO wms_product (owner_id, code, name, unit) VALUES (?, ?, ?, 'EA')",
+                        ownerId, "P" + i, "Product " + i);
+                products.add(jdbcTemplate.queryForObject(
+                        "SELECT id FROM wms_product WHERE owner_id = ? AND code = ?", Long.class, ownerId, "P" + i));
+            }
+            assertThat(barcodeResolver.isReady()).isTrue();
+            
+            List<String> barcodes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                barcodes.add(prefix + i);
+            }
+            for (Operation op : operations) {
+                apply(op, prefix + op.target(), products.get(op.product()));
+                
+                List<Long> resolved = barcodeService.resolveAll(barcodes);
+                for (int i = 0; i < barcodes.size(); i++) {
+                    Long expected = activeProduct(barcodes.get(i));
+                    assertThat(resolved.get(i)).isEqualTo(expected);
+                    if (expected != null) {
+                        assertThat(barcodeService.resolve(barcodes.get(i))).isEqualTo(expected);
+                    } else {
+                        String barcode = barcodes.get(i);
+                        assertThatThrownBy(() -> barcodeService.resolve(barcode))
+                            .isInstanceOf(ResourceNotFoundException.class);
+                    }
+                }
+            }
+        } finally {
+            jdbcTemplate.update("DELETE FROM wms_barcode WHERE barcode LIKE ?", prefix + "%");
+            jdbcTemplate.update("DELETE FROM wms_product WHERE owner_id IN (SELECT id FROM wms_owner WHERE code = ?)",
+                    ownerCode);
+            jdbcTemplate.update("DELETE FROM wms_owner WHERE code = ?", ownerCode);
+        }
+    }
+    
+    /**
+     * An update with the current version moves the barcode and keeps its text; any other version
+     * is a conflict, and missing or deleted barcodes are not found
+     */
+    @Property(tries = 20)
+    @Label("Barcode update succeeds only with the current version")
+    @Transactional
+    void updateSucceedsOnlyWithCurrentVersion(@ForAll @IntRange(min = -2, max = 2) int versionOffset,
+                                              @ForAll boolean deleted) {
+        Long product = createProduct();
+        Long other = createProduct();
+        Barcode created = create(uniquePrefix(), product);
+        Barcode stored = barcodeService.getById(created.getId());
+        int version = stored.getVersion() + versionOffset;
+        Long id = stored.getId();
+        if (deleted) {
+            barcodeService.deleteBarcode(id);
+            assertThatThrownBy(() -> barcodeService.updateBarcode(id, changes(other, version)))
+                .isInstanceOf(ResourceNotFoundException.class);
+            assertThatThrownBy(() -> barcodeService.deleteBarcode(id))
+                .isInstanceOf(ResourceNotFoundException.class);
+        } else if (versionOffset == 0) {
+            Barcode updated = barcodeService.updateBarcode(id, changes(other, version));
+            assertThat(updated.getVersion()).isEqualTo(version + 1);
+            assertThat(updated.getBarcode()).isEqualTo(stored.getBarcode());
+            assertThat(barcodeService.resolve(stored.getBarcode())).isEqualTo(other);
+        } else {
+            assertThatThrownBy(() -> barcodeService.updateBarcode(id, changes(other, version)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+            assertThat(barcodeService.resolve(stored.getBarcode())).isEqualTo(product);
+        }
+    }
+    
+    @Example
+    @Label("Barcodes are unique, even after deletion, and need an active product")
+    @Transactional
+    void barcodesAreUniqueAndNeedActiveProduct() {
+        Long product = createProduct();
+        Barcode deleted = create(uniquePrefix(), product);
+        barcodeService.deleteBarcode(deleted.getId());
+        
+        assertThatThrownBy(() -> create(deleted.getBarcode(), product))
+            .isInstanceOf(UniqueConstraintViolationException.class);
+        assertThatThrownBy(() -> create(uniquePrefix(), product + 1_000_000))
+            .isInstanceOf(BusinessException.class);
+    }
+    
+    private void apply(Operation op, String barcode, Long productId) {
+        Long id = jdbcTemplate.query("SELECT id FROM wms_barcode WHERE barcode = ? AND delete_flag = 0",
+                rs -> rs.next() ? rs.getLong(1) : null, barcode);
+        Integer version = id != null
+                ? jdbcTemplate.queryForObject("SELECT version FROM wms_barcode WHERE id = ?", Integer.class, id)
+                : null;
+        boolean exists = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wms_barcode WHERE barcode = ?",
+                Integer.class, barcode) > 0;
+        switch (op.kind()) {
+            case 0 -> {
+                if (!exists) {
+                    create(barcode, productId);
+                }
+            }
+            case 1 -> {
+                if (id != null) {
+                    barcodeService.updateBarcode(id, changes(productId, version));
+                }
+            }
+            default -> {
+                if (id != null) {
+                    barcodeService.deleteBarcode(id);
+                }
+            }
+        }
+    }
+    
+    private Long activeProduct(String barcode) {
+        return jdbcTemplate.query("SELECT product_id FROM wms_barcode WHERE barcode = ? AND delete_flag = 0",
+                rs -> rs.next() ? rs.getLong(1) : null, barcode);
+    }
+    
+    private Long createProduct() {
+        String code = uniquePrefix().substring(0, 12);
+        jdbcTemplate.update("INSERT INTO wms_owner (code, name) VALUES (?, ?)", code, "Barcode owner");
+        Long ownerId = jdbcTemplate.queryForObject("SELECT id FROM wms_owner WHERE code = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO wms_product (owner_id, code, name, unit) VALUES (?, 'P', 'Product', 'EA')",
+                ownerId);
+        return jdbcTemplate.queryForObject("SELECT id FROM wms_product WHERE owner_id = ?", Long.class, ownerId);
+    }
+    
+    private Barcode create(String text, Long productId) {
+        Barcode barcode = new Barcode();
+        barcode.setBarcode(text);
+        barcode.setProductId(productId);
+        barcode.setType("EAN13");
+        barcode.setIsPrimary(0);
+        return barcodeService.createBarcode(barcode);
+    }
+    
+    private static Barcode changes(Long productId, Integer version) {
+        Barcode barcode = new Barcode();
+        barcode.setProductId(productId);
+        barcode.setType("CODE128");
+        barcode.setIsPrimary(1);
+        barcode.setVersion(version);
+        return barcode;
+    }
+    
+    private static String uniquePrefix() {
+        return "BC" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
+    }
+    
+    @Provide
+    Arbitrary<List<Operation>> operations() {
+        return Combinators.combine(
+                Arbitraries.integers().between(0, 2),
+                Arbitraries.integers().between(0, 7),
+                Arbitraries.integers().between(0, 2))
+            .as(Operation::new)
+            .list().ofMinSize(1).ofMaxSize(25);
+    }
+}
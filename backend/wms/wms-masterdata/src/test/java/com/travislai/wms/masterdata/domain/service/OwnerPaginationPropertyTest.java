@@ -0,0 +1,163 @@
+package com.travislai.wms.masterdata.domain.service;
+
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.pagination.KeysetPage;
+import com.travislai.wms.masterdata.domain.pagination.OffsetPage;
+import com.travislai.wms.masterdata.domain.pagination.TotalMode;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for offset and keyset pagination of owners
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-test.sql",
+    "spring.main.allow-bean-definition-overriding=true"
+})
+class OwnerPaginationPropertyTest {
+
+    @Autowired
+    private OwnerService ownerService;
+
+    /**
+     * Walking keyset slices returns every matching owner exactly once, in id order,
+     * and agrees with LIMIT/OFFSET pages of the same size.
+     */
+    @Property(tries = 20)
+    @Label("Keyset slices and offset pages cover the same owners in id order")
+    @Transactional
+    void keysetAndOffsetPagesCoverAllOwners(
+            @ForAll @IntRange(min = 0, max = 30) int count,
+            @ForAll @IntRange(min = 1, max = 7) int size) {
+
+        String prefix = "PG" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase();
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Owner owner = new Owner();
+            owner.setCode(prefix + i);
+            owner.setName("Owner " + i);
+            created.add(ownerService.createOwner(owner).getId());
+        }
+
+        List<Long> keyset = new ArrayList<>();
+        Long after = null;
+        KeysetPage<Owner> slice;
+        do {
+            slice = ownerService.searchOwnersAfter(prefix, after, size);
+            assertThat(slice.records()).hasSizeLessThanOrEqualTo(size);
+            slice.records().forEach(owner -> keyset.add(owner.getId()));
+            after = slice.nextAfter();
+        } while (slice.hasNext());
+
+        List<Long> offset = new ArrayList<>();
+        int pages = (count + size - 1) / size;
+        for (int page = 1; page <= pages; page++) {
+            OffsetPage<Owner> result = ownerService.searchOwners(prefix, page, size, TotalMode.EXACT);
+            assertThat(result.total()).isEqualTo(count);
+            assertThat(result.records()).hasSizeLessThanOrEqualTo(size);
+            assertThat(result.hasNext()).isEqualTo(page < pages);
+            result.records().forEach(owner -> offset.add(owner.getId()));
+        }
+
+        assertThat(keyset).isSorted().containsExactlyElementsOf(created);
+        assertThat(offset).containsExactlyElementsOf(created);
+    }
+
+    /**
+     * Without an exact total, pages hold the same rows and still report whether a next page
+     * exists; estimates never undercount the rows already seen
+     */
+    @Property(tries = 20)
+    @Label("Estimated and omitted totals page like exact totals")
+    @Transactional
+    void estimatedAndOmittedTotalsPageLikeExact(
+            @ForAll @IntRange(min = 0, max = 30) int count,
+            @ForAll @IntRange(min = 1, max = 7) int size,
+            @ForAll @IntRange(min = 1, max = 6) int page) {
+
+        String prefix = "TM" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase();
+        for (int i = 0; i < count; i++) {
+            Owner owner = new Owner();
+            owner.setCode(prefix + i);
+            owner.setName("Owner " + i);
+            ownerService.createOwner(owner);
+        }
+
+        OffsetPage<Owner> exact = ownerService.searchOwners(prefix, page, size, TotalMode.EXACT);
+        OffsetPage<Owner> none = ownerService.searchOwners(prefix, page, size, TotalMode.NONE);
+        OffsetPage<Owner> estimate = ownerService.searchOwners(prefix, page, size, TotalMode.ESTIMATE);
+
+        assertThat(none.records()).isEqualTo(exact.records());
+        assertThat(estimate.records()).isEqualTo(exact.records());
+        assertThat(none.hasNext()).isEqualTo(exact.hasNext());
+        assertThat(estimate.hasNext()).isEqualTo(exact.hasNext());
+        assertThat(none.total()).isNull();
+        assertThat(estimate.total()).isGreaterThanOrEqualTo((long) (page - 1) * size + exact.records().size());
+    }
+
+    /**
+     * Newest-first pages start with the most recently created owners and walk ids downwards
+     */
+    @Property(tries = 10)
+    @Label("Newest-first pages list the latest owners first")
+    @Transactional
+    void newestFirstListsLatestOwners(
+            @ForAll @IntRange(min = 1, max = 12) int count,
+            @ForAll @IntRange(min = 1, max = 7) int size) {
+
+        String prefix = "NF" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase();
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Owner owner = new Owner();
+            owner.setCode(prefix + i);
+            owner.setName("Owner " + i);
+            created.add(0, ownerService.createOwner(owner).getId());
+        }
+
+        OffsetPage<Owner> first = ownerService.getOwners(1, size, TotalMode.NONE, true);
+        List<Long> ids = first.records().stream().map(Owner::getId).toList();
+
+        assertThat(ids).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(ids).startsWith(created.subList(0, Math.min(size, count)).toArray(Long[]::new));
+    }
+
+    /**
+     * Page sizes above the maximum are capped rather than loading the whole table
+     */
+    @Example
+    @Label("Page size is capped at the maximum")
+    @Transactional
+    void pageSizeIsCapped() {
+        String prefix = "CAP" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase();
+        for (int i = 0; i <= KeysetPage.MAX_SIZE; i++) {
+            Owner owner = new Owner();
+            owner.setCode(prefix + i);
+            owner.setName("Owner " + i);
+            ownerService.createOwner(owner);
+        }
+
+        assertThat(ownerService.searchOwners(prefix, 1, 1000, TotalMode.EXACT).records()).hasSize(KeysetPage.MAX_SIZE);
+        KeysetPage<Owner> slice = ownerService.searchOwnersAfter(prefix, null, 1000);
+        assertThat(slice.records()).hasSize(KeysetPage.MAX_SIZE);
+        assertThat(slice.hasNext()).isTrue();
+    }
+}
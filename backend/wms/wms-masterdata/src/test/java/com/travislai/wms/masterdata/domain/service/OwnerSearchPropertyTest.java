@@ -0,0 +1,76 @@
+package com.travislai.wms.masterdata.domain.service;
+
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.pagination.OffsetPage;
+import com.travislai.wms.masterdata.domain.pagination.TotalMode;
+import com.travislai.wms.masterdata.domain.search.NgramIndex;
+import net.jqwik.api.*;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property-based tests for ranked owner search
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-test.sql",
+    "spring.main.allow-bean-definition-overriding=true"
+})
+class OwnerSearchPropertyTest {
+
+    @Autowired
+    private OwnerService ownerService;
+
+    /**
+     * The database search and the in-memory index find the same owners in the same order,
+     * case-insensitively, with LIKE wildcards in the keyword matched literally
+     */
+    @Property(tries = 30)
+    @Label("Database and in-memory search rank owners identically")
+    @Transactional
+    void databaseAndIndexRankIdentically(
+            @ForAll("texts") List<String> codes,
+            @ForAll("texts") List<String> names,
+            @ForAll("keyword") String keyword) {
+
+        NgramIndex index = new NgramIndex();
+        int count = Math.min(codes.size(), names.size());
+        for (int i = 0; i < count; i++) {
+            Owner owner = new Owner();
+            // The suffix keeps codes unique
+            owner.setCode(codes.get(i) + "#" + i);
+            owner.setName(names.get(i));
+            ownerService.createOwner(owner);
+            index.put(owner.getId(), owner.getCode(), owner.getName());
+        }
+
+        OffsetPage<Owner> page = ownerService.searchOwners(keyword, 1, 100, TotalMode.EXACT);
+        NgramIndex.Result expected = index.search(keyword, 0, 100);
+
+        assertThat(page.records().stream().map(Owner::getId).toList()).containsExactlyElementsOf(expected.ids());
+        assertThat(page.total()).isEqualTo(expected.total());
+    }
+
+    @Provide
+    Arbitrary<List<String>> texts() {
+        return Arbitraries.strings().withChars("aAbB_%").ofMinLength(1).ofMaxLength(6).list().ofMaxSize(25);
+    }
+
+    @Provide
+    Arbitrary<String> keyword() {
+        return Arbitraries.strings().withChars("aAbB_%").ofMinLength(1).ofMaxLength(4);
+    }
+}
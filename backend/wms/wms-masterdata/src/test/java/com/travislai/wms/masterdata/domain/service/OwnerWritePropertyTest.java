@@ -0,0 +1,127 @@
+package com.travislai.wms.masterdata.domain.service;
+
+import com.travislai.wms.masterdata.domain.entity.Owner;
+import com.travislai.wms.masterdata.domain.exception.ResourceNotFoundException;
+import com.travislai.wms.masterdata.domain.exception.UniqueConstraintViolationException;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property-based tests for owner create, update and delete outcomes
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:schema-test.sql",
+    "spring.main.allow-bean-definition-overriding=true"
+})
+class OwnerWritePropertyTest {
+
+    @Autowired
+    private OwnerService ownerService;
+
+    /**
+     * An update with the current version returns the stored row with the next version; any other
+     * version is a conflict that leaves the row unchanged
+     */
+    @Property(tries = 30)
+    @Label("Update succeeds only with the current version and returns the stored row")
+    @Transactional
+    void updateReturnsStoredRowOrConflicts(@ForAll @IntRange(min = 0, max = 3) int updates,
+                                           @ForAll @IntRange(min = -2, max = 2) int versionOffset) {
+        Owner created = create(uniqueCode(), "Original");
+        Owner stored = ownerService.getById(created.getId());
+        for (int i = 0; i < updates; i++) {
+            stored = ownerService.updateOwner(stored.getId(), changes(stored.getCode(), "Name " + i, stored.getVersion()));
+        }
+        int version = stored.getVersion() + versionOffset;
+        String name = stored.getName();
+        
+        if (versionOffset == 0) {
+            Owner updated = ownerService.updateOwner(stored.getId(), changes(stored.getCode(), "Final", version));
+            Owner reread = ownerService.getById(stored.getId());
+            assertThat(updated.getVersion()).isEqualTo(version + 1).isEqualTo(reread.getVersion());
+            assertThat(updated.getName()).isEqualTo("Final").isEqualTo(reread.getName());
+            assertThat(updated.getCreateDate()).isEqualTo(reread.getCreateDate());
+            assertThat(updated.getCreateBy()).isEqualTo(reread.getCreateBy());
+            assertThat(updated.getUpdateDate()).isNotNull();
+            assertThat(updated.getUpdateBy()).isNotNull();
+        } else {
+            Long id = stored.getId();
+            String code = stored.getCode();
+            assertThatThrownBy(() -> ownerService.updateOwner(id, changes(code, "Final", version)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+            assertThat(ownerService.getById(id).getName()).isEqualTo(name);
+        }
+    }
+
+    /**
+     * Missing and deleted owners are not found, whatever version is sent
+     */
+    @Property(tries = 20)
+    @Label("Update and delete of missing or deleted owners are not found")
+    @Transactional
+    void missingOwnersAreNotFound(@ForAll boolean deleted) {
+        Owner owner = create(uniqueCode(), "Doomed");
+        Long id = deleted ? owner.getId() : owner.getId() + 1_000_000;
+        if (deleted) {
+            ownerService.deleteOwner(id);
+        }
+        
+        assertThatThrownBy(() -> ownerService.updateOwner(id, changes(owner.getCode(), "Renamed", 1)))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> ownerService.deleteOwner(id))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    /**
+     * Renaming onto another owner's code is rejected by the UNIQUE constraint
+     */
+    @Example
+    @Label("Update to a taken code is a unique constraint violation")
+    @Transactional
+    void updateToTakenCodeIsRejected() {
+        Owner taken = create(uniqueCode(), "Taken");
+        Owner owner = ownerService.getById(create(uniqueCode(), "Owner").getId());
+        
+        assertThatThrownBy(() -> ownerService.updateOwner(owner.getId(),
+                changes(taken.getCode(), "Owner", owner.getVersion())))
+            .isInstanceOf(UniqueConstraintViolationException.class);
+        assertThat(ownerService.getById(owner.getId()).getCode()).isEqualTo(owner.getCode());
+    }
+
+    private Owner create(String code, String name) {
+        Owner owner = new Owner();
+        owner.setCode(code);
+        owner.setName(name);
+        return ownerService.createOwner(owner);
+    }
+
+    private static Owner changes(String code, String name, Integer version) {
+        Owner owner = new Owner();
+        owner.setCode(code);
+        owner.setName(name);
+        owner.setVersion(version);
+        return owner;
+    }
+
+    private static String uniqueCode() {
+        return "WR" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    }
+}
@@ -2,6 +2,9 @@
 -- This schema is used for property-based testing
 
 -- Drop tables if they exist
+DROP TABLE IF EXISTS wms_barcode CASCADE;
+DROP TABLE IF EXISTS wms_product CASCADE;
+DROP TABLE IF EXISTS wms_product_category CASCADE;
 DROP TABLE IF EXISTS wms_owner CASCADE;
 
 -- Owner (货主) table
@@ -19,3 +22,61 @@ CREATE TABLE wms_owner (
 
 -- Create index on delete_flag for logical delete queries
 CREATE INDEX idx_owner_delete_flag ON wms_owner(delete_flag);
+
+-- Product category (产品类别) table
+CREATE TABLE wms_product_category (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code VARCHAR(50) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    parent_id BIGINT,
+    level INTEGER DEFAULT 1,
+    path VARCHAR(500),
+    sort_order INTEGER DEFAULT 0,
+    create_date TIMESTAMP,
+    create_by VARCHAR(50),
+    update_date TIMESTAMP,
+    update_by VARCHAR(50),
+    delete_flag INTEGER DEFAULT 0,
+    version INTEGER DEFAULT 0
+);
+
+-- Product (产品/物料) table
+CREATE TABLE wms_product (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id BIGINT NOT NULL,
+    category_id BIGINT,
+    code VARCHAR(50) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    short_name VARCHAR(100),
+    unit VARCHAR(20) NOT NULL,
+    spec TEXT,
+    batch_rules TEXT,
+    shelf_life_days INTEGER,
+    storage_condition VARCHAR(50),
+    create_date TIMESTAMP,
+    create_by VARCHAR(50),
+    update_date TIMESTAMP,
+    update_by VARCHAR(50),
+    delete_flag INTEGER DEFAULT 0,
+    version INTEGER DEFAULT 0,
+    UNIQUE (owner_id, code),
+    FOREIGN KEY (owner_id) REFERENCES wms_owner(id),
+    FOREIGN KEY (category_id) REFERENCES wms_product_category(id)
+);
+
+-- Barcode (条码) table
+CREATE TABLE wms_barcode (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    barcode VARCHAR(100) NOT NULL UNIQUE,
+    type VARCHAR(50),
+    is_primary INTEGER DEFAULT 0,
+    remark VARCHAR(500),
+    create_date TIMESTAMP,
+    create_by VARCHAR(50),
+    update_date TIMESTAMP,
+    update_by VARCHAR(50),
+    delete_flag INTEGER DEFAULT 0,
+    version INTEGER DEFAULT 0,
+    FOREIGN KEY (product_id) REFERENCES wms_product(id)
+);
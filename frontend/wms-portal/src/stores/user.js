@@ -1,5 +1,5 @@
 import { defineStore } from 'pinia'
-import { getMenus, getProfile, login as loginApi, logout as logoutApi } from '../api/auth'
+import { getBootstrap, login as loginApi, logout as logoutApi } from '../api/auth'
 
 export const useUserStore = defineStore('user', {
   state: () => ({
@@ -30,9 +30,9 @@ export const useUserStore = defineStore('user', {
       if (!this.token) {
         throw new Error('token missing')
       }
-      const [{ data: profile }, { data: menus }] = await Promise.all([getProfile(), getMenus()])
-      this.profile = profile
-      this.menus = menus
+      const { data } = await getBootstrap()
+      this.profile = data.profile
+      this.menus = data.menus
     },
     async logout() {
       await logoutApi()
@@ -0,0 +1,14 @@
+-- Single-row path (PUT /owners/{id}): read the owner, check the new code
+-- is free, update guarded by the version just read, read the row back.
+-- One owner per transaction, four round trips.
+\set id random(1, :owners)
+BEGIN;
+SELECT id, code, name, create_date, create_by, update_date, update_by, delete_flag, version
+FROM wms_owner WHERE id = :id AND delete_flag = 0 \gset cur_
+SELECT COUNT(*) FROM wms_owner WHERE delete_flag = 0 AND code = :cur_code AND id <> :id;
+UPDATE wms_owner
+SET code = :cur_code, name = 'Renamed ' || :id, version = version + 1, update_date = now(), update_by = 'bench'
+WHERE id = :id AND version = :cur_version AND delete_flag = 0;
+SELECT id, code, name, create_date, create_by, update_date, update_by, delete_flag, version
+FROM wms_owner WHERE id = :id AND delete_flag = 0;
+COMMIT;
@@ -0,0 +1,75 @@
+#!/bin/bash
+
+# =============================================
+# Owner Batch Update Benchmark
+# =============================================
+# Description:
+#   Compares the single-row owner update path (four statements and a
+#   commit per owner) with the batch update path (one pipelined batch of
+#   conditional UPDATEs per chunk, one commit per chunk) using pgbench.
+#   Compare rows/s: the single-row run updates one owner per transaction,
+#   the batch run CHUNK owners per transaction.
+#
+#   pgbench cannot carry each row's version into the batch, so the batch
+#   script guards on "version >= 0"; the statement still does the same
+#   primary key lookup, filter and write as "version = ?".
+#
+# Requirements:
+#   PostgreSQL 14+ client (pgbench \startpipeline)
+#
+# Environment Variables:
+#   DB_HOST, DB_PORT, DB_USER  - Connection (default: localhost, 5432, postgres)
+#   BENCH_DB                   - Scratch database, dropped and recreated (default: batch_update_bench)
+#   OWNERS                     - Dataset size (default: 1000000)
+#   CHUNK                      - Updates per batch, as wms.masterdata.bulk.update-chunk-size (default: 500)
+#   CLIENTS, DURATION          - pgbench clients and seconds per run (default: 8, 30)
+# =============================================
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+PROJECT_ROOT="$(cd "$SCRIPT_DIR/../../.." && pwd)"
+SCHEMA="$PROJECT_ROOT/backend/wms/wms-masterdata/src/main/resources/master_data_init.sql"
+
+DB_HOST="${DB_HOST:-localhost}"
+DB_PORT="${DB_PORT:-5432}"
+DB_USER="${DB_USER:-postgres}"
+BENCH_DB="${BENCH_DB:-batch_update_bench}"
+OWNERS="${OWNERS:-1000000}"
+CHUNK="${CHUNK:-500}"
+CLIENTS="${CLIENTS:-8}"
+DURATION="${DURATION:-30}"
+
+PSQL=(psql -h "$DB_HOST" -p "$DB_PORT" -U "$DB_USER" -v ON_ERROR_STOP=1 -q)
+PGBENCH=(pgbench -h "$DB_HOST" -p "$DB_PORT" -U "$DB_USER" -n -M prepared -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" -D owners="$OWNERS")
+
+AFTER_SQL="$(mktemp)"
+trap 'rm -f "$AFTER_SQL"' EXIT
+
+# Batch path: CHUNK consecutive owners from a random start, one pipeline and one commit
+{
+    echo "\\set start random(1, $OWNERS - $CHUNK)"
+    echo "\\startpipeline"
+    echo "BEGIN;"
+    for ((i = 0; i < CHUNK; i++)); do
+        echo "UPDATE wms_owner SET code = COALESCE(NULL, code), name = COALESCE('Renamed ' || :start, name), version = version + 1, update_date = now(), update_by = 'bench' WHERE id = :start + $i AND version >= 0 AND delete_flag = 0;"
+    done
+    echo "COMMIT;"
+    echo "\\endpipeline"
+} > "$AFTER_SQL"
+
+echo "Recreating $BENCH_DB ..."
+"${PSQL[@]}" -d postgres -c "DROP DATABASE IF EXISTS $BENCH_DB" -c "CREATE DATABASE $BENCH_DB"
+"${PSQL[@]}" -d "$BENCH_DB" -f "$SCHEMA"
+
+echo "Seeding $OWNERS owners ..."
+"${PSQL[@]}" -d "$BENCH_DB" -v owners="$OWNERS" -f "$SCRIPT_DIR/seed.sql"
+"${PSQL[@]}" -d "$BENCH_DB" -c "VACUUM ANALYZE wms_owner"
+
+echo
+echo "=== before: single-row updates (rows/s = tps) ==="
+"${PGBENCH[@]}" -f "$SCRIPT_DIR/before.sql" "$BENCH_DB"
+
+echo
+echo "=== after: batched updates, $CHUNK per batch (rows/s = tps x $CHUNK) ==="
+"${PGBENCH[@]}" -f "$AFTER_SQL" "$BENCH_DB"
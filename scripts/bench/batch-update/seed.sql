@@ -0,0 +1,12 @@
+-- =============================================
+-- Owner Batch Update Benchmark Dataset
+-- =============================================
+-- Description: Seeds :owners active owners into a masterdata schema
+--              created by master_data_init.sql.
+-- =============================================
+
+TRUNCATE wms_owner RESTART IDENTITY CASCADE;
+
+INSERT INTO wms_owner (code, name, create_by)
+SELECT 'OW' || lpad(g::text, 8, '0'), 'Owner ' || g, 'bench'
+FROM generate_series(1, :owners) g;
@@ -0,0 +1,11 @@
+-- Post-change access pattern: the single join issued by
+-- SysUserRoleMapper.selectPermissionRowsByUserId.
+\set uid random(1, :users)
+SELECT r.id, r.code, r.name, r.status,
+       m.id, m.parent_id, m.title, m.path, m.component, m.type, m.permission, m.sort, m.icon
+FROM sys_user_role ur
+JOIN sys_role r ON r.id = ur.role_id
+LEFT JOIN sys_role_menu rm ON rm.role_id = r.id
+LEFT JOIN sys_menu m ON m.id = rm.menu_id
+WHERE ur.user_id = :uid
+ORDER BY r.id, m.sort, m.id;
@@ -0,0 +1,13 @@
+-- Pre-change access pattern: the two statements issued by the old
+-- RoleServiceImpl.findByUserId and MenuServiceImpl.findByRoleIds, each an
+-- inSql subquery with the ids formatted into the SQL text.
+-- pgbench can only carry values between statements through a single-row
+-- \gset, so the role rows come back aggregated next to the id list that the
+-- second statement embeds; the inner query is the one the old code ran.
+\set uid random(1, :users)
+SELECT coalesce(string_agg(r.id::text, ','), '0') AS role_ids, json_agg(r) AS roles
+FROM (SELECT id, code, name, status FROM sys_role
+      WHERE (id IN (select role_id from sys_user_role where user_id = :uid))) r \gset
+SELECT id, parent_id, title, path, component, type, permission, sort, icon FROM sys_menu
+WHERE (id IN (select menu_id from sys_role_menu where role_id in (:role_ids)))
+ORDER BY sort ASC;
@@ -0,0 +1,68 @@
+#!/bin/bash
+
+# =============================================
+# RBAC Lookup Benchmark
+# =============================================
+# Description:
+#   Seeds a large RBAC dataset into a scratch database and compares, using
+#   pgbench, the two old inSql statements (ids formatted into the SQL text,
+#   simple protocol) with the single parameterized join (prepared protocol).
+#   The join runs both without and with the join indexes, so the gain from
+#   fewer round trips and from the indexes can be told apart.
+#
+# Environment Variables:
+#   DB_HOST, DB_PORT, DB_USER  - Connection (default: localhost, 5432, postgres)
+#   BENCH_DB                   - Scratch database, dropped and recreated (default: rbac_bench)
+#   USERS, ROLES, MENUS        - Dataset size (default: 100000, 500, 2000)
+#   ROLES_PER_USER             - Roles assigned to each user (default: 3)
+#   MENUS_PER_ROLE             - Menus granted to each role (default: 40)
+#   CLIENTS, DURATION          - pgbench clients and seconds per run (default: 16, 30)
+# =============================================
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+PROJECT_ROOT="$(cd "$SCRIPT_DIR/../../.." && pwd)"
+SCHEMA="$PROJECT_ROOT/backend/system/system-auth/src/main/resources/auth_init.sql"
+
+DB_HOST="${DB_HOST:-localhost}"
+DB_PORT="${DB_PORT:-5432}"
+DB_USER="${DB_USER:-postgres}"
+BENCH_DB="${BENCH_DB:-rbac_bench}"
+USERS="${USERS:-100000}"
+ROLES="${ROLES:-500}"
+MENUS="${MENUS:-2000}"
+ROLES_PER_USER="${ROLES_PER_USER:-3}"
+MENUS_PER_ROLE="${MENUS_PER_ROLE:-40}"
+CLIENTS="${CLIENTS:-16}"
+DURATION="${DURATION:-30}"
+
+PSQL=(psql -h "$DB_HOST" -p "$DB_PORT" -U "$DB_USER" -v ON_ERROR_STOP=1 -q)
+PGBENCH=(pgbench -h "$DB_HOST" -p "$DB_PORT" -U "$DB_USER" -n -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" -D users="$USERS")
+
+echo "Recreating $BENCH_DB ..."
+"${PSQL[@]}" -d postgres -c "DROP DATABASE IF EXISTS $BENCH_DB" -c "CREATE DATABASE $BENCH_DB"
+"${PSQL[@]}" -d "$BENCH_DB" -f "$SCHEMA"
+
+echo "Seeding $USERS users, $ROLES roles, $MENUS menus ..."
+"${PSQL[@]}" -d "$BENCH_DB" \
+    -v users="$USERS" -v roles="$ROLES" -v menus="$MENUS" \
+    -v roles_per_user="$ROLES_PER_USER" -v menus_per_role="$MENUS_PER_ROLE" \
+    -f "$SCRIPT_DIR/seed.sql"
+
+echo
+echo "=== before: two inSql statements, no join indexes ==="
+"${PSQL[@]}" -d "$BENCH_DB" -c "DROP INDEX IF EXISTS idx_user_role_user_id" -c "DROP INDEX IF EXISTS idx_role_menu_role_id" -c "ANALYZE"
+"${PGBENCH[@]}" -M simple -f "$SCRIPT_DIR/before.sql" "$BENCH_DB"
+
+echo
+echo "=== join only: single parameterized join, no join indexes ==="
+"${PGBENCH[@]}" -M prepared -f "$SCRIPT_DIR/after.sql" "$BENCH_DB"
+
+echo
+echo "=== after: single parameterized join, join indexes ==="
+"${PSQL[@]}" -d "$BENCH_DB" \
+    -c "CREATE INDEX IF NOT EXISTS idx_user_role_user_id ON sys_user_role(user_id, role_id)" \
+    -c "CREATE INDEX IF NOT EXISTS idx_role_menu_role_id ON sys_role_menu(role_id, menu_id)" \
+    -c "ANALYZE"
+"${PGBENCH[@]}" -M prepared -f "$SCRIPT_DIR/after.sql" "$BENCH_DB"
@@ -0,0 +1,34 @@
+-- =============================================
+-- RBAC Benchmark Dataset
+-- =============================================
+-- Description: Seeds a large RBAC dataset into an auth schema created
+--              by auth_init.sql. Sizes are passed as psql variables:
+--              users, roles, menus, roles_per_user, menus_per_role
+-- =============================================
+
+TRUNCATE sys_role_menu, sys_user_role, sys_menu, sys_role, sys_user RESTART IDENTITY CASCADE;
+
+INSERT INTO sys_user (username, password, nickname)
+SELECT 'bench_' || g, 'x', 'Bench ' || g
+FROM generate_series(1, :users) g;
+
+INSERT INTO sys_role (code, name)
+SELECT 'ROLE_' || g, 'Role ' || g
+FROM generate_series(1, :roles) g;
+
+INSERT INTO sys_menu (parent_id, title, path, component, type, permission, sort, icon)
+SELECT CASE WHEN g <= 50 THEN NULL ELSE 1 + (g % 50) END,
+       'Menu ' || g, '/m/' || g, 'view/' || g,
+       CASE WHEN g % 4 = 0 THEN 'BUTTON' ELSE 'MENU' END,
+       'perm:' || g, g % 20, 'icon'
+FROM generate_series(1, :menus) g;
+
+INSERT INTO sys_user_role (user_id, role_id)
+SELECT u, 1 + ((u * 7919 + k * 104729) % :roles)
+FROM generate_series(1, :users) u, generate_series(1, :roles_per_user) k;
+
+INSERT INTO sys_role_menu (role_id, menu_id)
+SELECT r, 1 + ((r * 31 + k * 977) % :menus)
+FROM generate_series(1, :roles) r, generate_series(1, :menus_per_role) k;
+
+ANALYZE sys_user, sys_role, sys_menu, sys_user_role, sys_role_menu;
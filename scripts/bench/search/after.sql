@@ -0,0 +1,19 @@
+-- Post-change access pattern: OwnerMapper.searchRanked and
+-- OwnerMapper.countMatches, served by the partial trigram GIN indexes.
+\set n random(1, 99999)
+SELECT id, code, name, create_date, create_by, update_date, update_by, delete_flag, version
+FROM wms_owner
+WHERE delete_flag = 0
+  AND (code ILIKE '%' || :n || '%' OR name ILIKE '%' || :n || '%')
+ORDER BY CASE
+           WHEN lower(code) = :n::text THEN 0
+           WHEN lower(code) LIKE :n || '%' THEN 1
+           WHEN lower(name) = :n::text THEN 2
+           WHEN lower(name) LIKE :n || '%' THEN 3
+           WHEN lower(code) LIKE '%' || :n || '%' THEN 4
+           ELSE 5
+         END,
+         id
+LIMIT 10 OFFSET 0;
+SELECT COUNT(*) FROM wms_owner
+WHERE delete_flag = 0 AND (code ILIKE '%' || :n || '%' OR name ILIKE '%' || :n || '%');
@@ -0,0 +1,10 @@
+-- Pre-change access pattern: case-sensitive LIKE on code or name, no
+-- trigram indexes, id order, followed by the COUNT of the page query.
+\set n random(1, 99999)
+SELECT id, code, name, create_date, create_by, update_date, update_by, delete_flag, version
+FROM wms_owner
+WHERE delete_flag = 0 AND (code LIKE '%' || :n || '%' OR name LIKE '%' || :n || '%')
+ORDER BY id
+LIMIT 10 OFFSET 0;
+SELECT COUNT(*) FROM wms_owner
+WHERE delete_flag = 0 AND (code LIKE '%' || :n || '%' OR name LIKE '%' || :n || '%');
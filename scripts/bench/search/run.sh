@@ -0,0 +1,54 @@
+#!/bin/bash
+
+# =============================================
+# Owner Search Benchmark
+# =============================================
+# Description:
+#   Seeds a large owner table into a scratch database and compares the
+#   keyword search without trigram indexes (LIKE, id order) with the ranked
+#   ILIKE search served by the pg_trgm GIN indexes using pgbench.
+#
+# Environment Variables:
+#   DB_HOST, DB_PORT, DB_USER  - Connection (default: localhost, 5432, postgres)
+#   BENCH_DB                   - Scratch database, dropped and recreated (default: search_bench)
+#   OWNERS                     - Dataset size (default: 1000000)
+#   CLIENTS, DURATION          - pgbench clients and seconds per run (default: 16, 30)
+# =============================================
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+PROJECT_ROOT="$(cd "$SCRIPT_DIR/../../.." && pwd)"
+SCHEMA="$PROJECT_ROOT/backend/wms/wms-masterdata/src/main/resources/master_data_init.sql"
+
+DB_HOST="${DB_HOST:-localhost}"
+DB_PORT="${DB_PORT:-5432}"
+DB_USER="${DB_USER:-postgres}"
+BENCH_DB="${BENCH_DB:-search_bench}"
+OWNERS="${OWNERS:-1000000}"
+CLIENTS="${CLIENTS:-16}"
+DURATION="${DURATION:-30}"
+
+PSQL=(psql -h "$DB_HOST" -p "$DB_PORT" -U "$DB_USER" -v ON_ERROR_STOP=1 -q)
+PGBENCH=(pgbench -h "$DB_HOST" -p "$DB_PORT" -U "$DB_USER" -n -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION")
+
+echo "Recreating $BENCH_DB ..."
+"${PSQL[@]}" -d postgres -c "DROP DATABASE IF EXISTS $BENCH_DB" -c "CREATE DATABASE $BENCH_DB"
+"${PSQL[@]}" -d "$BENCH_DB" -f "$SCHEMA"
+
+echo "Seeding $OWNERS owners ..."
+"${PSQL[@]}" -d "$BENCH_DB" -v owners="$OWNERS" -f "$SCRIPT_DIR/seed.sql"
+
+echo
+echo "=== before: LIKE, no trigram indexes ==="
+"${PSQL[@]}" -d "$BENCH_DB" \
+    -c "DROP INDEX IF EXISTS idx_owner_code_trgm" -c "DROP INDEX IF EXISTS idx_owner_name_trgm" -c "ANALYZE"
+"${PGBENCH[@]}" -M prepared -f "$SCRIPT_DIR/before.sql" "$BENCH_DB"
+
+echo
+echo "=== after: ranked ILIKE, trigram GIN indexes ==="
+"${PSQL[@]}" -d "$BENCH_DB" \
+    -c "CREATE INDEX IF NOT EXISTS idx_owner_code_trgm ON wms_owner USING gin (code gin_trgm_ops) WHERE delete_flag = 0" \
+    -c "CREATE INDEX IF NOT EXISTS idx_owner_name_trgm ON wms_owner USING gin (name gin_trgm_ops) WHERE delete_flag = 0" \
+    -c "ANALYZE"
+"${PGBENCH[@]}" -M prepared -f "$SCRIPT_DIR/after.sql" "$BENCH_DB"
@@ -0,0 +1,19 @@
+-- =============================================
+-- Owner Search Benchmark Dataset
+-- =============================================
+-- Description: Seeds :owners owners into a masterdata schema created by
+--              master_data_init.sql. Codes are sequential, names are
+--              built from a small word list so keywords hit a realistic
+--              share of rows; every 20th owner is logically deleted.
+-- =============================================
+
+TRUNCATE wms_owner RESTART IDENTITY CASCADE;
+
+INSERT INTO wms_owner (code, name, create_by, delete_flag)
+SELECT 'OW' || lpad(g::text, 8, '0'),
+       (ARRAY['North', 'South', 'East', 'West', 'Central', 'Pacific', 'Atlantic', 'Harbor'])[1 + g % 8] || ' '
+           || (ARRAY['Foods', 'Logistics', 'Retail', 'Pharma', 'Textiles', 'Motors', 'Electronics'])[1 + (g / 8) % 7] || ' '
+           || (g * 7919 % 100000)::text,
+       'bench',
+       CASE WHEN g % 20 = 0 THEN 1 ELSE 0 END
+FROM generate_series(1, :owners) g;
@@ -32,7 +32,7 @@ stop_existing_services() {
     local attempt=1
     while (( attempt <= max_attempts )); do
         local ports_in_use=0
-        for port in 5173 9000 9001; do
+        for port in 5173 9000 9090 9001; do
             if lsof -i :${port} >/dev/null 2>&1; then
                 ((ports_in_use++))
             fi
@@ -89,7 +89,7 @@ start_backend_services() {
     fi
 
     if kill -0 ${GATEWAY_PID} 2>/dev/null; then
-        if curl -s http://localhost:9000/actuator/health 2>/dev/null | grep -q '"status":"UP"'; then
+        if curl -s http://localhost:9090/actuator/health 2>/dev/null | grep -q '"status":"UP"'; then
             echo "  ✅ system-gateway (PID: ${GATEWAY_PID}) - 运行正常"
         else
             echo "  ❌ system-gateway (PID: ${GATEWAY_PID}) - 健康检查失败"